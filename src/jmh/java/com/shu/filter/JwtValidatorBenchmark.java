@@ -0,0 +1,96 @@
+package com.shu.filter;
+
+import com.shu.constant.JwtConstant;
+import com.shu.service.auth.JwtProvider;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtValidatorBenchmark
+ *
+ * Drives {@link JwtValidator#doFilterInternal} through mock servlet objects.
+ *
+ * - verifiedToken : token already in the VerifiedTokenCache (steady-state till traffic)
+ * - firstSeenToken: cache emptied before every call (full signature check + claim parsing)
+ * - noToken       : anonymous request (baseline cost of the filter itself)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtValidatorBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private JwtValidator cachedValidator;
+    private JwtValidator uncachedValidator;
+    private VerifiedTokenCache uncachedTokens;
+
+    private MockHttpServletRequest authenticatedRequest;
+    private MockHttpServletRequest anonymousRequest;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() throws Exception {
+        String jwt = new JwtProvider(Duration.ofMinutes(15), Duration.ofHours(12))
+                .generateToken(new UsernamePasswordAuthenticationToken(
+                        "cashier@shu.com", null,
+                        AuthorityUtils.createAuthorityList("ROLE_CASHIER")), "session-1");
+
+        cachedValidator = new JwtValidator(new VerifiedTokenCache(1024));
+        uncachedTokens = new VerifiedTokenCache(1024);
+        uncachedValidator = new JwtValidator(uncachedTokens);
+
+        authenticatedRequest = new MockHttpServletRequest("GET", "/api/products");
+        authenticatedRequest.addHeader(JwtConstant.AUTH_HEADER, JwtConstant.BEARER_PREFIX + jwt);
+        anonymousRequest = new MockHttpServletRequest("GET", "/api/products");
+        response = new MockHttpServletResponse();
+
+        // Warm the cache once so verifiedToken only measures hits
+        cachedValidator.doFilterInternal(authenticatedRequest, response, NO_OP_CHAIN);
+    }
+
+    // Each call replaces the Authentication in the thread's context, nothing piles up between calls;
+    // a per-invocation hook would add its own timestamping to a sub-microsecond measurement
+    @TearDown(Level.Iteration)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void verifiedToken() throws Exception {
+        cachedValidator.doFilterInternal(authenticatedRequest, response, NO_OP_CHAIN);
+    }
+
+    @Benchmark
+    public void firstSeenToken() throws Exception {
+        uncachedTokens.clear();
+        uncachedValidator.doFilterInternal(authenticatedRequest, response, NO_OP_CHAIN);
+    }
+
+    @Benchmark
+    public void noToken() throws Exception {
+        cachedValidator.doFilterInternal(anonymousRequest, response, NO_OP_CHAIN);
+    }
+}
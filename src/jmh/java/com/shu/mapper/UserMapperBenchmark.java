@@ -0,0 +1,55 @@
+package com.shu.mapper;
+
+import com.shu.domain.UserRole;
+import com.shu.model.dto.UserDto;
+import com.shu.model.entity.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * UserMapperBenchmark
+ *
+ * Cost of mapping a User entity into the UserDto returned by every auth response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    private User user;
+
+    @Setup
+    public void setup() {
+        LocalDateTime now = LocalDateTime.now();
+
+        user = new User();
+        user.setId(42L);
+        user.setFullName("Till Cashier");
+        user.setEmail("cashier@shu.com");
+        user.setPhone("+91 90000 00000");
+        user.setRole(UserRole.ROLE_CASHIER);
+        user.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
+        user.setLastLogin(now);
+    }
+
+    @Benchmark
+    public UserDto toDTO() {
+        return UserMapper.toDTO(user);
+    }
+}
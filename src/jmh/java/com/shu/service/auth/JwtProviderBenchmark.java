@@ -0,0 +1,55 @@
+package com.shu.service.auth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtProviderBenchmark
+ *
+ * Measures token issuing (login/signup) and token reading costs of {@link JwtProvider}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtProviderBenchmark {
+
+    private JwtProvider jwtProvider;
+    private Authentication authentication;
+    private String bearerToken;
+
+    @Setup
+    public void setup() {
+        jwtProvider = new JwtProvider(Duration.ofMinutes(15), Duration.ofHours(12));
+        authentication = new UsernamePasswordAuthenticationToken(
+                "cashier@shu.com", null,
+                AuthorityUtils.createAuthorityList("ROLE_CASHIER"));
+        bearerToken = "Bearer " + jwtProvider.generateToken(authentication, "session-1");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtProvider.generateToken(authentication, "session-1");
+    }
+
+    @Benchmark
+    public String getEmailFromToken() {
+        return jwtProvider.getEmailFromToken(bearerToken);
+    }
+}
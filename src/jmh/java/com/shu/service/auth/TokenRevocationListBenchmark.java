@@ -0,0 +1,63 @@
+package com.shu.service.auth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TokenRevocationListBenchmark
+ *
+ * Cost of the per-request revocation check in JwtValidator.
+ *
+ * - liveToken   : token that is not revoked (nearly all traffic: answered by the Bloom filter)
+ * - revokedToken: token whose session was revoked (Bloom filter hit + exact set lookup)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenRevocationListBenchmark {
+
+    @Param({"1000", "100000"})
+    private int revocations;
+
+    private TokenRevocationList list;
+    private TokenIds liveToken;
+    private TokenIds revokedToken;
+    private long now;
+
+    @Setup
+    public void setup() {
+        now = System.currentTimeMillis();
+        list = new TokenRevocationList(revocations);
+        for (int i = 0; i < revocations; i++) {
+            list.add(TokenRevocationList.SESSION_PREFIX + "revoked-session-" + i, now, now + 3_600_000);
+        }
+        liveToken = new TokenIds("8d0c3f4e-2b1a-4c55-9e0f-1f6b7a2d9c11", "5e9b1c2d-7f3a-4e8b-a1d0-c2b3e4f5a6b7",
+                "cashier@shu.com", now / 1000 - 60, now + 900_000);
+        revokedToken = new TokenIds("8d0c3f4e-2b1a-4c55-9e0f-1f6b7a2d9c12", "revoked-session-42",
+                "cashier@shu.com", now / 1000 - 60, now + 900_000);
+    }
+
+    @Benchmark
+    public boolean liveToken() {
+        return list.isRevoked(liveToken, now);
+    }
+
+    @Benchmark
+    public boolean revokedToken() {
+        return list.isRevoked(revokedToken, now);
+    }
+}
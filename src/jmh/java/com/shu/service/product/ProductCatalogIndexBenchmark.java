@@ -0,0 +1,99 @@
+package com.shu.service.product;
+
+import com.shu.model.dto.ProductDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductCatalogIndexBenchmark
+ *
+ * Barcode / SKU lookups against a catalog of {@code products} items.
+ *
+ * - barcodeScan    : EAN-13 lookup in the index (the till scan path)
+ * - skuLookup      : mixed-case SKU lookup in the index
+ * - hashMapBaseline: the same barcodes in a plain HashMap<String, ProductDto>
+ *                    (flattered: the key Strings are reused, so their hash codes are cached;
+ *                    a real scan arrives as a new String)
+ *
+ * Look at gc.alloc.rate.norm: index lookups should allocate ~0 B/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductCatalogIndexBenchmark {
+
+    @Param({"200000"})
+    private int products;
+
+    private ProductCatalogIndex index;
+    private Map<String, ProductDto> hashMap;
+
+    private String[] barcodes;
+    private String[] skus;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        index = new ProductCatalogIndex();
+        hashMap = new HashMap<>();
+        barcodes = new String[products];
+        skus = new String[products];
+
+        List<ProductDto> all = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            ProductDto product = new ProductDto();
+            product.setId((long) i + 1);
+            product.setName("Product " + i);
+            product.setSku("SKU-" + i);
+            product.setBarcode(String.format("890%010d", i));
+            product.setSellingPrice(BigDecimal.TEN);
+            product.setActive(true);
+            all.add(product);
+            hashMap.put(product.getBarcode(), product);
+
+            barcodes[i] = product.getBarcode();
+            skus[i] = "sku-" + i;
+        }
+        index.upsertAll(all);
+    }
+
+    @Benchmark
+    public ProductDto barcodeScan() {
+        return index.findByBarcode(barcodes[next()]);
+    }
+
+    @Benchmark
+    public ProductDto skuLookup() {
+        return index.findBySku(skus[next()]);
+    }
+
+    @Benchmark
+    public ProductDto hashMapBaseline() {
+        return hashMap.get(barcodes[next()]);
+    }
+
+    private int next() {
+        int i = cursor;
+        cursor = i + 1 == products ? 0 : i + 1;
+        return i;
+    }
+}
@@ -0,0 +1,140 @@
+package com.shu.service.product;
+
+import com.shu.model.dto.ProductDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductSearchIndexBenchmark
+ *
+ * Search-as-you-type latency over a synthetic catalog of {@code products} SKUs
+ * (brand + adjective + noun + variant + pack size, ~1.2k distinct words plus model codes).
+ *
+ * - typing : every prefix of a real query, as the cashier types it ("m", "mi", ... "milk choc")
+ * - typo   : complete queries with one or two typos ("choclate", "strawbery jam")
+ *
+ * Mode.SampleTime reports the latency distribution: the target is p(0.99) &lt; 5 ms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSearchIndexBenchmark {
+
+    private static final String[] BRANDS = {
+            "Amul", "Britannia", "Cadbury", "Nestle", "Parle", "Haldiram", "Tata", "Dabur", "Patanjali",
+            "Mother Dairy", "Kissan", "Maggi", "Lays", "Kurkure", "Bingo", "Sunfeast", "Colgate", "Dove",
+            "Surf Excel", "Ariel", "Vim", "Lifebuoy", "Dettol", "Fortune", "Aashirvaad", "Everest", "MDH"
+    };
+    private static final String[] ADJECTIVES = {
+            "Fresh", "Toned", "Organic", "Classic", "Premium", "Spicy", "Salted", "Sweet", "Roasted",
+            "Crunchy", "Creamy", "Low Fat", "Sugar Free", "Masala", "Tangy", "Herbal", "Natural", "Instant"
+    };
+    private static final String[] NOUNS = {
+            "Milk", "Bread", "Butter", "Cheese", "Paneer", "Curd", "Chocolate", "Cookies", "Biscuits",
+            "Noodles", "Chips", "Namkeen", "Tea", "Coffee", "Honey", "Jam", "Ketchup", "Atta", "Rice",
+            "Dal", "Oil", "Ghee", "Soap", "Shampoo", "Toothpaste", "Detergent", "Juice", "Milkshake",
+            "Icecream", "Yogurt", "Cornflakes", "Oats", "Muesli", "Pickle", "Sauce", "Vinegar", "Salt",
+            "Sugar", "Jaggery", "Cashew", "Almonds", "Raisins", "Strawberry", "Mango", "Orange", "Lemon"
+    };
+    private static final String[] CATEGORIES = {
+            "Dairy", "Bakery", "Snacks", "Beverages", "Staples", "Personal Care", "Household", "Confectionery"
+    };
+    private static final String[] SIZES = {"100g", "200g", "500g", "1kg", "250ml", "500ml", "1l", "2l", "Pack of 6"};
+
+    private static final String[] TYPING = prefixesOf("milk choc", "britannia butter cookies", "toned milk 500ml",
+            "masala noodles", "organic honey");
+    private static final String[] TYPOS = {
+            "choclate", "strawbery jam", "britania cookis", "noodels masala", "tothpaste", "detergnt",
+            "milkshak mango", "premum coffe", "paner fresh", "cornflaks"
+    };
+
+    @Param({"200000"})
+    private int products;
+
+    private ProductSearchIndex index;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int typing;
+        int typo;
+    }
+
+    @Setup
+    public void setup() {
+        Random random = new Random(7);
+        index = new ProductSearchIndex();
+
+        List<ProductDto> batch = new ArrayList<>(10_000);
+        for (int i = 0; i < products; i++) {
+            String brand = pick(BRANDS, random);
+            ProductDto product = new ProductDto();
+            product.setId((long) i + 1);
+            product.setName(brand + " " + pick(ADJECTIVES, random) + " " + pick(NOUNS, random)
+                    + " " + pick(SIZES, random) + " " + modelCode(random));
+            product.setSku("SKU-" + i);
+            product.setCategory(pick(CATEGORIES, random));
+            product.setBrand(brand);
+            product.setSellingPrice(BigDecimal.TEN);
+            product.setActive(true);
+            batch.add(product);
+            if (batch.size() == 10_000) {
+                index.upsertAll(batch);
+                batch.clear();
+            }
+        }
+        index.upsertAll(batch);
+    }
+
+    @Benchmark
+    public List<ProductDto> typing(Cursor cursor) {
+        String query = TYPING[cursor.typing];
+        cursor.typing = (cursor.typing + 1) % TYPING.length;
+        return index.search(query, 20);
+    }
+
+    @Benchmark
+    public List<ProductDto> typo(Cursor cursor) {
+        String query = TYPOS[cursor.typo];
+        cursor.typo = (cursor.typo + 1) % TYPOS.length;
+        return index.search(query, 20);
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Variant codes like "X4821" make the vocabulary large, as in a real catalog.
+     */
+    private static String modelCode(Random random) {
+        return (char) ('A' + random.nextInt(26)) + String.valueOf(1000 + random.nextInt(9000));
+    }
+
+    private static String[] prefixesOf(String... queries) {
+        List<String> prefixes = new ArrayList<>();
+        for (String query : queries) {
+            for (int i = 2; i <= query.length(); i++) {
+                prefixes.add(query.substring(0, i));
+            }
+        }
+        return prefixes.toArray(String[]::new);
+    }
+}
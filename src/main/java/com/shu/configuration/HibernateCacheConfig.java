@@ -0,0 +1,116 @@
+package com.shu.configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.shu.constant.CacheConstant;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ *
+ * HIBERNATE SECOND-LEVEL CACHE:
+ * Read-mostly entities (users, products) and their lookup queries are kept in per-node Caffeine
+ * caches (through JCache), so repeated reads cost no SQL.
+ *
+ * - Entity regions     : entities cached by id (@Cache on the entity, READ_WRITE).
+ * - Query regions      : ids returned by cacheable queries (e.g. UserRepository.findByEmail); the entities
+ *                        themselves then come from the entity region. A query result is dropped as soon as
+ *                        Hibernate writes to one of its tables on this node (update timestamps region).
+ * - Size / TTL per region: pos.cache.l2.regions.<region>.max-size / .ttl. The cache is local to each node:
+ *                        a change made on another node, or by plain JDBC, is seen here after the TTL.
+ *                        Query regions therefore get a short TTL (a cached "not found" must not hide a user
+ *                        or product created on another node for long).
+ * - Metrics            : "cache.*" per region (cache = hibernate.<region>): gets by result, puts, evictions, size.
+ *
+ * Disabled with pos.cache.l2.enabled=false (Hibernate then reads everything from the database).
+ */
+@Configuration
+@ConditionalOnProperty(name = "pos.cache.l2.enabled", havingValue = "true", matchIfMissing = true)
+public class HibernateCacheConfig {
+
+    private static final String PREFIX = "pos.cache.l2.regions.";
+
+    private static final List<Region> REGIONS = List.of(
+            new Region(CacheConstant.USER_REGION, 50_000, Duration.ofMinutes(10)),
+            new Region(CacheConstant.USER_QUERY_REGION, 10_000, Duration.ofSeconds(30)),
+            new Region(CacheConstant.PRODUCT_REGION, 100_000, Duration.ofMinutes(10)),
+            new Region(CacheConstant.PRODUCT_QUERY_REGION, 20_000, Duration.ofSeconds(30)),
+            new Region(CacheConstant.DEFAULT_QUERY_REGION, 10_000, Duration.ofSeconds(30)));
+
+    /**
+     * Own provider instance (not the static javax.cache.Caching registry), so every application
+     * context gets fresh caches and closes them with the context.
+     */
+    @Bean(destroyMethod = "close")
+    public CaffeineCachingProvider hibernateCachingProvider() {
+        return new CaffeineCachingProvider();
+    }
+
+    /**
+     * One JCache cache per region, bounded by size and TTL. The update timestamps region is
+     * neither bounded nor expiring (one entry per table; Hibernate requires it to stay complete).
+     */
+    @Bean
+    public CacheManager hibernateCacheManager(CaffeineCachingProvider hibernateCachingProvider, Environment env) {
+        CacheManager cacheManager = hibernateCachingProvider.getCacheManager();
+        for (Region region : REGIONS) {
+            long maxSize = env.getProperty(PREFIX + region.name() + ".max-size", Long.class, region.maxSize());
+            Duration ttl = env.getProperty(PREFIX + region.name() + ".ttl", Duration.class, region.ttl());
+
+            CaffeineConfiguration<Object, Object> config = new CaffeineConfiguration<>();
+            config.setMaximumSize(OptionalLong.of(maxSize));
+            config.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+            config.setNativeStatisticsEnabled(true);
+            config.setStoreByValue(false);
+            cacheManager.createCache(region.name(), config);
+        }
+
+        CaffeineConfiguration<Object, Object> timestamps = new CaffeineConfiguration<>();
+        timestamps.setStoreByValue(false);
+        cacheManager.createCache(CacheConstant.UPDATE_TIMESTAMPS_REGION, timestamps);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            // Every region is created above: a typo in a region name fails at startup
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    @Bean
+    public MeterBinder hibernateCacheMetrics(CacheManager hibernateCacheManager) {
+        return registry -> {
+            for (Region region : REGIONS) {
+                Cache<Object, Object> cache = hibernateCacheManager.getCache(region.name());
+                CaffeineCacheMetrics.monitor(registry,
+                        cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class), "hibernate." + region.name());
+            }
+        };
+    }
+
+    /**
+     * @param maxSize default entry limit
+     * @param ttl     default time to live after a write
+     */
+    private record Region(String name, long maxSize, Duration ttl) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.shu.configuration;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ *
+ * SCHEDULING CONFIGURATION:
+ * Enables Spring's @Scheduled support for background jobs
+ * (e.g. write-behind flushes like LastLoginUpdater).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,9 +1,18 @@
 package com.shu.configuration;
 
+import com.shu.constant.ApiPathConstant;
+import com.shu.constant.JwtConstant;
 import com.shu.filter.JwtValidator;
+import com.shu.filter.VerifiedTokenCache;
+import com.shu.service.auth.TokenRevocationList;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -18,6 +27,7 @@ import java.util.Arrays;
 import java.util.Collections;
 
 @Configuration
+@EnableMethodSecurity   // role checks on individual endpoints (@PreAuthorize)
 public class SecurityConfig {
 
     /**
@@ -35,20 +45,32 @@ public class SecurityConfig {
      * @throws Exception in case configuration fails
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception{
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   VerifiedTokenCache verifiedTokenCache,
+                                                   TokenRevocationList tokenRevocationList,
+                                                   MeterRegistry meterRegistry) throws Exception{
         return http
                 // 1. No session storage (we use JWT, so backend is stateless)
                 .sessionManagement(management ->
                         management.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 
                 // 2. Define which APIs need login/roles
+                //    (most specific rule first: the first matching rule wins)
+                //    Async dispatches (CompletableFuture endpoints like checkout) carry no JWT:
+                //    the request was already authorized on its first dispatch
+                //    Payment webhooks come from the providers: their signature is checked instead of a JWT
+                //    Actuator: health stays open for load balancers, metrics/prometheus are admin only
                 .authorizeHttpRequests(auth ->
-                        auth.requestMatchers("/api/**").authenticated()
+                        auth.dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                                .requestMatchers(HttpMethod.POST, ApiPathConstant.PAYMENTS + "/webhooks/*").permitAll()
+                                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                                .requestMatchers("/actuator/**").hasRole("ADMIN")
                                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                                .requestMatchers("/api/**").authenticated()
                                 .anyRequest().permitAll())
 
                 // 3. Add custom filter before Spring's BasicAuthenticationFilter
-                .addFilterBefore(new JwtValidator(),
+                .addFilterBefore(new JwtValidator(verifiedTokenCache, tokenRevocationList, meterRegistry),
                         BasicAuthenticationFilter.class)
 
                 // 4. Disable CSRF (since we’re not using session cookies)
@@ -62,17 +84,33 @@ public class SecurityConfig {
                 .build();
     }
 
+    /**
+     *
+     * VERIFIED TOKEN CACHE:
+     * Shared cache of already verified JWTs used by {@link JwtValidator}.
+     * Exposed as a bean so its hit/miss counters are bound to the MeterRegistry.
+     *
+     * @return a bounded VerifiedTokenCache
+     */
+    @Bean
+    public VerifiedTokenCache verifiedTokenCache() {
+        return new VerifiedTokenCache(JwtConstant.VERIFIED_TOKEN_CACHE_SIZE);
+    }
+
     /**
      *
      * PASSWORD ENCODER:
      * Provides a PasswordEncoder for hashing user passwords securely.
      * Uses BCrypt algorithm to store and verify passwords safely.
+     * The cost factor is configurable; existing hashes with another cost are
+     * upgraded on the next successful login (see PasswordHashingService).
      *
+     * @param strength BCrypt cost factor (log rounds)
      * @return a BCryptPasswordEncoder instance
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${pos.security.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
 
@@ -0,0 +1,93 @@
+package com.shu.configuration;
+
+import com.shu.filter.SqlAccountingFilter;
+import com.shu.service.diagnostics.MonitoredDataSource;
+import com.shu.service.diagnostics.SqlStatementMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *
+ * SQL MONITORING CONFIGURATION:
+ * Statement-level SQL accounting instead of spring.jpa.show-sql (see SqlStatementMonitor).
+ *
+ * - The DataSource bean is wrapped in a {@link MonitoredDataSource}: every statement of Hibernate,
+ *   JdbcTemplate mappers and Flyway is timed and counted.
+ * - Every Spring Data repository gets an interceptor recording which repository method is running,
+ *   so statements are attributed to it (metrics tag, slow-query log).
+ * - {@link SqlAccountingFilter} sums the statements per HTTP request and enforces the query budget.
+ *
+ * pos.diagnostics.sql.enabled=false removes all of it (the pool is used directly).
+ */
+@Configuration
+@ConditionalOnProperty(name = "pos.diagnostics.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMonitoringConfig {
+
+    @Bean
+    static BeanPostProcessor monitoredDataSourcePostProcessor(ObjectProvider<SqlStatementMonitor> monitor) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof MonitoredDataSource)) {
+                    return new MonitoredDataSource(dataSource, monitor::getObject);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    static BeanPostProcessor repositoryMethodPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            // Outermost: statements of the transaction commit (flush) count for the method too
+                            (proxyFactory, metadata) -> proxyFactory.addAdvice(0,
+                                    repositoryMethodInterceptor(metadata.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    FilterRegistrationBean<SqlAccountingFilter> sqlAccountingFilter(
+            MeterRegistry registry,
+            @Value("${pos.diagnostics.sql.request-budget:0}") int budget,
+            @Value("${pos.diagnostics.sql.request-budget-mode:" + SqlAccountingFilter.BUDGET_MODE_LOG + "}")
+            String budgetMode) {
+        FilterRegistrationBean<SqlAccountingFilter> registration =
+                new FilterRegistrationBean<>(new SqlAccountingFilter(registry, budget, budgetMode));
+        // Inside the observation filter (HIGHEST_PRECEDENCE + 1), before Spring Security
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
+    private static MethodInterceptor repositoryMethodInterceptor(String repository) {
+        ConcurrentHashMap<Method, String> names = new ConcurrentHashMap<>();
+        return invocation -> {
+            String previous = SqlStatementMonitor.enterRepository(names.computeIfAbsent(
+                    invocation.getMethod(), method -> repository + "." + method.getName()));
+            try {
+                return invocation.proceed();
+            } finally {
+                SqlStatementMonitor.exitRepository(previous);
+            }
+        };
+    }
+}
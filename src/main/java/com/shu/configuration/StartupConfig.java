@@ -0,0 +1,52 @@
+package com.shu.configuration;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.Lifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ *
+ * STARTUP CONFIGURATION:
+ * Keeps spring.main.lazy-initialization (prod profile) safe.
+ *
+ * A lazy bean is only created when something asks for it. That is fine for controllers, services,
+ * mappers and repositories, but not for beans whose work starts on their own:
+ * - @Scheduled methods are registered when the bean is created: a lazy write-behind flusher or outbox
+ *   sender would never run.
+ * - @PostConstruct / @EventListener startup work (journal replay, catalog index load, change-feed
+ *   backfill, revocation list load) belongs before the node takes traffic, not in its first request.
+ * - Lifecycle beans (pools, servers) are started by the context anyway.
+ * Those beans (and, through them, their dependencies) stay eager.
+ */
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter backgroundWorkExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && hasStartupOrBackgroundWork(beanType);
+    }
+
+    static boolean hasStartupOrBackgroundWork(Class<?> beanType) {
+        if (Lifecycle.class.isAssignableFrom(beanType)) {
+            return true;
+        }
+        AtomicBoolean found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(beanType, method -> found.set(true), StartupConfig::isStartupOrBackgroundWork);
+        return found.get();
+    }
+
+    private static boolean isStartupOrBackgroundWork(Method method) {
+        return AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                || AnnotatedElementUtils.hasAnnotation(method, EventListener.class)
+                || AnnotatedElementUtils.hasAnnotation(method, PostConstruct.class);
+    }
+}
@@ -5,6 +5,10 @@ public class ApiPathConstant {
     public static final String API_BASE = "/api";
     public static final String AUTH = API_BASE + "/auth";
     public static final String PRODUCTS = API_BASE + "/products";
+    public static final String INVENTORY = API_BASE + "/inventory";
     public static final String ORDERS = API_BASE + "/orders";
+    public static final String PAYMENTS = API_BASE + "/payments";
+    public static final String REPORTS = API_BASE + "/reports";
+    public static final String SYNC = API_BASE + "/sync";
     public static final String ADMIN = API_BASE + "/admin";
 }
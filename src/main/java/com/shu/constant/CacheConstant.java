@@ -0,0 +1,14 @@
+package com.shu.constant;
+
+/**
+ * Hibernate second-level cache regions (see HibernateCacheConfig).
+ * Size and TTL of each region: pos.cache.l2.regions.<region>.max-size / .ttl
+ */
+public class CacheConstant {
+    public static final String USER_REGION = "user";
+    public static final String USER_QUERY_REGION = "user-queries";
+    public static final String PRODUCT_REGION = "product";
+    public static final String PRODUCT_QUERY_REGION = "product-queries";
+    public static final String DEFAULT_QUERY_REGION = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+}
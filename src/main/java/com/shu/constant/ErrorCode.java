@@ -1,8 +1,30 @@
 package com.shu.constant;
 
 public class ErrorCode {
+    public static final String USER_ERROR = "ERR_USER_000";
     public static final String USER_NOT_FOUND = "ERR_USER_001";
+    public static final String USER_ALREADY_EXISTS = "ERR_USER_002";
+    public static final String INVALID_CREDENTIALS = "ERR_USER_003";
+    public static final String ROLE_NOT_ALLOWED = "ERR_USER_004";
+    public static final String LOGIN_THROTTLED = "ERR_USER_005";
+    public static final String INVALID_TOKEN = "ERR_USER_006";
+    public static final String ACCOUNT_LOCKED = "ERR_USER_007";
+    public static final String PRODUCT_ERROR = "ERR_PRODUCT_000";
     public static final String PRODUCT_NOT_FOUND = "ERR_PRODUCT_001";
+    public static final String PRODUCT_ALREADY_EXISTS = "ERR_PRODUCT_002";
+    public static final String INVENTORY_ERROR = "ERR_INVENTORY_000";
     public static final String OUT_OF_STOCK = "ERR_INVENTORY_001";
+    public static final String RESERVATION_NOT_FOUND = "ERR_INVENTORY_002";
+    public static final String BRANCH_NOT_SERVED = "ERR_INVENTORY_003";
+    public static final String ORDER_ERROR = "ERR_ORDER_000";
+    public static final String ORDER_NOT_FOUND = "ERR_ORDER_001";
+    public static final String IDEMPOTENCY_KEY_REQUIRED = "ERR_ORDER_002";
+    public static final String IDEMPOTENCY_KEY_REUSED = "ERR_ORDER_003";
     public static final String PAYMENT_FAILED = "ERR_PAYMENT_001";
+    public static final String INVALID_WEBHOOK = "ERR_PAYMENT_002";
+    public static final String UNKNOWN_WEBHOOK_PROVIDER = "ERR_PAYMENT_003";
+    public static final String REPORT_ERROR = "ERR_REPORT_000";
+    public static final String INTERNAL_ERROR = "ERR_SYSTEM_000";
+    public static final String SERVICE_BUSY = "ERR_SYSTEM_001";
+    public static final String ACCESS_DENIED = "ERR_SYSTEM_002";
 }
@@ -4,5 +4,9 @@ public class JwtConstant {
     public static final String SECRET_KEY = "my-secret-key-is-this-key-which-is-long-enough-maybe!";
     public static final String BEARER_PREFIX = "Bearer ";
     public static final String AUTH_HEADER = "Authorization";
-    public static final long EXPIRATION_TIME = 86400000;
+    public static final String TOKEN_TYPE_CLAIM = "typ";
+    public static final String SESSION_CLAIM = "sid";
+    public static final String ACCESS_TOKEN_TYPE = "access";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+    public static final int VERIFIED_TOKEN_CACHE_SIZE = 10_000;
 }
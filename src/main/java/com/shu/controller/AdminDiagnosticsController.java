@@ -0,0 +1,25 @@
+package com.shu.controller;
+
+import com.shu.constant.ApiPathConstant;
+import com.shu.payload.response.ThreadDiagnosticsResponse;
+import com.shu.service.diagnostics.PinningMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(ApiPathConstant.ADMIN + "/diagnostics")
+@RequiredArgsConstructor
+public class AdminDiagnosticsController {
+
+    private final PinningMonitor pinningMonitor;
+
+
+    @GetMapping("/threads")
+    public ResponseEntity<ThreadDiagnosticsResponse> threadsHandler() {
+
+        return ResponseEntity.ok(pinningMonitor.report());
+    }
+}
@@ -0,0 +1,69 @@
+package com.shu.controller;
+
+import com.shu.constant.ApiPathConstant;
+import com.shu.domain.ExportFormat;
+import com.shu.exceptions.ReportException;
+import com.shu.service.export.ExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping(ApiPathConstant.ADMIN + "/exports")
+@RequiredArgsConstructor
+public class AdminExportController {
+
+    private static final MediaType CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+    private static final MediaType GZIP = new MediaType("application", "gzip");
+
+    private final ExportService exportService;
+
+
+    /**
+     * Streams the orders created in [from, to) as a download (orders.csv / orders.json[.gz]).
+     */
+    @GetMapping("/orders")
+    public ResponseEntity<StreamingResponseBody> exportOrdersHandler(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip
+            ) throws ReportException {
+
+        return download("orders", format, gzip, exportService.exportOrders(from, to, format, gzip));
+    }
+
+    /**
+     * Streams all users (without password hashes) as a download (users.csv / users.json[.gz]).
+     */
+    @GetMapping("/users")
+    public ResponseEntity<StreamingResponseBody> exportUsersHandler(
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @RequestParam(defaultValue = "false") boolean gzip
+            ) {
+
+        return download("users", format, gzip, exportService.exportUsers(format, gzip));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> download(String name, ExportFormat format, boolean gzip,
+                                                                  StreamingResponseBody body) {
+        String fileName = name + (format == ExportFormat.JSON ? ".json" : ".csv") + (gzip ? ".gz" : "");
+        MediaType type = gzip ? GZIP : format == ExportFormat.JSON ? MediaType.APPLICATION_JSON : CSV;
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(fileName).build().toString())
+                .body(body);
+    }
+}
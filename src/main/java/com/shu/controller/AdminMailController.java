@@ -0,0 +1,28 @@
+package com.shu.controller;
+
+import com.shu.constant.ApiPathConstant;
+import com.shu.payload.response.MailRequeueResponse;
+import com.shu.service.mail.MailOutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(ApiPathConstant.ADMIN + "/mail")
+@RequiredArgsConstructor
+public class AdminMailController {
+
+    private final MailOutboxService mailOutboxService;
+
+
+    /**
+     * Puts dead-lettered mails back in the outbox (e.g. after fixing the SMTP settings).
+     */
+    @PostMapping("/dead/requeue")
+    public ResponseEntity<MailRequeueResponse> requeueDeadMailsHandler() {
+
+        return ResponseEntity.ok(new MailRequeueResponse(mailOutboxService.requeueDead()));
+    }
+}
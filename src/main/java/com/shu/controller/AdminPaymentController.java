@@ -0,0 +1,36 @@
+package com.shu.controller;
+
+import com.shu.constant.ApiPathConstant;
+import com.shu.exceptions.PaymentException;
+import com.shu.payload.response.WebhookReplayResponse;
+import com.shu.service.payment.PaymentWebhookService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping(ApiPathConstant.ADMIN + "/payments")
+@RequiredArgsConstructor
+public class AdminPaymentController {
+
+    private final PaymentWebhookService paymentWebhookService;
+
+
+    @PostMapping("/webhooks/{provider}/replay")
+    public ResponseEntity<WebhookReplayResponse> replayWebhooksHandler(
+            @PathVariable String provider,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+            ) throws PaymentException {
+
+        int replayed = paymentWebhookService.replay(provider, from, to);
+        return ResponseEntity.ok(new WebhookReplayResponse(provider, from, to, replayed));
+    }
+}
@@ -0,0 +1,35 @@
+package com.shu.controller;
+
+import com.shu.constant.ApiPathConstant;
+import com.shu.payload.response.RollupRebuildResponse;
+import com.shu.service.reporting.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping(ApiPathConstant.ADMIN + "/reports")
+@RequiredArgsConstructor
+public class AdminReportController {
+
+    private final SalesRollupService salesRollupService;
+
+
+    /**
+     * Recomputes the sales rollups of a range from the orders (branches in parallel).
+     */
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<RollupRebuildResponse> rebuildRollupsHandler(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+            ) {
+
+        return ResponseEntity.ok(salesRollupService.rebuild(from, to));
+    }
+}
@@ -0,0 +1,54 @@
+package com.shu.controller;
+
+import com.shu.constant.ApiPathConstant;
+import com.shu.exceptions.UserException;
+import com.shu.payload.request.BulkSignupRequest;
+import com.shu.payload.response.BulkProvisionResponse;
+import com.shu.service.auth.AuthService;
+import com.shu.service.user.UserProvisioningService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(ApiPathConstant.ADMIN + "/users")
+@RequiredArgsConstructor
+public class AdminUserController {
+
+    private final UserProvisioningService userProvisioningService;
+    private final AuthService authService;
+
+
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkProvisionResponse> bulkProvisionHandler(
+            @RequestBody BulkSignupRequest request
+            ) throws UserException {
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(userProvisioningService.provision(request));
+    }
+
+    @PostMapping("/{userId}/revoke-tokens")
+    public ResponseEntity<Void> revokeTokensHandler(
+            @PathVariable Long userId
+            ) throws UserException {
+
+        authService.revokeUserTokens(userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/{userId}/unlock")
+    public ResponseEntity<Void> unlockHandler(
+            @PathVariable Long userId
+            ) throws UserException {
+
+        authService.unlockUser(userId);
+        return ResponseEntity.noContent().build();
+    }
+}
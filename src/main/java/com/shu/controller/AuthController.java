@@ -2,9 +2,12 @@ package com.shu.controller;
 
 import com.shu.exceptions.UserException;
 import com.shu.payload.request.LoginRequest;
+import com.shu.payload.request.RefreshTokenRequest;
 import com.shu.payload.request.SignupRequest;
 import com.shu.payload.response.AuthResponse;
 import com.shu.service.auth.AuthService;
+import com.shu.service.auth.LoginThrottle;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,6 +22,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginThrottle loginThrottle;
 
 
     @PostMapping("/signup")
@@ -33,11 +37,36 @@ public class AuthController {
 
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> loginHandler(
-            @RequestBody LoginRequest request
+            @RequestBody LoginRequest request,
+            HttpServletRequest httpRequest
             ) throws UserException {
 
+        // Cheap 429 before any DB lookup or BCrypt. Behind the load balancer the remote address is the
+        // X-Forwarded-For client (server.forward-headers-strategy), not the balancer shared by every till
+        loginThrottle.checkAttempt(request.getEmail(), httpRequest.getRemoteAddr());
+
+        AuthResponse response = authService.login(request);
+        loginThrottle.onSuccess(request.getEmail());
+
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(authService.login(request));
+                .body(response);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refreshHandler(
+            @RequestBody RefreshTokenRequest request
+            ) throws UserException {
+
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(authService.refresh(request));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logoutHandler() throws UserException {
+
+        authService.logout();
+        return ResponseEntity.noContent().build();
     }
 }
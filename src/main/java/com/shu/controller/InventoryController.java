@@ -0,0 +1,70 @@
+package com.shu.controller;
+
+import com.shu.constant.ApiPathConstant;
+import com.shu.exceptions.InventoryException;
+import com.shu.payload.request.StockAdjustmentRequest;
+import com.shu.payload.request.StockReservationRequest;
+import com.shu.payload.response.StockLevelResponse;
+import com.shu.payload.response.StockReservationResponse;
+import com.shu.service.inventory.InventoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(ApiPathConstant.INVENTORY)
+@RequiredArgsConstructor
+public class InventoryController {
+
+    private static final String STOCK_MANAGERS = "hasAnyRole('ADMIN','STORE_MANAGER')";
+
+    private final InventoryService inventoryService;
+
+
+    @GetMapping("/branches/{branchId}/products/{productId}")
+    public ResponseEntity<StockLevelResponse> getStockHandler(
+            @PathVariable Long branchId,
+            @PathVariable Long productId
+            ) {
+
+        return ResponseEntity.ok(inventoryService.getStock(branchId, productId));
+    }
+
+    @PostMapping("/adjustments")
+    @PreAuthorize(STOCK_MANAGERS)
+    public ResponseEntity<StockLevelResponse> adjustStockHandler(
+            @RequestBody StockAdjustmentRequest request
+            ) throws InventoryException {
+
+        return ResponseEntity.ok(inventoryService.adjustStock(request));
+    }
+
+    // Holding stock by hand (e.g. click and collect). Checkout reserves and commits through OrderService:
+    // there is no public commit, a sale is only recorded together with its order
+    @PostMapping("/reservations")
+    @PreAuthorize(STOCK_MANAGERS)
+    public ResponseEntity<StockReservationResponse> reserveHandler(
+            @RequestBody StockReservationRequest request
+            ) throws InventoryException {
+
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(inventoryService.reserve(request));
+    }
+
+    @DeleteMapping("/reservations/{reservationId}")
+    @PreAuthorize(STOCK_MANAGERS)
+    public ResponseEntity<Void> releaseHandler(@PathVariable String reservationId) throws InventoryException {
+
+        inventoryService.release(reservationId);
+        return ResponseEntity.noContent().build();
+    }
+}
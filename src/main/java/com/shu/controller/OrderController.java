@@ -0,0 +1,58 @@
+package com.shu.controller;
+
+import com.shu.constant.ApiPathConstant;
+import com.shu.exceptions.OrderException;
+import com.shu.model.dto.OrderDto;
+import com.shu.payload.request.CheckoutRequest;
+import com.shu.service.order.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping(ApiPathConstant.ORDERS)
+@RequiredArgsConstructor
+public class OrderController {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private static final String TILL_STAFF = "hasAnyRole('ADMIN','CASHIER','BRANCH_MANAGER','STORE_MANAGER')";
+
+    private final OrderService orderService;
+
+
+    /**
+     * Returns a future: the request thread is released while the payment is in flight.
+     */
+    @PostMapping
+    @PreAuthorize(TILL_STAFF)
+    public CompletableFuture<ResponseEntity<OrderDto>> checkoutHandler(
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @RequestBody CheckoutRequest request,
+            Authentication authentication
+            ) throws OrderException {
+
+        return orderService.checkout(idempotencyKey, request, authentication.getName())
+                .thenApply(order -> ResponseEntity
+                        .status(HttpStatus.CREATED)
+                        .body(order));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize(TILL_STAFF)
+    public ResponseEntity<OrderDto> getOrderHandler(@PathVariable Long id) throws OrderException {
+
+        return ResponseEntity.ok(orderService.getOrderById(id));
+    }
+}
@@ -0,0 +1,42 @@
+package com.shu.controller;
+
+import com.shu.constant.ApiPathConstant;
+import com.shu.exceptions.PaymentException;
+import com.shu.service.payment.PaymentWebhookService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Called by the payment providers, not by the tills: no JWT, the webhook signature authenticates the caller.
+ */
+@RestController
+@RequestMapping(ApiPathConstant.PAYMENTS + "/webhooks")
+@RequiredArgsConstructor
+public class PaymentWebhookController {
+
+    private final PaymentWebhookService paymentWebhookService;
+
+
+    /**
+     * Body is read as raw bytes: the signature covers them exactly as sent.
+     */
+    @PostMapping("/{provider}")
+    public ResponseEntity<Void> webhookHandler(
+            @PathVariable String provider,
+            @RequestBody byte[] body,
+            @RequestHeader HttpHeaders headers
+            ) throws PaymentException {
+
+        paymentWebhookService.receive(provider, new String(body, StandardCharsets.UTF_8), headers);
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.shu.controller;
+
+import com.shu.constant.ApiPathConstant;
+import com.shu.exceptions.ProductException;
+import com.shu.model.dto.ProductDto;
+import com.shu.payload.request.ProductRequest;
+import com.shu.service.product.ProductService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping(ApiPathConstant.PRODUCTS)
+@RequiredArgsConstructor
+public class ProductController {
+
+    private static final String CATALOG_MANAGERS = "hasAnyRole('ADMIN','STORE_MANAGER')";
+
+    private final ProductService productService;
+
+
+    @PostMapping
+    @PreAuthorize(CATALOG_MANAGERS)
+    public ResponseEntity<ProductDto> createProductHandler(
+            @RequestBody ProductRequest request
+            ) throws ProductException {
+
+        return ResponseEntity
+                .status(HttpStatus.CREATED)
+                .body(productService.createProduct(request));
+    }
+
+    @PutMapping("/{id}")
+    @PreAuthorize(CATALOG_MANAGERS)
+    public ResponseEntity<ProductDto> updateProductHandler(
+            @PathVariable Long id,
+            @RequestBody ProductRequest request
+            ) throws ProductException {
+
+        return ResponseEntity.ok(productService.updateProduct(id, request));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize(CATALOG_MANAGERS)
+    public ResponseEntity<Void> deleteProductHandler(@PathVariable Long id) throws ProductException {
+
+        productService.deleteProduct(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductDto>> searchProductsHandler(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit
+            ) {
+
+        return ResponseEntity.ok(productService.searchProducts(query, limit));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ProductDto> getProductHandler(@PathVariable Long id) throws ProductException {
+
+        return ResponseEntity.ok(productService.getProductById(id));
+    }
+
+    @GetMapping("/barcode/{barcode}")
+    public ResponseEntity<ProductDto> scanBarcodeHandler(@PathVariable String barcode) throws ProductException {
+
+        return ResponseEntity.ok(productService.getProductByBarcode(barcode));
+    }
+
+    @GetMapping("/sku/{sku}")
+    public ResponseEntity<ProductDto> getBySkuHandler(@PathVariable String sku) throws ProductException {
+
+        return ResponseEntity.ok(productService.getProductBySku(sku));
+    }
+}
@@ -0,0 +1,66 @@
+package com.shu.controller;
+
+import com.shu.constant.ApiPathConstant;
+import com.shu.domain.ReportGranularity;
+import com.shu.exceptions.ReportException;
+import com.shu.payload.response.BranchSalesResponse;
+import com.shu.payload.response.ProductSalesResponse;
+import com.shu.payload.response.SalesBucketResponse;
+import com.shu.service.reporting.SalesReportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping(ApiPathConstant.REPORTS)
+@RequiredArgsConstructor
+public class ReportController {
+
+    private static final String MANAGERS = "hasAnyRole('ADMIN','BRANCH_MANAGER','STORE_MANAGER')";
+
+    private final SalesReportService salesReportService;
+
+
+    @GetMapping("/branches/{branchId}/sales")
+    @PreAuthorize(MANAGERS)
+    public ResponseEntity<List<SalesBucketResponse>> branchSalesHandler(
+            @PathVariable Long branchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "HOUR") ReportGranularity granularity
+            ) throws ReportException {
+
+        return ResponseEntity.ok(salesReportService.getBranchSales(branchId, from, to, granularity));
+    }
+
+    @GetMapping("/branches/{branchId}/products")
+    @PreAuthorize(MANAGERS)
+    public ResponseEntity<List<ProductSalesResponse>> topProductsHandler(
+            @PathVariable Long branchId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "20") int limit
+            ) throws ReportException {
+
+        return ResponseEntity.ok(salesReportService.getTopProducts(branchId, from, to, limit));
+    }
+
+    @GetMapping("/branches")
+    @PreAuthorize(MANAGERS)
+    public ResponseEntity<List<BranchSalesResponse>> salesByBranchHandler(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+            ) throws ReportException {
+
+        return ResponseEntity.ok(salesReportService.getSalesByBranch(from, to));
+    }
+}
@@ -0,0 +1,38 @@
+package com.shu.controller;
+
+import com.shu.constant.ApiPathConstant;
+import com.shu.service.sync.ChangeFeedService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping(ApiPathConstant.SYNC)
+@RequiredArgsConstructor
+public class SyncController {
+
+    private static final String TILL_STAFF = "hasAnyRole('ADMIN','CASHIER','BRANCH_MANAGER','STORE_MANAGER')";
+
+    private final ChangeFeedService changeFeedService;
+
+
+    /**
+     * Catalog and roster changes after the till's cursor (0 on first sync), see ChangeFeedService.
+     */
+    @GetMapping("/changes")
+    @PreAuthorize(TILL_STAFF)
+    public ResponseEntity<byte[]> changesHandler(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "1000") int limit
+            ) {
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(changeFeedService.changesSince(since, limit));
+    }
+}
@@ -0,0 +1,15 @@
+package com.shu.domain;
+
+/**
+ *
+ * CHANGE TYPE ENUM:
+ * Kind of entity in a change-feed entry (GET /api/sync/changes).
+ *
+ * Values:
+ * - PRODUCT : Catalog entry with its price; deleted = the product was deactivated.
+ * - USER    : Roster entry (no password hash).
+ */
+public enum ChangeType {
+    PRODUCT,
+    USER
+}
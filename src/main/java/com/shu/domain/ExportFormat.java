@@ -0,0 +1,15 @@
+package com.shu.domain;
+
+/**
+ *
+ * EXPORT FORMAT ENUM:
+ * File format of a streamed admin export.
+ *
+ * Values:
+ * - CSV  : RFC 4180, header row, CRLF line endings.
+ * - JSON : One JSON array, one object per row.
+ */
+public enum ExportFormat {
+    CSV,
+    JSON
+}
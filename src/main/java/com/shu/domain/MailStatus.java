@@ -0,0 +1,17 @@
+package com.shu.domain;
+
+/**
+ *
+ * MAIL STATUS ENUM:
+ * Delivery state of an outbox e-mail.
+ *
+ * Values:
+ * - PENDING : Waiting to be sent (first attempt or retry after nextAttemptAt).
+ * - SENT    : Accepted by the SMTP server.
+ * - DEAD    : Permanently rejected or out of attempts (dead letter); can be requeued by an admin.
+ */
+public enum MailStatus {
+    PENDING,
+    SENT,
+    DEAD
+}
@@ -0,0 +1,15 @@
+package com.shu.domain;
+
+/**
+ *
+ * MAIL TYPE ENUM:
+ * Kind of e-mail queued in the mail outbox.
+ *
+ * Values:
+ * - RECEIPT              : Receipt of a checkout, sent to the e-mail given at the till.
+ * - SIGNUP_CONFIRMATION  : Confirmation of a new account, sent to the user's e-mail.
+ */
+public enum MailType {
+    RECEIPT,
+    SIGNUP_CONFIRMATION
+}
@@ -0,0 +1,15 @@
+package com.shu.domain;
+
+/**
+ *
+ * ORDER STATUS ENUM:
+ * Lifecycle of a till order. An order is only persisted once it is paid.
+ *
+ * Values:
+ * - COMPLETED : Paid, stock committed.
+ * - REFUNDED  : Money returned to the customer.
+ */
+public enum OrderStatus {
+    COMPLETED,
+    REFUNDED
+}
@@ -0,0 +1,19 @@
+package com.shu.domain;
+
+/**
+ *
+ * PAYMENT EVENT TYPE ENUM:
+ * Provider webhook events, normalized across providers.
+ *
+ * Values:
+ * - CAPTURED : Money was taken (confirms what checkout already recorded).
+ * - FAILED   : The payment failed at the provider.
+ * - REFUNDED : Money was returned (e.g. from the provider dashboard); the order becomes REFUNDED.
+ * - OTHER    : Any other event; stored for audit, no state change.
+ */
+public enum PaymentEventType {
+    CAPTURED,
+    FAILED,
+    REFUNDED,
+    OTHER
+}
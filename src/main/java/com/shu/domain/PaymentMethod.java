@@ -0,0 +1,17 @@
+package com.shu.domain;
+
+/**
+ *
+ * PAYMENT METHOD ENUM:
+ * How the customer pays at the till.
+ *
+ * Values:
+ * - CASH : Paid at the counter, no payment provider involved.
+ * - CARD : Card payment through a payment provider.
+ * - UPI  : UPI payment through a payment provider.
+ */
+public enum PaymentMethod {
+    CASH,
+    CARD,
+    UPI
+}
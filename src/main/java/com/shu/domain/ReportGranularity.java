@@ -0,0 +1,15 @@
+package com.shu.domain;
+
+/**
+ *
+ * REPORT GRANULARITY ENUM:
+ * Bucket size of a sales time series.
+ *
+ * Values:
+ * - HOUR : One bucket per hour (the rollup resolution).
+ * - DAY  : Hourly rollups summed per calendar day.
+ */
+public enum ReportGranularity {
+    HOUR,
+    DAY
+}
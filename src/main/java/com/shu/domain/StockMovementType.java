@@ -0,0 +1,17 @@
+package com.shu.domain;
+
+/**
+ *
+ * STOCK MOVEMENT TYPE ENUM:
+ * Reason of a change to the stock level of a product in a branch.
+ *
+ * Values:
+ * - RESTOCK    : Goods received (positive quantity).
+ * - SALE       : Committed sale of a reservation (negative quantity).
+ * - ADJUSTMENT : Manual correction after a stock count, damage, etc. (positive or negative).
+ */
+public enum StockMovementType {
+    RESTOCK,
+    SALE,
+    ADJUSTMENT
+}
@@ -1,9 +1,14 @@
 package com.shu.exceptions;
 
+import com.shu.constant.ErrorCode;
 import com.shu.payload.response.ErrorResponse;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -27,6 +32,7 @@ import java.time.LocalDateTime;
  *   <li>Handle Spring Security exceptions (like {@link org.springframework.security.core.userdetails.UsernameNotFoundException})
  *       gracefully.</li>
  *   <li>Provide a fallback handler for any uncaught exceptions to prevent internal server errors without context.</li>
+ *   <li>Count every handled error as metric <b>pos.errors</b>, tagged with its {@link ErrorCode} and HTTP status.</li>
  * </ul>
  *
  * <p><b>Design:</b></p>
@@ -67,13 +73,17 @@ import java.time.LocalDateTime;
  * </p>
  */
 @ControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
     /**
      * Handles custom user-related exceptions thrown by the application.
-     * Example cases: invalid login, duplicate email, unauthorized role creation.
+     * Example cases: invalid login, duplicate email, unauthorized role creation, revoked refresh token.
      * <p>
-     * HTTP Status: 400 (Bad Request) by default.
+     * HTTP Status: 401 (Unauthorized) for ErrorCode.INVALID_TOKEN, 403 (Forbidden) for ErrorCode.ACCOUNT_LOCKED,
+     * 400 (Bad Request) otherwise.
      *
      * @param ex      the UserException instance containing details
      * @param request the HttpServletRequest to extract the request path
@@ -81,16 +91,231 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(UserException.class)
     public ResponseEntity<ErrorResponse> handleUserException(UserException ex, HttpServletRequest request) {
+        HttpStatus status = switch (ex.getErrorCode()) {
+            case ErrorCode.INVALID_TOKEN -> HttpStatus.UNAUTHORIZED;
+            case ErrorCode.ACCOUNT_LOCKED -> HttpStatus.FORBIDDEN;
+            case null, default -> HttpStatus.BAD_REQUEST;
+        };
+        countError(ex.getErrorCode(), status);
         ErrorResponse error = new ErrorResponse(
                 LocalDateTime.now(),
-                HttpStatus.BAD_REQUEST.value(),   // or 403 if preferred
+                status.value(),
                 "User Error",
                 ex.getMessage(),
                 request.getRequestURI()
         );
+        return new ResponseEntity<>(error, status);
+    }
+
+    /**
+     * Handles product/catalog exceptions thrown by the application.
+     * Example cases: unknown barcode, duplicate SKU.
+     * <p>
+     * HTTP Status: 404 (Not Found) for ErrorCode.PRODUCT_NOT_FOUND, 400 (Bad Request) otherwise.
+     *
+     * @param ex      the ProductException instance containing details
+     * @param request the HttpServletRequest to extract the request path
+     * @return a structured ErrorResponse wrapped in ResponseEntity
+     */
+    @ExceptionHandler(ProductException.class)
+    public ResponseEntity<ErrorResponse> handleProductException(ProductException ex, HttpServletRequest request) {
+        HttpStatus status = ErrorCode.PRODUCT_NOT_FOUND.equals(ex.getErrorCode())
+                ? HttpStatus.NOT_FOUND
+                : HttpStatus.BAD_REQUEST;
+        countError(ex.getErrorCode(), status);
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                status.value(),
+                "Product Error",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(error, status);
+    }
+
+    /**
+     * Handles inventory exceptions thrown by the application.
+     * Example cases: not enough stock for a cart, expired reservation.
+     * <p>
+     * HTTP Status: 409 (Conflict) for ErrorCode.OUT_OF_STOCK and ErrorCode.BRANCH_NOT_SERVED,
+     * 404 (Not Found) for ErrorCode.RESERVATION_NOT_FOUND, 400 (Bad Request) otherwise.
+     *
+     * @param ex      the InventoryException instance containing details
+     * @param request the HttpServletRequest to extract the request path
+     * @return a structured ErrorResponse wrapped in ResponseEntity
+     */
+    @ExceptionHandler(InventoryException.class)
+    public ResponseEntity<ErrorResponse> handleInventoryException(InventoryException ex, HttpServletRequest request) {
+        HttpStatus status = switch (ex.getErrorCode()) {
+            case ErrorCode.OUT_OF_STOCK, ErrorCode.BRANCH_NOT_SERVED -> HttpStatus.CONFLICT;
+            case ErrorCode.RESERVATION_NOT_FOUND -> HttpStatus.NOT_FOUND;
+            default -> HttpStatus.BAD_REQUEST;
+        };
+        countError(ex.getErrorCode(), status);
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                status.value(),
+                "Inventory Error",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(error, status);
+    }
+
+    /**
+     * Handles reporting exceptions thrown by the application.
+     * Example cases: date range reversed or larger than allowed.
+     * <p>
+     * HTTP Status: 400 (Bad Request)
+     *
+     * @param ex      the ReportException instance containing details
+     * @param request the HttpServletRequest to extract the request path
+     * @return a structured ErrorResponse wrapped in ResponseEntity
+     */
+    @ExceptionHandler(ReportException.class)
+    public ResponseEntity<ErrorResponse> handleReportException(ReportException ex, HttpServletRequest request) {
+        countError(ex.getErrorCode(), HttpStatus.BAD_REQUEST);
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST.value(),
+                "Report Error",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * Handles order / checkout exceptions thrown by the application.
+     * Example cases: empty cart, missing Idempotency-Key, unknown order id.
+     * <p>
+     * HTTP Status: 404 (Not Found) for ErrorCode.ORDER_NOT_FOUND, 422 (Unprocessable Entity) when an
+     * Idempotency-Key is reused with a different cart, 400 (Bad Request) otherwise.
+     *
+     * @param ex      the OrderException instance containing details
+     * @param request the HttpServletRequest to extract the request path
+     * @return a structured ErrorResponse wrapped in ResponseEntity
+     */
+    @ExceptionHandler(OrderException.class)
+    public ResponseEntity<ErrorResponse> handleOrderException(OrderException ex, HttpServletRequest request) {
+        HttpStatus status = switch (ex.getErrorCode()) {
+            case ErrorCode.ORDER_NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case ErrorCode.IDEMPOTENCY_KEY_REUSED -> HttpStatus.UNPROCESSABLE_ENTITY;
+            default -> HttpStatus.BAD_REQUEST;
+        };
+        countError(ex.getErrorCode(), status);
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                status.value(),
+                "Order Error",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(error, status);
+    }
+
+    /**
+     * Handles failed payments (declined, provider down, timeout). The customer was not charged.
+     * <p>
+     * HTTP Status: 402 (Payment Required); rejected payment webhooks: 400 (bad signature / body)
+     * or 404 (unknown provider), so the provider does not treat them as delivered
+     *
+     * @param ex      the PaymentException instance containing details
+     * @param request the HttpServletRequest to extract the request path
+     * @return a structured ErrorResponse wrapped in ResponseEntity
+     */
+    @ExceptionHandler(PaymentException.class)
+    public ResponseEntity<ErrorResponse> handlePaymentException(PaymentException ex, HttpServletRequest request) {
+        HttpStatus status = switch (ex.getErrorCode()) {
+            case ErrorCode.INVALID_WEBHOOK -> HttpStatus.BAD_REQUEST;
+            case ErrorCode.UNKNOWN_WEBHOOK_PROVIDER -> HttpStatus.NOT_FOUND;
+            default -> HttpStatus.PAYMENT_REQUIRED;
+        };
+        countError(ex.getErrorCode(), status);
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                status.value(),
+                "Payment Error",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(error, status);
+    }
+
+    /**
+     * Handles method-security denials (e.g. a cashier trying to edit the catalog).
+     * <p>
+     * HTTP Status: 403 (Forbidden)
+     *
+     * @param ex      the AccessDeniedException instance
+     * @param request the HttpServletRequest to extract the request path
+     * @return a structured ErrorResponse wrapped in ResponseEntity
+     */
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ErrorResponse> handleAccessDenied(AccessDeniedException ex, HttpServletRequest request) {
+        countError(ErrorCode.ACCESS_DENIED, HttpStatus.FORBIDDEN);
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.FORBIDDEN.value(),
+                HttpStatus.FORBIDDEN.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return new ResponseEntity<>(error, HttpStatus.FORBIDDEN);
+    }
+
+    /**
+     * Handles saturation of bounded resources (e.g. the password-hashing pool).
+     * Fails fast so clients retry later instead of waiting in an unbounded queue.
+     * <p>
+     * HTTP Status: 503 (Service Unavailable) with a Retry-After header.
+     *
+     * @param ex      the ServiceBusyException instance
+     * @param request the HttpServletRequest to extract the request path
+     * @return a structured ErrorResponse wrapped in ResponseEntity
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ErrorResponse> handleServiceBusy(ServiceBusyException ex, HttpServletRequest request) {
+        countError(ErrorCode.SERVICE_BUSY, HttpStatus.SERVICE_UNAVAILABLE);
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
+    /**
+     * Handles clients exceeding a rate limit (e.g. too many login attempts).
+     * Rejected before any DB access or password hashing.
+     * <p>
+     * HTTP Status: 429 (Too Many Requests) with a Retry-After header.
+     *
+     * @param ex      the TooManyRequestsException instance
+     * @param request the HttpServletRequest to extract the request path
+     * @return a structured ErrorResponse wrapped in ResponseEntity
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorResponse> handleTooManyRequests(TooManyRequestsException ex, HttpServletRequest request) {
+        countError(ErrorCode.LOGIN_THROTTLED, HttpStatus.TOO_MANY_REQUESTS);
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.TOO_MANY_REQUESTS.value(),
+                HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase(),
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity
+                .status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     /**
      * Handles Spring Security's UsernameNotFoundException.
      * This occurs when authentication fails due to a non-existent user.
@@ -103,6 +328,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(Exception ex, HttpServletRequest request) {
+        countError(ErrorCode.INTERNAL_ERROR, HttpStatus.INTERNAL_SERVER_ERROR);
         ErrorResponse error = new ErrorResponse(
                 LocalDateTime.now(),
                 HttpStatus.INTERNAL_SERVER_ERROR.value(),
@@ -125,6 +351,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(UsernameNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleUsernameNotFound(UsernameNotFoundException ex, HttpServletRequest request) {
+        countError(ErrorCode.USER_NOT_FOUND, HttpStatus.NOT_FOUND);
         ErrorResponse error = new ErrorResponse(
                 LocalDateTime.now(),
                 HttpStatus.NOT_FOUND.value(),
@@ -135,4 +362,15 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(error, HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * Increments the error counter for an ErrorCode / HTTP status pair.
+     *
+     * @param errorCode one of the ErrorCode constants
+     * @param status    HTTP status returned to the client
+     */
+    private void countError(String errorCode, HttpStatus status) {
+        meterRegistry.counter("pos.errors",
+                "code", errorCode,
+                "status", String.valueOf(status.value())).increment();
+    }
 }
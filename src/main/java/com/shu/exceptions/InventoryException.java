@@ -0,0 +1,25 @@
+package com.shu.exceptions;
+
+import com.shu.constant.ErrorCode;
+import lombok.Getter;
+
+/**
+ * Custom exception for inventory errors
+ * (like not enough stock, unknown or expired reservation, etc.)
+ *
+ * Carries one of the {@link ErrorCode} constants (defaults to ErrorCode.INVENTORY_ERROR).
+ */
+@Getter
+public class InventoryException extends RuntimeException {
+
+    private final String errorCode;
+
+    public InventoryException(String message) {
+        this(ErrorCode.INVENTORY_ERROR, message);
+    }
+
+    public InventoryException(String errorCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+}
@@ -0,0 +1,25 @@
+package com.shu.exceptions;
+
+import com.shu.constant.ErrorCode;
+import lombok.Getter;
+
+/**
+ * Custom exception for order / checkout errors
+ * (like an empty cart, a missing Idempotency-Key, an unknown order, etc.)
+ *
+ * Carries one of the {@link ErrorCode} constants (defaults to ErrorCode.ORDER_ERROR).
+ */
+@Getter
+public class OrderException extends RuntimeException {
+
+    private final String errorCode;
+
+    public OrderException(String message) {
+        this(ErrorCode.ORDER_ERROR, message);
+    }
+
+    public OrderException(String errorCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+}
@@ -0,0 +1,30 @@
+package com.shu.exceptions;
+
+import com.shu.constant.ErrorCode;
+import lombok.Getter;
+
+/**
+ * Thrown when a payment could not be taken (declined, provider unavailable, timeout, ...).
+ * Nothing was charged when this is thrown from checkout.
+ *
+ * Carries one of the {@link ErrorCode} constants (defaults to ErrorCode.PAYMENT_FAILED).
+ */
+@Getter
+public class PaymentException extends RuntimeException {
+
+    private final String errorCode;
+
+    public PaymentException(String message) {
+        this(ErrorCode.PAYMENT_FAILED, message);
+    }
+
+    public PaymentException(String errorCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+
+    public PaymentException(String errorCode, String message, Throwable cause) {
+        super(message, cause);
+        this.errorCode = errorCode;
+    }
+}
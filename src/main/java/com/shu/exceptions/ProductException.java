@@ -0,0 +1,25 @@
+package com.shu.exceptions;
+
+import com.shu.constant.ErrorCode;
+import lombok.Getter;
+
+/**
+ * Custom exception for product-related errors
+ * (like unknown barcode, duplicate SKU, etc.)
+ *
+ * Carries one of the {@link ErrorCode} constants (defaults to ErrorCode.PRODUCT_ERROR).
+ */
+@Getter
+public class ProductException extends RuntimeException {
+
+    private final String errorCode;
+
+    public ProductException(String message) {
+        this(ErrorCode.PRODUCT_ERROR, message);
+    }
+
+    public ProductException(String errorCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+}
@@ -0,0 +1,25 @@
+package com.shu.exceptions;
+
+import com.shu.constant.ErrorCode;
+import lombok.Getter;
+
+/**
+ * Custom exception for reporting errors
+ * (like an invalid or too large date range)
+ *
+ * Carries one of the {@link ErrorCode} constants (defaults to ErrorCode.REPORT_ERROR).
+ */
+@Getter
+public class ReportException extends RuntimeException {
+
+    private final String errorCode;
+
+    public ReportException(String message) {
+        this(ErrorCode.REPORT_ERROR, message);
+    }
+
+    public ReportException(String errorCode, String message) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+}
@@ -0,0 +1,19 @@
+package com.shu.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a bounded resource (e.g. the password-hashing pool) is saturated.
+ * Mapped to 503 Service Unavailable with a Retry-After header,
+ * so clients back off instead of piling up requests.
+ */
+@Getter
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,18 @@
+package com.shu.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a client exceeds a rate limit (e.g. login attempts per email / IP).
+ * Mapped to 429 Too Many Requests with a Retry-After header.
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -1,11 +1,25 @@
 package com.shu.exceptions;
 
+import com.shu.constant.ErrorCode;
+import lombok.Getter;
+
 /**
  * Custom exception for user-related errors
  * (like invalid login, duplicate email, etc.)
+ *
+ * Carries one of the {@link ErrorCode} constants (defaults to ErrorCode.USER_ERROR).
  */
+@Getter
 public class UserException extends RuntimeException{
+
+    private final String errorCode;
+
     public UserException(String message) {
+        this(ErrorCode.USER_ERROR, message);
+    }
+
+    public UserException(String errorCode, String message) {
         super(message);
+        this.errorCode = errorCode;
     }
 }
@@ -1,9 +1,16 @@
 package com.shu.filter;
 
 import com.shu.constant.JwtConstant;
+import com.shu.service.auth.JwtProvider;
+import com.shu.service.auth.TokenIds;
+import com.shu.service.auth.TokenRevocationList;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,9 +23,10 @@ import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
+import java.util.Date;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * JwtValidator is a Spring Security filter that checks incoming HTTP requests
@@ -33,9 +41,55 @@ import java.util.List;
  *
  * This filter runs **once per request** (extends OncePerRequestFilter)
  * to ensure efficiency.
+ *
+ * Performance:
+ *  - The signing key and the JwtParser are built once (JwtParser is immutable and thread-safe).
+ *  - Tokens that were already verified are served from a {@link VerifiedTokenCache},
+ *    so repeat requests skip the signature check and the authority parsing.
+ *  - Validation time is recorded as "pos.auth.jwt.validation" (tag result = cached|verified|rejected).
+ *
+ * Revocation:
+ *  - Every token, cached or not, is checked against the {@link TokenRevocationList} (an in-memory
+ *    Bloom filter plus exact set, no database access): a revoked token, session or user is rejected
+ *    from the next request on.
+ *  - Refresh tokens are rejected here: they are only accepted by POST /auth/refresh.
  */
 public class JwtValidator extends OncePerRequestFilter {
 
+    // Prebuilt verifier shared by all requests
+    private static final JwtParser JWT_PARSER = Jwts.parser()
+            .verifyWith(Keys.hmacShaKeyFor(JwtConstant.SECRET_KEY.getBytes()))
+            .build();
+
+    private final VerifiedTokenCache tokenCache;
+    private final TokenRevocationList revocationList;
+
+    // Time spent validating the token, by outcome (cache hit, full verification, rejected)
+    private final Timer cachedTimer;
+    private final Timer verifiedTimer;
+    private final Timer rejectedTimer;
+
+    public JwtValidator() {
+        this(new VerifiedTokenCache(JwtConstant.VERIFIED_TOKEN_CACHE_SIZE));
+    }
+
+    public JwtValidator(VerifiedTokenCache tokenCache) {
+        this(tokenCache, Metrics.globalRegistry);
+    }
+
+    public JwtValidator(VerifiedTokenCache tokenCache, MeterRegistry meterRegistry) {
+        this(tokenCache, new TokenRevocationList(1024), meterRegistry);
+    }
+
+    public JwtValidator(VerifiedTokenCache tokenCache, TokenRevocationList revocationList,
+                        MeterRegistry meterRegistry) {
+        this.tokenCache = tokenCache;
+        this.revocationList = revocationList;
+        this.cachedTimer = validationTimer(meterRegistry, "cached");
+        this.verifiedTimer = validationTimer(meterRegistry, "verified");
+        this.rejectedTimer = validationTimer(meterRegistry, "rejected");
+    }
+
     /**
      * This method is called for every HTTP request.
      *
@@ -57,41 +111,94 @@ public class JwtValidator extends OncePerRequestFilter {
 
         // 2. Check if JWT is present and starts with "Bearer "
         if(jwt != null && jwt.startsWith(JwtConstant.BEARER_PREFIX)) {
-            // Remove "Bearer " prefix to get the actual token
-            jwt = jwt.substring(7);
-
+            long start = System.nanoTime();
+            Timer outcome = rejectedTimer;
             try {
-                // 3. Convert the secret key string into a SecretKey object
-                SecretKey key = Keys.hmacShaKeyFor(JwtConstant.SECRET_KEY.getBytes());
-
-                // 4. Parse and validate the JWT
-                Claims claims = Jwts.parser()
-                        .verifyWith(key)            // verify signature
-                        .build()
-                        .parseSignedClaims(jwt)     // parse JWT
-                        .getPayload();              // extract claims (data inside JWT)
-
-                // 5. Extract email and authorities (roles) from JWT claims
-                String email = String.valueOf(claims.get("email"));
-                String authorities = String.valueOf(claims.get("authorities"));
-
-                // 6️. Convert roles from String to List<GrantedAuthority>
-                List<GrantedAuthority> auths = AuthorityUtils
-                        .commaSeparatedStringToAuthorityList(authorities);
-
-                // 7️. Create Spring Security authentication object
-                Authentication auth = new UsernamePasswordAuthenticationToken(email, null, auths);
-
-                // 8️. Set authentication in the SecurityContext
-                // Spring Security will now consider this user as "authenticated"
-                SecurityContextHolder.getContext().setAuthentication(auth);
-            } catch (Exception e) {
-                // 9️. If anything fails (invalid token, expired, wrong signature), throw error
-                throw new BadCredentialsException("Invalid JWT...");
+                // Remove "Bearer " prefix to get the actual token
+                outcome = authenticate(jwt.substring(7));
+            } finally {
+                // Only the validation itself is timed, not the rest of the chain
+                outcome.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
             }
         }
 
         // Continue the filter chain (important!)
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Validates the token and sets the Authentication in the SecurityContext.
+     *
+     * @param jwt token without the "Bearer " prefix
+     * @return the timer matching the outcome (cached or verified)
+     * @throws BadCredentialsException if the token is invalid or revoked
+     */
+    private Timer authenticate(String jwt) {
+        long now = System.currentTimeMillis();
+
+        // 3. Fast path: token already verified by a previous request (revocation is still checked)
+        Authentication cached = tokenCache.get(jwt, now);
+        if (cached != null) {
+            checkNotRevoked((TokenIds) cached.getDetails(), now);
+            SecurityContextHolder.getContext().setAuthentication(cached);
+            return cachedTimer;
+        }
+
+        Claims claims;
+        try {
+            // 4. Parse and validate the JWT with the shared verifier
+            claims = JWT_PARSER
+                    .parseSignedClaims(jwt)     // parse JWT
+                    .getPayload();              // extract claims (data inside JWT)
+        } catch (Exception e) {
+            // If anything fails (invalid token, expired, wrong signature), throw error
+            throw new BadCredentialsException("Invalid JWT...");
+        }
+        if (JwtConstant.REFRESH_TOKEN_TYPE.equals(claims.get(JwtConstant.TOKEN_TYPE_CLAIM))) {
+            throw new BadCredentialsException("Refresh token used as access token");
+        }
+        TokenIds ids = JwtProvider.toTokenIds(claims);
+        checkNotRevoked(ids, now);
+
+        try {
+            // 5. Extract email and authorities (roles) from JWT claims
+            String email = String.valueOf(claims.get("email"));
+            String authorities = String.valueOf(claims.get("authorities"));
+
+            // 6️. Convert roles from String to List<GrantedAuthority>
+            List<GrantedAuthority> auths = AuthorityUtils
+                    .commaSeparatedStringToAuthorityList(authorities);
+
+            // 7️. Create Spring Security authentication object (the token ids ride along as details)
+            UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(email, null, auths);
+            auth.setDetails(ids);
+
+            // 8️. Set authentication in the SecurityContext
+            // Spring Security will now consider this user as "authenticated"
+            SecurityContextHolder.getContext().setAuthentication(auth);
+
+            // 9. Remember the verified token until it expires
+            Date expiration = claims.getExpiration();
+            if (expiration != null) {
+                tokenCache.put(jwt, auth, expiration.getTime());
+            }
+            return verifiedTimer;
+        } catch (Exception e) {
+            // 10. Malformed claims
+            throw new BadCredentialsException("Invalid JWT...");
+        }
+    }
+
+    private void checkNotRevoked(TokenIds ids, long now) {
+        if (ids != null && revocationList.isRevoked(ids, now)) {
+            throw new BadCredentialsException("Token revoked");
+        }
+    }
+
+    private static Timer validationTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("pos.auth.jwt.validation")
+                .description("Time spent validating the bearer token in JwtValidator")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,121 @@
+package com.shu.filter;
+
+import com.shu.service.diagnostics.SqlRequestStats;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SqlAccountingFilter counts the SQL statements each HTTP request runs (through the monitored DataSource)
+ * and records them next to http.server.requests, with the same method / uri tags:
+ *  - "pos.sql.request.statements" : statements per request
+ *  - "pos.sql.request.time"       : time spent in the database per request
+ *
+ * Query budget (catches N+1 queries):
+ *  - pos.diagnostics.sql.request-budget > 0: a request running more statements is logged (WARN).
+ *  - pos.diagnostics.sql.request-budget-mode=fail (tests only): the request fails with an
+ *    IllegalStateException instead, so MockMvc / @SpringBootTest tests fail on the endpoint.
+ *    The response body is buffered until the check (nothing is committed before it), so over HTTP
+ *    the client gets a 500 instead of a 200 with a truncated body. Async responses (streaming
+ *    exports) are buffered whole and copied on their last dispatch.
+ *
+ * Registered right after the observation filter: statements of the security filters are counted too.
+ * Statements of async request processing run on other threads and are not counted: streaming exports and
+ * the persist stage of a checkout (it runs where the payment completes). Checkout is covered by
+ * OrderServiceImplTest instead (same statement count for any cart size).
+ */
+@Slf4j
+public class SqlAccountingFilter extends OncePerRequestFilter {
+
+    public static final String BUDGET_MODE_LOG = "log";
+    public static final String BUDGET_MODE_FAIL = "fail";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry registry;
+    private final int budget;
+    private final boolean failOverBudget;
+
+    public SqlAccountingFilter(MeterRegistry registry, int budget, String budgetMode) {
+        this.registry = registry;
+        this.budget = budget;
+        this.failOverBudget = BUDGET_MODE_FAIL.equalsIgnoreCase(budgetMode);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // Fail mode: the buffered body of an async request is copied on its last dispatch
+        return !failOverBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            filterChain.doFilter(request, response);
+            copyBodyWhenComplete(request, response);
+            return;
+        }
+
+        HttpServletResponse target = failOverBudget ? new ContentCachingResponseWrapper(response) : response;
+        SqlRequestStats stats = SqlRequestStats.begin();
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            stats.end();
+        }
+
+        String uri = uri(request);
+        DistributionSummary.builder("pos.sql.request.statements")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(stats.getStatements());
+        Timer.builder("pos.sql.request.time")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+
+        if (budget > 0 && stats.getStatements() > budget) {
+            String message = String.format("%s %s ran %d SQL statements (budget %d): likely an N+1 query",
+                    request.getMethod(), uri, stats.getStatements(), budget);
+            if (failOverBudget) {
+                // The buffered body is dropped: the container turns the exception into a 500
+                throw new IllegalStateException(message);
+            }
+            log.warn(message);
+        }
+        copyBodyWhenComplete(request, target);
+    }
+
+    private static void copyBodyWhenComplete(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        ContentCachingResponseWrapper buffered =
+                WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (buffered != null && !request.isAsyncStarted()) {
+            buffered.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Route template (e.g. /api/orders/{id}) as in http.server.requests; never the raw path (unbounded tags).
+     */
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN_URI;
+    }
+}
@@ -0,0 +1,201 @@
+package com.shu.filter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * VerifiedTokenCache
+ *
+ * Bounded, thread-safe cache of JWTs whose signature has already been verified.
+ *
+ * Why?
+ * - A till sends hundreds of requests with the same token. Verifying the HMAC,
+ *   parsing the claims and splitting the authority string again for every call
+ *   is wasted CPU and allocation.
+ *
+ * How it works:
+ * - Entries are keyed by the SHA-256 digest of the token (the raw bearer token is never kept in memory).
+ * - Each entry keeps the immutable parts of the {@link Authentication} built on the first request
+ *   (principal, authorities, details); every hit gets a new Authentication, so a request that
+ *   changes its own (e.g. setAuthenticated(false) on logout) cannot leak into other requests.
+ * - Entries expire at the token's own "exp" claim, so a cached token is never accepted longer than the JWT allows.
+ * - When the cache is full, expired entries are purged first, then a slice of the remaining ones is dropped.
+ * - Hit/miss/eviction counters are kept in {@link LongAdder}s (cheap under contention)
+ *   and published as "pos.auth.token.cache.*" when the cache is registered as a bean.
+ */
+public class VerifiedTokenCache implements MeterBinder {
+
+    private static final MessageDigest SHA_256_PROTOTYPE = sha256();
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<TokenDigest, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedTokenCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new ConcurrentHashMap<>(Math.min(maxEntries, 1024));
+    }
+
+    /**
+     * Looks up an already verified token.
+     *
+     * @param token raw JWT (without "Bearer " prefix)
+     * @param nowMillis current time in epoch millis
+     * @return a new Authentication for this request, or null when the token is unknown or expired
+     */
+    public Authentication get(String token, long nowMillis) {
+        TokenDigest digest = TokenDigest.of(token);
+        Entry entry = entries.get(digest);
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAtMillis() <= nowMillis) {
+            // Token expired since it was cached → drop it and force a full verification
+            entries.remove(digest, entry);
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.toAuthentication();
+    }
+
+    /**
+     * Stores a verified token until its expiry time.
+     *
+     * @param token raw JWT (without "Bearer " prefix)
+     * @param authentication Authentication built from the token claims (immutable principal and details)
+     * @param expiresAtMillis value of the "exp" claim in epoch millis
+     */
+    public void put(String token, Authentication authentication, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        if (expiresAtMillis <= now) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            makeRoom(now);
+        }
+        entries.put(TokenDigest.of(token), new Entry(authentication.getPrincipal(),
+                List.copyOf(authentication.getAuthorities()), authentication.getDetails(), expiresAtMillis));
+    }
+
+    /**
+     * Drops every cached entry (e.g. after a signing key rotation).
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("pos.auth.token.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("pos.auth.token.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("pos.auth.token.cache.evictions", evictions, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("pos.auth.token.cache.size", entries, Map::size)
+                .register(registry);
+    }
+
+    /**
+     * 1. Remove everything that already expired.
+     * 2. Still full? Drop roughly a tenth of the entries so we don't do this on every put.
+     */
+    private void makeRoom(long now) {
+        entries.entrySet().removeIf(e -> {
+            boolean expired = e.getValue().expiresAtMillis() <= now;
+            if (expired) {
+                evictions.increment();
+            }
+            return expired;
+        });
+
+        int toDrop = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        Iterator<Map.Entry<TokenDigest, Entry>> it = entries.entrySet().iterator();
+        while (toDrop > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictions.increment();
+            toDrop--;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private record Entry(Object principal, List<GrantedAuthority> authorities, Object details,
+                         long expiresAtMillis) {
+
+        Authentication toAuthentication() {
+            UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(principal, null, authorities);
+            authentication.setDetails(details);
+            return authentication;
+        }
+    }
+
+    /**
+     * 256-bit token digest stored as four longs (no byte[] or String kept per entry).
+     */
+    private record TokenDigest(long a, long b, long c, long d) {
+
+        static TokenDigest of(String token) {
+            MessageDigest md;
+            try {
+                // Cloning the prototype skips the provider lookup of MessageDigest.getInstance
+                md = (MessageDigest) SHA_256_PROTOTYPE.clone();
+            } catch (CloneNotSupportedException e) {
+                md = sha256();
+            }
+            ByteBuffer buf = ByteBuffer.wrap(md.digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenDigest(buf.getLong(), buf.getLong(), buf.getLong(), buf.getLong());
+        }
+    }
+}
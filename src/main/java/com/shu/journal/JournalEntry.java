@@ -0,0 +1,10 @@
+package com.shu.journal;
+
+/**
+ * One record read back from a {@link SegmentedJournal}.
+ *
+ * @param lsn     log sequence number (1, 2, 3, ... without gaps)
+ * @param payload record bytes as appended
+ */
+public record JournalEntry(long lsn, byte[] payload) {
+}
@@ -0,0 +1,511 @@
+package com.shu.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * SegmentedJournal
+ *
+ * Crash-safe, append-only log on local disk (write-ahead log for write-behind components).
+ *
+ * Why?
+ * - Write-behind (batching writes to MySQL) is only safe if what was acknowledged survives a crash.
+ *   Appending to a local file and fsyncing is far cheaper than a DB round-trip per change.
+ *
+ * Format:
+ * - Segment files "<base-lsn>.log" (20 digits), rolled over at {@code segmentBytes}.
+ * - Record: [int payloadLength][long lsn][int crc32c(lsn + payload)][payload].
+ *
+ * Durability:
+ * - {@link #append(byte[])} returns once the record is on disk. fsync is a group commit:
+ *   one {@code force()} covers every record written before it, so concurrent appenders share it.
+ * - With {@code fsync=false} records only reach the OS page cache (survives a JVM crash, not a power loss).
+ * - A failed write or fsync fails the journal: the file is truncated back to the last durable record
+ *   (so records whose append failed never come back) and every later append is refused until restart.
+ *
+ * Recovery:
+ * - On open, every segment is scanned; a torn or corrupt tail (partial write during a crash)
+ *   is truncated at the last valid record.
+ *
+ * Consumption:
+ * - {@link #read(long, int)} reads durable records from a given LSN (replay after restart and
+ *   the regular write-behind flush use the same path).
+ * - {@link #deleteUpTo(long)} removes whole segments once their records are persisted elsewhere.
+ *
+ * Identity:
+ * - {@link #getId()} is a random id written to "journal.id" when the directory is first used. Consumers
+ *   key their checkpoint with it: a checkpoint only ever describes the journal it was taken from,
+ *   not another node's journal or a directory that was wiped and started over.
+ */
+@Slf4j
+public class SegmentedJournal implements Closeable {
+
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final String SUFFIX = ".log";
+    private static final String ID_FILE = "journal.id";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final boolean fsync;
+    private final String id;
+
+    // base LSN → segment file, oldest first
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private FileChannel active;
+    private long activeBase;
+    private long nextLsn;
+    private volatile long writtenLsn;
+    // Last durable record and where it ends; only moves forward
+    private final AtomicReference<DurablePoint> durable = new AtomicReference<>();
+    private volatile IOException failure;
+
+    // Where the last read() stopped, so the next sequential read does not rescan the segment
+    private volatile ReadPosition readHint;
+
+    public SegmentedJournal(Path directory, long segmentBytes, boolean fsync) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+        try {
+            Files.createDirectories(directory);
+            id = loadOrCreateId();
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal " + directory, e);
+        }
+    }
+
+    /**
+     * Appends a record and waits until it is durable.
+     *
+     * @return the LSN assigned to the record
+     */
+    public long append(byte[] payload) {
+        long lsn;
+        appendLock.lock();
+        try {
+            checkNotFailed();
+            if (active.position() + HEADER_BYTES + payload.length > segmentBytes && active.position() > 0) {
+                roll();
+            }
+            lsn = nextLsn;
+            ByteBuffer record = encode(lsn, payload);
+            while (record.hasRemaining()) {
+                active.write(record);
+            }
+            nextLsn = lsn + 1;
+            writtenLsn = lsn;
+        } catch (IOException e) {
+            throw fail("append", e);
+        } finally {
+            appendLock.unlock();
+        }
+        sync(lsn);
+        return lsn;
+    }
+
+    /**
+     * Reads durable records starting at {@code fromLsn}.
+     *
+     * @param fromLsn    first LSN to return
+     * @param maxEntries upper bound of returned records
+     * @return records in LSN order (empty when nothing newer is durable)
+     */
+    public List<JournalEntry> read(long fromLsn, int maxEntries) {
+        List<JournalEntry> entries = new ArrayList<>();
+        long upTo = getDurableLsn();
+        if (fromLsn > upTo) {
+            return entries;
+        }
+
+        ReadPosition hint = readHint;
+        boolean resume = hint != null && hint.lsn() == fromLsn && segments.containsKey(hint.base());
+        Long base = resume ? Long.valueOf(hint.base()) : segments.floorKey(fromLsn);
+        if (base == null) {
+            base = segments.isEmpty() ? null : segments.firstKey();
+        }
+        long start = resume ? hint.position() : 0;
+        while (base != null && entries.size() < maxEntries) {
+            Path segment = segments.get(base);
+            if (segment == null) {
+                break;   // deleted concurrently
+            }
+            long segmentBase = base;
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                scan(channel, start, (lsn, payload, end) -> {
+                    if (lsn > upTo || entries.size() >= maxEntries) {
+                        return false;
+                    }
+                    if (lsn >= fromLsn) {
+                        entries.add(new JournalEntry(lsn, payload));
+                        readHint = new ReadPosition(lsn + 1, segmentBase, end);
+                    }
+                    return true;
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Journal read failed in " + segment, e);
+            }
+            base = segments.higherKey(base);
+            start = 0;
+        }
+        return entries;
+    }
+
+    /**
+     * Moves the next LSN past {@code lsn} when the journal ends before it, e.g. its directory was wiped or
+     * replaced by an older copy while the consumer's checkpoint (kept elsewhere) is at {@code lsn}.
+     * New records then get LSNs the consumer reads, instead of LSNs it considers already persisted.
+     *
+     * @return true when the journal was behind and has been moved
+     */
+    public boolean skipTo(long lsn) {
+        appendLock.lock();
+        try {
+            checkNotFailed();
+            if (nextLsn > lsn) {
+                return false;
+            }
+            boolean empty = active.size() == 0;
+            active.force(false);
+            active.close();
+            if (empty) {
+                Files.deleteIfExists(segments.remove(activeBase));
+            }
+            // The segment name carries the new base, so the skip survives a restart
+            nextLsn = lsn + 1;
+            writtenLsn = lsn;
+            openSegment(nextLsn);
+            markDurable(lsn, activeBase, 0);
+            return true;
+        } catch (IOException e) {
+            throw fail("skip", e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Deletes segments that only contain records up to (and including) {@code lsn}.
+     * The active segment is never deleted.
+     */
+    public void deleteUpTo(long lsn) {
+        appendLock.lock();
+        try {
+            while (segments.size() > 1) {
+                long oldest = segments.firstKey();
+                Long next = segments.higherKey(oldest);
+                if (next == null || next - 1 > lsn) {
+                    break;
+                }
+                Path file = segments.remove(oldest);
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete journal segments in {}", directory, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @return LSN of the last durable record (0 when the journal is empty)
+     */
+    public long getDurableLsn() {
+        return durable.get().lsn();
+    }
+
+    /**
+     * @return id of this journal directory, stable across restarts
+     */
+    public String getId() {
+        return id;
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            if (active != null && active.isOpen()) {
+                if (failure == null) {
+                    active.force(false);
+                }
+                active.close();
+            }
+        } catch (IOException e) {
+            log.warn("Closing journal {} failed", directory, e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Group commit: the first waiter forces the file, later ones find their LSN already durable.
+     */
+    private void sync(long lsn) {
+        if (getDurableLsn() >= lsn) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (getDurableLsn() >= lsn) {
+                return;
+            }
+            long target;
+            long base;
+            long position;
+            FileChannel channel;
+            appendLock.lock();
+            try {
+                // After a failure the records past the durable point are gone: never report them durable
+                checkNotFailed();
+                target = writtenLsn;
+                base = activeBase;
+                channel = active;
+                position = channel.position();
+            } catch (IOException e) {
+                throw fail("sync", e);
+            } finally {
+                appendLock.unlock();
+            }
+            if (fsync) {
+                try {
+                    // roll() forces a segment before switching, so forcing the current one is enough
+                    force(channel);
+                } catch (IOException e) {
+                    if (getDurableLsn() >= target) {
+                        return;   // rolled meanwhile: roll() forced these records and closed the channel
+                    }
+                    throw fail("fsync", e);
+                }
+            }
+            markDurable(target, base, position);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Test seam for fsync failures.
+     */
+    void force(FileChannel channel) throws IOException {
+        channel.force(false);
+    }
+
+    private void roll() throws IOException {
+        force(active);
+        active.close();
+        openSegment(nextLsn);
+        markDurable(writtenLsn, activeBase, 0);
+    }
+
+    private void openSegment(long base) throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", base, SUFFIX));
+        active = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        active.position(active.size());
+        activeBase = base;
+        segments.put(base, file);
+    }
+
+    private void markDurable(long lsn, long base, long position) {
+        DurablePoint point = new DurablePoint(lsn, base, position);
+        durable.accumulateAndGet(point, (current, next) -> next.lsn() > current.lsn() ? next : current);
+    }
+
+    private void checkNotFailed() {
+        if (failure != null) {
+            throw new UncheckedIOException("Journal " + directory + " failed earlier, restart to recover", failure);
+        }
+    }
+
+    /**
+     * Fails the journal: records after the durable point (unacknowledged, possibly half written) are cut off,
+     * so neither a later fsync nor a restart can bring back a record whose append was reported as failed.
+     */
+    private UncheckedIOException fail(String operation, IOException cause) {
+        appendLock.lock();
+        try {
+            if (failure == null) {
+                failure = cause;
+                DurablePoint point = durable.get();
+                log.error("Journal {} failed ({}): records after LSN {} discarded, appends refused until restart",
+                        directory, operation, point.lsn(), cause);
+                discardAfter(point);
+            }
+        } finally {
+            appendLock.unlock();
+        }
+        return new UncheckedIOException("Journal " + operation + " failed in " + directory, cause);
+    }
+
+    private void discardAfter(DurablePoint point) {
+        try {
+            if (active.isOpen()) {
+                active.close();
+            }
+            for (Long base : List.copyOf(segments.tailMap(point.base(), false).keySet())) {
+                Files.deleteIfExists(segments.remove(base));
+            }
+            Path segment = segments.get(point.base());
+            if (segment != null) {
+                try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                    channel.truncate(point.position());
+                    channel.force(true);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Journal {}: could not discard records after LSN {}, they may be replayed on restart",
+                    directory, point.lsn(), e);
+        }
+    }
+
+    private String loadOrCreateId() throws IOException {
+        Path file = directory.resolve(ID_FILE);
+        if (Files.exists(file)) {
+            return Files.readString(file).trim();
+        }
+        String created = UUID.randomUUID().toString();
+        Path tmp = directory.resolve(ID_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(created.getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        return created;
+    }
+
+    /**
+     * Scans all segments, truncates a torn tail and positions the writer after the last valid record.
+     */
+    private void recover() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(f -> f.getFileName().toString().endsWith(SUFFIX))
+                    .forEach(f -> {
+                        String name = f.getFileName().toString();
+                        segments.put(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), f);
+                    });
+        }
+
+        long lastLsn = 0;
+        for (var segment : segments.entrySet()) {
+            long[] last = {segment.getKey() - 1};
+            long validEnd;
+            try (FileChannel channel = FileChannel.open(segment.getValue(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                validEnd = scan(channel, 0, (lsn, payload, end) -> {
+                    if (lsn != last[0] + 1) {
+                        return false;   // gap → treat the rest as garbage
+                    }
+                    last[0] = lsn;
+                    return true;
+                });
+                if (validEnd < channel.size()) {
+                    log.warn("Journal {}: truncating torn tail of {} at byte {}",
+                            directory, segment.getValue().getFileName(), validEnd);
+                    channel.truncate(validEnd);
+                    channel.force(true);
+                }
+            }
+            lastLsn = Math.max(lastLsn, last[0]);
+        }
+
+        nextLsn = lastLsn + 1;
+        writtenLsn = lastLsn;
+        if (segments.isEmpty()) {
+            openSegment(1);
+        } else {
+            openSegment(segments.lastKey());
+        }
+        durable.set(new DurablePoint(lastLsn, activeBase, active.position()));
+        log.info("Journal {} opened: {} segments, last lsn {}", directory, segments.size(), lastLsn);
+    }
+
+    private static ByteBuffer encode(long lsn, byte[] payload) {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length);
+        record.putLong(lsn);
+        record.putInt(checksum(lsn, payload));
+        record.put(payload);
+        return record.flip();
+    }
+
+    private static int checksum(long lsn, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(lsn).flip());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Reads records from a record boundary of a segment until the end, a corrupt record or the visitor stops.
+     *
+     * @return byte offset after the last accepted record
+     */
+    private static long scan(FileChannel channel, long start, RecordVisitor visitor) throws IOException {
+        long position = start;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, position);
+            header.flip();
+            int length = header.getInt();
+            long lsn = header.getLong();
+            int crc = header.getInt();
+            if (length < 0 || position + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            while (payload.hasRemaining()) {
+                if (channel.read(payload, position + HEADER_BYTES + payload.position()) < 0) {
+                    break;
+                }
+            }
+            if (payload.hasRemaining() || checksum(lsn, payload.array()) != crc) {
+                break;
+            }
+            long end = position + HEADER_BYTES + length;
+            if (!visitor.visit(lsn, payload.array(), end)) {
+                break;
+            }
+            position = end;
+        }
+        return position;
+    }
+
+    private record ReadPosition(long lsn, long base, long position) {
+    }
+
+    private record DurablePoint(long lsn, long base, long position) {
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        boolean visit(long lsn, byte[] payload, long end);
+    }
+}
@@ -0,0 +1,53 @@
+package com.shu.mapper;
+
+import com.shu.model.dto.OrderDto;
+import com.shu.model.entity.Order;
+import com.shu.model.entity.OrderItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OrderMapper
+ *
+ * Responsibility:
+ * - Maps the Order entity (with its lines) to an OrderDto for API responses.
+ */
+public class OrderMapper {
+
+    /**
+     * Converts an Order entity into an OrderDto.
+     *
+     * @param order The Order entity with its items loaded
+     * @return OrderDto for API responses
+     */
+    public static OrderDto toDTO(Order order) {
+        OrderDto orderDto = new OrderDto();
+
+        orderDto.setId(order.getId());
+        orderDto.setOrderNumber(order.getOrderNumber());
+        orderDto.setBranchId(order.getBranchId());
+        orderDto.setCashierId(order.getCashierId());
+        orderDto.setStatus(order.getStatus());
+        orderDto.setPaymentMethod(order.getPaymentMethod());
+        orderDto.setPaymentProvider(order.getPaymentProvider());
+        orderDto.setPaymentReference(order.getPaymentReference());
+        orderDto.setTotalAmount(order.getTotalAmount());
+        orderDto.setCreatedAt(order.getCreatedAt());
+
+        List<OrderDto.Item> items = new ArrayList<>(order.getItems().size());
+        for (OrderItem orderItem : order.getItems()) {
+            OrderDto.Item item = new OrderDto.Item();
+            item.setProductId(orderItem.getProductId());
+            item.setSku(orderItem.getSku());
+            item.setName(orderItem.getName());
+            item.setQuantity(orderItem.getQuantity());
+            item.setUnitPrice(orderItem.getUnitPrice());
+            item.setLineTotal(orderItem.getLineTotal());
+            items.add(item);
+        }
+        orderDto.setItems(items);
+
+        return orderDto;
+    }
+}
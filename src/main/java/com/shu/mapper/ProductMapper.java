@@ -0,0 +1,59 @@
+package com.shu.mapper;
+
+import com.shu.model.dto.ProductDto;
+import com.shu.model.entity.Product;
+import com.shu.payload.request.ProductRequest;
+
+/**
+ * ProductMapper
+ *
+ * Responsibility:
+ * - Maps the Product entity to a ProductDto (API responses and the catalog index).
+ * - Copies a ProductRequest onto a new or existing Product entity.
+ */
+public class ProductMapper {
+
+    /**
+     * Converts a Product entity into a ProductDto.
+     *
+     * @param product The Product entity fetched or saved in the database
+     * @return ProductDto for API responses
+     */
+    public static ProductDto toDTO(Product product) {
+        ProductDto productDto = new ProductDto();
+
+        productDto.setId(product.getId());
+        productDto.setName(product.getName());
+        productDto.setSku(product.getSku());
+        productDto.setBarcode(product.getBarcode());
+        productDto.setCategory(product.getCategory());
+        productDto.setBrand(product.getBrand());
+        productDto.setMrp(product.getMrp());
+        productDto.setSellingPrice(product.getSellingPrice());
+        productDto.setDescription(product.getDescription());
+        productDto.setActive(product.isActive());
+
+        productDto.setCreatedAt(product.getCreatedAt());
+        productDto.setUpdatedAt(product.getUpdatedAt());
+
+        return productDto;
+    }
+
+    /**
+     * Copies the editable fields of a request onto a Product entity.
+     *
+     * @param request ProductRequest from the client
+     * @param product new or managed Product entity
+     */
+    public static void copy(ProductRequest request, Product product) {
+        product.setName(request.getName().trim());
+        product.setSku(request.getSku().trim());
+        product.setBarcode(request.getBarcode() == null || request.getBarcode().isBlank()
+                ? null : request.getBarcode().trim());
+        product.setCategory(request.getCategory());
+        product.setBrand(request.getBrand());
+        product.setMrp(request.getMrp());
+        product.setSellingPrice(request.getSellingPrice());
+        product.setDescription(request.getDescription());
+    }
+}
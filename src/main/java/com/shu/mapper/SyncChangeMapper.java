@@ -0,0 +1,71 @@
+package com.shu.mapper;
+
+import com.shu.domain.ChangeType;
+import com.shu.domain.UserRole;
+import com.shu.model.dto.ProductDto;
+import com.shu.payload.response.SyncChange;
+import com.shu.payload.response.SyncRosterEntry;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * SyncChangeMapper
+ *
+ * Responsibility:
+ * - Maps product / user rows changed in a version range to change-feed entries.
+ * - Reads the columns directly (no entity, no persistence context), like the export mappers.
+ *
+ * Notes:
+ * - An inactive product is sent as a tombstone (deleted, no data).
+ * - Users: roster fields only (id, name, role), see SyncRosterEntry. No contact data or password hash,
+ *   and no lastLogin (logins do not bump the version, the value would be stale).
+ */
+public class SyncChangeMapper {
+
+    /** Parameters: after version (exclusive), up to version (inclusive), limit */
+    public static final String PRODUCTS_SQL =
+            "SELECT id, name, sku, barcode, category, brand, mrp, selling_price, description, active, "
+                    + "created_at, updated_at, sync_version FROM product "
+                    + "WHERE sync_version > ? AND sync_version <= ? ORDER BY sync_version LIMIT ?";
+
+    /** Parameters: after version (exclusive), up to version (inclusive), limit */
+    public static final String USERS_SQL =
+            "SELECT id, full_name, role, updated_at, sync_version FROM user "
+                    + "WHERE sync_version > ? AND sync_version <= ? ORDER BY sync_version LIMIT ?";
+
+    /**
+     * Maps the current row of a ResultSet of PRODUCTS_SQL.
+     */
+    public static SyncChange toProductChange(ResultSet rs) throws SQLException {
+        long id = rs.getLong(1);
+        long version = rs.getLong(13);
+        if (!rs.getBoolean(10)) {
+            return new SyncChange(version, ChangeType.PRODUCT, id, true, null);
+        }
+        ProductDto product = new ProductDto();
+        product.setId(id);
+        product.setName(rs.getString(2));
+        product.setSku(rs.getString(3));
+        product.setBarcode(rs.getString(4));
+        product.setCategory(rs.getString(5));
+        product.setBrand(rs.getString(6));
+        product.setMrp(rs.getBigDecimal(7));
+        product.setSellingPrice(rs.getBigDecimal(8));
+        product.setDescription(rs.getString(9));
+        product.setActive(true);
+        product.setCreatedAt(rs.getObject(11, LocalDateTime.class));
+        product.setUpdatedAt(rs.getObject(12, LocalDateTime.class));
+        return new SyncChange(version, ChangeType.PRODUCT, id, false, product);
+    }
+
+    /**
+     * Maps the current row of a ResultSet of USERS_SQL.
+     */
+    public static SyncChange toUserChange(ResultSet rs) throws SQLException {
+        SyncRosterEntry user = new SyncRosterEntry(rs.getLong(1), rs.getString(2),
+                UserRole.valueOf(rs.getString(3)), rs.getObject(4, LocalDateTime.class));
+        return new SyncChange(rs.getLong(5), ChangeType.USER, user.getId(), false, user);
+    }
+}
@@ -0,0 +1,45 @@
+package com.shu.mapper;
+
+import com.shu.service.export.ExportWriter;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+/**
+ * UserExportMapper
+ *
+ * Responsibility:
+ * - Maps one row of the user table to one export row, like UserMapper does for the API.
+ * - The password hash is not selected at all, so it cannot end up in an export.
+ *
+ * Why not UserMapper?
+ * - An export reads the ResultSet directly (no User entity, no UserDto per row),
+ *   so the full user list streams in constant memory.
+ */
+public class UserExportMapper {
+
+    public static final String[] COLUMNS = {
+            "id", "full_name", "email", "phone", "role", "created_at", "updated_at", "last_login"
+    };
+
+    /** Column order = COLUMNS */
+    public static final String SELECT_SQL =
+            "SELECT id, full_name, email, phone, role, created_at, updated_at, last_login FROM user ORDER BY id";
+
+    /**
+     * Writes the current row of a ResultSet of SELECT_SQL.
+     */
+    public static void writeRow(ResultSet rs, ExportWriter out) throws SQLException, IOException {
+        out.value(rs.getLong(1));
+        out.value(rs.getString(2));
+        out.value(rs.getString(3));
+        out.value(rs.getString(4));
+        out.value(rs.getString(5));
+        out.value(rs.getObject(6, LocalDateTime.class));
+        out.value(rs.getObject(7, LocalDateTime.class));
+        out.value(rs.getObject(8, LocalDateTime.class));
+        out.endRow();
+    }
+}
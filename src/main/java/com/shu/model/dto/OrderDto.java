@@ -0,0 +1,53 @@
+package com.shu.model.dto;
+
+import com.shu.domain.OrderStatus;
+import com.shu.domain.PaymentMethod;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) for Order entity.
+ *
+ * Represents a placed order (receipt) returned in API responses.
+ */
+@Data
+public class OrderDto {
+
+    private Long id;
+
+    private String orderNumber;
+
+    private Long branchId;
+
+    private Long cashierId;
+
+    private OrderStatus status;
+
+    private PaymentMethod paymentMethod;
+
+    private String paymentProvider;
+
+    private String paymentReference;
+
+    private BigDecimal totalAmount;
+
+    private List<Item> items;
+
+    private LocalDateTime createdAt;
+
+    /**
+     * One receipt line.
+     */
+    @Data
+    public static class Item {
+        private Long productId;
+        private String sku;
+        private String name;
+        private long quantity;
+        private BigDecimal unitPrice;
+        private BigDecimal lineTotal;
+    }
+}
@@ -0,0 +1,41 @@
+package com.shu.model.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Data Transfer Object (DTO) for Product entity.
+ *
+ * Represents product information returned in API responses.
+ *
+ * Note:
+ * - Instances held by the catalog index are shared between requests: treat them as read-only.
+ */
+@Data
+public class ProductDto {
+
+    private Long id;
+
+    private String name;
+
+    private String sku;
+
+    private String barcode;
+
+    private String category;
+
+    private String brand;
+
+    private BigDecimal mrp;
+
+    private BigDecimal sellingPrice;
+
+    private String description;
+
+    private boolean active;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.shu.model.entity;
+
+import jakarta.persistence.Id;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ *
+ * BASE ENTITY:
+ * Shared primary key mapping for every entity in the POS system.
+ *
+ * ID generation:
+ * - One sequence per entity, named "<table>_seq" (e.g. "user_seq", the name used so far),
+ *   generated by {@link PooledIdGenerator} (see {@link PooledId}).
+ *   On MySQL (no native sequences) Hibernate emulates it with a one-row table.
+ * - allocationSize = {@value #ID_ALLOCATION_SIZE}: a single round-trip to the sequence reserves
+ *   a block of ids, the next inserts take ids from memory.
+ * - Optimizer "pooled-lo": the stored value is the first id of the next free block, so ids
+ *   handed out before (previous "pooled" optimizer with blocks of 50) are never reused.
+ * - Unlike IDENTITY, ids are known before the INSERT, so Hibernate can send inserts
+ *   as JDBC batches (hibernate.jdbc.batch_size).
+ *
+ * Note: ids are unique but not gap-free (unused ids of a block are lost on restart).
+ */
+@MappedSuperclass
+@Getter
+@Setter
+public abstract class BaseEntity {
+
+    public static final int ID_ALLOCATION_SIZE = 100;
+
+    @Id
+    @PooledId
+    private Long id;
+}
@@ -0,0 +1,30 @@
+package com.shu.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Composite key of {@link BranchHourlySales}: one rollup row per (branch, hour).
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class BranchHourId implements Serializable {
+
+    @Column(nullable = false)
+    private Long branchId;
+
+    @Column(nullable = false)
+    private LocalDateTime hourStart;
+}
@@ -0,0 +1,51 @@
+package com.shu.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+
+/**
+ *
+ * BRANCH HOURLY SALES ENTITY:
+ * Pre-aggregated sales of a branch in one hour (dashboard rollup).
+ *
+ * Fields:
+ * - id             : (branchId, hourStart), natural key (see BranchHourId). hourStart is the
+ *                    order's createdAt truncated to the hour.
+ * - orderCount     : Orders placed in the hour.
+ * - grossAmount    : Sum of their totals.
+ * - refundCount    : Orders of the hour refunded since (late correction, booked on the sale's hour).
+ * - refundedAmount : Sum of the refunded totals.
+ * - updatedAt      : Last change of the row.
+ *
+ * Note:
+ * - Rows are only written as upserts of deltas (see SalesRollupService), never read-modify-write.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class BranchHourlySales {
+
+    @EmbeddedId
+    private BranchHourId id;
+
+    @Column(nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal grossAmount;
+
+    @Column(nullable = false)
+    private long refundCount;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal refundedAmount;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,39 @@
+package com.shu.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+
+/**
+ *
+ * INVENTORY ENTITY:
+ * Persisted stock level of a product in a branch.
+ *
+ * Fields:
+ * - id        : (branchId, productId), natural key (see InventoryId) - no generated id, rows are
+ *               upserted in batches by the inventory write-behind.
+ * - quantity  : Units on hand as of the last persisted stock movement.
+ * - updatedAt : Timestamp of the last persisted movement.
+ *
+ * Note:
+ * - The live stock level (including reservations of open carts) is kept in memory by the
+ *   inventory service; this table is its durable copy.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class Inventory {
+
+    @EmbeddedId
+    private InventoryId id;
+
+    @Column(nullable = false)
+    private long quantity;
+
+    private LocalDateTime updatedAt;
+}
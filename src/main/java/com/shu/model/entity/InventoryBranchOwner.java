@@ -0,0 +1,36 @@
+package com.shu.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+
+/**
+ *
+ * INVENTORY BRANCH OWNER ENTITY:
+ * Inventory node that serves the stock of a branch (see InventoryBranchClaims).
+ *
+ * Fields:
+ * - branchId  : Branch served by the node; 0 = every branch (a single inventory node).
+ * - journalId : Id of the node's inventory journal, null once released.
+ * - claimedAt : When the node claimed the branch.
+ *
+ * Note:
+ * - Row 0 always exists once a node has started: it is locked while claiming, so startups are serialized.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryBranchOwner {
+
+    @Id
+    private Long branchId;
+
+    @Column(length = 36)
+    private String journalId;
+
+    private LocalDateTime claimedAt;
+}
@@ -0,0 +1,29 @@
+package com.shu.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+
+/**
+ * Composite key of {@link Inventory}: one stock level per (branch, product).
+ */
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class InventoryId implements Serializable {
+
+    @Column(nullable = false)
+    private Long branchId;
+
+    @Column(nullable = false)
+    private Long productId;
+}
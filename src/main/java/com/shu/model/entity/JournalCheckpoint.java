@@ -0,0 +1,31 @@
+package com.shu.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+
+/**
+ *
+ * JOURNAL CHECKPOINT ENTITY:
+ * Highest journal LSN already persisted to MySQL, per local journal.
+ *
+ * Fields:
+ * - journal : Name and id of the journal (e.g. "inventory:<journal id>"): each node's journal has its own row.
+ * - lsn     : Records up to this LSN are in the database; replay starts after it.
+ *
+ * Written in the same transaction as the records it covers.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class JournalCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String journal;
+
+    @Column(nullable = false)
+    private long lsn;
+}
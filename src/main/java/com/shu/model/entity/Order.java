@@ -0,0 +1,89 @@
+package com.shu.model.entity;
+
+import com.shu.domain.OrderStatus;
+import com.shu.domain.PaymentMethod;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ *
+ * ORDER ENTITY:
+ * A paid till sale (header). Stored in table "orders" ("order" is a reserved word).
+ *
+ * Fields:
+ * - id               : Unique identifier (Primary Key, see BaseEntity).
+ * - idempotencyKey   : Idempotency-Key sent by the till (unique, a retried checkout returns this order).
+ * - requestHash      : Fingerprint of the checkout request (same key with another cart is rejected).
+ * - branchId         : Branch where the sale happened.
+ * - cashierId        : User who rang up the sale.
+ * - status           : OrderStatus.
+ * - paymentMethod    : PaymentMethod.
+ * - paymentProvider  : Provider that took the payment (null for cash).
+ * - paymentReference : Provider payment id (payment webhooks find the order by provider + reference).
+ * - totalAmount      : Sum of the line totals.
+ * - items            : Order lines, inserted with the header in one JDBC batch.
+ * - createdAt        : When the order was placed.
+ *
+ * The receipt number ({@link #getOrderNumber()}) is derived from branch and id, so it needs no column
+ * and is known as soon as the pooled id is assigned (before the INSERT).
+ */
+@Entity
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_branch_created", columnList = "branchId, createdAt"),
+        @Index(name = "idx_orders_payment", columnList = "paymentProvider, paymentReference")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class Order extends BaseEntity {
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false)
+    private Long branchId;
+
+    private Long cashierId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private PaymentMethod paymentMethod;
+
+    private String paymentProvider;
+
+    private String paymentReference;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalAmount;
+
+    @OneToMany(mappedBy = "order", cascade = CascadeType.PERSIST)
+    @EqualsAndHashCode.Exclude
+    private List<OrderItem> items = new ArrayList<>();
+
+    private LocalDateTime createdAt;
+
+    @Transient
+    public String getOrderNumber() {
+        return getId() == null ? null : String.format("B%d-%010d", branchId, getId());
+    }
+
+    public void addItem(OrderItem item) {
+        item.setOrder(this);
+        items.add(item);
+    }
+}
@@ -0,0 +1,55 @@
+package com.shu.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+
+/**
+ *
+ * ORDER ITEM ENTITY:
+ * One line of an order. Product name, SKU and price are copied at checkout,
+ * so later catalog changes do not alter past receipts.
+ *
+ * Fields:
+ * - id        : Unique identifier (Primary Key, see BaseEntity).
+ * - order     : Owning order (many-to-one, lazy).
+ * - productId : Product sold.
+ * - sku       : SKU at the time of sale.
+ * - name      : Product name at the time of sale.
+ * - quantity  : Units sold.
+ * - unitPrice : Selling price at the time of sale.
+ * - lineTotal : unitPrice x quantity.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_order_item_order", columnList = "order_id"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class OrderItem extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "order_id")
+    @EqualsAndHashCode.Exclude
+    private Order order;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(length = 64)
+    private String sku;
+
+    private String name;
+
+    @Column(nullable = false)
+    private long quantity;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal unitPrice;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal lineTotal;
+}
@@ -0,0 +1,76 @@
+package com.shu.model.entity;
+
+import com.shu.domain.MailStatus;
+import com.shu.domain.MailType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ *
+ * OUTBOX MAIL ENTITY:
+ * An e-mail waiting to be sent (transactional outbox). Inserted in the same transaction as the
+ * change it is about (order, user), sent later by MailOutboxSender.
+ *
+ * Fields:
+ * - id            : Unique identifier (Primary Key, see BaseEntity). Also used in the Message-ID.
+ * - type          : MailType.
+ * - recipient     : Recipient e-mail address.
+ * - subject       : Rendered subject.
+ * - body          : Rendered plain-text body.
+ * - status        : MailStatus.
+ * - attempts      : Send attempts so far.
+ * - nextAttemptAt : Not sent before this time (retry backoff, or the lease of a sender working on it).
+ * - claimToken    : Poll that currently owns the mail (null when not claimed).
+ * - lastError     : Error of the last failed attempt.
+ * - createdAt     : When the mail was queued (queue age).
+ * - sentAt        : When the SMTP server accepted it.
+ */
+@Entity
+@Table(name = "mail_outbox", indexes = {
+        @Index(name = "idx_mail_outbox_due", columnList = "status, nextAttemptAt"),
+        @Index(name = "idx_mail_outbox_claim", columnList = "claimToken")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class OutboxMail extends BaseEntity {
+
+    @Column(nullable = false, length = 32)
+    @Enumerated(EnumType.STRING)
+    private MailType type;
+
+    @Column(nullable = false, length = 320)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Lob
+    @Column(nullable = false, length = 65_535)
+    private String body;
+
+    @Column(nullable = false, length = 16)
+    @Enumerated(EnumType.STRING)
+    private MailStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 36)
+    private String claimToken;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,56 @@
+package com.shu.model.entity;
+
+import com.shu.domain.PaymentEventType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+
+/**
+ *
+ * PAYMENT EVENT ENTITY:
+ * Every distinct webhook event received from a payment provider.
+ *
+ * Fields:
+ * - id               : Unique identifier (Primary Key, see BaseEntity).
+ * - provider         : Provider that sent the event ("stripe", "razorpay", ...).
+ * - eventId          : Provider event id. Unique per provider: redeliveries of an event are stored once.
+ * - type             : PaymentEventType.
+ * - paymentReference : Provider payment id the event is about (matches Order.paymentReference).
+ * - payload          : Raw, signature-checked request body (audit trail, input of a replay).
+ * - journalLsn       : Position in the local webhook journal.
+ * - receivedAt       : When the webhook was received.
+ */
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_payment_event_provider_event",
+                columnNames = {"provider", "eventId"}),
+        indexes = @Index(name = "idx_payment_event_received", columnList = "provider, receivedAt"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class PaymentEvent extends BaseEntity {
+
+    @Column(nullable = false, length = 32)
+    private String provider;
+
+    @Column(nullable = false, length = 128)
+    private String eventId;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private PaymentEventType type;
+
+    private String paymentReference;
+
+    @Lob
+    @Column(nullable = false, length = 16_777_215)
+    private String payload;
+
+    @Column(nullable = false)
+    private Long journalLsn;
+
+    private LocalDateTime receivedAt;
+}
@@ -0,0 +1,23 @@
+package com.shu.model.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an id as generated by {@link PooledIdGenerator}: one sequence per entity,
+ * ids reserved in blocks of {@link #allocationSize()} with the pooled-lo optimizer.
+ */
+@IdGeneratorType(PooledIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface PooledId {
+
+    /**
+     * Number of ids reserved per round-trip to the sequence.
+     */
+    int allocationSize() default BaseEntity.ID_ALLOCATION_SIZE;
+}
@@ -0,0 +1,34 @@
+package com.shu.model.entity;
+
+import org.hibernate.MappingException;
+import org.hibernate.id.OptimizableGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * PooledIdGenerator
+ *
+ * {@link SequenceStyleGenerator} with the settings shared by every POS entity:
+ * - sequence per entity ("<table>_seq"), emulated with a table on MySQL
+ * - increment = {@link PooledId#allocationSize()}
+ * - pooled-lo optimizer
+ */
+public class PooledIdGenerator extends SequenceStyleGenerator {
+
+    private final int allocationSize;
+
+    public PooledIdGenerator(PooledId config) {
+        this.allocationSize = config.allocationSize();
+    }
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        parameters.put(OptimizableGenerator.INCREMENT_PARAM, String.valueOf(allocationSize));
+        parameters.put(OptimizableGenerator.OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -0,0 +1,96 @@
+package com.shu.model.entity;
+
+import com.shu.constant.CacheConstant;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+
+/**
+ *
+ * PRODUCT ENTITY:
+ * Represents a sellable item of the catalog, scanned at the till by barcode or looked up by SKU.
+ *
+ * Fields:
+ * - id           : Unique identifier for the product (Primary Key, see BaseEntity).
+ * - name         : Display name printed on the receipt (cannot be null).
+ * - sku          : Unique stock keeping unit code (cannot be null).
+ * - barcode      : Unique EAN/UPC or internal barcode (optional).
+ * - category     : Category used for search and reports.
+ * - brand        : Brand / manufacturer.
+ * - mrp          : Maximum retail price.
+ * - sellingPrice : Price charged at the till (cannot be null).
+ * - description  : Optional long description.
+ * - active       : false = discontinued (kept for order history, hidden from the till).
+ * - createdAt    : Timestamp when the product was created.
+ * - updatedAt    : Timestamp of the last change (drives the incremental catalog refresh).
+ * - syncVersion  : Change-feed version of the last change (see ChangeFeedService); an inactive product
+ *                  is the tombstone of a removed one.
+ *
+ * Annotations:
+ * - @Table indexes : barcode / sku lookups, the updatedAt delta query and change-feed reads by syncVersion.
+ * - @PrePersist / @PreUpdate : maintain createdAt / updatedAt.
+ * - @Cacheable / @Cache      : second-level cache region "product" (read by id far more often than written).
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_product_updated_at", columnList = "updatedAt"),
+        @Index(name = "idx_product_sync_version", columnList = "syncVersion")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConstant.PRODUCT_REGION)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class Product extends BaseEntity {
+
+    @Column(nullable = false)
+    private String name;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String sku;
+
+    @Column(unique = true, length = 64)
+    private String barcode;
+
+    private String category;
+
+    private String brand;
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal mrp;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal sellingPrice;
+
+    @Column(length = 1000)
+    private String description;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long syncVersion;
+
+    @PrePersist
+    void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+    }
+
+    @PreUpdate
+    void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
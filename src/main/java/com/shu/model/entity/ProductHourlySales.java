@@ -0,0 +1,47 @@
+package com.shu.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+
+/**
+ *
+ * PRODUCT HOURLY SALES ENTITY:
+ * Pre-aggregated sales of a product in a branch in one hour (dashboard rollup).
+ *
+ * Fields:
+ * - id               : (branchId, productId, hourStart), natural key (see ProductHourId).
+ * - quantity         : Units sold in the hour.
+ * - grossAmount      : Sum of the line totals.
+ * - refundedQuantity : Units of the hour's orders refunded since (late correction, booked on the sale's hour).
+ * - refundedAmount   : Sum of the refunded line totals.
+ * - updatedAt        : Last change of the row.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class ProductHourlySales {
+
+    @EmbeddedId
+    private ProductHourId id;
+
+    @Column(nullable = false)
+    private long quantity;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal grossAmount;
+
+    @Column(nullable = false)
+    private long refundedQuantity;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal refundedAmount;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,56 @@
+package com.shu.model.entity;
+
+import com.shu.domain.StockMovementType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+
+/**
+ *
+ * STOCK MOVEMENT ENTITY:
+ * Append-only history of every change to a stock level.
+ *
+ * Fields:
+ * - id        : Unique identifier (Primary Key, see BaseEntity).
+ * - branchId  : Branch whose stock changed.
+ * - productId : Product whose stock changed.
+ * - quantity  : Signed change (+ restock, - sale).
+ * - type      : StockMovementType (RESTOCK, SALE, ADJUSTMENT).
+ * - reference : Business reference (order number, delivery note, ...).
+ * - journalLsn: Position in the local inventory journal (the lines of one sale share it).
+ * - createdAt : When the movement happened.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_stock_movement_branch_product", columnList = "branchId, productId"),
+        @Index(name = "idx_stock_movement_journal_lsn", columnList = "journalLsn")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class StockMovement extends BaseEntity {
+
+    @Column(nullable = false)
+    private Long branchId;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private long quantity;
+
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private StockMovementType type;
+
+    private String reference;
+
+    @Column(nullable = false)
+    private Long journalLsn;
+
+    private LocalDateTime createdAt;
+}
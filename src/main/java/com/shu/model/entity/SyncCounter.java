@@ -0,0 +1,30 @@
+package com.shu.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+
+/**
+ *
+ * SYNC COUNTER ENTITY:
+ * Last change-feed version handed out (see SyncVersionAllocator).
+ *
+ * Fields:
+ * - name    : Name of the counter (e.g. "change_feed").
+ * - version : Highest version allocated so far. Incremented in the transaction of the change it
+ *             versions, so the row lock orders the commits and committed versions have no gaps.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncCounter {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private long version;
+}
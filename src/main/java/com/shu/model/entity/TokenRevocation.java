@@ -0,0 +1,38 @@
+package com.shu.model.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+
+/**
+ *
+ * TOKEN REVOCATION ENTITY:
+ * A revoked token, login session or user (see TokenRevocationList). Shared by all nodes; each node
+ * keeps the live rows in memory and polls for new ones.
+ *
+ * Fields:
+ * - tokenKey  : "jti:<token id>", "sid:<session id>" or "user:<email>" (Primary Key).
+ * - revokedAt : Epoch millis; tokens issued up to then are rejected. Also the poll cursor.
+ * - expiresAt : Epoch millis after which no matching token can be valid: the row is purged.
+ */
+@Entity
+@Table(name = "token_revocation", indexes = {
+        @Index(name = "idx_token_revocation_revoked_at", columnList = "revokedAt"),
+        @Index(name = "idx_token_revocation_expires_at", columnList = "expiresAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocation {
+
+    @Id
+    @Column(length = 330)
+    private String tokenKey;
+
+    @Column(nullable = false)
+    private long revokedAt;
+
+    @Column(nullable = false)
+    private long expiresAt;
+}
@@ -1,9 +1,14 @@
 package com.shu.model.entity;
 
+import com.shu.constant.CacheConstant;
 import com.shu.domain.UserRole;
+import com.shu.service.user.UserCacheInvalidator;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 
@@ -14,7 +19,7 @@ import java.time.LocalDateTime;
  * Represents a user in the POS system. Stores authentication and profile information.
  *
  * Fields:
- * - id          : Unique identifier for the user (Primary Key).
+ * - id          : Unique identifier for the user (Primary Key, see BaseEntity).
  * - fullName    : User's full name (cannot be null).
  * - email       : Unique email address used for login (validated format).
  * - phone       : Optional contact number.
@@ -23,26 +28,32 @@ import java.time.LocalDateTime;
  * - createdAt   : Timestamp when the user was created.
  * - updatedAt   : Timestamp of the last update to user details.
  * - lastLogin   : Timestamp of the user's last login.
+ * - syncVersion : Change-feed version of the last roster change (see ChangeFeedService; not bumped by logins).
+ * - locked      : Set when the user's tokens are revoked by an admin: no login or token refresh until unlocked.
  *
  * Annotations:
  * - @Entity           : Marks this class as a JPA entity.
- * - @Id               : Primary key of the entity.
+ * - BaseEntity       : Provides the pooled id (batched inserts).
  * - @Column           : Database column configuration.
  * - @Enumerated       : Stores enum as STRING in DB.
  * - @Email            : Validates email format.
+ * - @EntityListeners  : Evicts the user from UserCache on insert/update/delete.
+ * - @Cacheable/@Cache : Second-level cache region "user" (read-mostly). lastLogin is written by plain JDBC
+ *                       (LastLoginUpdater), so a cached user may show an older lastLogin until the TTL.
+ * - @Table indexes    : syncVersion, for change-feed reads older than the in-memory buffer.
  * - Lombok annotations: @Getter, @Setter, @NoArgsConstructor, @AllArgsConstructor, @EqualsAndHashCode
  */
 @Entity
+@Table(indexes = @Index(name = "idx_user_sync_version", columnList = "syncVersion"))
+@EntityListeners(UserCacheInvalidator.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheConstant.USER_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@EqualsAndHashCode
-public class User {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
-    private Long id;
+@EqualsAndHashCode(callSuper = true)
+public class User extends BaseEntity {
 
     @Column(nullable = false)
     private String fullName;
@@ -63,4 +74,12 @@ public class User {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private LocalDateTime lastLogin;
+
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long syncVersion;
+
+    @Column(nullable = false)
+    @ColumnDefault("false")
+    private boolean locked;
 }
@@ -0,0 +1,20 @@
+package com.shu.payload.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * BulkSignupRequest DTO
+ *
+ * Represents a batch of users to create in one call (e.g. onboarding a new branch).
+ * Used in the admin bulk-provisioning API. Each entry is validated on its own,
+ * so one bad row does not reject the whole batch.
+ */
+@Data
+public class BulkSignupRequest {
+
+    @NotEmpty
+    private List<SignupRequest> users;
+}
@@ -0,0 +1,54 @@
+package com.shu.payload.request;
+
+import com.shu.domain.PaymentMethod;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * CheckoutRequest DTO
+ *
+ * Cart sent by the till to place an order.
+ * Used in the POST /api/orders API together with an Idempotency-Key header.
+ * Prices are not taken from the till: they are looked up in the catalog at checkout.
+ */
+@Data
+public class CheckoutRequest {
+
+    @NotNull
+    private Long branchId;
+
+    @NotNull
+    private PaymentMethod paymentMethod;
+
+    /**
+     * Provider token for CARD / UPI (e.g. Stripe PaymentMethod id, Razorpay payment id).
+     */
+    private String paymentToken;
+
+    /**
+     * Optional: the receipt is e-mailed to this address (queued with the order, sent in the background).
+     */
+    @Email
+    private String receiptEmail;
+
+    @NotEmpty
+    private List<Line> items;
+
+    /**
+     * One cart line: product and number of units.
+     */
+    @Data
+    public static class Line {
+
+        @NotNull
+        private Long productId;
+
+        @Positive
+        private long quantity;
+    }
+}
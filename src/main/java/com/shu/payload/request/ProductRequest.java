@@ -0,0 +1,40 @@
+package com.shu.payload.request;
+
+import lombok.Data;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.math.BigDecimal;
+
+/**
+ * ProductRequest DTO
+ *
+ * Represents the payload to create or update a product.
+ * Used in the /api/products APIs.
+ */
+@Data
+public class ProductRequest {
+
+    @NotBlank
+    private String name;
+
+    @NotBlank
+    private String sku;
+
+    private String barcode;
+
+    private String category;
+
+    private String brand;
+
+    @PositiveOrZero
+    private BigDecimal mrp;
+
+    @NotNull
+    @PositiveOrZero
+    private BigDecimal sellingPrice;
+
+    private String description;
+}
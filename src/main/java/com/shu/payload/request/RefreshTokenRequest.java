@@ -0,0 +1,17 @@
+package com.shu.payload.request;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+/**
+ * RefreshTokenRequest DTO
+ *
+ * Represents the payload required to exchange a refresh token for a new access token.
+ * Used in /refresh API. The refresh token is single-use: the response carries its replacement.
+ */
+@Data
+public class RefreshTokenRequest {
+
+    @NotBlank
+    private String refreshToken;
+}
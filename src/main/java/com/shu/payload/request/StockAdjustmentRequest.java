@@ -0,0 +1,28 @@
+package com.shu.payload.request;
+
+import com.shu.domain.StockMovementType;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * StockAdjustmentRequest DTO
+ *
+ * Goods received (RESTOCK, positive quantity) or a stock-count correction (ADJUSTMENT, +/-).
+ * Used in the /api/inventory/adjustments API.
+ */
+@Data
+public class StockAdjustmentRequest {
+
+    @NotNull
+    private Long branchId;
+
+    @NotNull
+    private Long productId;
+
+    private long quantity;
+
+    @NotNull
+    private StockMovementType type;
+
+    private String reference;
+}
@@ -0,0 +1,37 @@
+package com.shu.payload.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * StockReservationRequest DTO
+ *
+ * Stock a cart wants to hold while the customer pays.
+ * Used in the /api/inventory/reservations API. All lines are reserved or none.
+ */
+@Data
+public class StockReservationRequest {
+
+    @NotNull
+    private Long branchId;
+
+    @NotEmpty
+    private List<Line> items;
+
+    /**
+     * One cart line: product and number of units.
+     */
+    @Data
+    public static class Line {
+
+        @NotNull
+        private Long productId;
+
+        @Positive
+        private long quantity;
+    }
+}
@@ -9,9 +9,11 @@ import lombok.Data;
  * Represents the response for authentication-related APIs.
  * Includes JWT token and user details (excluding password).
  *
- * Returned after successful login or registration.
+ * Returned after successful login, registration or token refresh.
  * Contains:
- * - JWT token (used for future authenticated requests).
+ * - JWT access token (used for future authenticated requests, short-lived).
+ * - Refresh token (exchanged at /auth/refresh for a new pair before the access token expires).
+ * - Seconds until the access token expires.
  * - Message (status/info).
  * - UserDto (basic user details).
  */
@@ -19,6 +21,8 @@ import lombok.Data;
 public class AuthResponse {
 
     private String jwt;
+    private String refreshToken;
+    private long expiresIn;
     private String message;
     private UserDto user;
 }
@@ -0,0 +1,28 @@
+package com.shu.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * BranchSalesResponse DTO
+ *
+ * Sales totals of one branch over a date range (store-wide comparison of branches).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BranchSalesResponse {
+
+    private Long branchId;
+    private long orderCount;
+    private BigDecimal grossAmount;
+    private long refundCount;
+    private BigDecimal refundedAmount;
+
+    public BigDecimal getNetAmount() {
+        return grossAmount.subtract(refundedAmount);
+    }
+}
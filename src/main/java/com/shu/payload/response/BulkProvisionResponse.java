@@ -0,0 +1,42 @@
+package com.shu.payload.response;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * BulkProvisionResponse DTO
+ *
+ * Per-row report returned by the admin bulk-provisioning API.
+ *
+ * Contains:
+ * - requested : number of rows received
+ * - created   : number of users created
+ * - failed    : number of rows rejected
+ * - results   : one entry per input row, in input order
+ */
+@Data
+public class BulkProvisionResponse {
+
+    private int requested;
+    private int created;
+    private int failed;
+    private List<RowResult> results;
+
+    /**
+     * Outcome of a single row.
+     * - row       : index of the row in the request (0-based)
+     * - status    : CREATED or FAILED
+     * - userId    : id of the created user (CREATED only)
+     * - errorCode : one of the ErrorCode constants (FAILED only)
+     */
+    @Data
+    public static class RowResult {
+        private int row;
+        private String email;
+        private String status;
+        private Long userId;
+        private String errorCode;
+        private String message;
+    }
+}
@@ -0,0 +1,18 @@
+package com.shu.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * MailRequeueResponse DTO
+ *
+ * Number of dead-lettered outbox mails put back in the queue.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MailRequeueResponse {
+
+    private int requeued;
+}
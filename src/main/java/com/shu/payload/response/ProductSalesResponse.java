@@ -0,0 +1,40 @@
+package com.shu.payload.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * ProductSalesResponse DTO
+ *
+ * Sales of one product in a branch over a date range (top sellers).
+ * name comes from the catalog (null if the product is no longer active).
+ */
+@Data
+@NoArgsConstructor
+public class ProductSalesResponse {
+
+    private Long productId;
+    private String name;
+    private long quantity;
+    private BigDecimal grossAmount;
+    private long refundedQuantity;
+    private BigDecimal refundedAmount;
+
+    /**
+     * Used by the aggregate query (name is filled in afterwards).
+     */
+    public ProductSalesResponse(Long productId, long quantity, BigDecimal grossAmount,
+                                long refundedQuantity, BigDecimal refundedAmount) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.grossAmount = grossAmount;
+        this.refundedQuantity = refundedQuantity;
+        this.refundedAmount = refundedAmount;
+    }
+
+    public BigDecimal getNetAmount() {
+        return grossAmount.subtract(refundedAmount);
+    }
+}
@@ -0,0 +1,24 @@
+package com.shu.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * RollupRebuildResponse DTO
+ *
+ * Result of recomputing the sales rollups of [from, to) from the orders.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RollupRebuildResponse {
+
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private int branches;
+    private long orders;
+    private long durationMillis;
+}
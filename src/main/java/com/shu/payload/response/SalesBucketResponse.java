@@ -0,0 +1,29 @@
+package com.shu.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * SalesBucketResponse DTO
+ *
+ * Sales of a branch in one hour or day. Refunds are booked on the bucket of the original sale.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesBucketResponse {
+
+    private LocalDateTime periodStart;
+    private long orderCount;
+    private BigDecimal grossAmount;
+    private long refundCount;
+    private BigDecimal refundedAmount;
+
+    public BigDecimal getNetAmount() {
+        return grossAmount.subtract(refundedAmount);
+    }
+}
@@ -0,0 +1,25 @@
+package com.shu.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * StockLevelResponse DTO
+ *
+ * Live stock level of a product in a branch.
+ * - onHand    : units physically in the branch
+ * - reserved  : units held by open carts
+ * - available : units that can still be sold (onHand - reserved)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockLevelResponse {
+
+    private Long branchId;
+    private Long productId;
+    private long onHand;
+    private long reserved;
+    private long available;
+}
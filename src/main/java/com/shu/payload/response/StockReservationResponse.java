@@ -0,0 +1,22 @@
+package com.shu.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * StockReservationResponse DTO
+ *
+ * Returned when a cart's stock is reserved.
+ * The reservation must be committed or released before expiresAt, otherwise the stock goes back on sale.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationResponse {
+
+    private String reservationId;
+    private Instant expiresAt;
+}
@@ -0,0 +1,29 @@
+package com.shu.payload.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.shu.domain.ChangeType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * SyncChange DTO
+ *
+ * One entry of the change feed (GET /api/sync/changes):
+ * the state of a product or user after the change with this version.
+ *
+ * - deleted = true is a tombstone: the till drops the entity, data is omitted.
+ * - data is a ProductDto or a SyncRosterEntry depending on type.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SyncChange {
+
+    private long version;
+    private ChangeType type;
+    private long id;
+    private boolean deleted;
+    private Object data;
+}
@@ -0,0 +1,25 @@
+package com.shu.payload.response;
+
+import com.shu.domain.UserRole;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * SyncRosterEntry DTO
+ *
+ * A user as the tills see it in the change feed: who may work the till and with which role.
+ * Contact data (email, phone) and credentials stay on the server.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncRosterEntry {
+
+    private long id;
+    private String fullName;
+    private UserRole role;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,38 @@
+package com.shu.payload.response;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * ThreadDiagnosticsResponse DTO
+ *
+ * Report of the request-handling thread mode and of carrier-thread pinning
+ * observed while running on virtual threads.
+ *
+ * Contains:
+ * - threadMode       : "virtual" or "platform"
+ * - javaVersion      : runtime JDK version
+ * - monitoring       : whether pinning events are being recorded
+ * - pinnedEvents     : number of pinning events above the threshold since startup
+ * - totalPinnedMillis: total time carriers were pinned
+ * - sites            : pinning grouped by the first application (or driver) frame, worst first
+ */
+@Data
+public class ThreadDiagnosticsResponse {
+
+    private String threadMode;
+    private String javaVersion;
+    private boolean monitoring;
+    private long pinnedEvents;
+    private long totalPinnedMillis;
+    private List<PinnedSite> sites;
+
+    @Data
+    public static class PinnedSite {
+        private String frame;
+        private long count;
+        private long totalMillis;
+        private long maxMillis;
+    }
+}
@@ -0,0 +1,23 @@
+package com.shu.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * WebhookReplayResponse DTO
+ *
+ * Result of re-applying the stored webhook events of a provider received in [from, to].
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebhookReplayResponse {
+
+    private String provider;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private int replayed;
+}
@@ -0,0 +1,25 @@
+package com.shu.repository;
+
+import com.shu.model.entity.BranchHourId;
+import com.shu.model.entity.BranchHourlySales;
+import com.shu.payload.response.BranchSalesResponse;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BranchHourlySalesRepository extends JpaRepository<BranchHourlySales, BranchHourId> {
+
+    @Query("select s from BranchHourlySales s where s.id.branchId = :branchId "
+            + "and s.id.hourStart >= :from and s.id.hourStart < :to order by s.id.hourStart")
+    List<BranchHourlySales> findHours(Long branchId, LocalDateTime from, LocalDateTime to);
+
+    @Query("select new com.shu.payload.response.BranchSalesResponse(s.id.branchId, sum(s.orderCount), "
+            + "sum(s.grossAmount), sum(s.refundCount), sum(s.refundedAmount)) from BranchHourlySales s "
+            + "where s.id.hourStart >= :from and s.id.hourStart < :to "
+            + "group by s.id.branchId order by s.id.branchId")
+    List<BranchSalesResponse> sumByBranch(LocalDateTime from, LocalDateTime to);
+}
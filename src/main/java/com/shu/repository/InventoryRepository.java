@@ -0,0 +1,10 @@
+package com.shu.repository;
+
+import com.shu.model.entity.Inventory;
+import com.shu.model.entity.InventoryId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InventoryRepository extends JpaRepository<Inventory, InventoryId> {
+}
@@ -0,0 +1,18 @@
+package com.shu.repository;
+
+import com.shu.model.entity.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findWithItemsById(Long id);
+
+    @EntityGraph(attributePaths = "items")
+    Optional<Order> findByIdempotencyKey(String idempotencyKey);
+}
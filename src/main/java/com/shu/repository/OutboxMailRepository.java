@@ -0,0 +1,9 @@
+package com.shu.repository;
+
+import com.shu.model.entity.OutboxMail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxMailRepository extends JpaRepository<OutboxMail, Long> {
+}
@@ -0,0 +1,22 @@
+package com.shu.repository;
+
+import com.shu.model.entity.PaymentEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+
+@Repository
+public interface PaymentEventRepository extends JpaRepository<PaymentEvent, Long> {
+
+    @Query("select e.eventId from PaymentEvent e where e.provider = :provider and e.eventId in :eventIds")
+    Set<String> findExistingEventIds(String provider, Collection<String> eventIds);
+
+    Slice<PaymentEvent> findByProviderAndReceivedAtBetweenOrderById(String provider, LocalDateTime from,
+                                                                     LocalDateTime to, Pageable pageable);
+}
@@ -0,0 +1,22 @@
+package com.shu.repository;
+
+import com.shu.model.entity.ProductHourId;
+import com.shu.model.entity.ProductHourlySales;
+import com.shu.payload.response.ProductSalesResponse;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductHourlySalesRepository extends JpaRepository<ProductHourlySales, ProductHourId> {
+
+    @Query("select new com.shu.payload.response.ProductSalesResponse(s.id.productId, sum(s.quantity), "
+            + "sum(s.grossAmount), sum(s.refundedQuantity), sum(s.refundedAmount)) from ProductHourlySales s "
+            + "where s.id.branchId = :branchId and s.id.hourStart >= :from and s.id.hourStart < :to "
+            + "group by s.id.productId order by sum(s.grossAmount) - sum(s.refundedAmount) desc, s.id.productId")
+    List<ProductSalesResponse> findTopProducts(Long branchId, LocalDateTime from, LocalDateTime to, Pageable pageable);
+}
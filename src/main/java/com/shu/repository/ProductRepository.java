@@ -0,0 +1,44 @@
+package com.shu.repository;
+
+import com.shu.constant.CacheConstant;
+import com.shu.model.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    /**
+     * Cached query (region "product-queries"), like {@link #findByBarcode(String)}: index misses
+     * for the same code (unknown barcodes scanned again and again) run no SQL.
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = CacheConstant.PRODUCT_QUERY_REGION)
+    })
+    Product findBySku(String sku);
+
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = CacheConstant.PRODUCT_QUERY_REGION)
+    })
+    Product findByBarcode(String barcode);
+
+    /**
+     * Keyset page of active products, used to load the catalog index at startup.
+     */
+    Slice<Product> findByActiveTrueAndIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Products changed since the given time (incremental catalog refresh, includes deactivated ones).
+     */
+    List<Product> findByUpdatedAtAfter(LocalDateTime since);
+}
@@ -0,0 +1,9 @@
+package com.shu.repository;
+
+import com.shu.model.entity.StockMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+}
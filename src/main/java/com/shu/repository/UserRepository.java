@@ -1,11 +1,59 @@
 package com.shu.repository;
 
+import com.shu.constant.CacheConstant;
 import com.shu.model.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    /**
+     * Cached query (region "user-queries"): repeated lookups of the same email run no SQL.
+     */
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = CacheConstant.USER_QUERY_REGION)
+    })
     User findByEmail(String email);
+
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Replaces the password hash only if it is still the expected one (compare-and-set),
+     * so a background rehash cannot overwrite a password changed in the meantime.
+     *
+     * @return 1 if the hash was replaced, 0 if it had changed
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.password = :password where u.id = :id and u.password = :expected")
+    int replacePasswordHash(@Param("id") Long id,
+                            @Param("expected") String expectedHash,
+                            @Param("password") String password);
+
+    /**
+     * Not cached: a lock set on another node applies at once, not after the cache TTL.
+     */
+    @Query("select u.locked from User u where u.id = :id")
+    boolean isLocked(@Param("id") Long id);
+
+    /**
+     * @return 1 if the user exists
+     */
+    @Modifying
+    @Transactional
+    @Query("update User u set u.locked = :locked, u.updatedAt = CURRENT_TIMESTAMP where u.id = :id")
+    int setLocked(@Param("id") Long id, @Param("locked") boolean locked);
 }
@@ -2,6 +2,7 @@ package com.shu.service.auth;
 
 import com.shu.exceptions.UserException;
 import com.shu.payload.request.LoginRequest;
+import com.shu.payload.request.RefreshTokenRequest;
 import com.shu.payload.request.SignupRequest;
 import com.shu.payload.response.AuthResponse;
 
@@ -9,7 +10,7 @@ import com.shu.payload.response.AuthResponse;
  * AuthService
  *
  * Defines operations for user authentication and registration.
- * Responsible for handling signup and login logic at the service layer.
+ * Responsible for handling signup, login, token refresh and logout logic at the service layer.
  */
 public interface AuthService {
 
@@ -30,4 +31,38 @@ public interface AuthService {
      * @throws UserException if credentials are invalid or user does not exist
      */
     AuthResponse login(LoginRequest request) throws UserException;
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token (rotation).
+     * A refresh token presented a second time ends its whole session.
+     *
+     * @param request RefreshTokenRequest containing the refresh token
+     * @return AuthResponse containing the new tokens and user information
+     * @throws UserException if the refresh token is invalid, expired, revoked or already used
+     */
+    AuthResponse refresh(RefreshTokenRequest request) throws UserException;
+
+    /**
+     * Ends the session of the current access token: its access and refresh tokens are revoked.
+     *
+     * @throws UserException if the request carries no valid access token
+     */
+    void logout() throws UserException;
+
+    /**
+     * Locks a user and revokes every token issued to them so far (e.g. a cashier who left mid-shift):
+     * no login or token refresh until {@link #unlockUser(Long)}.
+     *
+     * @param userId id of the user
+     * @throws UserException if the user does not exist
+     */
+    void revokeUserTokens(Long userId) throws UserException;
+
+    /**
+     * Lets a user locked by {@link #revokeUserTokens(Long)} log in again.
+     *
+     * @param userId id of the user
+     * @throws UserException if the user does not exist
+     */
+    void unlockUser(Long userId) throws UserException;
 }
@@ -1,7 +1,7 @@
 package com.shu.service.auth;
 
 import com.shu.model.entity.User;
-import com.shu.repository.UserRepository;
+import com.shu.service.user.UserCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -20,7 +20,7 @@ import java.util.Collections;
  * Implements Spring Security's UserDetailsService to load user-specific data.
  *
  * Responsibilities:
- * - Retrieve user information from the database by email.
+ * - Retrieve user information by email (through UserCache, the database only on a miss).
  * - Convert the user's role into GrantedAuthority for Spring Security.
  * - Throw UsernameNotFoundException if the user does not exist.
  *
@@ -30,7 +30,7 @@ import java.util.Collections;
 public class CustomUserDetails implements UserDetailsService {
 
     @Autowired
-    private UserRepository userRepository;
+    private UserCache userCache;
 
     /**
      * Loads a user by their username (email in this case).
@@ -42,34 +42,51 @@ public class CustomUserDetails implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        // 1️. Retrieve the user from the database using their email.
+        // 1️. Retrieve the user by email (cached, the database is only hit on a miss).
         //    We treat the email as the username for authentication purposes.
-        User user = userRepository.findByEmail(username);
+        User user = userCache.findByEmail(username);
 
         // 2️. If no user is found, throw an exception to let Spring Security know authentication failed.
         if(user == null) {
             throw new UsernameNotFoundException("User not found");
         }
 
-        // 3️. Convert the user's role into a GrantedAuthority.
+        return toUserDetails(user);
+    }
+
+    /**
+     * Converts an already loaded User entity into Spring Security's UserDetails.
+     * Lets callers that fetched the user themselves (e.g. login) avoid a second lookup.
+     *
+     * @param user the User entity
+     * @return UserDetails object containing username, password, and authorities
+     */
+    public static UserDetails toUserDetails(User user) {
+
+        // 1️. Convert the user's role into a GrantedAuthority.
         //    Spring Security uses authorities to determine access to endpoints.
         //    Here, user.getRole() returns a UserRole enum, which we convert to a String.
         GrantedAuthority authority = new SimpleGrantedAuthority(
                 user.getRole().toString()
         );
 
-        // 4️. Wrap the authority in a collection (Spring Security expects a collection of authorities).
+        // 2️. Wrap the authority in a collection (Spring Security expects a collection of authorities).
         Collection<GrantedAuthority> authorities =
                 Collections.singletonList(authority);
 
-        // 5️. Return a Spring Security User object containing:
+        // 3️. Return a Spring Security User object containing:
         //    - username (email)
         //    - password (hashed)
         //    - authorities (roles/permissions)
         //    This object is then used by Spring Security to authenticate and authorize the user.
+        //    - accountNonLocked (false once an admin revoked the user's tokens)
         return new org.springframework.security.core.userdetails.User(
                 user.getEmail(),
                 user.getPassword(),
+                true,
+                true,
+                true,
+                !user.isLocked(),
                 authorities
         );
     }
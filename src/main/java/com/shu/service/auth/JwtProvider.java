@@ -2,23 +2,32 @@ package com.shu.service.auth;
 
 import com.shu.constant.JwtConstant;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
 
 /**
  * JwtProvider is responsible for:
- * 1. Generating JWT tokens for authenticated users
- * 2. Extracting user information from JWT tokens
+ * 1. Generating short-lived access tokens for authenticated users (pos.auth.access-token.ttl)
+ * 2. Generating and reading refresh tokens, exchanged for new access tokens (pos.auth.refresh-token.ttl)
+ * 3. Extracting user information from JWT tokens
  *
+ * Every token carries a unique id ("jti") and the id of the login session it belongs to ("sid"),
+ * so a single token, a session or all tokens of a user can be revoked (see TokenRevocationList).
+ * The "typ" claim keeps a refresh token from being used as an access token and vice versa.
  */
 @Service
 public class JwtProvider {
@@ -26,28 +35,118 @@ public class JwtProvider {
     // Secret key used to sign and verify JWT tokens
     private final static SecretKey key = Keys.hmacShaKeyFor(JwtConstant.SECRET_KEY.getBytes());
 
+    // Prebuilt verifier for refresh tokens (immutable and thread-safe)
+    private static final JwtParser parser = Jwts.parser().verifyWith(key).build();
+
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+
+    public JwtProvider(@Value("${pos.auth.access-token.ttl:15m}") Duration accessTokenTtl,
+                       @Value("${pos.auth.refresh-token.ttl:12h}") Duration refreshTokenTtl) {
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
     /**
-     * Generate a JWT token for a given authenticated user
+     * Generate an access token for a given authenticated user
      *
      * @param authentication Authentication object from Spring Security
+     * @param sessionId      login session the token belongs to (see {@link #newSessionId()})
      * @return JWT token as a String
      */
-    public String generateToken(Authentication authentication) {
+    public String generateToken(Authentication authentication, String sessionId) {
         Collection<? extends GrantedAuthority> authorities =
                 authentication.getAuthorities();
 
         // Convert authorities into a comma-separated string
         String roles = populateAuthorities(authorities);
 
+        Date now = new Date();
         return Jwts.builder()
-                .issuedAt(new Date())   // current time
-                .expiration(new Date(new Date().getTime() + JwtConstant.EXPIRATION_TIME))   // expiry
+                .id(UUID.randomUUID().toString())          // token id (revocation)
+                .issuedAt(now)                              // current time
+                .expiration(new Date(now.getTime() + accessTokenTtl.toMillis()))   // expiry
+                .claim(JwtConstant.TOKEN_TYPE_CLAIM, JwtConstant.ACCESS_TOKEN_TYPE)
+                .claim(JwtConstant.SESSION_CLAIM, sessionId)
                 .claim("email", authentication.getName())   // store email
                 .claim("authorities", roles)                // store roles
                 .signWith(key)                                 // sign with secret key
                 .compact();
     }
 
+    /**
+     * Generate a refresh token. It carries no authorities: the roles are read again from the
+     * user when it is exchanged, so a role change applies at the next refresh.
+     *
+     * @param email     the user's email
+     * @param sessionId login session the token belongs to
+     * @return JWT token as a String
+     */
+    public String generateRefreshToken(String email, String sessionId) {
+        Date now = new Date();
+        return Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + refreshTokenTtl.toMillis()))
+                .claim(JwtConstant.TOKEN_TYPE_CLAIM, JwtConstant.REFRESH_TOKEN_TYPE)
+                .claim(JwtConstant.SESSION_CLAIM, sessionId)
+                .claim("email", email)
+                .signWith(key)
+                .compact();
+    }
+
+    /**
+     * Verify a refresh token and read its identity.
+     *
+     * @param refreshToken refresh token (without "Bearer " prefix)
+     * @return the token's ids, or null when the token is invalid, expired or not a refresh token
+     */
+    public TokenIds parseRefreshToken(String refreshToken) {
+        try {
+            Claims claims = parser.parseSignedClaims(refreshToken).getPayload();
+            if (!JwtConstant.REFRESH_TOKEN_TYPE.equals(claims.get(JwtConstant.TOKEN_TYPE_CLAIM))
+                    || claims.getId() == null) {
+                return null;
+            }
+            return toTokenIds(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return a new login session id, shared by the access and refresh tokens issued from one login
+     */
+    public String newSessionId() {
+        return UUID.randomUUID().toString();
+    }
+
+    public Duration getAccessTokenTtl() {
+        return accessTokenTtl;
+    }
+
+    public Duration getRefreshTokenTtl() {
+        return refreshTokenTtl;
+    }
+
+    /**
+     * Read the identity of verified claims (access or refresh token).
+     *
+     * @param claims verified claims
+     * @return the token's ids ("jti" and "sid" are null in tokens issued before they existed)
+     */
+    public static TokenIds toTokenIds(Claims claims) {
+        Object sessionId = claims.get(JwtConstant.SESSION_CLAIM);
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        return new TokenIds(
+                claims.getId(),
+                sessionId == null ? null : sessionId.toString(),
+                String.valueOf(claims.get("email")),
+                issuedAt == null ? 0 : issuedAt.getTime() / 1000,
+                expiration == null ? Long.MAX_VALUE : expiration.getTime());
+    }
+
     /**
      * Extract email from JWT token
      *
@@ -0,0 +1,199 @@
+package com.shu.service.auth;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * KeyedRateLimiter
+ *
+ * Lock-free token bucket per key, implemented as GCRA (generic cell rate algorithm).
+ *
+ * How it works:
+ * - Each key stores a single long: its "theoretical arrival time" (TAT) in nanos.
+ * - An attempt is allowed when TAT - now <= burst tolerance, and then moves TAT one interval forward.
+ *   The update is a CAS loop on an {@link AtomicLong}, so no lock is held per key.
+ * - This behaves exactly like a bucket of {@code burst} tokens refilled at {@code permits / period},
+ *   without a refill timer.
+ *
+ * Memory:
+ * - A key whose TAT is in the past has a full bucket, so it is indistinguishable from an unknown key
+ *   and can be dropped ({@link #evictIdle()}).
+ * - The map is bounded by {@code maxKeys}: when full, idle keys are purged first, then a slice of the
+ *   keys that are not throttled (their next attempt would still be allowed).
+ * - A throttled key is never dropped, otherwise flooding new keys would reset it. If every tracked key
+ *   is throttled, new keys are either rejected until the first throttled key is allowed again (fail closed)
+ *   or allowed without being tracked (fail open, {@code failOpen}).
+ * - A scan that found every key throttled remembers when the first one is allowed again: until then new
+ *   keys are answered without scanning the map again (no O(maxKeys) work per attempt during a flood).
+ */
+public class KeyedRateLimiter {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final int maxKeys;
+    private final boolean failOpen;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // Set by a scan that found every tracked key throttled: no room before fullUntilNanos
+    private volatile boolean full;
+    private volatile long fullUntilNanos;
+
+    /**
+     * @param permitsPerMinute sustained rate per key
+     * @param burst            attempts allowed back-to-back before the rate applies
+     * @param maxKeys          upper bound of tracked keys
+     */
+    public KeyedRateLimiter(int permitsPerMinute, int burst, int maxKeys) {
+        this(permitsPerMinute, burst, maxKeys, false);
+    }
+
+    /**
+     * @param failOpen true = when every tracked key is throttled, new keys are allowed (untracked)
+     *                 instead of rejected
+     */
+    public KeyedRateLimiter(int permitsPerMinute, int burst, int maxKeys, boolean failOpen) {
+        if (permitsPerMinute <= 0 || burst <= 0 || maxKeys <= 0) {
+            throw new IllegalArgumentException("permitsPerMinute, burst and maxKeys must be positive");
+        }
+        this.intervalNanos = 60_000_000_000L / permitsPerMinute;
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.maxKeys = maxKeys;
+        this.failOpen = failOpen;
+        this.buckets = new ConcurrentHashMap<>(Math.min(maxKeys, 1024));
+    }
+
+    /**
+     * Takes one permit for the key.
+     *
+     * @param key       throttled key (email, IP, ...)
+     * @param nowNanos  current {@link System#nanoTime()}
+     * @return 0 when allowed, otherwise nanos until the next attempt would be allowed
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong tat = buckets.get(key);
+        if (tat == null) {
+            if (buckets.size() >= maxKeys) {
+                long waitNanos = makeRoom(nowNanos);
+                if (waitNanos > 0) {
+                    if (failOpen) {
+                        allowed.increment();
+                        return 0;
+                    }
+                    rejected.increment();
+                    return waitNanos;
+                }
+            }
+            tat = buckets.computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+        }
+
+        while (true) {
+            long current = tat.get();
+            long start = Math.max(current, nowNanos);
+            long waitNanos = start - nowNanos - toleranceNanos;
+            if (waitNanos > 0) {
+                rejected.increment();
+                return waitNanos;
+            }
+            if (tat.compareAndSet(current, start + intervalNanos)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives the key a full bucket again (e.g. after a successful login).
+     */
+    public void reset(String key) {
+        if (buckets.remove(key) != null) {
+            full = false;
+        }
+    }
+
+    /**
+     * Drops keys whose bucket is full again.
+     *
+     * @return number of removed keys
+     */
+    public int evictIdle() {
+        return evictIdle(System.nanoTime());
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    int evictIdle(long nowNanos) {
+        int removed = 0;
+        Iterator<Map.Entry<String, AtomicLong>> it = buckets.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue().get() - nowNanos <= 0) {
+                it.remove();
+                removed++;
+            }
+        }
+        evictions.add(removed);
+        return removed;
+    }
+
+    /**
+     * 1. Still known to be full (an earlier scan found only throttled keys)? Answer without scanning.
+     * 2. Remove idle keys (full bucket).
+     * 3. Still full? Drop up to a tenth of the keys that are not throttled, so we don't do this
+     *    on every new key. Throttled keys are kept.
+     *
+     * @return 0 when there is room for a new key, otherwise nanos until a throttled key is allowed again
+     */
+    private long makeRoom(long nowNanos) {
+        if (full && fullUntilNanos - nowNanos > 0) {
+            return fullUntilNanos - nowNanos;
+        }
+        evictIdle(nowNanos);
+
+        int toDrop = buckets.size() - maxKeys + Math.max(1, maxKeys / 10);
+        long firstAllowedNanos = Long.MAX_VALUE;
+        Iterator<AtomicLong> it = buckets.values().iterator();
+        while (toDrop > 0 && it.hasNext()) {
+            long waitNanos = it.next().get() - nowNanos - toleranceNanos;
+            if (waitNanos > 0) {
+                firstAllowedNanos = Math.min(firstAllowedNanos, waitNanos);
+                continue;
+            }
+            it.remove();
+            evictions.increment();
+            toDrop--;
+        }
+        if (buckets.size() < maxKeys) {
+            full = false;
+            return 0;
+        }
+        if (toDrop == 0 || firstAllowedNanos == Long.MAX_VALUE) {
+            // Filled again by concurrent new keys meanwhile: ask to retry after one interval
+            return firstAllowedNanos == Long.MAX_VALUE ? intervalNanos : firstAllowedNanos;
+        }
+        // Scanned every key and all are throttled: nothing can be dropped before the first one is allowed again
+        fullUntilNanos = nowNanos + firstAllowedNanos;
+        full = true;
+        return firstAllowedNanos;
+    }
+}
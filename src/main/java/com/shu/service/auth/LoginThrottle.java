@@ -0,0 +1,118 @@
+package com.shu.service.auth;
+
+import com.shu.exceptions.TooManyRequestsException;
+import com.shu.util.EmailAddresses;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LoginThrottle
+ *
+ * Brute-force protection for POST /auth/login.
+ *
+ * Why?
+ * - Every login naming an existing email runs BCrypt. A password-guessing client
+ *   (or a till stuck in a retry loop) can keep all hashing workers busy.
+ *
+ * How it works:
+ * - Two {@link KeyedRateLimiter}s: one per email (guessing one account),
+ *   one per client IP (spraying many accounts). Both must allow the attempt.
+ * - Called by the controller before the login service, so a rejected attempt
+ *   costs two map lookups: no DB access, no hashing.
+ * - A successful login resets the email bucket (a cashier who mistyped twice is not penalised).
+ * - Rejections surface as {@link TooManyRequestsException} → 429 + Retry-After.
+ * - Idle buckets are evicted on a schedule; both maps are bounded.
+ * - When the email map is full of throttled keys, new emails are allowed untracked (fail open): otherwise
+ *   throttling 100k made-up emails would lock every other account out. The IP limit still applies to them.
+ *
+ * Metrics: "pos.auth.login.throttle{key=email|ip,result=allowed|rejected}",
+ * "pos.auth.login.throttle.keys" and "pos.auth.login.throttle.evictions".
+ */
+@Slf4j
+@Service
+public class LoginThrottle implements MeterBinder {
+
+    private final KeyedRateLimiter byEmail;
+    private final KeyedRateLimiter byIp;
+
+    public LoginThrottle(@Value("${pos.auth.login-throttle.email.per-minute:5}") int emailPerMinute,
+                         @Value("${pos.auth.login-throttle.email.burst:5}") int emailBurst,
+                         @Value("${pos.auth.login-throttle.ip.per-minute:60}") int ipPerMinute,
+                         @Value("${pos.auth.login-throttle.ip.burst:30}") int ipBurst,
+                         @Value("${pos.auth.login-throttle.max-keys:100000}") int maxKeys) {
+        this.byEmail = new KeyedRateLimiter(emailPerMinute, emailBurst, maxKeys, true);
+        this.byIp = new KeyedRateLimiter(ipPerMinute, ipBurst, maxKeys);
+    }
+
+    /**
+     * Takes one login attempt for the email and the client IP.
+     *
+     * @param email    email from the login request (may be null, then only the IP is checked)
+     * @param clientIp remote address of the request
+     * @throws TooManyRequestsException when either limit is exceeded
+     */
+    public void checkAttempt(String email, String clientIp) {
+        long now = System.nanoTime();
+
+        long ipWait = clientIp == null ? 0 : byIp.tryAcquire(clientIp, now);
+        if (ipWait > 0) {
+            throw rejected(ipWait);
+        }
+
+        String key = email == null ? null : EmailAddresses.normalize(email);
+        long emailWait = key == null ? 0 : byEmail.tryAcquire(key, now);
+        if (emailWait > 0) {
+            log.debug("Login throttled for {}", key);
+            throw rejected(emailWait);
+        }
+    }
+
+    /**
+     * Clears the email bucket after a successful login.
+     */
+    public void onSuccess(String email) {
+        if (email != null) {
+            byEmail.reset(EmailAddresses.normalize(email));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pos.auth.login-throttle.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        byEmail.evictIdle();
+        byIp.evictIdle();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "email", byEmail);
+        bind(registry, "ip", byIp);
+    }
+
+    private static void bind(MeterRegistry registry, String keyType, KeyedRateLimiter limiter) {
+        FunctionCounter.builder("pos.auth.login.throttle", limiter, KeyedRateLimiter::getAllowedCount)
+                .tags("key", keyType, "result", "allowed")
+                .register(registry);
+        FunctionCounter.builder("pos.auth.login.throttle", limiter, KeyedRateLimiter::getRejectedCount)
+                .tags("key", keyType, "result", "rejected")
+                .register(registry);
+        FunctionCounter.builder("pos.auth.login.throttle.evictions", limiter, KeyedRateLimiter::getEvictionCount)
+                .tag("key", keyType)
+                .register(registry);
+        Gauge.builder("pos.auth.login.throttle.keys", limiter, KeyedRateLimiter::size)
+                .tag("key", keyType)
+                .register(registry);
+    }
+
+    private static TooManyRequestsException rejected(long waitNanos) {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+        return new TooManyRequestsException("Too many login attempts, try again later", retryAfter);
+    }
+}
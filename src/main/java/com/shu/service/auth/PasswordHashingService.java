@@ -0,0 +1,83 @@
+package com.shu.service.auth;
+
+import com.shu.exceptions.ServiceBusyException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * PasswordHashingService
+ *
+ * Runs BCrypt work on a dedicated, bounded worker pool instead of request threads.
+ * When the pool and its queue are full, calls fail fast with {@link ServiceBusyException}
+ * instead of queueing without limit.
+ */
+public interface PasswordHashingService {
+
+    /**
+     * Hashes a raw password and waits for the result.
+     *
+     * @param rawPassword plain-text password
+     * @return BCrypt hash
+     * @throws ServiceBusyException if the hashing pool is saturated
+     */
+    String encode(String rawPassword) throws ServiceBusyException;
+
+    /**
+     * Checks a raw password against a stored hash and waits for the result.
+     *
+     * @param rawPassword     plain-text password
+     * @param encodedPassword stored BCrypt hash
+     * @return true if the password matches
+     * @throws ServiceBusyException if the hashing pool is saturated
+     */
+    boolean matches(String rawPassword, String encodedPassword) throws ServiceBusyException;
+
+    /**
+     * Hashes a raw password in the background (used for transparent rehashing).
+     *
+     * @param rawPassword plain-text password
+     * @return future completed with the new hash
+     * @throws ServiceBusyException if the hashing pool is saturated
+     */
+    CompletableFuture<String> encodeAsync(String rawPassword) throws ServiceBusyException;
+
+    /**
+     * Hashes many passwords in parallel (bulk provisioning).
+     * Uses at most half of the workers so interactive logins keep running.
+     *
+     * @param rawPasswords plain-text passwords
+     * @return BCrypt hashes, in the same order as the input
+     * @throws ServiceBusyException if the hashing pool is saturated
+     */
+    List<String> encodeAll(List<String> rawPasswords) throws ServiceBusyException;
+
+    /**
+     * Tells whether a stored hash was created with a different cost factor
+     * than the configured one, so it should be rehashed on the next successful login.
+     *
+     * @param encodedPassword stored BCrypt hash
+     * @return true if the hash should be upgraded
+     */
+    boolean needsRehash(String encodedPassword);
+
+    /**
+     * @return number of hashing tasks waiting for a worker
+     */
+    int getQueueDepth();
+
+    /**
+     * @return number of workers currently hashing
+     */
+    int getActiveCount();
+
+    /**
+     * @return number of hashing operations completed since startup
+     */
+    long getHashCount();
+
+    /**
+     * @return total time spent hashing since startup, in nanoseconds
+     */
+    long getTotalHashNanos();
+}
@@ -0,0 +1,16 @@
+package com.shu.service.auth;
+
+/**
+ * Identity of a verified JWT, as needed for revocation checks.
+ *
+ * Kept as the details of the Authentication built by JwtValidator, so a cached token is checked
+ * without parsing it again, and logout knows which session to end.
+ *
+ * @param tokenId          "jti" claim (null for tokens issued before refresh tokens existed)
+ * @param sessionId        "sid" claim: shared by the access and refresh tokens of one login (may be null)
+ * @param email            the user the token was issued to
+ * @param issuedAtSeconds  "iat" claim in epoch seconds
+ * @param expiresAtMillis  "exp" claim in epoch millis
+ */
+public record TokenIds(String tokenId, String sessionId, String email, long issuedAtSeconds, long expiresAtMillis) {
+}
@@ -0,0 +1,156 @@
+package com.shu.service.auth;
+
+import com.shu.util.BloomFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TokenRevocationList
+ *
+ * In-memory copy of the live revocations, checked by JwtValidator on every request.
+ *
+ * Three kinds of revocation, stored under a prefixed key:
+ * - "jti:"  one token (a refresh token that was rotated or replayed)
+ * - "sid:"  one login session, i.e. every access and refresh token issued from it (logout)
+ * - "user:" every token of a user issued before the revocation (cashier leaves, password reset)
+ *
+ * How the check stays in the nanoseconds:
+ * 1. A {@link BloomFilter} over all keys: for a token that is not revoked (nearly every request) the
+ *    answer is k bit reads per key, without allocation or locking.
+ * 2. Only when the filter says "maybe" is the exact map consulted (ConcurrentHashMap, lock-free read);
+ *    a miss there is a false positive and is counted.
+ *
+ * Every entry expires (at the latest "exp" of the tokens it can match); {@link #compact(long)} drops the
+ * expired entries and rebuilds the filter, which is then swapped in atomically. Writers (add, compact)
+ * are serialized; readers never block.
+ *
+ * Metrics ("pos.auth.revocation.*"): checks{result=clear|revoked|false_positive}, size.
+ */
+@Component
+public class TokenRevocationList implements MeterBinder {
+
+    public static final String TOKEN_PREFIX = "jti:";
+    public static final String SESSION_PREFIX = "sid:";
+    public static final String USER_PREFIX = "user:";
+
+    private static final long TOKEN_SEED = BloomFilter.hash(0, TOKEN_PREFIX);
+    private static final long SESSION_SEED = BloomFilter.hash(0, SESSION_PREFIX);
+    private static final long USER_SEED = BloomFilter.hash(0, USER_PREFIX);
+
+    private final int expectedEntries;
+    private final ConcurrentHashMap<String, Revocation> revocations = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    private final LongAdder clear = new LongAdder();
+    private final LongAdder revoked = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public TokenRevocationList(@Value("${pos.auth.revocation.expected-entries:100000}") int expectedEntries) {
+        this.expectedEntries = expectedEntries;
+        this.filter = new BloomFilter(expectedEntries);
+    }
+
+    /**
+     * @param token     identity of a token whose signature and expiry were already verified
+     * @param nowMillis current time in epoch millis
+     * @return true when the token, its session or its user was revoked after the token was issued
+     */
+    public boolean isRevoked(TokenIds token, long nowMillis) {
+        BloomFilter current = filter;
+        boolean result = matches(current, TOKEN_SEED, TOKEN_PREFIX, token.tokenId(), token, nowMillis)
+                || matches(current, SESSION_SEED, SESSION_PREFIX, token.sessionId(), token, nowMillis)
+                || matches(current, USER_SEED, USER_PREFIX, token.email(), token, nowMillis);
+        if (result) {
+            revoked.increment();
+        } else {
+            clear.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Adds (or extends) a revocation. A later revocation of the same key wins.
+     *
+     * @param key              prefixed key (see the *_PREFIX constants)
+     * @param revokedAtMillis  tokens issued up to this time are revoked
+     * @param expiresAtMillis  when the entry can be forgotten (no matching token is valid after it)
+     */
+    public synchronized void add(String key, long revokedAtMillis, long expiresAtMillis) {
+        Revocation existing = revocations.get(key);
+        if (existing != null && existing.revokedAtMillis() >= revokedAtMillis
+                && existing.expiresAtMillis() >= expiresAtMillis) {
+            return;
+        }
+        long revokedAt = existing == null ? revokedAtMillis : Math.max(existing.revokedAtMillis(), revokedAtMillis);
+        long expiresAt = existing == null ? expiresAtMillis : Math.max(existing.expiresAtMillis(), expiresAtMillis);
+        // Filter first: a reader that finds the key in the map must also find it in the filter
+        filter.add(BloomFilter.mix(BloomFilter.hash(0, key)));
+        revocations.put(key, new Revocation(revokedAt, expiresAt));
+    }
+
+    /**
+     * Drops the expired entries and rebuilds the filter (removed keys no longer cost false positives).
+     *
+     * @return number of entries removed
+     */
+    public synchronized int compact(long nowMillis) {
+        int before = revocations.size();
+        revocations.values().removeIf(r -> r.expiresAtMillis() <= nowMillis);
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, 2 * revocations.size()));
+        for (String key : revocations.keySet()) {
+            rebuilt.add(BloomFilter.mix(BloomFilter.hash(0, key)));
+        }
+        filter = rebuilt;
+        return before - revocations.size();
+    }
+
+    public int size() {
+        return revocations.size();
+    }
+
+    public long getFalsePositiveCount() {
+        return falsePositives.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("pos.auth.revocation.checks", clear, LongAdder::sum)
+                .tag("result", "clear")
+                .register(registry);
+        FunctionCounter.builder("pos.auth.revocation.checks", revoked, LongAdder::sum)
+                .tag("result", "revoked")
+                .register(registry);
+        FunctionCounter.builder("pos.auth.revocation.checks", falsePositives, LongAdder::sum)
+                .tag("result", "false_positive")
+                .register(registry);
+        Gauge.builder("pos.auth.revocation.size", revocations, Map::size)
+                .register(registry);
+    }
+
+    private boolean matches(BloomFilter current, long seed, String prefix, String value,
+                            TokenIds token, long nowMillis) {
+        if (value == null || !current.mightContain(BloomFilter.mix(BloomFilter.hash(seed, value)))) {
+            return false;
+        }
+        Revocation revocation = revocations.get(prefix + value);
+        if (revocation == null) {
+            falsePositives.increment();
+            return false;
+        }
+        // "iat" has a one second resolution: a token issued in the second of the revocation is revoked too
+        return revocation.expiresAtMillis() > nowMillis
+                && token.issuedAtSeconds() * 1000 <= revocation.revokedAtMillis();
+    }
+
+    private record Revocation(long revokedAtMillis, long expiresAtMillis) {
+    }
+}
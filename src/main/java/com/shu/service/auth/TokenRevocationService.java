@@ -0,0 +1,33 @@
+package com.shu.service.auth;
+
+/**
+ * TokenRevocationService
+ *
+ * Revokes tokens before their expiry. Revocations are stored in the database (shared by all nodes)
+ * and mirrored in each node's {@link TokenRevocationList}, which JwtValidator checks on every request.
+ */
+public interface TokenRevocationService {
+
+    /**
+     * Revokes a single token (used for refresh token rotation).
+     *
+     * @param tokenId         the token's "jti"
+     * @param expiresAtMillis the token's "exp": the revocation is forgotten afterwards
+     * @return false when the token was already revoked (a refresh token presented twice)
+     */
+    boolean revokeToken(String tokenId, long expiresAtMillis);
+
+    /**
+     * Revokes every access and refresh token of a login session (logout, refresh token reuse).
+     *
+     * @param sessionId the "sid" shared by the session's tokens
+     */
+    void revokeSession(String sessionId);
+
+    /**
+     * Revokes every token issued to the user so far; tokens from later logins stay valid.
+     *
+     * @param email the user's email (the "email" claim)
+     */
+    void revokeUser(String email);
+}
@@ -1,23 +1,39 @@
 package com.shu.service.auth.impl;
 
+import com.shu.constant.ErrorCode;
 import com.shu.domain.UserRole;
+import com.shu.exceptions.ServiceBusyException;
 import com.shu.exceptions.UserException;
 import com.shu.mapper.UserMapper;
+import com.shu.model.dto.UserDto;
 import com.shu.model.entity.User;
 import com.shu.payload.request.LoginRequest;
+import com.shu.payload.request.RefreshTokenRequest;
 import com.shu.payload.request.SignupRequest;
 import com.shu.payload.response.AuthResponse;
 import com.shu.repository.UserRepository;
 import com.shu.service.auth.AuthService;
 import com.shu.service.auth.CustomUserDetails;
 import com.shu.service.auth.JwtProvider;
+import com.shu.service.auth.PasswordHashingService;
+import com.shu.service.auth.TokenIds;
+import com.shu.service.auth.TokenRevocationList;
+import com.shu.service.auth.TokenRevocationService;
+import com.shu.service.mail.MailOutboxService;
+import com.shu.service.sync.SyncVersionAllocator;
+import com.shu.service.user.LastLoginUpdater;
+import com.shu.service.user.UserCache;
+import com.shu.util.EmailAddresses;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 
@@ -29,33 +45,44 @@ import java.time.LocalDateTime;
  * Responsibilities:
  * - User registration (signup) with password hashing
  * - User login with password validation
- * - JWT token generation for stateless authentication
+ * - Transparent rehash when the stored BCrypt cost differs from the configured one
+ * - JWT generation for stateless authentication: short-lived access token plus rotating refresh token
+ * - Refresh token rotation with reuse detection, logout and revocation of a user's tokens (locks the account)
  * - SecurityContext management
  * - Updating last login timestamps
  *
  * Uses constructor-based dependency injection with Lombok's @RequiredArgsConstructor.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor // automatically config the object
 public class AuthServiceImpl implements AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtProvider jwtProvider;
-    private final CustomUserDetails customUserDetails;
+    private final LastLoginUpdater lastLoginUpdater;
+    private final UserCache userCache;
+    private final MailOutboxService mailOutboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final SyncVersionAllocator versionAllocator;
+    private final TokenRevocationService tokenRevocationService;
+    private final TokenRevocationList tokenRevocationList;
 
     /**
      * Registers a new user and returns an AuthResponse with JWT and user details.
      * Validates if the email is already registered and prevents admin role creation.
      *
      * Steps:
-     * 1. Check if email already exists → throw UserException if yes
+     * 1. Check if email already exists (UserCache) → throw UserException if yes
      * 2. Prevent creation of admin role by normal signup → throw UserException if attempted
      * 3. Create User entity and encode password
      * 4. Set timestamps for createdAt, updatedAt, and lastLogin
-     * 5. Save user in database
+     * 5. Save user in database (unique email constraint is the final duplicate check) and queue the
+     *    confirmation mail in the same transaction (sent in the background, see MailOutboxSender);
+     *    the new change-feed version makes the user reach the tills' rosters
      * 6. Authenticate user immediately for token generation
-     * 7. Generate JWT token
+     * 7. Generate access and refresh tokens for a new session
      * 8. Map saved User to DTO and return AuthResponse
      *
      * @param request SignupRequest containing user registration info
@@ -64,35 +91,44 @@ public class AuthServiceImpl implements AuthService {
      */
     @Override
     public AuthResponse signup(SignupRequest request) throws UserException {
-        User user = userRepository.findByEmail(request.getEmail());
+        User user = userCache.findByEmail(request.getEmail());
         if (user != null) {
-            throw new UserException("Email id already register!");
+            throw new UserException(ErrorCode.USER_ALREADY_EXISTS, "Email id already register!");
         }
         if (request.getRole().equals(UserRole.ROLE_ADMIN)) {
-            throw new UserException("Role admin is not allowed!");
+            throw new UserException(ErrorCode.ROLE_NOT_ALLOWED, "Role admin is not allowed!");
         }
 
         User newUser = new User();
-        newUser.setEmail(request.getEmail());
+        newUser.setEmail(EmailAddresses.normalize(request.getEmail()));
         newUser.setFullName(request.getFullName());
-        newUser.setPassword(passwordEncoder.encode(request.getPassword()));
+        newUser.setPassword(passwordHashingService.encode(request.getPassword()));
         newUser.setRole(request.getRole());
         newUser.setPhone(request.getPhone());
         newUser.setLastLogin(LocalDateTime.now());
         newUser.setCreatedAt(LocalDateTime.now());
         newUser.setUpdatedAt(LocalDateTime.now());
 
-        User savedUser = userRepository.save(newUser);
+        User savedUser;
+        try {
+            savedUser = transactionTemplate.execute(status -> {
+                newUser.setSyncVersion(versionAllocator.allocate(1));
+                User saved = userRepository.save(newUser);
+                mailOutboxService.enqueueSignupConfirmation(saved);
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Registered concurrently (or on another node) after our cached check
+            throw new UserException(ErrorCode.USER_ALREADY_EXISTS, "Email id already register!");
+        }
 
         // Authenticate user for immediate token generation
         Authentication authentication =
-                new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword());
+                new UsernamePasswordAuthenticationToken(savedUser.getEmail(), request.getPassword());
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
-        String jwt = jwtProvider.generateToken(authentication);
-
         AuthResponse authResponse = new AuthResponse();
-        authResponse.setJwt(jwt);
+        issueTokens(authResponse, authentication, jwtProvider.newSessionId());
         authResponse.setMessage("Register Successfully!");
         authResponse.setUser(UserMapper.toDTO(savedUser));
 
@@ -104,43 +140,196 @@ public class AuthServiceImpl implements AuthService {
      * Updates the last login timestamp for the user.
      *
      * Steps:
-     * 1. Load user by email using CustomUserDetails
-     * 2. Validate password
+     * 1. Load user by email (UserCache, at most one DB round-trip, reused for UserDetails and the response)
+     * 2. Validate password (on the hashing pool), rehash in the background if the cost factor changed
+     *    Locked account (tokens revoked by an admin, read from the DB: the cached user may predate the lock)
+     *    → throw UserException, after the password check so the lock does not tell a guesser the email exists
      * 3. Set authentication in SecurityContext
-     * 4. Update last login timestamp
-     * 5. Generate JWT token
+     * 4. Queue the last login timestamp (written in batches by LastLoginUpdater)
+     * 5. Generate access and refresh tokens for a new session
      * 6. Return AuthResponse with user info and token
      *
      * @param request LoginRequest containing user credentials
      * @return AuthResponse containing JWT and user information
-     * @throws UserException if the user does not exist or credentials are invalid
+     * @throws UserException if credentials are invalid or the account is locked
+     * @throws UsernameNotFoundException if the user does not exist
+     * @throws ServiceBusyException if the password-hashing pool is saturated
      */
     @Override
     public AuthResponse login(LoginRequest request) throws UserException {
-        UserDetails userDetails = customUserDetails.loadUserByUsername(request.getEmail());
-
+        User user = userCache.findByEmail(request.getEmail());
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found");
+        }
 
-        if (userDetails == null) {
-            throw new UserException("Email id doesn't exits: " + request.getEmail());
+        UserDetails userDetails = CustomUserDetails.toUserDetails(user);
+        if (!passwordHashingService.matches(request.getPassword(), userDetails.getPassword())) {
+            throw new UserException(ErrorCode.INVALID_CREDENTIALS, "Invalid Password!");
         }
-        if (!passwordEncoder.matches(request.getPassword(), userDetails.getPassword())) {
-            throw new UserException("Invalid Password!");
+        if (userRepository.isLocked(user.getId())) {
+            throw new UserException(ErrorCode.ACCOUNT_LOCKED, "Account is locked");
+        }
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            upgradePasswordHash(user, request.getPassword());
         }
 
         Authentication auth = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
         SecurityContextHolder.getContext().setAuthentication(auth);
 
-        User user = userRepository.findByEmail(request.getEmail());
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+        LocalDateTime loginTime = LocalDateTime.now();
+        lastLoginUpdater.recordLogin(user.getId(), loginTime);
 
-        String jwt = jwtProvider.generateToken(auth);
+        UserDto userDto = UserMapper.toDTO(user);
+        userDto.setLastLogin(loginTime);
 
         AuthResponse response = new AuthResponse();
-        response.setJwt(jwt);
+        issueTokens(response, auth, jwtProvider.newSessionId());
         response.setMessage("Login successfully");
+        response.setUser(userDto);
+        return response;
+    }
+
+    /**
+     * Exchanges a refresh token for a new token pair of the same session.
+     *
+     * Steps:
+     * 1. Verify signature, expiry and type of the refresh token
+     * 2. Already revoked (used before, logged out, user revoked)? → end the session, reject
+     * 3. Revoke the refresh token (INSERT on its jti: only one exchange can win, across nodes);
+     *    lost the race → it was used twice → end the session, reject
+     * 4. Reload the user (roles may have changed since login), locked since? → end the session, reject
+     * 5. Issue the new pair
+     *
+     * @param request RefreshTokenRequest containing the refresh token
+     * @return AuthResponse containing the new tokens and user information
+     * @throws UserException if the refresh token is invalid, revoked or already used, or the account is locked
+     */
+    @Override
+    public AuthResponse refresh(RefreshTokenRequest request) throws UserException {
+        TokenIds ids = jwtProvider.parseRefreshToken(request.getRefreshToken());
+        if (ids == null || ids.sessionId() == null) {
+            throw new UserException(ErrorCode.INVALID_TOKEN, "Invalid refresh token");
+        }
+
+        // A rotated refresh token coming back means one of the two holders is not the user
+        if (tokenRevocationList.isRevoked(ids, System.currentTimeMillis())
+                || !tokenRevocationService.revokeToken(ids.tokenId(), ids.expiresAtMillis())) {
+            tokenRevocationService.revokeSession(ids.sessionId());
+            log.warn("Refresh token reused or revoked, session {} ended", ids.sessionId());
+            throw new UserException(ErrorCode.INVALID_TOKEN, "Refresh token revoked, please log in again");
+        }
+
+        User user = userCache.findByEmail(ids.email());
+        if (user == null) {
+            throw new UserException(ErrorCode.INVALID_TOKEN, "Invalid refresh token");
+        }
+        if (userRepository.isLocked(user.getId())) {
+            tokenRevocationService.revokeSession(ids.sessionId());
+            throw new UserException(ErrorCode.ACCOUNT_LOCKED, "Account is locked");
+        }
+        UserDetails userDetails = CustomUserDetails.toUserDetails(user);
+        Authentication auth = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+
+        AuthResponse response = new AuthResponse();
+        issueTokens(response, auth, ids.sessionId());
+        response.setMessage("Token refreshed");
         response.setUser(UserMapper.toDTO(user));
         return response;
     }
 
+    /**
+     * Revokes the session of the access token of the current request (see JwtValidator,
+     * which keeps the token ids as the Authentication details).
+     *
+     * @throws UserException if the request carries no valid access token
+     */
+    @Override
+    public void logout() throws UserException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getDetails() instanceof TokenIds ids)) {
+            throw new UserException(ErrorCode.INVALID_TOKEN, "No access token");
+        }
+        if (ids.sessionId() != null) {
+            tokenRevocationService.revokeSession(ids.sessionId());
+        } else {
+            // Token from before sessions existed: only the user-wide revocation can reach it
+            tokenRevocationService.revokeUser(ids.email());
+        }
+    }
+
+    /**
+     * Locks the account, then revokes every token issued to the user so far. Locked first: a login
+     * between the two steps would otherwise get a token issued after the revocation.
+     * The user stays out until {@link #unlockUser(Long)}.
+     *
+     * @param userId id of the user
+     * @throws UserException if the user does not exist
+     */
+    @Override
+    public void revokeUserTokens(Long userId) throws UserException {
+        User user = setLocked(userId, true);
+        tokenRevocationService.revokeUser(user.getEmail());
+        log.info("User {} locked, all tokens revoked", userId);
+    }
+
+    /**
+     * Lets a locked user log in again. Tokens revoked while locked stay revoked.
+     *
+     * @param userId id of the user
+     * @throws UserException if the user does not exist
+     */
+    @Override
+    public void unlockUser(Long userId) throws UserException {
+        setLocked(userId, false);
+        log.info("User {} unlocked", userId);
+    }
+
+    private User setLocked(Long userId, boolean locked) throws UserException {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserException(ErrorCode.USER_NOT_FOUND, "User not found"));
+        userRepository.setLocked(userId, locked);
+        // JPQL bulk update bypasses the entity listener
+        userCache.invalidate(user.getEmail());
+        return user;
+    }
+
+    /**
+     * Sets a new access token and refresh token of the given session on the response.
+     */
+    private void issueTokens(AuthResponse response, Authentication authentication, String sessionId) {
+        response.setJwt(jwtProvider.generateToken(authentication, sessionId));
+        response.setRefreshToken(jwtProvider.generateRefreshToken(authentication.getName(), sessionId));
+        response.setExpiresIn(jwtProvider.getAccessTokenTtl().toSeconds());
+    }
+
+    /**
+     * Re-hashes the password with the configured cost factor and stores it, unless the stored
+     * hash changed in the meantime. Runs in the background; if the hashing pool is busy the
+     * upgrade is simply retried on the user's next login.
+     *
+     * @param user        the user who just logged in
+     * @param rawPassword the password that just matched
+     */
+    private void upgradePasswordHash(User user, String rawPassword) {
+        Long userId = user.getId();
+        String email = user.getEmail();
+        String oldHash = user.getPassword();
+        try {
+            passwordHashingService.encodeAsync(rawPassword)
+                    .thenAccept(hash -> {
+                        // Only if the password was not changed while hashing
+                        if (userRepository.replacePasswordHash(userId, oldHash, hash) == 0) {
+                            log.debug("Password of user {} changed meanwhile, rehash dropped", userId);
+                        }
+                        // JPQL bulk update bypasses the entity listener
+                        userCache.invalidate(email);
+                    })
+                    .exceptionally(ex -> {
+                        log.warn("Password rehash failed for user {}", userId, ex);
+                        return null;
+                    });
+        } catch (ServiceBusyException e) {
+            log.debug("Hashing pool busy, skipping password rehash for user {}", userId);
+        }
+    }
 }
@@ -0,0 +1,252 @@
+package com.shu.service.auth.impl;
+
+import com.shu.exceptions.ServiceBusyException;
+import com.shu.service.auth.PasswordHashingService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * PasswordHashingServiceImpl
+ *
+ * BCrypt is CPU-bound by design (~50-100 ms per call at cost 10). Running it on Tomcat threads
+ * lets a login burst starve every other endpoint. This implementation:
+ *
+ * - Runs hashing on its own fixed pool (one worker per core by default).
+ * - Uses a bounded queue: when workers and queue are full, the call is rejected immediately
+ *   with {@link ServiceBusyException} (→ 503 + Retry-After).
+ * - Gives up waiting after a timeout so request threads are never stuck behind a long queue.
+ *   The abandoned work is cancelled too: a queued task is dropped from the queue, a running bulk
+ *   slice stops before its next password (a single BCrypt call cannot be interrupted).
+ * - Records hash latency ("pos.auth.password.hash", tag operation = encode|matches)
+ *   plus pool gauges ("pos.auth.password.pool.queued" / ".active").
+ */
+@Service
+public class PasswordHashingServiceImpl implements PasswordHashingService {
+
+    // "$2a$10$..." → cost factor is the two digits after the version
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final int strength;
+    private final long timeoutMillis;
+    private final long bulkTimeoutMillis;
+    private final long retryAfterSeconds;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public PasswordHashingServiceImpl(PasswordEncoder passwordEncoder,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${pos.security.bcrypt.strength:10}") int strength,
+                                      @Value("${pos.security.hashing.pool-size:0}") int poolSize,
+                                      @Value("${pos.security.hashing.queue-capacity:64}") int queueCapacity,
+                                      @Value("${pos.security.hashing.timeout-ms:5000}") long timeoutMillis,
+                                      @Value("${pos.security.hashing.bulk-timeout-ms:300000}") long bulkTimeoutMillis,
+                                      @Value("${pos.security.hashing.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.passwordEncoder = passwordEncoder;
+        this.strength = strength;
+        this.timeoutMillis = timeoutMillis;
+        this.bulkTimeoutMillis = bulkTimeoutMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        int workers = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+                workers, workers,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        Gauge.builder("pos.auth.password.pool.queued", this, PasswordHashingServiceImpl::getQueueDepth)
+                .register(meterRegistry);
+        Gauge.builder("pos.auth.password.pool.active", this, PasswordHashingServiceImpl::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(String rawPassword) throws ServiceBusyException {
+        return await(submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword))), timeoutMillis);
+    }
+
+    @Override
+    public boolean matches(String rawPassword, String encodedPassword) throws ServiceBusyException {
+        return await(submit(() -> matchesTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword))),
+                timeoutMillis);
+    }
+
+    @Override
+    public CompletableFuture<String> encodeAsync(String rawPassword) throws ServiceBusyException {
+        try {
+            return CompletableFuture.supplyAsync(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)),
+                    executor);
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+    }
+
+    @Override
+    public List<String> encodeAll(List<String> rawPasswords) throws ServiceBusyException {
+        if (rawPasswords.isEmpty()) {
+            return List.of();
+        }
+
+        // 1. Split the work into one slice per bulk worker (half the pool, at least one)
+        int bulkWorkers = Math.max(1, executor.getMaximumPoolSize() / 2);
+        int sliceSize = (rawPasswords.size() + bulkWorkers - 1) / bulkWorkers;
+
+        // 2. Each slice is a single pool task, so a bulk call uses few queue slots
+        List<Future<List<String>>> slices = new ArrayList<>();
+        List<String> hashes = new ArrayList<>(rawPasswords.size());
+        try {
+            for (int from = 0; from < rawPasswords.size(); from += sliceSize) {
+                List<String> slice = rawPasswords.subList(from, Math.min(from + sliceSize, rawPasswords.size()));
+                slices.add(submit(() -> {
+                    List<String> sliceHashes = new ArrayList<>(slice.size());
+                    for (String raw : slice) {
+                        // Cancelled by a timed-out caller: don't hash the rest of the slice
+                        if (Thread.currentThread().isInterrupted()) {
+                            throw new CancellationException("Bulk hashing abandoned");
+                        }
+                        sliceHashes.add(encodeTimer.record(() -> passwordEncoder.encode(raw)));
+                    }
+                    return sliceHashes;
+                }));
+            }
+
+            // 3. Collect in input order
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(bulkTimeoutMillis);
+            for (Future<List<String>> slice : slices) {
+                hashes.addAll(await(slice, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            }
+        } catch (RuntimeException e) {
+            // A slice was rejected (pool full), failed or timed out: nobody will read the others
+            cancel(slices);
+            throw e;
+        }
+        return hashes;
+    }
+
+    @Override
+    public boolean needsRehash(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public long getHashCount() {
+        return encodeTimer.count() + matchesTimer.count();
+    }
+
+    @Override
+    public long getTotalHashNanos() {
+        return (long) (encodeTimer.totalTime(TimeUnit.NANOSECONDS) + matchesTimer.totalTime(TimeUnit.NANOSECONDS));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Hands the work to the hashing pool, failing fast when it is saturated.
+     */
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+    }
+
+    /**
+     * Waits for a hashing result, bounded by a timeout; on timeout the work is cancelled.
+     */
+    private <T> T await(Future<T> future, long timeoutMillis) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            cancel(List.of(future));
+            throw busy();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Interrupts running tasks and frees the queue slots of waiting ones.
+     */
+    private void cancel(List<? extends Future<?>> futures) {
+        futures.forEach(future -> future.cancel(true));
+        executor.purge();
+    }
+
+    private ServiceBusyException busy() {
+        return new ServiceBusyException("Authentication is busy, please retry shortly", retryAfterSeconds);
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("pos.auth.password.hash")
+                .description("BCrypt time on the hashing pool (excludes queueing)")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Named daemon threads so hashing workers are easy to spot in thread dumps.
+     */
+    private static class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.shu.service.auth.impl;
+
+import com.shu.service.auth.JwtProvider;
+import com.shu.service.auth.TokenRevocationList;
+import com.shu.service.auth.TokenRevocationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * TokenRevocationServiceImpl
+ *
+ * How it works:
+ * 1. Revoking writes a token_revocation row and adds it to the local TokenRevocationList at once.
+ *    A token revocation is a plain INSERT: the primary key makes "revoke this refresh token" atomic
+ *    across nodes, so a refresh token can be exchanged only once.
+ * 2. Startup: every live row is loaded into the list.
+ * 3. Sync (every pos.auth.revocation.sync-interval-ms): rows revoked since the last one seen, minus
+ *    pos.auth.revocation.sync-overlap-ms for clock skew between nodes and late commits, are added to the
+ *    list. Revocations made on another node take effect here within one interval.
+ * 4. Compaction (every pos.auth.revocation.compact-interval-ms): expired entries leave the list (the
+ *    Bloom filter is rebuilt) and expired rows are deleted in chunks.
+ *
+ * Session and user revocations expire one refresh token lifetime after they were made: no token
+ * issued before them can still be valid by then.
+ */
+@Slf4j
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+
+    private static final int PURGE_CHUNK = 5000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO token_revocation (token_key, revoked_at, expires_at) VALUES (?, ?, ?)";
+    private static final String UPDATE_SQL =
+            "UPDATE token_revocation SET revoked_at = ?, expires_at = ? WHERE token_key = ?";
+    private static final String SINCE_SQL =
+            "SELECT token_key, revoked_at, expires_at FROM token_revocation WHERE revoked_at > ? AND expires_at > ?";
+    private static final String PURGE_SQL =
+            "DELETE FROM token_revocation WHERE expires_at <= ? LIMIT " + PURGE_CHUNK;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TokenRevocationList revocationList;
+    private final JwtProvider jwtProvider;
+    private final long syncOverlapMillis;
+
+    // One syncing thread at a time. Not synchronized: a virtual thread waiting for a pooled connection
+    // inside a monitor pins its carrier (spring.threads.virtual.enabled, @Scheduled on virtual threads)
+    private final ReentrantLock syncLock = new ReentrantLock();
+    // Highest revoked_at read from the table (sync cursor, guarded by syncLock)
+    private long lastSeen = -1;
+
+    public TokenRevocationServiceImpl(JdbcTemplate jdbcTemplate,
+                                      TokenRevocationList revocationList,
+                                      JwtProvider jwtProvider,
+                                      @Value("${pos.auth.revocation.sync-overlap-ms:5000}") long syncOverlapMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.revocationList = revocationList;
+        this.jwtProvider = jwtProvider;
+        this.syncOverlapMillis = syncOverlapMillis;
+    }
+
+    @Override
+    public boolean revokeToken(String tokenId, long expiresAtMillis) {
+        String key = TokenRevocationList.TOKEN_PREFIX + tokenId;
+        long now = System.currentTimeMillis();
+        try {
+            jdbcTemplate.update(INSERT_SQL, key, now, expiresAtMillis);
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+        revocationList.add(key, now, expiresAtMillis);
+        return true;
+    }
+
+    @Override
+    public void revokeSession(String sessionId) {
+        upsert(TokenRevocationList.SESSION_PREFIX + sessionId);
+    }
+
+    @Override
+    public void revokeUser(String email) {
+        upsert(TokenRevocationList.USER_PREFIX + email);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        syncLock.lock();
+        try {
+            int loaded = readSince(-1);
+            log.info("Token revocation list: {} live revocations loaded", loaded);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pos.auth.revocation.sync-interval-ms:2000}")
+    public void sync() {
+        syncLock.lock();
+        try {
+            readSince(lastSeen < 0 ? -1 : lastSeen - syncOverlapMillis);
+        } catch (RuntimeException e) {
+            log.warn("Token revocation sync failed, will retry", e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pos.auth.revocation.compact-interval-ms:60000}")
+    public void compact() {
+        long now = System.currentTimeMillis();
+        int dropped = revocationList.compact(now);
+        try {
+            int purged = 0;
+            int deleted;
+            do {
+                deleted = jdbcTemplate.update(PURGE_SQL, now);
+                purged += deleted;
+            } while (deleted == PURGE_CHUNK);
+            if (dropped > 0 || purged > 0) {
+                log.debug("Token revocations compacted: {} dropped from memory, {} rows purged", dropped, purged);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Token revocation purge failed, will retry", e);
+        }
+    }
+
+    /**
+     * Session and user revocations can be repeated (logout twice, user revoked again): the later one wins.
+     */
+    private void upsert(String key) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + jwtProvider.getRefreshTokenTtl().toMillis();
+        if (jdbcTemplate.update(UPDATE_SQL, now, expiresAt, key) == 0) {
+            try {
+                jdbcTemplate.update(INSERT_SQL, key, now, expiresAt);
+            } catch (DuplicateKeyException e) {
+                // Revoked on another node at the same time
+                jdbcTemplate.update(UPDATE_SQL, now, expiresAt, key);
+            }
+        }
+        revocationList.add(key, now, expiresAt);
+    }
+
+    private int readSince(long after) {
+        int[] count = new int[1];
+        jdbcTemplate.query(SINCE_SQL, rs -> {
+            long revokedAt = rs.getLong("revoked_at");
+            revocationList.add(rs.getString("token_key"), revokedAt, rs.getLong("expires_at"));
+            lastSeen = Math.max(lastSeen, revokedAt);
+            count[0]++;
+        }, after, System.currentTimeMillis());
+        return count[0];
+    }
+}
@@ -0,0 +1,247 @@
+package com.shu.service.diagnostics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * MonitoredDataSource
+ *
+ * Wraps the pool (HikariCP) so every statement is reported to the {@link SqlStatementMonitor}.
+ * Connections and statements handed out are JDK proxies around the driver's objects; result sets, whose
+ * getters run per column and row, are a delegating {@link MonitoredResultSet}:
+ * - executeQuery: timed until the ResultSet is closed (fetching included), rows = next() calls that found a row
+ * - executeUpdate / executeLargeUpdate: rows = update count
+ * - executeBatch / executeLargeBatch: one statement per batch, rows = sum of the update counts
+ * - execute: timed, rows unknown (-1)
+ * A query whose ResultSet is never closed is reported when its statement is closed or executed again.
+ *
+ * It is a {@link DelegatingDataSource}: unwrap() and Boot's DataSourceUnwrapper still reach the pool
+ * (Hikari metrics, health).
+ */
+public class MonitoredDataSource extends DelegatingDataSource {
+
+    private static final String QUERY = "query";
+    private static final String UPDATE = "update";
+    private static final String BATCH = "batch";
+    private static final String EXECUTE = "execute";
+
+    private final Supplier<SqlStatementMonitor> monitorSupplier;
+    private volatile SqlStatementMonitor monitor;
+
+    /**
+     * @param monitorSupplier resolved on the first statement: the monitor (and the MeterRegistry it uses)
+     *                        must not be created while the DataSource bean is being post-processed
+     */
+    public MonitoredDataSource(DataSource target, Supplier<SqlStatementMonitor> monitorSupplier) {
+        super(target);
+        this.monitorSupplier = monitorSupplier;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        return proxy(Connection.class, new ConnectionHandler(connection));
+    }
+
+    private SqlStatementMonitor monitor() {
+        SqlStatementMonitor current = monitor;
+        if (current == null) {
+            current = monitorSupplier.get();
+            monitor = current;
+        }
+        return current;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(MonitoredDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Proxies only answer equals/hashCode by identity: the driver object must not compare equal to its proxy.
+     */
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> null;
+        };
+    }
+
+    private static boolean isIdentityMethod(Method method) {
+        String name = method.getName();
+        return (name.equals("equals") && method.getParameterCount() == 1)
+                || (name.equals("hashCode") && method.getParameterCount() == 0);
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            Object result = MonitoredDataSource.invoke(target, method, args);
+            return switch (method.getName()) {
+                case "createStatement" ->
+                        proxy(Statement.class, new StatementHandler((Statement) result, (Connection) proxy, null));
+                case "prepareStatement" -> proxy(PreparedStatement.class,
+                        new StatementHandler((Statement) result, (Connection) proxy, (String) args[0]));
+                case "prepareCall" -> proxy(CallableStatement.class,
+                        new StatementHandler((Statement) result, (Connection) proxy, (String) args[0]));
+                default -> result;
+            };
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement target;
+        private final Connection connection;
+        private final String preparedSql;
+
+        // Statement text of the current batch (plain statements: the last addBatch(sql))
+        private String batchSql;
+        // Query whose ResultSet is still open
+        private MonitoredResultSet openQuery;
+
+        StatementHandler(Statement target, Connection connection, String preparedSql) {
+            this.target = target;
+            this.connection = connection;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args);
+            }
+            String name = method.getName();
+            switch (name) {
+                case "executeQuery" -> {
+                    finishOpenQuery();
+                    String sql = sql(args);
+                    long start = System.nanoTime();
+                    ResultSet resultSet = (ResultSet) MonitoredDataSource.invoke(target, method, args);
+                    MonitoredResultSet monitored = new MonitoredResultSet(resultSet, (Statement) proxy,
+                            System.nanoTime() - start, finished -> onQueryFinished(finished, sql));
+                    openQuery = monitored;
+                    return monitored;
+                }
+                case "executeUpdate", "executeLargeUpdate" -> {
+                    finishOpenQuery();
+                    long start = System.nanoTime();
+                    Object result = MonitoredDataSource.invoke(target, method, args);
+                    monitor().record(sql(args), UPDATE, System.nanoTime() - start, ((Number) result).longValue());
+                    return result;
+                }
+                case "execute" -> {
+                    finishOpenQuery();
+                    long start = System.nanoTime();
+                    Object result = MonitoredDataSource.invoke(target, method, args);
+                    monitor().record(sql(args), EXECUTE, System.nanoTime() - start, -1);
+                    return result;
+                }
+                case "executeBatch", "executeLargeBatch" -> {
+                    finishOpenQuery();
+                    long start = System.nanoTime();
+                    Object result = MonitoredDataSource.invoke(target, method, args);
+                    monitor().record(preparedSql != null ? preparedSql : batchSql, BATCH,
+                            System.nanoTime() - start, updateCount(result));
+                    batchSql = null;
+                    return result;
+                }
+                case "addBatch" -> {
+                    if (args != null && args.length == 1) {
+                        batchSql = (String) args[0];
+                    }
+                    return MonitoredDataSource.invoke(target, method, args);
+                }
+                case "close" -> {
+                    finishOpenQuery();
+                    return MonitoredDataSource.invoke(target, method, args);
+                }
+                case "getConnection" -> {
+                    return connection;
+                }
+                default -> {
+                    return MonitoredDataSource.invoke(target, method, args);
+                }
+            }
+        }
+
+        private String sql(Object[] args) {
+            if (args != null && args.length > 0 && args[0] instanceof String sql) {
+                return sql;
+            }
+            return preparedSql;
+        }
+
+        private void onQueryFinished(MonitoredResultSet query, String sql) {
+            if (openQuery == query) {
+                openQuery = null;
+            }
+            monitor().record(sql, QUERY, query.getElapsedNanos(), query.getRows());
+        }
+
+        private void finishOpenQuery() {
+            if (openQuery != null) {
+                openQuery.finish();
+            }
+        }
+
+        private static long updateCount(Object counts) {
+            long total = 0;
+            if (counts instanceof int[] ints) {
+                for (int count : ints) {
+                    if (count < 0) {
+                        return -1;
+                    }
+                    total += count;
+                }
+            } else if (counts instanceof long[] longs) {
+                for (long count : longs) {
+                    if (count < 0) {
+                        return -1;
+                    }
+                    total += count;
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.shu.service.diagnostics;
+
+import com.shu.payload.response.ThreadDiagnosticsResponse;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PinningMonitor
+ *
+ * Diagnostics for the virtual-thread mode ({@code spring.threads.virtual.enabled=true}).
+ *
+ * A virtual thread that blocks inside a {@code synchronized} block (or native frame) "pins"
+ * its carrier thread: the carrier cannot run other virtual threads until it unblocks.
+ * A driver or pool that does JDBC I/O under {@code synchronized} can therefore shrink
+ * the effective concurrency back to the number of cores.
+ *
+ * What it does (virtual mode only):
+ * 1. Startup check: logs the JDK/driver facts that decide whether pinning is expected,
+ *    then runs a few JDBC round-trips on virtual threads as a probe.
+ * 2. Runtime report: streams JFR {@code jdk.VirtualThreadPinned} events in-process and
+ *    aggregates them by the first non-JDK stack frame. The first event of every new site is logged.
+ */
+@Slf4j
+@Service
+public class PinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Environment environment;
+    private final DataSource dataSource;
+    private final boolean enabled;
+    private final Duration threshold;
+    private final int probeQueries;
+
+    private final ConcurrentHashMap<String, SiteStats> sites = new ConcurrentHashMap<>();
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+
+    private volatile RecordingStream stream;
+
+    public PinningMonitor(Environment environment,
+                          DataSource dataSource,
+                          @Value("${pos.diagnostics.pinning.enabled:true}") boolean enabled,
+                          @Value("${pos.diagnostics.pinning.threshold-ms:20}") long thresholdMillis,
+                          @Value("${pos.diagnostics.pinning.probe-queries:16}") int probeQueries) {
+        this.environment = environment;
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.threshold = Duration.ofMillis(thresholdMillis);
+        this.probeQueries = probeQueries;
+    }
+
+    /**
+     * Starts pinning monitoring and runs the startup probe once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!isVirtualMode()) {
+            log.info("Thread mode: platform (set spring.threads.virtual.enabled=true for virtual threads)");
+            return;
+        }
+
+        log.info("Thread mode: virtual (Tomcat requests, async executors and @Scheduled tasks)");
+        logStartupFindings();
+
+        if (enabled) {
+            startStream();
+            probeJdbc();
+        }
+    }
+
+    /**
+     * @return current thread mode and pinning statistics, worst sites first
+     */
+    public ThreadDiagnosticsResponse report() {
+        ThreadDiagnosticsResponse response = new ThreadDiagnosticsResponse();
+        response.setThreadMode(isVirtualMode() ? "virtual" : "platform");
+        response.setJavaVersion(Runtime.version().toString());
+        response.setMonitoring(stream != null);
+        response.setPinnedEvents(pinnedEvents.sum());
+        response.setTotalPinnedMillis(Duration.ofNanos(pinnedNanos.sum()).toMillis());
+
+        List<ThreadDiagnosticsResponse.PinnedSite> report = new ArrayList<>(sites.size());
+        sites.forEach((frame, stats) -> report.add(stats.toSite(frame)));
+        report.sort(Comparator.comparingLong(ThreadDiagnosticsResponse.PinnedSite::getTotalMillis).reversed());
+        response.setSites(report);
+        return response;
+    }
+
+    @PreDestroy
+    public void stop() {
+        RecordingStream current = stream;
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    private boolean isVirtualMode() {
+        return Threading.VIRTUAL.isActive(environment);
+    }
+
+    /**
+     * Logs the facts that decide whether blocking under a monitor pins carriers.
+     */
+    private void logStartupFindings() {
+        int jdk = Runtime.version().feature();
+        if (jdk < 24) {
+            // JEP 491 (JDK 24) lets virtual threads release their carrier inside synchronized
+            log.warn("JDK {}: blocking inside synchronized pins the carrier thread. "
+                    + "Prefer ReentrantLock around I/O, or run on JDK 24+", jdk);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            var meta = connection.getMetaData();
+            log.info("JDBC driver: {} {} (pool: {})", meta.getDriverName(), meta.getDriverVersion(),
+                    dataSource.getClass().getSimpleName());
+        } catch (Exception e) {
+            log.warn("Could not read JDBC driver metadata for the pinning check", e);
+        }
+    }
+
+    private void startStream() {
+        try {
+            RecordingStream recording = new RecordingStream();
+            recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            recording.onEvent(PINNED_EVENT, this::record);
+            recording.startAsync();
+            stream = recording;
+            log.info("Recording {} events above {} ms", PINNED_EVENT, threshold.toMillis());
+        } catch (Exception e) {
+            log.warn("JFR is not available, pinning will not be reported", e);
+        }
+    }
+
+    /**
+     * Runs a few JDBC round-trips on virtual threads. If the driver or pool pins,
+     * the sites show up in the report (and the log) within a second or two.
+     */
+    private void probeJdbc() {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < probeQueries; i++) {
+                executor.submit(() -> {
+                    try (Connection connection = dataSource.getConnection();
+                         Statement statement = connection.createStatement()) {
+                        statement.execute("SELECT 1");
+                    }
+                    return null;
+                });
+            }
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        String frame = firstInterestingFrame(event.getStackTrace());
+
+        pinnedEvents.increment();
+        pinnedNanos.add(nanos);
+
+        SiteStats stats = sites.computeIfAbsent(frame, key -> {
+            log.warn("Virtual thread pinned for {} ms at {}", Duration.ofNanos(nanos).toMillis(), key);
+            return new SiteStats();
+        });
+        stats.add(nanos);
+    }
+
+    /**
+     * First frame outside the JDK: usually the application code or the driver holding the monitor.
+     */
+    private static String firstInterestingFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.")) {
+                continue;
+            }
+            return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+        }
+        return "jdk-internal";
+    }
+
+    private static final class SiteStats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private volatile long maxNanos;
+
+        void add(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            if (nanos > maxNanos) {
+                maxNanos = nanos;   // racy max is fine for a diagnostic
+            }
+        }
+
+        ThreadDiagnosticsResponse.PinnedSite toSite(String frame) {
+            ThreadDiagnosticsResponse.PinnedSite site = new ThreadDiagnosticsResponse.PinnedSite();
+            site.setFrame(frame);
+            site.setCount(count.sum());
+            site.setTotalMillis(Duration.ofNanos(totalNanos.sum()).toMillis());
+            site.setMaxMillis(Duration.ofNanos(maxNanos).toMillis());
+            return site;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.shu.service.diagnostics;
+
+/**
+ * SQL statements run by one unit of work (an HTTP request, see SqlAccountingFilter) on the current thread.
+ *
+ * Statements run on other threads (async exports, executors) are not counted.
+ * Not thread-safe: only the thread that began the unit of work writes to it.
+ */
+public final class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    private final SqlRequestStats outer;
+    private int statements;
+    private long nanos;
+
+    private SqlRequestStats(SqlRequestStats outer) {
+        this.outer = outer;
+    }
+
+    /**
+     * Starts counting the statements of this thread. Must be followed by {@link #end()}.
+     */
+    public static SqlRequestStats begin() {
+        SqlRequestStats stats = new SqlRequestStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * @return the stats of the unit of work running on this thread, null if none
+     */
+    public static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stops counting; statements are counted into the enclosing unit of work again, if any.
+     */
+    public void end() {
+        if (outer == null) {
+            CURRENT.remove();
+        } else {
+            outer.statements += statements;
+            outer.nanos += nanos;
+            CURRENT.set(outer);
+        }
+    }
+
+    void add(long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
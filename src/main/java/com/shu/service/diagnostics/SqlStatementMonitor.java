@@ -0,0 +1,141 @@
+package com.shu.service.diagnostics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SqlStatementMonitor
+ *
+ * Receives every JDBC statement executed through the {@link MonitoredDataSource} (replaces
+ * spring.jpa.show-sql, which printed every statement synchronously and said nothing about its cost).
+ *
+ * For each statement:
+ * 1. Metrics: "pos.sql.statements" timer {type, repository} and "pos.sql.rows" summary {type}.
+ *    repository is the Spring Data method the statement ran in (e.g. "OrderRepository.findById"),
+ *    "none" for JdbcTemplate mappers and Hibernate flushes outside a repository call.
+ * 2. Log: statements slower than pos.diagnostics.sql.slow-threshold-ms are logged (WARN) with
+ *    duration, rows and caller; of the others, a pos.diagnostics.sql.sample-rate fraction is logged
+ *    (INFO) to see what normal traffic looks like.
+ * 3. Request accounting: counted into the {@link SqlRequestStats} of the current thread, if any.
+ *
+ * The caller of a logged statement is the repository method, else the first application frame on
+ * the stack (only walked for logged statements).
+ *
+ * Duration of a query covers its execution and the fetch of its rows (until the ResultSet is closed);
+ * rows are rows read for queries, rows changed for updates and batches (-1 when unknown).
+ */
+@Slf4j
+@Service
+public class SqlStatementMonitor {
+
+    private static final String NO_REPOSITORY = "none";
+    private static final String MONITOR_PACKAGE = SqlStatementMonitor.class.getPackageName();
+
+    // Outermost repository method running on this thread
+    private static final ThreadLocal<String> REPOSITORY_METHOD = new ThreadLocal<>();
+
+    private final MeterRegistry registry;
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final int maxSqlLength;
+
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    public SqlStatementMonitor(MeterRegistry registry,
+                               @Value("${pos.diagnostics.sql.slow-threshold-ms:200}") long slowThresholdMillis,
+                               @Value("${pos.diagnostics.sql.sample-rate:0.001}") double sampleRate,
+                               @Value("${pos.diagnostics.sql.max-sql-length:2000}") int maxSqlLength) {
+        this.registry = registry;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.sampleRate = sampleRate;
+        this.maxSqlLength = maxSqlLength;
+    }
+
+    /**
+     * Marks the start of a repository method on this thread.
+     *
+     * @return the previous value, to be passed to {@link #exitRepository(String)}
+     */
+    public static String enterRepository(String method) {
+        String previous = REPOSITORY_METHOD.get();
+        if (previous == null) {
+            REPOSITORY_METHOD.set(method);
+        }
+        return previous;
+    }
+
+    public static void exitRepository(String previous) {
+        if (previous == null) {
+            REPOSITORY_METHOD.remove();
+        }
+    }
+
+    /**
+     * @param sql         statement text
+     * @param type        query, update, batch or execute
+     * @param elapsedNanos time spent in the driver for this statement
+     * @param rows        rows read or changed, -1 when unknown
+     */
+    public void record(String sql, String type, long elapsedNanos, long rows) {
+        String method = REPOSITORY_METHOD.get();
+        String repository = method != null ? method : NO_REPOSITORY;
+
+        timers.computeIfAbsent(type + '|' + repository, key -> Timer.builder("pos.sql.statements")
+                        .tag("type", type)
+                        .tag("repository", repository)
+                        .register(registry))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (rows >= 0) {
+            rowSummaries.computeIfAbsent(type, key -> DistributionSummary.builder("pos.sql.rows")
+                            .tag("type", type)
+                            .register(registry))
+                    .record(rows);
+        }
+
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.add(elapsedNanos);
+        }
+
+        if (elapsedNanos >= slowThresholdNanos) {
+            log.warn("Slow SQL ({} ms, {} rows) in {}: {}", Duration.ofNanos(elapsedNanos).toMillis(), rows,
+                    caller(repository), truncate(sql));
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("Sampled SQL ({} us, {} rows) in {}: {}", TimeUnit.NANOSECONDS.toMicros(elapsedNanos), rows,
+                    caller(repository), truncate(sql));
+        }
+    }
+
+    private static String caller(String repository) {
+        if (!NO_REPOSITORY.equals(repository)) {
+            return repository;
+        }
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith("com.shu.")
+                        && !frame.getClassName().startsWith(MONITOR_PACKAGE))
+                .findFirst()
+                .map(frame -> simpleName(frame.getClassName()) + "." + frame.getMethodName())
+                .orElse("unknown"));
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private String truncate(String sql) {
+        if (sql == null) {
+            return "<unknown>";
+        }
+        return sql.length() <= maxSqlLength ? sql : sql.substring(0, maxSqlLength) + "...";
+    }
+}
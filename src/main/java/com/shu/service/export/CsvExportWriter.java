@@ -0,0 +1,86 @@
+package com.shu.service.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * CSV (RFC 4180): header row, comma separated, CRLF line endings, empty field for null.
+ *
+ * Text that contains a comma, quote or line break is quoted (quotes doubled).
+ * Text starting with = + - @ gets a leading apostrophe, so spreadsheet apps do not run user-entered
+ * names as formulas (CSV injection). Numbers are not text and are never prefixed.
+ */
+class CsvExportWriter extends ExportWriter {
+
+    CsvExportWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    protected void writeHeader() throws IOException {
+        for (String name : columns) {
+            beforeValue();
+            write(name);
+            column++;
+        }
+        writeRowEnd();
+        column = 0;
+    }
+
+    @Override
+    protected void beforeValue() throws IOException {
+        if (column > 0) {
+            write(',');
+        }
+    }
+
+    @Override
+    protected void writeNull() {
+        // empty field
+    }
+
+    @Override
+    protected void writeText(CharSequence value) throws IOException {
+        boolean formula = value.length() > 0 && "=+-@".indexOf(value.charAt(0)) >= 0;
+        if (!needsQuotes(value)) {
+            if (formula) {
+                write('\'');
+            }
+            write(value);
+            return;
+        }
+        write('"');
+        if (formula) {
+            write('\'');
+        }
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                write('"');
+            }
+            write(c);
+        }
+        write('"');
+    }
+
+    @Override
+    protected void writeRowEnd() throws IOException {
+        write('\r');
+        write('\n');
+    }
+
+    @Override
+    protected void writeFooter() {
+        // no trailer
+    }
+
+    private static boolean needsQuotes(CharSequence value) {
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,32 @@
+package com.shu.service.export;
+
+import com.shu.domain.ExportFormat;
+import com.shu.exceptions.ReportException;
+import com.shu.exceptions.ServiceBusyException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
+
+/**
+ * ExportService
+ *
+ * Bulk exports for admins / accounting (orders, users) as CSV or JSON, optionally gzip'ed.
+ * Rows are streamed from a forward-only JDBC cursor to the response; nothing is collected in memory,
+ * so the size of an export is limited by the client, not by the heap.
+ */
+public interface ExportService {
+
+    /**
+     * @return body writing the orders created in [from, to), by id
+     * @throws ReportException      if the range is reversed
+     * @throws ServiceBusyException if the maximum number of concurrent exports is running
+     */
+    StreamingResponseBody exportOrders(LocalDateTime from, LocalDateTime to, ExportFormat format, boolean gzip)
+            throws ReportException, ServiceBusyException;
+
+    /**
+     * @return body writing all users (without password hashes), by id
+     * @throws ServiceBusyException if the maximum number of concurrent exports is running
+     */
+    StreamingResponseBody exportUsers(ExportFormat format, boolean gzip) throws ServiceBusyException;
+}
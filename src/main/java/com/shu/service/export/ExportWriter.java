@@ -0,0 +1,166 @@
+package com.shu.service.export;
+
+import com.shu.domain.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * ExportWriter
+ *
+ * Writes export rows value by value, straight from the JDBC ResultSet to the response.
+ *
+ * Why not a DTO per row + Jackson / a CSV library?
+ * - An export of millions of rows would allocate (and collect) millions of DTOs for nothing.
+ *   Here a row costs the values the driver hands out plus nothing else: numbers and timestamps are
+ *   formatted into a reused StringBuilder, output goes through a reused char buffer.
+ *
+ * Usage: begin(columns), then per row one value call per column followed by endRow(), then end().
+ * Not thread-safe (one writer per export).
+ */
+public abstract class ExportWriter {
+
+    private static final int BUFFER_CHARS = 8192;
+
+    private final Writer out;
+    private final char[] buffer = new char[BUFFER_CHARS];
+    private int position;
+    private final StringBuilder scratch = new StringBuilder(64);
+
+    protected String[] columns;
+    /** Index of the next value within the current row */
+    protected int column;
+    protected long rows;
+
+    protected ExportWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * @param out response stream (UTF-8); end() flushes it but does not close it
+     */
+    public static ExportWriter of(ExportFormat format, OutputStream out) {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        return format == ExportFormat.JSON ? new JsonExportWriter(writer) : new CsvExportWriter(writer);
+    }
+
+    public void begin(String[] columns) throws IOException {
+        this.columns = columns;
+        writeHeader();
+    }
+
+    public void nullValue() throws IOException {
+        beforeValue();
+        writeNull();
+        column++;
+    }
+
+    public void value(long value) throws IOException {
+        beforeValue();
+        write(scratch().append(value));
+        column++;
+    }
+
+    public void value(BigDecimal value) throws IOException {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        beforeValue();
+        write(value.toPlainString());
+        column++;
+    }
+
+    public void value(CharSequence value) throws IOException {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        beforeValue();
+        writeText(value);
+        column++;
+    }
+
+    /**
+     * ISO-8601 local date-time (e.g. 2025-03-14T09:15:00).
+     */
+    public void value(LocalDateTime value) throws IOException {
+        if (value == null) {
+            nullValue();
+            return;
+        }
+        StringBuilder text = scratch();
+        DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(value, text);
+        value(text);
+    }
+
+    public void endRow() throws IOException {
+        writeRowEnd();
+        column = 0;
+        rows++;
+    }
+
+    /**
+     * Writes the trailer and flushes everything to the output stream.
+     */
+    public void end() throws IOException {
+        writeFooter();
+        flushBuffer();
+        out.flush();
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Cleared scratch builder for values that have to be assembled first (e.g. receipt numbers).
+     * Only valid until the next value call.
+     */
+    public StringBuilder scratch() {
+        scratch.setLength(0);
+        return scratch;
+    }
+
+    protected abstract void writeHeader() throws IOException;
+
+    /**
+     * Separator / key before the value at index {@link #column}.
+     */
+    protected abstract void beforeValue() throws IOException;
+
+    protected abstract void writeNull() throws IOException;
+
+    /**
+     * Text value, quoted / escaped as the format requires.
+     */
+    protected abstract void writeText(CharSequence value) throws IOException;
+
+    protected abstract void writeRowEnd() throws IOException;
+
+    protected abstract void writeFooter() throws IOException;
+
+    protected final void write(char c) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = c;
+    }
+
+    protected final void write(CharSequence text) throws IOException {
+        for (int i = 0, n = text.length(); i < n; i++) {
+            write(text.charAt(i));
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, position);
+        position = 0;
+    }
+}
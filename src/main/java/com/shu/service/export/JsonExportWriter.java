@@ -0,0 +1,70 @@
+package com.shu.service.export;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * JSON: one array, one object per row (keys = column names), one row per line, null for SQL NULL.
+ */
+class JsonExportWriter extends ExportWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    JsonExportWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    protected void writeHeader() throws IOException {
+        write('[');
+    }
+
+    @Override
+    protected void beforeValue() throws IOException {
+        if (column == 0) {
+            write(rows == 0 ? "\n{" : ",\n{");
+        } else {
+            write(',');
+        }
+        writeString(columns[column]);
+        write(':');
+    }
+
+    @Override
+    protected void writeNull() throws IOException {
+        write("null");
+    }
+
+    @Override
+    protected void writeText(CharSequence value) throws IOException {
+        writeString(value);
+    }
+
+    @Override
+    protected void writeRowEnd() throws IOException {
+        write('}');
+    }
+
+    @Override
+    protected void writeFooter() throws IOException {
+        write("\n]\n");
+    }
+
+    private void writeString(CharSequence value) throws IOException {
+        write('"');
+        for (int i = 0, n = value.length(); i < n; i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                write('\\');
+                write(c);
+            } else if (c < 0x20) {
+                write("\\u00");
+                write(HEX[c >> 4]);
+                write(HEX[c & 0xF]);
+            } else {
+                write(c);
+            }
+        }
+        write('"');
+    }
+}
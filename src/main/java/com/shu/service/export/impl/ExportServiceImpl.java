@@ -0,0 +1,210 @@
+package com.shu.service.export.impl;
+
+import com.shu.domain.ExportFormat;
+import com.shu.exceptions.ReportException;
+import com.shu.exceptions.ServiceBusyException;
+import com.shu.mapper.OrderExportMapper;
+import com.shu.mapper.UserExportMapper;
+import com.shu.service.export.ExportService;
+import com.shu.service.export.ExportWriter;
+import com.shu.util.StreamingStatements;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ExportServiceImpl
+ *
+ * Streams exports from the database to the HTTP response in constant memory.
+ *
+ * How it works:
+ * 1. The request thread only takes an export permit (pos.export.max-concurrent, 503 + Retry-After when
+ *    all are taken: every running export holds a pooled connection for its whole duration).
+ *    It is released once, by the body or by the async request's timeout / error / completion,
+ *    whichever comes first (the body may never run, e.g. a timeout while queued on the executor).
+ * 2. The body runs on the MVC async executor: one read-only transaction, one forward-only, read-only
+ *    streaming statement ({@link StreamingStatements}): MySQL sends the rows one by one, other databases
+ *    keep one fetch (pos.export.fetch-size) in memory.
+ * 3. Every row is written straight from the ResultSet by the export mappers (no entity / DTO per row)
+ *    into an ExportWriter, optionally through gzip, into the response.
+ * 4. A client that disconnects makes the next write fail, which aborts the query and frees the connection.
+ *
+ * The read-only transaction gives one consistent snapshot (InnoDB REPEATABLE READ) for the whole export.
+ */
+@Slf4j
+@Service
+public class ExportServiceImpl implements ExportService, MeterBinder {
+
+    private static final int GZIP_BUFFER_BYTES = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int fetchSize;
+    private final int maxConcurrent;
+    private final long retryAfterSeconds;
+    private final Semaphore permits;
+
+    private final LongAdder orderRows = new LongAdder();
+    private final LongAdder userRows = new LongAdder();
+
+    public ExportServiceImpl(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${pos.export.fetch-size:1000}") int fetchSize,
+                             @Value("${pos.export.max-concurrent:2}") int maxConcurrent,
+                             @Value("${pos.export.retry-after-seconds:30}") long retryAfterSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.fetchSize = fetchSize;
+        this.maxConcurrent = maxConcurrent;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    @Override
+    public StreamingResponseBody exportOrders(LocalDateTime from, LocalDateTime to, ExportFormat format,
+                                              boolean gzip) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new ReportException("from must be before to");
+        }
+        return stream("orders", out -> export(out, format, gzip, OrderExportMapper.COLUMNS,
+                OrderExportMapper.SELECT_SQL, OrderExportMapper::writeRow, orderRows,
+                Timestamp.valueOf(from), Timestamp.valueOf(to)));
+    }
+
+    @Override
+    public StreamingResponseBody exportUsers(ExportFormat format, boolean gzip) {
+        return stream("users", out -> export(out, format, gzip, UserExportMapper.COLUMNS,
+                UserExportMapper.SELECT_SQL, UserExportMapper::writeRow, userRows));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("pos.export.rows", orderRows, LongAdder::sum)
+                .tag("type", "orders")
+                .register(registry);
+        FunctionCounter.builder("pos.export.rows", userRows, LongAdder::sum)
+                .tag("type", "users")
+                .register(registry);
+        Gauge.builder("pos.export.active", permits, p -> maxConcurrent - p.availablePermits())
+                .register(registry);
+    }
+
+    /**
+     * Takes a permit now (so a busy node answers 503 instead of an empty 200) and releases it
+     * when the body is done or the async request ends without it.
+     */
+    private StreamingResponseBody stream(String type, StreamingResponseBody body) {
+        if (!permits.tryAcquire()) {
+            throw new ServiceBusyException("Another export is running, please retry later", retryAfterSeconds);
+        }
+        AtomicBoolean held = new AtomicBoolean(true);
+        Runnable release = () -> {
+            if (held.compareAndSet(true, false)) {
+                permits.release();
+            }
+        };
+        releaseWhenRequestEnds(release);
+        return out -> {
+            long start = System.currentTimeMillis();
+            try {
+                body.writeTo(out);
+                log.info("Exported {} in {} ms", type, System.currentTimeMillis() - start);
+            } finally {
+                release.run();
+            }
+        };
+    }
+
+    /**
+     * The body runs as an async Callable of the current request: its timeout, error and completion
+     * callbacks release the permit too. Outside a request (jobs, tests) only the body releases it.
+     */
+    private static void releaseWhenRequestEnds(Runnable release) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return;
+        }
+        WebAsyncUtils.getAsyncManager(attributes.getRequest()).registerCallableInterceptor(
+                ExportServiceImpl.class.getName(), new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+                        release.run();
+                        return RESULT_NONE;
+                    }
+
+                    @Override
+                    public <T> Object handleError(NativeWebRequest request, Callable<T> task, Throwable t) {
+                        release.run();
+                        return RESULT_NONE;
+                    }
+
+                    @Override
+                    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+                        release.run();
+                    }
+                });
+    }
+
+    /**
+     * Runs the query and writes every row; the result set is never held as a whole.
+     */
+    private void export(OutputStream out, ExportFormat format, boolean gzip, String[] columns, String sql,
+                        ExportRowMapper mapper, LongAdder counter, Object... args) throws IOException {
+        GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, GZIP_BUFFER_BYTES) : null;
+        ExportWriter writer = ExportWriter.of(format, compressed != null ? compressed : out);
+        writer.begin(columns);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> jdbcTemplate.query(
+                    StreamingStatements.streaming(sql, fetchSize, args), rs -> {
+                        try {
+                            mapper.writeRow(rs, writer);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+        } catch (UncheckedIOException e) {
+            // client went away (or the network broke): nothing more to send
+            throw e.getCause();
+        } finally {
+            counter.add(writer.getRows());
+        }
+        writer.end();
+        if (compressed != null) {
+            compressed.finish();
+        }
+    }
+
+    /**
+     * Writes the current row of a ResultSet (see the export mappers).
+     */
+    @FunctionalInterface
+    private interface ExportRowMapper {
+        void writeRow(ResultSet rs, ExportWriter out) throws SQLException, IOException;
+    }
+}
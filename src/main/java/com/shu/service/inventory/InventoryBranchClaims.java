@@ -0,0 +1,124 @@
+package com.shu.service.inventory;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * InventoryBranchClaims
+ *
+ * Gives the stock of every branch to at most one inventory node.
+ *
+ * Why?
+ * - Stock levels live in each node's memory and journal (see StockLedger). Two nodes serving the same
+ *   branch would each sell the whole stock, and their write-behind would both apply to the same rows.
+ *
+ * How it works:
+ * - A node serves every branch ({@code pos.inventory.branches} empty: one inventory node for the whole
+ *   chain) or the branches listed there (tills of a branch are routed to its node).
+ * - On startup the node claims them in inventory_branch_owner under its journal id, branch 0 standing for
+ *   "every branch". Row 0 is locked for the whole claim, so nodes starting together are serialized.
+ * - A branch held by another journal fails the startup. A restart with the same journal keeps its claims
+ *   (it still has to replay its movements).
+ * - Claims are released on a clean shutdown once every journaled movement is in MySQL. A node lost
+ *   together with its disk keeps them until an operator deletes its rows (its unflushed movements are lost).
+ */
+public class InventoryBranchClaims {
+
+    public static final long ALL_BRANCHES = 0L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String journalId;
+    // empty = every branch
+    private final Set<Long> branches;
+
+    public InventoryBranchClaims(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                 String journalId, Collection<Long> branches) {
+        if (branches.contains(ALL_BRANCHES)) {
+            throw new IllegalArgumentException("Branch " + ALL_BRANCHES + " is reserved for \"every branch\"");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.journalId = journalId;
+        this.branches = Set.copyOf(branches);
+    }
+
+    /**
+     * @return true when this node serves the stock of the branch
+     */
+    public boolean serves(long branchId) {
+        return branches.isEmpty() || branches.contains(branchId);
+    }
+
+    /**
+     * Records this node as the owner of its branches.
+     *
+     * @throws IllegalStateException when one of them is served by another node
+     */
+    public void claim() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT IGNORE INTO inventory_branch_owner (branch_id) VALUES (?)", ALL_BRANCHES);
+            jdbcTemplate.queryForList("SELECT journal_id FROM inventory_branch_owner WHERE branch_id = ? FOR UPDATE",
+                    String.class, ALL_BRANCHES);
+
+            List<String> conflicts = jdbcTemplate.query(
+                            "SELECT branch_id, journal_id FROM inventory_branch_owner "
+                                    + "WHERE journal_id IS NOT NULL AND journal_id <> ? ORDER BY branch_id",
+                            (rs, row) -> new Claim(rs.getLong(1), rs.getString(2)), journalId)
+                    .stream()
+                    .filter(claim -> branches.isEmpty() || claim.branchId() == ALL_BRANCHES
+                            || branches.contains(claim.branchId()))
+                    .map(claim -> describe(claim.branchId()) + " (journal " + claim.journalId() + ")")
+                    .toList();
+            if (!conflicts.isEmpty()) {
+                throw new IllegalStateException("Inventory of " + describe() + " cannot be served by journal "
+                        + journalId + ", already served by another node: " + String.join(", ", conflicts));
+            }
+
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            if (branches.isEmpty()) {
+                jdbcTemplate.update("UPDATE inventory_branch_owner SET journal_id = ?, claimed_at = ? WHERE branch_id = ?",
+                        journalId, now, ALL_BRANCHES);
+                return;
+            }
+            List<Object[]> args = new ArrayList<>(branches.size());
+            for (long branchId : new TreeSet<>(branches)) {
+                args.add(new Object[]{branchId, journalId, now});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO inventory_branch_owner (branch_id, journal_id, claimed_at) "
+                    + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE journal_id = VALUES(journal_id), "
+                    + "claimed_at = VALUES(claimed_at)", args);
+        });
+    }
+
+    /**
+     * Lets other nodes serve the branches of this journal. Only call once the journal is fully persisted.
+     */
+    public void release() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE inventory_branch_owner SET journal_id = NULL, claimed_at = NULL "
+                    + "WHERE branch_id = ? AND journal_id = ?", ALL_BRANCHES, journalId);
+            jdbcTemplate.update("DELETE FROM inventory_branch_owner WHERE branch_id <> ? AND journal_id = ?",
+                    ALL_BRANCHES, journalId);
+        });
+    }
+
+    private String describe() {
+        return branches.isEmpty() ? "every branch" : "branches " + new TreeSet<>(branches);
+    }
+
+    private static String describe(long branchId) {
+        return branchId == ALL_BRANCHES ? "every branch" : "branch " + branchId;
+    }
+
+    private record Claim(long branchId, String journalId) {
+    }
+}
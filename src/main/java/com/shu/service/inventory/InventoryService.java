@@ -0,0 +1,48 @@
+package com.shu.service.inventory;
+
+import com.shu.exceptions.InventoryException;
+import com.shu.payload.request.StockAdjustmentRequest;
+import com.shu.payload.request.StockReservationRequest;
+import com.shu.payload.response.StockLevelResponse;
+import com.shu.payload.response.StockReservationResponse;
+
+/**
+ * InventoryService
+ *
+ * Stock levels per (branch, product).
+ * Levels live in memory ({@link StockLedger}); every movement is journaled locally before it is applied
+ * and written to MySQL in batches (write-behind).
+ */
+public interface InventoryService {
+
+    /**
+     * Holds stock for a cart. All lines are reserved or none.
+     *
+     * @throws InventoryException (OUT_OF_STOCK) if any line cannot be served
+     */
+    StockReservationResponse reserve(StockReservationRequest request) throws InventoryException;
+
+    /**
+     * The cart was paid: the reserved units are sold.
+     *
+     * @param reference business reference stored on the stock movements (e.g. order number)
+     * @throws InventoryException (RESERVATION_NOT_FOUND) if the reservation expired or was already settled
+     */
+    void commit(String reservationId, String reference) throws InventoryException;
+
+    /**
+     * The cart was abandoned: the reserved units go back on sale.
+     *
+     * @throws InventoryException (RESERVATION_NOT_FOUND) if the reservation expired or was already settled
+     */
+    void release(String reservationId) throws InventoryException;
+
+    /**
+     * Restock or stock-count correction.
+     *
+     * @throws InventoryException if a negative adjustment exceeds the available stock
+     */
+    StockLevelResponse adjustStock(StockAdjustmentRequest request) throws InventoryException;
+
+    StockLevelResponse getStock(Long branchId, Long productId);
+}
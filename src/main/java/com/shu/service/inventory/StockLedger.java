@@ -0,0 +1,141 @@
+package com.shu.service.inventory;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * StockLedger
+ *
+ * Live stock levels per (branch, product), held in memory.
+ *
+ * Why?
+ * - A best-seller is decremented by every till at once. {@code UPDATE inventory SET quantity = quantity - 1}
+ *   takes a row lock per sale and serializes checkout on that row.
+ *
+ * How it works:
+ * - Each level is two atomics: {@code available} (sellable now) and {@code reserved} (held by open carts).
+ *   on hand = available + reserved.
+ * - A reservation is a CAS loop on {@code available} that never lets it go below zero:
+ *   no lock, no overselling, independent keys never contend.
+ * - Commit (sale) only drops the reservation; release gives it back to {@code available}.
+ *
+ * Not persistent by itself: every committed change goes through the inventory journal first.
+ */
+public class StockLedger {
+
+    private final ConcurrentHashMap<StockKey, StockLevel> levels = new ConcurrentHashMap<>();
+
+    /**
+     * Takes {@code quantity} units out of the available stock.
+     *
+     * @return false when not enough stock is available (nothing is changed)
+     */
+    public boolean tryReserve(StockKey key, long quantity) {
+        StockLevel level = levels.get(key);
+        if (level == null) {
+            return false;
+        }
+        AtomicLong available = level.available;
+        while (true) {
+            long current = available.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (available.compareAndSet(current, current - quantity)) {
+                level.reserved.addAndGet(quantity);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns reserved units to the available stock (cart abandoned / expired).
+     */
+    public void release(StockKey key, long quantity) {
+        StockLevel level = levels.get(key);
+        if (level != null) {
+            level.reserved.addAndGet(-quantity);
+            level.available.addAndGet(quantity);
+        }
+    }
+
+    /**
+     * Reserved units were sold: they leave the shelf.
+     */
+    public void commit(StockKey key, long quantity) {
+        StockLevel level = levels.get(key);
+        if (level != null) {
+            level.reserved.addAndGet(-quantity);
+        }
+    }
+
+    /**
+     * Applies a restock (+) or adjustment (+/-) to the available stock.
+     *
+     * @return false when a negative adjustment is larger than the available stock (nothing is changed)
+     */
+    public boolean tryAdjust(StockKey key, long delta) {
+        AtomicLong available = levels.computeIfAbsent(key, k -> new StockLevel()).available;
+        while (true) {
+            long current = available.get();
+            if (current + delta < 0) {
+                return false;
+            }
+            if (available.compareAndSet(current, current + delta)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Applies a journaled movement during replay (no checks, the movement already happened).
+     */
+    public void apply(StockKey key, long delta) {
+        levels.computeIfAbsent(key, k -> new StockLevel()).available.addAndGet(delta);
+    }
+
+    /**
+     * Sets the persisted level at startup.
+     */
+    public void load(StockKey key, long onHand) {
+        levels.computeIfAbsent(key, k -> new StockLevel()).available.set(onHand);
+    }
+
+    /**
+     * @return current level (all zero for unknown keys)
+     */
+    public StockSnapshot snapshot(StockKey key) {
+        StockLevel level = levels.get(key);
+        if (level == null) {
+            return new StockSnapshot(0, 0);
+        }
+        return new StockSnapshot(level.available.get(), level.reserved.get());
+    }
+
+    public int size() {
+        return levels.size();
+    }
+
+    /**
+     * @param branchId  branch
+     * @param productId product
+     */
+    public record StockKey(long branchId, long productId) {
+    }
+
+    /**
+     * @param available sellable units
+     * @param reserved  units held by open carts
+     */
+    public record StockSnapshot(long available, long reserved) {
+
+        public long onHand() {
+            return available + reserved;
+        }
+    }
+
+    private static final class StockLevel {
+        final AtomicLong available = new AtomicLong();
+        final AtomicLong reserved = new AtomicLong();
+    }
+}
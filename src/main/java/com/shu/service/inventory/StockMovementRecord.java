@@ -0,0 +1,83 @@
+package com.shu.service.inventory;
+
+import com.shu.domain.StockMovementType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stock movement as written to the inventory journal.
+ *
+ * All movements of one operation (e.g. every line of a sale) go into a single journal record,
+ * so after a crash a sale is replayed completely or not at all.
+ *
+ * @param branchId        branch
+ * @param productId       product
+ * @param quantity        signed change of the on-hand stock
+ * @param type            reason
+ * @param reference       business reference (may be null)
+ * @param timestampMillis when the movement happened
+ */
+public record StockMovementRecord(long branchId, long productId, long quantity,
+                                  StockMovementType type, String reference, long timestampMillis) {
+
+    private static final byte VERSION = 1;
+
+    public StockLedger.StockKey key() {
+        return new StockLedger.StockKey(branchId, productId);
+    }
+
+    /**
+     * @return journal payload: [version][count] then per movement branch, product, quantity, type, reference, time
+     */
+    public static byte[] encode(List<StockMovementRecord> movements) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + movements.size() * 48);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            out.writeInt(movements.size());
+            for (StockMovementRecord movement : movements) {
+                out.writeLong(movement.branchId());
+                out.writeLong(movement.productId());
+                out.writeLong(movement.quantity());
+                out.writeByte(movement.type().ordinal());
+                out.writeUTF(movement.reference() == null ? "" : movement.reference());
+                out.writeLong(movement.timestampMillis());
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static List<StockMovementRecord> decode(byte[] payload) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unknown stock movement record version " + version);
+            }
+            int count = in.readInt();
+            List<StockMovementRecord> movements = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long branchId = in.readLong();
+                long productId = in.readLong();
+                long quantity = in.readLong();
+                StockMovementType type = StockMovementType.values()[in.readByte()];
+                String reference = in.readUTF();
+                long timestamp = in.readLong();
+                movements.add(new StockMovementRecord(branchId, productId, quantity, type,
+                        reference.isEmpty() ? null : reference, timestamp));
+            }
+            return movements;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,464 @@
+package com.shu.service.inventory.impl;
+
+import com.shu.constant.ErrorCode;
+import com.shu.domain.StockMovementType;
+import com.shu.exceptions.InventoryException;
+import com.shu.journal.JournalEntry;
+import com.shu.journal.SegmentedJournal;
+import com.shu.model.entity.Inventory;
+import com.shu.model.entity.JournalCheckpoint;
+import com.shu.model.entity.StockMovement;
+import com.shu.payload.request.StockAdjustmentRequest;
+import com.shu.payload.request.StockReservationRequest;
+import com.shu.payload.response.StockLevelResponse;
+import com.shu.payload.response.StockReservationResponse;
+import com.shu.repository.InventoryRepository;
+import com.shu.repository.JournalCheckpointRepository;
+import com.shu.repository.StockMovementRepository;
+import com.shu.service.inventory.InventoryBranchClaims;
+import com.shu.service.inventory.InventoryService;
+import com.shu.service.inventory.StockLedger;
+import com.shu.service.inventory.StockLedger.StockKey;
+import com.shu.service.inventory.StockLedger.StockSnapshot;
+import com.shu.service.inventory.StockMovementRecord;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * InventoryServiceImpl
+ *
+ * In-memory stock levels with a local journal and write-behind to MySQL.
+ *
+ * Why?
+ * - A row lock per decrement serializes every till selling the same product.
+ *   Here the hot path is a CAS on an in-memory counter plus one (group-committed) journal append.
+ *
+ * How it works:
+ * 1. reserve : CAS each line out of the available stock; if one line fails, the lines already taken are
+ *              given back (all or nothing). Reservations only live in memory and expire after a TTL.
+ * 2. commit  : the SALE movements of the whole cart are appended to the journal as one record
+ *              (fsync'ed), then the reservation is dropped from the ledger.
+ * 3. restock / adjustment : applied to the ledger (negative adjustments cannot go below zero),
+ *              journaled, and rolled back in memory if the journal append fails.
+ * 4. flush (scheduled): journal records after the checkpoint are written in one transaction:
+ *              stock_movement rows (JDBC batch), inventory upserts (one per touched key)
+ *              and the new checkpoint. Then fully persisted journal segments are deleted.
+ *
+ * Several nodes:
+ * - The ledger and the journal are local to the node, so each branch is served by exactly one node
+ *   (pos.inventory.branches, claimed on startup, see InventoryBranchClaims). With the default (empty)
+ *   list the node serves every branch and a second inventory node fails to start.
+ * - Requests for a branch this node does not serve are rejected (the load balancer routes a branch's
+ *   tills to its node).
+ *
+ * Crash safety:
+ * - On startup the ledger is loaded from the inventory table and every journal record after the
+ *   checkpoint is replayed into it. Since the checkpoint is written in the same transaction as the rows,
+ *   a record is either in MySQL or replayed, never both.
+ * - The checkpoint is keyed by the journal id, so it only ever describes this node's journal.
+ * - A journal that ends before the checkpoint (directory wiped or restored from an old copy) is moved past it,
+ *   so new movements are not mistaken for persisted ones.
+ * - Open reservations are not journaled: after a crash their stock is simply available again.
+ *
+ * Metrics ("pos.inventory.*"):
+ * - reservations{result}, open reservations, journal lag (records not yet in MySQL), flushed movements.
+ */
+@Slf4j
+@Service
+public class InventoryServiceImpl implements InventoryService, SmartInitializingSingleton, MeterBinder {
+
+    static final String JOURNAL_NAME = "inventory";
+
+    // Movements are deltas: add them to the persisted level (insert the row for a new key)
+    private static final String UPSERT_SQL =
+            "INSERT INTO inventory (branch_id, product_id, quantity, updated_at) VALUES (?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), updated_at = VALUES(updated_at)";
+
+    private final InventoryRepository inventoryRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final JournalCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SegmentedJournal journal;
+    private final String checkpointKey;
+    private final InventoryBranchClaims branchClaims;
+    private final int flushBatchSize;
+    private final Duration reservationTtl;
+
+    private final StockLedger ledger = new StockLedger();
+    private final ConcurrentHashMap<String, Reservation> reservations = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile long checkpointLsn;
+
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder flushedMovements = new LongAdder();
+
+    public InventoryServiceImpl(InventoryRepository inventoryRepository,
+                                StockMovementRepository stockMovementRepository,
+                                JournalCheckpointRepository checkpointRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${pos.inventory.journal.dir:./data/journal/inventory}") Path journalDir,
+                                @Value("${pos.inventory.journal.segment-bytes:16777216}") long segmentBytes,
+                                @Value("${pos.inventory.journal.fsync:true}") boolean fsync,
+                                @Value("${pos.inventory.flush-batch-size:1000}") int flushBatchSize,
+                                @Value("${pos.inventory.reservation-ttl-seconds:900}") long reservationTtlSeconds,
+                                @Value("${pos.inventory.branches:}") List<Long> branches) {
+        this.inventoryRepository = inventoryRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = new SegmentedJournal(journalDir, segmentBytes, fsync);
+        this.checkpointKey = JOURNAL_NAME + ":" + journal.getId();
+        this.branchClaims = new InventoryBranchClaims(jdbcTemplate, transactionTemplate, journal.getId(), branches);
+        this.flushBatchSize = flushBatchSize;
+        this.reservationTtl = Duration.ofSeconds(reservationTtlSeconds);
+    }
+
+    /**
+     * Claims the branches of this node, then rebuilds the ledger: persisted levels + journal records
+     * not yet in MySQL.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        branchClaims.claim();
+        for (Inventory inventory : inventoryRepository.findAll()) {
+            if (branchClaims.serves(inventory.getId().getBranchId())) {
+                ledger.load(new StockKey(inventory.getId().getBranchId(), inventory.getId().getProductId()),
+                        inventory.getQuantity());
+            }
+        }
+        checkpointLsn = checkpointRepository.findById(checkpointKey)
+                .map(JournalCheckpoint::getLsn)
+                .orElse(0L);
+        long journalEnd = journal.getDurableLsn();
+        if (journal.skipTo(checkpointLsn)) {
+            // Otherwise new movements would get LSNs <= checkpoint and flush() would never write them
+            log.warn("Inventory journal ends at LSN {} but MySQL is at {} (journal directory wiped or replaced?): "
+                    + "new movements continue at LSN {}", journalEnd, checkpointLsn, checkpointLsn + 1);
+        }
+
+        int replayed = 0;
+        long from = checkpointLsn + 1;
+        while (true) {
+            List<JournalEntry> entries = journal.read(from, flushBatchSize);
+            for (JournalEntry entry : entries) {
+                for (StockMovementRecord movement : StockMovementRecord.decode(entry.payload())) {
+                    ledger.apply(movement.key(), movement.quantity());
+                }
+                from = entry.lsn() + 1;
+                replayed++;
+            }
+            if (entries.size() < flushBatchSize) {
+                break;
+            }
+        }
+        log.info("Inventory ledger loaded: {} stock levels, {} journal records replayed", ledger.size(), replayed);
+    }
+
+    @Override
+    public StockReservationResponse reserve(StockReservationRequest request) throws InventoryException {
+        if (request.getBranchId() == null || request.getItems() == null || request.getItems().isEmpty()) {
+            throw new InventoryException("Branch and at least one item are required");
+        }
+        long branchId = request.getBranchId();
+        checkServed(branchId);
+        List<ReservationLine> lines = new ArrayList<>(request.getItems().size());
+        for (StockReservationRequest.Line item : request.getItems()) {
+            if (item.getProductId() == null || item.getQuantity() <= 0) {
+                throw new InventoryException("Quantity must be positive for product " + item.getProductId());
+            }
+            lines.add(new ReservationLine(item.getProductId(), item.getQuantity()));
+        }
+
+        // 1. Take every line, undo the taken ones if one fails
+        for (int i = 0; i < lines.size(); i++) {
+            ReservationLine line = lines.get(i);
+            if (!ledger.tryReserve(new StockKey(branchId, line.productId()), line.quantity())) {
+                for (int j = 0; j < i; j++) {
+                    ReservationLine taken = lines.get(j);
+                    ledger.release(new StockKey(branchId, taken.productId()), taken.quantity());
+                }
+                rejected.increment();
+                throw new InventoryException(ErrorCode.OUT_OF_STOCK,
+                        "Not enough stock for product " + line.productId() + " in branch " + branchId);
+            }
+        }
+
+        // 2. Remember the reservation until it is committed, released or expires
+        String reservationId = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plus(reservationTtl);
+        reservations.put(reservationId, new Reservation(branchId, lines, expiresAt));
+        reserved.increment();
+        return new StockReservationResponse(reservationId, expiresAt);
+    }
+
+    @Override
+    public void commit(String reservationId, String reference) throws InventoryException {
+        // remove() is the claim: a reservation is settled exactly once (commit, release or expiry)
+        Reservation reservation = claim(reservationId);
+
+        long now = System.currentTimeMillis();
+        List<StockMovementRecord> movements = new ArrayList<>(reservation.lines().size());
+        for (ReservationLine line : reservation.lines()) {
+            movements.add(new StockMovementRecord(reservation.branchId(), line.productId(), -line.quantity(),
+                    StockMovementType.SALE, reference, now));
+        }
+        try {
+            journal.append(StockMovementRecord.encode(movements));
+        } catch (RuntimeException e) {
+            // Not durable → the sale did not happen, the cart keeps its stock
+            reservations.put(reservationId, reservation);
+            throw e;
+        }
+        for (ReservationLine line : reservation.lines()) {
+            ledger.commit(new StockKey(reservation.branchId(), line.productId()), line.quantity());
+        }
+    }
+
+    @Override
+    public void release(String reservationId) throws InventoryException {
+        releaseLines(claim(reservationId));
+    }
+
+    @Override
+    public StockLevelResponse adjustStock(StockAdjustmentRequest request) throws InventoryException {
+        if (request.getBranchId() == null || request.getProductId() == null || request.getType() == null) {
+            throw new InventoryException("Branch, product and movement type are required");
+        }
+        if (request.getType() == StockMovementType.SALE) {
+            throw new InventoryException("Sales are recorded by committing a reservation");
+        }
+        if (request.getType() == StockMovementType.RESTOCK && request.getQuantity() <= 0) {
+            throw new InventoryException("Restock quantity must be positive");
+        }
+        if (request.getQuantity() == 0) {
+            throw new InventoryException("Adjustment quantity must not be zero");
+        }
+
+        checkServed(request.getBranchId());
+        StockKey key = new StockKey(request.getBranchId(), request.getProductId());
+        long delta = request.getQuantity();
+        if (!ledger.tryAdjust(key, delta)) {
+            throw new InventoryException(ErrorCode.OUT_OF_STOCK,
+                    "Adjustment of " + delta + " exceeds the available stock of product " + request.getProductId());
+        }
+        try {
+            journal.append(StockMovementRecord.encode(List.of(new StockMovementRecord(
+                    key.branchId(), key.productId(), delta, request.getType(), request.getReference(),
+                    System.currentTimeMillis()))));
+        } catch (RuntimeException e) {
+            ledger.apply(key, -delta);
+            throw e;
+        }
+        return toResponse(key, ledger.snapshot(key));
+    }
+
+    @Override
+    public StockLevelResponse getStock(Long branchId, Long productId) {
+        checkServed(branchId);
+        StockKey key = new StockKey(branchId, productId);
+        return toResponse(key, ledger.snapshot(key));
+    }
+
+    /**
+     * Gives the stock of abandoned carts back.
+     */
+    @Scheduled(fixedDelayString = "${pos.inventory.reservation-sweep-interval-ms:10000}")
+    public void expireReservations() {
+        Instant now = Instant.now();
+        for (Map.Entry<String, Reservation> entry : reservations.entrySet()) {
+            if (entry.getValue().expiresAt().isBefore(now)
+                    && reservations.remove(entry.getKey(), entry.getValue())) {
+                releaseLines(entry.getValue());
+                expired.increment();
+            }
+        }
+    }
+
+    /**
+     * Periodic write-behind of journaled movements.
+     */
+    @Scheduled(fixedDelayString = "${pos.inventory.flush-interval-ms:500}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * Persist everything journaled so far before the DataSource goes away, then hand the branches back
+     * (kept when movements are still only in the journal: this node must come back to persist them).
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = flush();
+        if (flushed > 0) {
+            log.info("Flushed {} inventory journal records on shutdown", flushed);
+        }
+        long lag = getJournalLag();
+        if (lag == 0) {
+            try {
+                branchClaims.release();
+            } catch (RuntimeException e) {
+                log.warn("Could not release the inventory branches of journal {}", journal.getId(), e);
+            }
+        } else {
+            log.warn("{} inventory journal records not persisted: branches stay claimed by journal {}",
+                    lag, journal.getId());
+        }
+        journal.close();
+    }
+
+    /**
+     * Writes journal records after the checkpoint to MySQL, {@code flushBatchSize} records per transaction.
+     * A failed batch stays in the journal and is retried by the next run.
+     *
+     * @return number of journal records persisted
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            int flushed = 0;
+            while (true) {
+                List<JournalEntry> entries = journal.read(checkpointLsn + 1, flushBatchSize);
+                if (entries.isEmpty()) {
+                    return flushed;
+                }
+                long lastLsn = entries.get(entries.size() - 1).lsn();
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(entries, lastLsn));
+                } catch (RuntimeException e) {
+                    log.warn("Inventory flush of LSN {}..{} failed, will retry", entries.get(0).lsn(), lastLsn, e);
+                    return flushed;
+                }
+                checkpointLsn = lastLsn;
+                journal.deleteUpTo(lastLsn);
+                flushed += entries.size();
+                if (entries.size() < flushBatchSize) {
+                    return flushed;
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * @return journal records not yet persisted to MySQL
+     */
+    public long getJournalLag() {
+        return Math.max(0, journal.getDurableLsn() - checkpointLsn);
+    }
+
+    public int getOpenReservationCount() {
+        return reservations.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("pos.inventory.reservations", reserved, LongAdder::sum)
+                .tag("result", "reserved")
+                .register(registry);
+        FunctionCounter.builder("pos.inventory.reservations", rejected, LongAdder::sum)
+                .tag("result", "out_of_stock")
+                .register(registry);
+        FunctionCounter.builder("pos.inventory.reservations", expired, LongAdder::sum)
+                .tag("result", "expired")
+                .register(registry);
+        Gauge.builder("pos.inventory.reservations.open", this, InventoryServiceImpl::getOpenReservationCount)
+                .register(registry);
+        Gauge.builder("pos.inventory.journal.lag", this, InventoryServiceImpl::getJournalLag)
+                .register(registry);
+        FunctionCounter.builder("pos.inventory.movements.flushed", flushedMovements, LongAdder::sum)
+                .register(registry);
+    }
+
+    /**
+     * One transaction: movement rows, inventory deltas (coalesced per key) and the checkpoint.
+     */
+    private void persist(List<JournalEntry> entries, long lastLsn) {
+        List<StockMovement> rows = new ArrayList<>();
+        Map<StockKey, long[]> deltas = new LinkedHashMap<>();
+        for (JournalEntry entry : entries) {
+            for (StockMovementRecord movement : StockMovementRecord.decode(entry.payload())) {
+                LocalDateTime createdAt = LocalDateTime.ofInstant(
+                        Instant.ofEpochMilli(movement.timestampMillis()), ZoneId.systemDefault());
+                rows.add(new StockMovement(movement.branchId(), movement.productId(), movement.quantity(),
+                        movement.type(), movement.reference(), entry.lsn(), createdAt));
+                deltas.computeIfAbsent(movement.key(), k -> new long[1])[0] += movement.quantity();
+            }
+        }
+
+        stockMovementRepository.saveAll(rows);
+        stockMovementRepository.flush();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> args.add(new Object[]{key.branchId(), key.productId(), delta[0], now}));
+        jdbcTemplate.batchUpdate(UPSERT_SQL, args);
+
+        checkpointRepository.save(new JournalCheckpoint(checkpointKey, lastLsn));
+        flushedMovements.add(rows.size());
+    }
+
+    private void checkServed(long branchId) {
+        if (!branchClaims.serves(branchId)) {
+            throw new InventoryException(ErrorCode.BRANCH_NOT_SERVED,
+                    "Inventory of branch " + branchId + " is served by another node");
+        }
+    }
+
+    private Reservation claim(String reservationId) {
+        Reservation reservation = reservationId == null ? null : reservations.remove(reservationId);
+        if (reservation == null) {
+            throw new InventoryException(ErrorCode.RESERVATION_NOT_FOUND,
+                    "Reservation " + reservationId + " not found or already settled");
+        }
+        return reservation;
+    }
+
+    private void releaseLines(Reservation reservation) {
+        for (ReservationLine line : reservation.lines()) {
+            ledger.release(new StockKey(reservation.branchId(), line.productId()), line.quantity());
+        }
+    }
+
+    private static StockLevelResponse toResponse(StockKey key, StockSnapshot snapshot) {
+        return new StockLevelResponse(key.branchId(), key.productId(),
+                snapshot.onHand(), snapshot.reserved(), snapshot.available());
+    }
+
+    private record Reservation(long branchId, List<ReservationLine> lines, Instant expiresAt) {
+    }
+
+    private record ReservationLine(long productId, long quantity) {
+    }
+}
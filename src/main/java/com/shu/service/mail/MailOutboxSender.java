@@ -0,0 +1,425 @@
+package com.shu.service.mail;
+
+import com.shu.domain.MailStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.angus.mail.smtp.SMTPSendFailedException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * MailOutboxSender
+ *
+ * Background sender of the mail outbox (see MailOutboxService).
+ *
+ * How it works (every pos.mail.sender.poll-interval-ms):
+ * 1. Claim: one UPDATE marks up to batch-size due mails with a random claim token and pushes their
+ *    nextAttemptAt out by the lease. Several nodes can poll at once, each gets different mails.
+ * 2. Send: the batch is split over pos.mail.sender.connections workers; each worker sends its part
+ *    over one pooled SMTP connection (SmtpConnectionPool).
+ * 3. Record: SENT, or another attempt after an exponential backoff with jitter, or DEAD (dead letter)
+ *    when the server rejected the mail permanently (5xx, invalid address) or the attempts are used up.
+ *    Outcomes are written as JDBC batches, only for mails this poll still owns (claim token).
+ *
+ * Delivery is at-least-once: if a node dies after the server accepted a mail but before it was marked,
+ * the mail is sent again once its lease expires. The Message-ID is derived from the outbox id, so the
+ * copies are recognisable as the same mail.
+ *
+ * Without spring.mail.host there is no JavaMailSender: mails stay PENDING until one is configured.
+ *
+ * Metrics ("pos.mail.*"):
+ * - sent, failed{outcome=retry|dead} (throughput = rate of sent), connections opened
+ * - outbox pending / dead count and age of the oldest pending mail (queue age)
+ */
+@Slf4j
+@Service
+public class MailOutboxSender implements MeterBinder {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private static final String CLAIM_SQL =
+            "UPDATE mail_outbox SET claim_token = ?, next_attempt_at = ? "
+                    + "WHERE status = 'PENDING' AND next_attempt_at <= ? ORDER BY next_attempt_at LIMIT ?";
+
+    private static final String CLAIMED_SQL =
+            "SELECT id, recipient, subject, body, attempts FROM mail_outbox WHERE claim_token = ?";
+
+    private static final String SENT_SQL =
+            "UPDATE mail_outbox SET status = 'SENT', attempts = attempts + 1, sent_at = ?, claim_token = NULL, "
+                    + "last_error = NULL WHERE id = ? AND claim_token = ?";
+
+    private static final String FAILED_SQL =
+            "UPDATE mail_outbox SET status = ?, attempts = ?, next_attempt_at = ?, last_error = ?, "
+                    + "claim_token = NULL WHERE id = ? AND claim_token = ?";
+
+    private static final String STATS_SQL =
+            "SELECT status, COUNT(*), MIN(created_at) FROM mail_outbox WHERE status <> 'SENT' GROUP BY status";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM mail_outbox WHERE status = 'SENT' AND sent_at < ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JavaMailSenderImpl mailConfig;
+    private final SmtpConnectionPool pool;
+    private final ExecutorService workers;
+    private final InternetAddress from;
+    private final int batchSize;
+    private final int connections;
+    private final Duration lease;
+    private final int maxAttempts;
+    private final Duration baseDelay;
+    private final Duration maxDelay;
+    private final Duration retention;
+
+    private final ReentrantLock pollLock = new ReentrantLock();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder dead = new LongAdder();
+    private volatile QueueStats queueStats = new QueueStats(0, 0, null);
+
+    public MailOutboxSender(ObjectProvider<JavaMailSender> mailSender,
+                            JdbcTemplate jdbcTemplate,
+                            @Value("${pos.mail.from:receipts@shu-pos.local}") String from,
+                            @Value("${pos.mail.sender.batch-size:200}") int batchSize,
+                            @Value("${pos.mail.sender.connections:2}") int connections,
+                            @Value("${pos.mail.sender.max-idle:60s}") Duration maxIdle,
+                            @Value("${pos.mail.sender.lease:5m}") Duration lease,
+                            @Value("${pos.mail.retry.max-attempts:8}") int maxAttempts,
+                            @Value("${pos.mail.retry.base-delay:30s}") Duration baseDelay,
+                            @Value("${pos.mail.retry.max-delay:1h}") Duration maxDelay,
+                            @Value("${pos.mail.outbox.retention:7d}") Duration retention) throws AddressException {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mailConfig = mailSender.getIfAvailable() instanceof JavaMailSenderImpl impl ? impl : null;
+        this.pool = mailConfig == null ? null : new SmtpConnectionPool(mailConfig, maxIdle);
+        this.workers = Executors.newFixedThreadPool(Math.max(1, connections),
+                Thread.ofPlatform().name("mail-sender-", 0).daemon(true).factory());
+        this.from = new InternetAddress(from, true);
+        this.batchSize = batchSize;
+        this.connections = Math.max(1, connections);
+        this.lease = lease;
+        this.maxAttempts = maxAttempts;
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        this.retention = retention;
+        if (pool == null) {
+            log.warn("No SMTP server configured (spring.mail.host): outbox mails stay queued");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pos.mail.sender.poll-interval-ms:1000}")
+    public void scheduledPoll() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("Mail outbox poll failed, will retry", e);
+        }
+    }
+
+    /**
+     * Claims, sends and records one batch of due mails.
+     *
+     * @return number of mails accepted by the SMTP server
+     */
+    public int poll() {
+        if (pool == null || !pollLock.tryLock()) {
+            refreshQueueStats();
+            return 0;
+        }
+        try {
+            // 1. Claim
+            String token = UUID.randomUUID().toString();
+            LocalDateTime now = LocalDateTime.now();
+            int claimed = jdbcTemplate.update(CLAIM_SQL, token, Timestamp.valueOf(now.plus(lease)),
+                    Timestamp.valueOf(now), batchSize);
+            if (claimed == 0) {
+                pool.evictIdle();
+                return 0;
+            }
+            List<ClaimedMail> mails = jdbcTemplate.query(CLAIMED_SQL, (rs, i) -> new ClaimedMail(rs.getLong(1),
+                    rs.getString(2), rs.getString(3), rs.getString(4), rs.getInt(5)), token);
+
+            // 2. Send, one connection per worker
+            List<Outcome> outcomes = send(mails);
+
+            // 3. Record
+            return record(outcomes, token);
+        } finally {
+            pollLock.unlock();
+            refreshQueueStats();
+        }
+    }
+
+    /**
+     * Deletes sent mails older than the retention, in chunks.
+     */
+    @Scheduled(fixedDelayString = "${pos.mail.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        Timestamp before = Timestamp.valueOf(LocalDateTime.now().minus(retention));
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, before, 10_000);
+        } while (deleted == 10_000);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        pollLock.lock();
+        try {
+            workers.shutdown();
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+            if (pool != null) {
+                pool.close();
+            }
+        } finally {
+            pollLock.unlock();
+        }
+    }
+
+    public long getPendingCount() {
+        return queueStats.pending();
+    }
+
+    public long getDeadCount() {
+        return queueStats.dead();
+    }
+
+    /**
+     * @return age in seconds of the oldest pending mail (as of the last poll, 0 when the queue is empty)
+     */
+    public double getQueueAgeSeconds() {
+        LocalDateTime oldest = queueStats.oldestPending();
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("pos.mail.sent", sent, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("pos.mail.failed", retried, LongAdder::sum)
+                .tag("outcome", "retry")
+                .register(registry);
+        FunctionCounter.builder("pos.mail.failed", dead, LongAdder::sum)
+                .tag("outcome", "dead")
+                .register(registry);
+        if (pool != null) {
+            FunctionCounter.builder("pos.mail.connections.opened", pool, SmtpConnectionPool::getOpenedCount)
+                    .register(registry);
+        }
+        Gauge.builder("pos.mail.outbox.pending", this, MailOutboxSender::getPendingCount)
+                .register(registry);
+        Gauge.builder("pos.mail.outbox.dead", this, MailOutboxSender::getDeadCount)
+                .register(registry);
+        Gauge.builder("pos.mail.outbox.age", this, MailOutboxSender::getQueueAgeSeconds)
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    private List<Outcome> send(List<ClaimedMail> mails) {
+        int parts = Math.min(connections, mails.size());
+        List<Future<List<Outcome>>> results = new ArrayList<>(parts);
+        for (int part = 0; part < parts; part++) {
+            List<ClaimedMail> chunk = mails.subList(part * mails.size() / parts, (part + 1) * mails.size() / parts);
+            results.add(workers.submit(() -> sendOverOneConnection(chunk)));
+        }
+        List<Outcome> outcomes = new ArrayList<>(mails.size());
+        for (Future<List<Outcome>> result : results) {
+            try {
+                outcomes.addAll(result.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // not recorded: the lease expires and the mails are claimed again
+            } catch (ExecutionException e) {
+                log.error("Mail worker failed", e.getCause());
+            }
+        }
+        return outcomes;
+    }
+
+    private List<Outcome> sendOverOneConnection(List<ClaimedMail> chunk) {
+        List<Outcome> outcomes = new ArrayList<>(chunk.size());
+        Transport transport = null;
+        for (int i = 0; i < chunk.size(); i++) {
+            ClaimedMail mail = chunk.get(i);
+            if (transport == null) {
+                try {
+                    transport = pool.borrow();
+                } catch (MessagingException e) {
+                    // Server unreachable / login refused: the rest of the chunk waits for the next attempt
+                    log.warn("Cannot connect to the SMTP server: {}", e.getMessage());
+                    for (ClaimedMail pending : chunk.subList(i, chunk.size())) {
+                        outcomes.add(Outcome.failed(pending, false, e));
+                    }
+                    return outcomes;
+                }
+            }
+            try {
+                MimeMessage message = toMessage(mailConfig.getSession(), mail);
+                transport.sendMessage(message, message.getAllRecipients());
+                outcomes.add(Outcome.sent(mail));
+            } catch (MessagingException e) {
+                boolean permanent = isPermanent(e);
+                outcomes.add(Outcome.failed(mail, permanent, e));
+                if (!permanent) {
+                    // Connection state unknown: do not reuse it
+                    pool.invalidate(transport);
+                    transport = null;
+                }
+            }
+        }
+        if (transport != null) {
+            pool.release(transport);
+        }
+        return outcomes;
+    }
+
+    private int record(List<Outcome> outcomes, String token) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> sentArgs = new ArrayList<>();
+        List<Object[]> failedArgs = new ArrayList<>();
+        for (Outcome outcome : outcomes) {
+            ClaimedMail mail = outcome.mail();
+            if (outcome.error() == null) {
+                sentArgs.add(new Object[]{now, mail.id(), token});
+                continue;
+            }
+            int attempts = mail.attempts() + 1;
+            boolean giveUp = outcome.permanent() || attempts >= maxAttempts;
+            (giveUp ? dead : retried).increment();
+            if (giveUp) {
+                log.warn("Mail {} to {} dead-lettered after {} attempts: {}", mail.id(), mail.recipient(), attempts,
+                        outcome.error());
+            }
+            failedArgs.add(new Object[]{giveUp ? MailStatus.DEAD.name() : MailStatus.PENDING.name(), attempts,
+                    Timestamp.valueOf(LocalDateTime.now().plus(backoff(attempts))), outcome.error(), mail.id(), token});
+        }
+        if (!sentArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(SENT_SQL, sentArgs);
+            sent.add(sentArgs.size());
+        }
+        if (!failedArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(FAILED_SQL, failedArgs);
+        }
+        return sentArgs.size();
+    }
+
+    /**
+     * base * 2^(attempts-1), capped at maxDelay, randomly shortened by up to half (jitter), so mails
+     * that failed together (SMTP outage) do not all retry at the same moment.
+     */
+    private Duration backoff(int attempts) {
+        long base = baseDelay.toMillis();
+        long delay = attempts >= 31 ? maxDelay.toMillis() : Math.min(maxDelay.toMillis(), base << (attempts - 1));
+        return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+    }
+
+    private MimeMessage toMessage(Session session, ClaimedMail mail) throws MessagingException {
+        MimeMessage message = new OutboxMimeMessage(session, mail.id(), from.getAddress());
+        message.setFrom(from);
+        message.setRecipient(MimeMessage.RecipientType.TO, new InternetAddress(mail.recipient(), true));
+        message.setSubject(mail.subject(), StandardCharsets.UTF_8.name());
+        message.setText(mail.body(), StandardCharsets.UTF_8.name());
+        message.setSentDate(new Date());
+        message.saveChanges();
+        return message;
+    }
+
+    /**
+     * Invalid addresses and 5xx replies will not succeed on a retry; 4xx and connection errors may.
+     */
+    private static boolean isPermanent(MessagingException e) {
+        if (e instanceof AddressException) {
+            return true;
+        }
+        if (e instanceof SMTPSendFailedException smtp) {
+            return smtp.getReturnCode() >= 500;
+        }
+        return e instanceof SendFailedException failed
+                && failed.getInvalidAddresses() != null && failed.getInvalidAddresses().length > 0;
+    }
+
+    private void refreshQueueStats() {
+        long[] counts = new long[2];
+        LocalDateTime[] oldest = new LocalDateTime[1];
+        jdbcTemplate.query(STATS_SQL, rs -> {
+            if (MailStatus.PENDING.name().equals(rs.getString(1))) {
+                counts[0] = rs.getLong(2);
+                Timestamp created = rs.getTimestamp(3);
+                oldest[0] = created == null ? null : created.toLocalDateTime();
+            } else {
+                counts[1] = rs.getLong(2);
+            }
+        });
+        queueStats = new QueueStats(counts[0], counts[1], oldest[0]);
+    }
+
+    private record ClaimedMail(long id, String recipient, String subject, String body, int attempts) {
+    }
+
+    private record Outcome(ClaimedMail mail, boolean permanent, String error) {
+
+        static Outcome sent(ClaimedMail mail) {
+            return new Outcome(mail, false, null);
+        }
+
+        static Outcome failed(ClaimedMail mail, boolean permanent, Exception e) {
+            String error = e.getClass().getSimpleName() + ": " + e.getMessage();
+            return new Outcome(mail, permanent, error.length() > MAX_ERROR_LENGTH
+                    ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        }
+    }
+
+    private record QueueStats(long pending, long dead, LocalDateTime oldestPending) {
+    }
+
+    /**
+     * Message-ID "outbox.<id>@<sender domain>": stable across retries and duplicate sends.
+     */
+    private static final class OutboxMimeMessage extends MimeMessage {
+
+        private final String messageId;
+
+        OutboxMimeMessage(Session session, long outboxId, String fromAddress) {
+            super(session);
+            int at = fromAddress.indexOf('@');
+            this.messageId = "<outbox." + outboxId + (at < 0 ? "@localhost" : fromAddress.substring(at)) + ">";
+        }
+
+        @Override
+        protected void updateMessageID() throws MessagingException {
+            setHeader("Message-ID", messageId);
+        }
+    }
+}
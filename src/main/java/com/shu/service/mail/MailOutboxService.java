@@ -0,0 +1,38 @@
+package com.shu.service.mail;
+
+import com.shu.model.entity.Order;
+import com.shu.model.entity.User;
+
+/**
+ * MailOutboxService
+ *
+ * Queues e-mails in the mail outbox (mail_outbox table) instead of sending them inline:
+ * checkout and signup never wait for an SMTP server. MailOutboxSender sends them in the background.
+ *
+ * The enqueue methods must be called inside the transaction that stores the order / user:
+ * the mail is committed (or rolled back) together with it, so there is no mail about an order
+ * that does not exist and no order whose mail was lost.
+ */
+public interface MailOutboxService {
+
+    /**
+     * Queues the receipt of a stored order.
+     *
+     * @param order     order with its items (id assigned)
+     * @param recipient e-mail address given at the till
+     */
+    void enqueueReceipt(Order order, String recipient);
+
+    /**
+     * Queues the confirmation of a new account to the user's e-mail.
+     */
+    void enqueueSignupConfirmation(User user);
+
+    /**
+     * Puts all dead-lettered mails back in the queue with a fresh set of attempts
+     * (e.g. after the SMTP credentials were fixed).
+     *
+     * @return number of mails requeued
+     */
+    int requeueDead();
+}
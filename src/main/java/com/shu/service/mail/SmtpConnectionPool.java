@@ -0,0 +1,108 @@
+package com.shu.service.mail;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SmtpConnectionPool
+ *
+ * Keeps connected SMTP transports open between sends, so a batch of mails costs one TCP/TLS handshake
+ * and one AUTH per connection instead of one per mail (JavaMailSender connects for every send call).
+ *
+ * - Connection settings (host, port, credentials, mail.smtp.* properties) come from the JavaMailSenderImpl
+ *   that Spring Boot builds from spring.mail.*.
+ * - Borrowed connections are exclusive to the caller. Idle ones are reused newest first and checked
+ *   with a NOOP (Transport.isConnected) before reuse; connections idle longer than maxIdle are closed,
+ *   before the server drops them.
+ * - The pool does not cap the number of connections: the caller's worker count does.
+ */
+@Slf4j
+public class SmtpConnectionPool implements AutoCloseable {
+
+    private final JavaMailSenderImpl config;
+    private final long maxIdleNanos;
+    private final ConcurrentLinkedDeque<IdleTransport> idle = new ConcurrentLinkedDeque<>();
+    private final LongAdder opened = new LongAdder();
+
+    public SmtpConnectionPool(JavaMailSenderImpl config, Duration maxIdle) {
+        this.config = config;
+        this.maxIdleNanos = maxIdle.toNanos();
+    }
+
+    /**
+     * @return a connected transport, to be given back with release() or invalidate()
+     * @throws MessagingException if no connection can be opened (server down, bad credentials)
+     */
+    public Transport borrow() throws MessagingException {
+        IdleTransport candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            if (System.nanoTime() - candidate.idleSince() < maxIdleNanos && candidate.transport().isConnected()) {
+                return candidate.transport();
+            }
+            closeQuietly(candidate.transport());
+        }
+        String protocol = config.getProtocol() == null ? "smtp" : config.getProtocol();
+        Transport transport = config.getSession().getTransport(protocol);
+        transport.connect(config.getHost(), config.getPort(), config.getUsername(), config.getPassword());
+        opened.increment();
+        return transport;
+    }
+
+    /**
+     * Returns a healthy transport for reuse.
+     */
+    public void release(Transport transport) {
+        idle.offerFirst(new IdleTransport(transport, System.nanoTime()));
+    }
+
+    /**
+     * Closes a transport that failed (it is not reused).
+     */
+    public void invalidate(Transport transport) {
+        closeQuietly(transport);
+    }
+
+    /**
+     * Closes connections idle for longer than maxIdle.
+     */
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (IdleTransport candidate : idle) {
+            if (now - candidate.idleSince() >= maxIdleNanos && idle.remove(candidate)) {
+                closeQuietly(candidate.transport());
+            }
+        }
+    }
+
+    /**
+     * @return connections opened since startup (reuse ratio = mails sent / opened)
+     */
+    public long getOpenedCount() {
+        return opened.sum();
+    }
+
+    @Override
+    public void close() {
+        IdleTransport candidate;
+        while ((candidate = idle.pollFirst()) != null) {
+            closeQuietly(candidate.transport());
+        }
+    }
+
+    private static void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Closing SMTP connection failed", e);
+        }
+    }
+
+    private record IdleTransport(Transport transport, long idleSince) {
+    }
+}
@@ -0,0 +1,96 @@
+package com.shu.service.mail.impl;
+
+import com.shu.domain.MailStatus;
+import com.shu.domain.MailType;
+import com.shu.model.entity.Order;
+import com.shu.model.entity.OrderItem;
+import com.shu.model.entity.OutboxMail;
+import com.shu.model.entity.User;
+import com.shu.repository.OutboxMailRepository;
+import com.shu.service.mail.MailOutboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * MailOutboxServiceImpl
+ *
+ * Renders receipts and account mails as plain text and adds them to the outbox with
+ * OutboxMailRepository.save, which joins the caller's transaction (pooled ids: the INSERT goes out
+ * with the caller's flush, in the same JDBC batch as the order / user).
+ */
+@Slf4j
+@Service
+public class MailOutboxServiceImpl implements MailOutboxService {
+
+    private static final DateTimeFormatter RECEIPT_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final int NAME_WIDTH = 28;
+
+    private static final String REQUEUE_SQL =
+            "UPDATE mail_outbox SET status = 'PENDING', attempts = 0, next_attempt_at = ?, last_error = NULL "
+                    + "WHERE status = 'DEAD'";
+
+    private final OutboxMailRepository outboxMailRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final String currency;
+
+    public MailOutboxServiceImpl(OutboxMailRepository outboxMailRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 @Value("${pos.payment.currency:INR}") String currency) {
+        this.outboxMailRepository = outboxMailRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.currency = currency;
+    }
+
+    @Override
+    public void enqueueReceipt(Order order, String recipient) {
+        StringBuilder body = new StringBuilder(256 + order.getItems().size() * 48)
+                .append("Thank you for your purchase.\n\n")
+                .append("Receipt: ").append(order.getOrderNumber()).append('\n')
+                .append("Date:    ").append(RECEIPT_TIME.format(order.getCreatedAt())).append("\n\n");
+        for (OrderItem item : order.getItems()) {
+            String name = item.getName() == null ? item.getSku() : item.getName();
+            body.append(String.format("%4d x %-" + NAME_WIDTH + "." + NAME_WIDTH + "s %10s%n",
+                    item.getQuantity(), name, item.getLineTotal().toPlainString()));
+        }
+        body.append('\n')
+                .append("Total:   ").append(order.getTotalAmount().toPlainString()).append(' ').append(currency)
+                .append('\n')
+                .append("Paid by: ").append(order.getPaymentMethod()).append('\n');
+
+        enqueue(MailType.RECEIPT, recipient, "Your receipt " + order.getOrderNumber(), body.toString());
+    }
+
+    @Override
+    public void enqueueSignupConfirmation(User user) {
+        String body = "Hello " + user.getFullName() + ",\n\n"
+                + "your account " + user.getEmail() + " (" + user.getRole() + ") has been created.\n\n"
+                + "If you did not sign up, please contact your administrator.\n";
+        enqueue(MailType.SIGNUP_CONFIRMATION, user.getEmail(), "Your account has been created", body);
+    }
+
+    @Override
+    public int requeueDead() {
+        int requeued = jdbcTemplate.update(REQUEUE_SQL, Timestamp.valueOf(LocalDateTime.now()));
+        log.info("Requeued {} dead-lettered mails", requeued);
+        return requeued;
+    }
+
+    private void enqueue(MailType type, String recipient, String subject, String body) {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxMail mail = new OutboxMail();
+        mail.setType(type);
+        mail.setRecipient(recipient);
+        mail.setSubject(subject);
+        mail.setBody(body);
+        mail.setStatus(MailStatus.PENDING);
+        mail.setNextAttemptAt(now);
+        mail.setCreatedAt(now);
+        outboxMailRepository.save(mail);
+    }
+}
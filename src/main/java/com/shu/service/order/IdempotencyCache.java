@@ -0,0 +1,81 @@
+package com.shu.service.order;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shu.model.dto.OrderDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * IdempotencyCache
+ *
+ * Remembers recent checkouts by their Idempotency-Key.
+ *
+ * Why?
+ * - A till that times out retries the same checkout. Without a key the retry creates a second order
+ *   and charges the customer twice.
+ *
+ * How it works:
+ * - The first request for a key registers its (still running) checkout future.
+ *   A retry that arrives while it runs gets the same future: it waits for the first attempt
+ *   instead of starting a second one. A retry after completion gets the stored result.
+ * - Each entry keeps the fingerprint of its cart, so a key reused for a different cart is detected.
+ * - Failed checkouts are removed, so the till can retry them with the same key.
+ * - Bounded (size + TTL, Caffeine). Once a key is evicted, the unique key on the orders table
+ *   is the backstop (see OrderServiceImpl).
+ * - Size, hit ratio and evictions are published as "cache.*" metrics (cache = checkout.idempotency).
+ */
+@Component
+public class IdempotencyCache implements MeterBinder {
+
+    private final Cache<String, Entry> entries;
+
+    public IdempotencyCache(@Value("${pos.checkout.idempotency.max-keys:100000}") long maxKeys,
+                            @Value("${pos.checkout.idempotency.ttl:24h}") Duration ttl) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Registers a checkout unless the key is already known.
+     *
+     * @return the existing entry, or null when {@code entry} was registered
+     */
+    public Entry putIfAbsent(String key, Entry entry) {
+        // get(key, loader) is atomic per key and records the hit / miss
+        Entry current = entries.get(key, k -> entry);
+        return current == entry ? null : current;
+    }
+
+    /**
+     * Forgets a failed checkout (only if the key still maps to it).
+     */
+    public void remove(String key, Entry entry) {
+        entries.asMap().remove(key, entry);
+    }
+
+    public long size() {
+        return entries.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, entries, "checkout.idempotency");
+    }
+
+    /**
+     * @param requestHash fingerprint of the cart sent with the key
+     * @param result      checkout result (may still be running)
+     */
+    public record Entry(String requestHash, CompletableFuture<OrderDto> result) {
+    }
+}
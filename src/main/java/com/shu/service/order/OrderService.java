@@ -0,0 +1,35 @@
+package com.shu.service.order;
+
+import com.shu.exceptions.InventoryException;
+import com.shu.exceptions.OrderException;
+import com.shu.exceptions.PaymentException;
+import com.shu.model.dto.OrderDto;
+import com.shu.payload.request.CheckoutRequest;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * OrderService
+ *
+ * Checkout pipeline: validate cart → price → reserve stock → take payment → persist order.
+ */
+public interface OrderService {
+
+    /**
+     * Places an order. Retrying with the same Idempotency-Key returns the first order
+     * instead of creating (and charging) a second one.
+     *
+     * @param idempotencyKey key generated by the till for this cart (required)
+     * @param cashierEmail   authenticated user ringing up the sale
+     * @return the placed order; completes exceptionally with {@link InventoryException} (out of stock),
+     *         {@link PaymentException} or {@link OrderException}
+     * @throws OrderException if the key is missing or the cart is invalid (thrown before anything runs)
+     */
+    CompletableFuture<OrderDto> checkout(String idempotencyKey, CheckoutRequest request, String cashierEmail)
+            throws OrderException;
+
+    /**
+     * @throws OrderException (ORDER_NOT_FOUND) for unknown ids
+     */
+    OrderDto getOrderById(Long id) throws OrderException;
+}
@@ -0,0 +1,466 @@
+package com.shu.service.order.impl;
+
+import com.shu.constant.ErrorCode;
+import com.shu.domain.OrderStatus;
+import com.shu.domain.PaymentMethod;
+import com.shu.domain.StockMovementType;
+import com.shu.exceptions.OrderException;
+import com.shu.mapper.OrderMapper;
+import com.shu.model.dto.OrderDto;
+import com.shu.model.dto.ProductDto;
+import com.shu.model.entity.Order;
+import com.shu.model.entity.OrderItem;
+import com.shu.model.entity.User;
+import com.shu.payload.request.CheckoutRequest;
+import com.shu.payload.request.StockAdjustmentRequest;
+import com.shu.payload.request.StockReservationRequest;
+import com.shu.repository.OrderRepository;
+import com.shu.service.inventory.InventoryService;
+import com.shu.service.mail.MailOutboxService;
+import com.shu.service.order.IdempotencyCache;
+import com.shu.service.order.OrderService;
+import com.shu.service.payment.PaymentRequest;
+import com.shu.service.payment.PaymentResult;
+import com.shu.service.payment.PaymentService;
+import com.shu.service.product.ProductService;
+import com.shu.service.reporting.SalesRollupService;
+import com.shu.service.user.UserCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderServiceImpl
+ *
+ * Checkout as a staged pipeline, each stage timed separately:
+ *
+ * 1. validate : cart shape, duplicate lines merged, Idempotency-Key present.
+ * 2. price    : prices come from the catalog index (never from the till).
+ * 3. reserve  : stock is held in memory (all lines or none, see InventoryService).
+ * 4. pay      : asynchronous charge; on failure the reservation is released.
+ * 5. persist  : header + lines in one transaction (pooled ids + JDBC batching = one batch per table),
+ *               the sales rollups are updated and the e-mail receipt (if asked for) is queued in the mail outbox,
+ *               then the reservation is committed as a sale. On failure the payment is refunded
+ *               and the reservation released; a sale already journaled when the transaction rolls back
+ *               (e.g. the DB commit fails) is undone by a compensating ADJUSTMENT movement.
+ *               Runs on the payment thread for card / UPI, so the request's query budget does not see it.
+ *
+ * Idempotency:
+ * - The Idempotency-Key is registered in {@link IdempotencyCache} before any stage runs:
+ *   a retry (even while the first attempt is still paying) gets the first attempt's result.
+ * - The orders table has a unique key on it: if a key was already evicted from the cache,
+ *   the duplicate insert fails, the second charge is refunded and the stored order is returned.
+ *
+ * Metrics:
+ * - "pos.checkout.stage{stage}"     : latency per stage
+ * - "pos.checkout.orders{result}"   : created | replayed | failed (throughput = rate of created)
+ */
+@Slf4j
+@Service
+public class OrderServiceImpl implements OrderService {
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+    private static final int MAX_EMAIL_LENGTH = 320;
+
+    private final OrderRepository orderRepository;
+    private final ProductService productService;
+    private final InventoryService inventoryService;
+    private final PaymentService paymentService;
+    private final SalesRollupService salesRollupService;
+    private final MailOutboxService mailOutboxService;
+    private final UserCache userCache;
+    private final IdempotencyCache idempotencyCache;
+    private final TransactionTemplate transactionTemplate;
+    private final String currency;
+    private final int maxLines;
+
+    private final Timer validateTimer;
+    private final Timer priceTimer;
+    private final Timer reserveTimer;
+    private final Timer payTimer;
+    private final Timer persistTimer;
+    private final Counter created;
+    private final Counter replayed;
+    private final Counter failed;
+
+    public OrderServiceImpl(OrderRepository orderRepository,
+                            ProductService productService,
+                            InventoryService inventoryService,
+                            PaymentService paymentService,
+                            SalesRollupService salesRollupService,
+                            MailOutboxService mailOutboxService,
+                            UserCache userCache,
+                            IdempotencyCache idempotencyCache,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${pos.payment.currency:INR}") String currency,
+                            @Value("${pos.checkout.max-lines:200}") int maxLines) {
+        this.orderRepository = orderRepository;
+        this.productService = productService;
+        this.inventoryService = inventoryService;
+        this.paymentService = paymentService;
+        this.salesRollupService = salesRollupService;
+        this.mailOutboxService = mailOutboxService;
+        this.userCache = userCache;
+        this.idempotencyCache = idempotencyCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.currency = currency;
+        this.maxLines = maxLines;
+
+        this.validateTimer = stageTimer(meterRegistry, "validate");
+        this.priceTimer = stageTimer(meterRegistry, "price");
+        this.reserveTimer = stageTimer(meterRegistry, "reserve");
+        this.payTimer = stageTimer(meterRegistry, "pay");
+        this.persistTimer = stageTimer(meterRegistry, "persist");
+        this.created = orderCounter(meterRegistry, "created");
+        this.replayed = orderCounter(meterRegistry, "replayed");
+        this.failed = orderCounter(meterRegistry, "failed");
+    }
+
+    @Override
+    public CompletableFuture<OrderDto> checkout(String idempotencyKey, CheckoutRequest request, String cashierEmail)
+            throws OrderException {
+        // 1. validate (cheap, before the key is registered: a bad cart never occupies a key)
+        List<CartLine> cart = validateTimer.record(() -> validate(idempotencyKey, request));
+        String requestHash = fingerprint(request, cart);
+
+        CompletableFuture<OrderDto> result = new CompletableFuture<>();
+        IdempotencyCache.Entry entry = new IdempotencyCache.Entry(requestHash, result);
+        IdempotencyCache.Entry existing = idempotencyCache.putIfAbsent(idempotencyKey, entry);
+        if (existing != null) {
+            if (!existing.requestHash().equals(requestHash)) {
+                throw new OrderException(ErrorCode.IDEMPOTENCY_KEY_REUSED,
+                        "Idempotency-Key was already used for a different cart");
+            }
+            replayed.increment();
+            return existing.result();
+        }
+
+        Checkout checkout = new Checkout(idempotencyKey, requestHash, request.getBranchId(),
+                request.getPaymentMethod(), request.getPaymentToken(), request.getReceiptEmail(),
+                cashierId(cashierEmail), cart);
+        CompletableFuture<OrderDto> pipeline;
+        try {
+            pipeline = run(checkout);
+        } catch (RuntimeException e) {
+            pipeline = CompletableFuture.failedFuture(e);
+        }
+        pipeline.whenComplete((order, error) -> {
+            if (error == null) {
+                created.increment();
+                result.complete(order);
+            } else {
+                // Nothing was kept (stock released, payment refunded): the till may retry with the same key
+                failed.increment();
+                idempotencyCache.remove(idempotencyKey, entry);
+                result.completeExceptionally(unwrap(error));
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public OrderDto getOrderById(Long id) throws OrderException {
+        return orderRepository.findWithItemsById(id)
+                .map(OrderMapper::toDTO)
+                .orElseThrow(() -> new OrderException(ErrorCode.ORDER_NOT_FOUND, "Order not found"));
+    }
+
+    /**
+     * Stages 2-5. Stages up to the payment run on the caller thread; persist runs where the payment completes.
+     */
+    private CompletableFuture<OrderDto> run(Checkout checkout) {
+        // 2. price
+        List<PricedLine> lines = priceTimer.record(() -> price(checkout.cart()));
+        BigDecimal total = BigDecimal.ZERO;
+        for (PricedLine line : lines) {
+            total = total.add(line.lineTotal());
+        }
+
+        // 3. reserve
+        String reservationId = reserveTimer.record(() -> inventoryService
+                .reserve(toReservation(checkout))
+                .getReservationId());
+
+        // 4. pay
+        PaymentRequest paymentRequest = new PaymentRequest(checkout.idempotencyKey(), checkout.branchId(),
+                checkout.paymentMethod(), total, currency, checkout.paymentToken());
+        long payStart = System.nanoTime();
+        CompletableFuture<PaymentResult> payment;
+        try {
+            payment = paymentService.charge(paymentRequest);
+        } catch (RuntimeException e) {
+            payment = CompletableFuture.failedFuture(e);
+        }
+
+        BigDecimal orderTotal = total;
+        return payment.handle((paid, error) -> {
+            payTimer.record(System.nanoTime() - payStart, TimeUnit.NANOSECONDS);
+            if (error != null) {
+                releaseQuietly(reservationId);
+                throw new CompletionException(unwrap(error));
+            }
+            // 5. persist
+            return persistTimer.record(() -> persistOrCompensate(checkout, lines, orderTotal, reservationId,
+                    paid, paymentRequest));
+        });
+    }
+
+    private OrderDto persistOrCompensate(Checkout checkout, List<PricedLine> lines, BigDecimal total,
+                                         String reservationId, PaymentResult payment, PaymentRequest paymentRequest) {
+        try {
+            return transactionTemplate.execute(status -> persist(checkout, lines, total, reservationId, payment));
+        } catch (RuntimeException e) {
+            releaseQuietly(reservationId);
+            // Key evicted from the cache (or retried on another node): the first order is already stored
+            Order stored = e instanceof DataIntegrityViolationException
+                    ? orderRepository.findByIdempotencyKey(checkout.idempotencyKey()).orElse(null)
+                    : null;
+            // The provider answers a retried charge with the first payment (same idempotency key):
+            // that payment belongs to the stored order and must not be refunded
+            if (stored == null || !paidBy(stored, payment)) {
+                refundQuietly(payment, paymentRequest);
+            }
+            if (stored != null && stored.getRequestHash().equals(checkout.requestHash())) {
+                replayed.increment();
+                return OrderMapper.toDTO(stored);
+            }
+            throw e;
+        }
+    }
+
+    private OrderDto persist(Checkout checkout, List<PricedLine> lines, BigDecimal total,
+                             String reservationId, PaymentResult payment) {
+        Order order = new Order();
+        order.setIdempotencyKey(checkout.idempotencyKey());
+        order.setRequestHash(checkout.requestHash());
+        order.setBranchId(checkout.branchId());
+        order.setCashierId(checkout.cashierId());
+        order.setStatus(OrderStatus.COMPLETED);
+        order.setPaymentMethod(checkout.paymentMethod());
+        order.setPaymentProvider(payment.provider());
+        order.setPaymentReference(payment.reference());
+        order.setTotalAmount(total);
+        order.setCreatedAt(LocalDateTime.now());
+        for (PricedLine line : lines) {
+            order.addItem(new OrderItem(order, line.product().getId(), line.product().getSku(),
+                    line.product().getName(), line.quantity(), line.product().getSellingPrice(), line.lineTotal()));
+        }
+
+        // One flush: the header and all lines go out as JDBC batches
+        orderRepository.save(order);
+        orderRepository.flush();
+
+        // Dashboard rollups change with the order (rolled back together)
+        salesRollupService.recordSale(order);
+
+        // Receipt mail is committed with the order, sent later (no SMTP round-trip in checkout)
+        if (checkout.receiptEmail() != null) {
+            mailOutboxService.enqueueReceipt(order, checkout.receiptEmail());
+        }
+
+        // Stock leaves the shelf only if the order is stored (a journal failure rolls the order back)
+        inventoryService.commit(reservationId, order.getOrderNumber());
+        // The sale is journaled now: if the order does not commit after all, put the stock back
+        String orderNumber = order.getOrderNumber();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    returnSoldStock(checkout, orderNumber);
+                }
+            }
+        });
+        return OrderMapper.toDTO(order);
+    }
+
+    /**
+     * Compensating movement for a journaled sale whose order was rolled back (e.g. the DB commit failed).
+     */
+    private void returnSoldStock(Checkout checkout, String orderNumber) {
+        for (CartLine line : checkout.cart()) {
+            StockAdjustmentRequest adjustment = new StockAdjustmentRequest();
+            adjustment.setBranchId(checkout.branchId());
+            adjustment.setProductId(line.productId());
+            adjustment.setQuantity(line.quantity());
+            adjustment.setType(StockMovementType.ADJUSTMENT);
+            adjustment.setReference("rollback " + orderNumber);
+            try {
+                inventoryService.adjustStock(adjustment);
+            } catch (RuntimeException e) {
+                log.error("Order {} rolled back but {} units of product {} could not be returned to stock, "
+                        + "manual adjustment needed", orderNumber, line.quantity(), line.productId(), e);
+            }
+        }
+    }
+
+    private List<CartLine> validate(String idempotencyKey, CheckoutRequest request) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            throw new OrderException(ErrorCode.IDEMPOTENCY_KEY_REQUIRED, "Idempotency-Key header is required");
+        }
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new OrderException("Idempotency-Key must not exceed " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        if (request == null || request.getBranchId() == null || request.getPaymentMethod() == null) {
+            throw new OrderException("Branch and payment method are required");
+        }
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new OrderException("Cart is empty");
+        }
+        if (request.getItems().size() > maxLines) {
+            throw new OrderException("Cart exceeds " + maxLines + " lines");
+        }
+        if (request.getReceiptEmail() != null && !isValidEmail(request.getReceiptEmail())) {
+            throw new OrderException("Receipt e-mail is not a valid address");
+        }
+
+        // Same product scanned twice → one line; sorted so the fingerprint does not depend on scan order
+        Map<Long, Long> quantities = new TreeMap<>();
+        for (CheckoutRequest.Line item : request.getItems()) {
+            if (item.getProductId() == null || item.getQuantity() <= 0) {
+                throw new OrderException("Every line needs a product and a positive quantity");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Long::sum);
+        }
+        List<CartLine> cart = new ArrayList<>(quantities.size());
+        quantities.forEach((productId, quantity) -> cart.add(new CartLine(productId, quantity)));
+        return cart;
+    }
+
+    private List<PricedLine> price(List<CartLine> cart) {
+        List<PricedLine> lines = new ArrayList<>(cart.size());
+        for (CartLine line : cart) {
+            ProductDto product = productService.getActiveProductById(line.productId());
+            BigDecimal lineTotal = product.getSellingPrice().multiply(BigDecimal.valueOf(line.quantity()));
+            lines.add(new PricedLine(product, line.quantity(), lineTotal));
+        }
+        return lines;
+    }
+
+    private static StockReservationRequest toReservation(Checkout checkout) {
+        StockReservationRequest reservation = new StockReservationRequest();
+        reservation.setBranchId(checkout.branchId());
+        List<StockReservationRequest.Line> items = new ArrayList<>(checkout.cart().size());
+        for (CartLine line : checkout.cart()) {
+            StockReservationRequest.Line item = new StockReservationRequest.Line();
+            item.setProductId(line.productId());
+            item.setQuantity(line.quantity());
+            items.add(item);
+        }
+        reservation.setItems(items);
+        return reservation;
+    }
+
+    private Long cashierId(String cashierEmail) {
+        User cashier = userCache.findByEmail(cashierEmail);
+        return cashier == null ? null : cashier.getId();
+    }
+
+    private void releaseQuietly(String reservationId) {
+        try {
+            inventoryService.release(reservationId);
+        } catch (RuntimeException e) {
+            // Already settled or expired: nothing left to give back
+            log.debug("Reservation {} not released: {}", reservationId, e.getMessage());
+        }
+    }
+
+    private static boolean paidBy(Order order, PaymentResult payment) {
+        return Objects.equals(order.getPaymentProvider(), payment.provider())
+                && Objects.equals(order.getPaymentReference(), payment.reference());
+    }
+
+    private void refundQuietly(PaymentResult payment, PaymentRequest request) {
+        paymentService.refund(payment, request).whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.error("Refund of {} payment {} failed, manual refund needed",
+                        payment.provider(), payment.reference(), error);
+            }
+        });
+    }
+
+    /**
+     * SHA-256 over branch, payment method and the merged, sorted lines.
+     */
+    private static String fingerprint(CheckoutRequest request, List<CartLine> cart) {
+        StringBuilder canonical = new StringBuilder(32 + cart.size() * 16)
+                .append(request.getBranchId()).append('|')
+                .append(request.getPaymentMethod());
+        for (CartLine line : cart) {
+            canonical.append('|').append(line.productId()).append('x').append(line.quantity());
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean isValidEmail(String email) {
+        try {
+            new InternetAddress(email, true).validate();
+            return email.length() <= MAX_EMAIL_LENGTH;
+        } catch (AddressException e) {
+            return false;
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static Timer stageTimer(MeterRegistry registry, String stage) {
+        return Timer.builder("pos.checkout.stage")
+                .tag("stage", stage)
+                .register(registry);
+    }
+
+    private static Counter orderCounter(MeterRegistry registry, String result) {
+        return Counter.builder("pos.checkout.orders")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private record Checkout(String idempotencyKey, String requestHash, long branchId,
+                            PaymentMethod paymentMethod, String paymentToken, String receiptEmail, Long cashierId,
+                            List<CartLine> cart) {
+    }
+
+    private record CartLine(long productId, long quantity) {
+    }
+
+    private record PricedLine(ProductDto product, long quantity, BigDecimal lineTotal) {
+    }
+}
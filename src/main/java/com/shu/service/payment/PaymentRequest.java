@@ -0,0 +1,28 @@
+package com.shu.service.payment;
+
+import com.shu.domain.PaymentMethod;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+/**
+ * Charge requested by checkout.
+ *
+ * @param idempotencyKey checkout Idempotency-Key, forwarded to providers so a retried charge is not taken twice
+ * @param branchId       branch of the sale
+ * @param method         how the customer pays
+ * @param amount         amount to charge
+ * @param currency       ISO 4217 code (e.g. "INR")
+ * @param paymentToken   provider token from the card terminal / UPI app (null for cash)
+ */
+public record PaymentRequest(String idempotencyKey, long branchId, PaymentMethod method,
+                             BigDecimal amount, String currency, String paymentToken) {
+
+    /**
+     * @return amount in the currency's smallest unit (paise, cents), as the provider APIs expect
+     */
+    public long amountInMinorUnits() {
+        return amount.movePointRight(Currency.getInstance(currency).getDefaultFractionDigits())
+                .longValueExact();
+    }
+}
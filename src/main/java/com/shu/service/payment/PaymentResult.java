@@ -0,0 +1,10 @@
+package com.shu.service.payment;
+
+/**
+ * A successful charge.
+ *
+ * @param provider  provider that took the payment ("cash" for cash sales)
+ * @param reference provider payment id (null for cash), needed for refunds
+ */
+public record PaymentResult(String provider, String reference) {
+}
@@ -0,0 +1,21 @@
+package com.shu.service.payment;
+
+import com.shu.exceptions.PaymentException;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * PaymentService
+ *
+ * Takes the payment of a checkout. Calls never block the caller:
+ * the returned future completes with the charge, or exceptionally with a {@link PaymentException}.
+ */
+public interface PaymentService {
+
+    CompletableFuture<PaymentResult> charge(PaymentRequest request);
+
+    /**
+     * Gives the money back (compensation when the order could not be stored after the charge).
+     */
+    CompletableFuture<Void> refund(PaymentResult payment, PaymentRequest request);
+}
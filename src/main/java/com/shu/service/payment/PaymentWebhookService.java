@@ -0,0 +1,36 @@
+package com.shu.service.payment;
+
+import com.shu.exceptions.PaymentException;
+import org.springframework.http.HttpHeaders;
+
+import java.time.LocalDateTime;
+
+/**
+ * PaymentWebhookService
+ *
+ * Payment provider webhooks (captures, failures, refunds).
+ * Deliveries are acknowledged once they are in a local journal; a background consumer de-duplicates them
+ * and applies them to the orders in batches.
+ */
+public interface PaymentWebhookService {
+
+    /**
+     * Checks the signature and journals the event. Returns once the event is durable.
+     *
+     * @param provider provider name from the webhook URL
+     * @param payload  raw request body
+     * @param headers  request headers
+     * @throws PaymentException (UNKNOWN_WEBHOOK_PROVIDER) if no such provider is enabled,
+     *                          (INVALID_WEBHOOK) if the signature or body is invalid
+     */
+    void receive(String provider, String payload, HttpHeaders headers) throws PaymentException;
+
+    /**
+     * Parses stored events of a provider again and re-applies them (e.g. after a fix in the event mapping).
+     * Applying an event is idempotent, so replaying a range twice is harmless.
+     *
+     * @return number of events replayed
+     * @throws PaymentException (UNKNOWN_WEBHOOK_PROVIDER) if no such provider is enabled
+     */
+    int replay(String provider, LocalDateTime from, LocalDateTime to) throws PaymentException;
+}
@@ -0,0 +1,131 @@
+package com.shu.service.payment.gateway;
+
+import java.util.function.LongSupplier;
+
+/**
+ * CircuitBreaker
+ *
+ * Count-based circuit breaker for one payment provider.
+ *
+ * How it works:
+ * - CLOSED    : outcomes of the last {@code windowSize} calls are kept in a ring. Once at least
+ *               {@code minCalls} were recorded and the failure rate reaches the threshold, the circuit opens.
+ * - OPEN      : calls are refused without touching the provider (the caller fails over) until
+ *               {@code openNanos} have passed.
+ * - HALF_OPEN : up to {@code halfOpenCalls} trial calls are let through. All succeed → CLOSED;
+ *               any failure → OPEN again.
+ *
+ * Declines are not failures: the provider answered.
+ * Methods are synchronized; they are called once per provider round-trip (milliseconds), so contention is irrelevant.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final boolean[] window;
+    private final int minCalls;
+    private final int failureRatePercent;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    private State state = State.CLOSED;
+    private int index;
+    private int recorded;
+    private int failures;
+    private long openUntil;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    public CircuitBreaker(int windowSize, int minCalls, int failureRatePercent, long openNanos, int halfOpenCalls,
+                          LongSupplier nanoClock) {
+        if (windowSize <= 0 || minCalls <= 0 || halfOpenCalls <= 0) {
+            throw new IllegalArgumentException("windowSize, minCalls and halfOpenCalls must be positive");
+        }
+        this.window = new boolean[windowSize];
+        this.minCalls = Math.min(minCalls, windowSize);
+        this.failureRatePercent = failureRatePercent;
+        this.openNanos = openNanos;
+        this.halfOpenCalls = halfOpenCalls;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return true if a call may be made now (must be followed by onSuccess or onFailure)
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openUntil < 0) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenCalls) {
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++trialsSucceeded >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minCalls && failures * 100 >= failureRatePercent * recorded) {
+                open();
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == window.length) {
+            if (window[index]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[index] = failure;
+        if (failure) {
+            failures++;
+        }
+        index = (index + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntil = nanoClock.getAsLong() + openNanos;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        index = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,39 @@
+package com.shu.service.payment.gateway;
+
+import com.shu.domain.PaymentMethod;
+import com.shu.service.payment.PaymentRequest;
+import com.shu.service.payment.PaymentResult;
+
+/**
+ * PaymentGateway
+ *
+ * Adapter to one payment provider SDK. Calls are blocking: they are only invoked on the payment executor,
+ * wrapped by {@link ResilientGateway} (timeout, bulkhead, retry, circuit breaker).
+ *
+ * Implementations must classify every failure (see {@link PaymentGatewayException.Failure}),
+ * and must forward {@link PaymentRequest#idempotencyKey()} when the provider supports it,
+ * so a retried call never charges twice.
+ */
+public interface PaymentGateway {
+
+    /**
+     * @return provider name used in routes, metrics and {@link PaymentResult#provider()} (e.g. "stripe")
+     */
+    String getName();
+
+    boolean supports(PaymentMethod method);
+
+    /**
+     * Kind of {@link PaymentRequest#paymentToken()} this provider accepts. A route only fails over between
+     * providers of the same token type: a Stripe PaymentMethod id means nothing to Razorpay.
+     *
+     * @return by default the provider name (tokens issued by this provider only)
+     */
+    default String getTokenType() {
+        return getName();
+    }
+
+    PaymentResult charge(PaymentRequest request) throws PaymentGatewayException;
+
+    void refund(PaymentResult payment, PaymentRequest request) throws PaymentGatewayException;
+}
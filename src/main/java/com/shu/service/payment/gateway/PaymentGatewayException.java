@@ -0,0 +1,35 @@
+package com.shu.service.payment.gateway;
+
+import lombok.Getter;
+
+/**
+ * Failure of a provider call, classified by what is safe to do next.
+ */
+@Getter
+public class PaymentGatewayException extends Exception {
+
+    /**
+     * - DECLINED  : the provider answered "no" (card declined, invalid request). Final: no retry, no failover.
+     * - RETRYABLE : outcome unknown (timeout, 5xx, connection reset). Retried on the same provider with the
+     *               same idempotency key; never failed over, another provider could charge a second time.
+     * - NOT_SENT  : the provider was not reached (circuit open, bulkhead full, bad credentials).
+     *               Nothing can have been charged, so the next provider may be tried.
+     */
+    public enum Failure {
+        DECLINED,
+        RETRYABLE,
+        NOT_SENT
+    }
+
+    private final Failure failure;
+
+    public PaymentGatewayException(Failure failure, String message) {
+        super(message);
+        this.failure = failure;
+    }
+
+    public PaymentGatewayException(Failure failure, String message, Throwable cause) {
+        super(message, cause);
+        this.failure = failure;
+    }
+}
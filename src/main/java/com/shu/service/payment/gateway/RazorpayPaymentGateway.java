@@ -0,0 +1,116 @@
+package com.shu.service.payment.gateway;
+
+import com.razorpay.Payment;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import com.shu.domain.PaymentMethod;
+import com.shu.service.payment.PaymentRequest;
+import com.shu.service.payment.PaymentResult;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.net.ConnectException;
+
+/**
+ * RazorpayPaymentGateway
+ *
+ * UPI and card payments through Razorpay. The customer authorizes the payment on their device
+ * (UPI app / card terminal); the till sends the Razorpay payment id as token and the server captures it.
+ *
+ * - Capturing an already captured payment fails with BAD_REQUEST instead of charging again,
+ *   so a retried capture is safe. Since the first capture may have succeeded after a timeout,
+ *   a BAD_REQUEST is checked against the payment: captured for the same amount = success.
+ * - The SDK has no timeout settings: {@link ResilientGateway} enforces the per-provider timeout.
+ */
+@Component
+@ConditionalOnProperty(name = "pos.payment.razorpay.enabled", havingValue = "true")
+public class RazorpayPaymentGateway implements PaymentGateway {
+
+    public static final String NAME = "razorpay";
+
+    private static final String BAD_REQUEST = "BAD_REQUEST_ERROR";
+
+    private final RazorpayClient client;
+
+    public RazorpayPaymentGateway(@Value("${pos.payment.razorpay.key-id}") String keyId,
+                                  @Value("${pos.payment.razorpay.key-secret}") String keySecret) throws RazorpayException {
+        this.client = new RazorpayClient(keyId, keySecret);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(PaymentMethod method) {
+        return method == PaymentMethod.UPI || method == PaymentMethod.CARD;
+    }
+
+    @Override
+    public PaymentResult charge(PaymentRequest request) throws PaymentGatewayException {
+        if (request.paymentToken() == null || request.paymentToken().isBlank()) {
+            throw new PaymentGatewayException(PaymentGatewayException.Failure.DECLINED, "Razorpay payment id is required");
+        }
+        JSONObject capture = new JSONObject()
+                .put("amount", request.amountInMinorUnits())
+                .put("currency", request.currency());
+        try {
+            Payment payment = client.payments.capture(request.paymentToken(), capture);
+            Object status = payment.get("status");
+            if (!"captured".equals(status)) {
+                throw new PaymentGatewayException(PaymentGatewayException.Failure.DECLINED,
+                        "Razorpay payment " + request.paymentToken() + " ended in status " + status);
+            }
+            return new PaymentResult(NAME, request.paymentToken());
+        } catch (RazorpayException e) {
+            if (String.valueOf(e.getMessage()).contains(BAD_REQUEST) && isCaptured(request)) {
+                return new PaymentResult(NAME, request.paymentToken());
+            }
+            throw classify(e);
+        }
+    }
+
+    @Override
+    public void refund(PaymentResult payment, PaymentRequest request) throws PaymentGatewayException {
+        JSONObject refund = new JSONObject()
+                .put("amount", request.amountInMinorUnits())
+                .put("receipt", request.idempotencyKey());
+        try {
+            client.payments.refund(payment.reference(), refund);
+        } catch (RazorpayException e) {
+            throw classify(e);
+        }
+    }
+
+    /**
+     * @return true when the payment is already captured for the requested amount (an earlier capture went
+     *         through, e.g. one that timed out on our side)
+     */
+    private boolean isCaptured(PaymentRequest request) throws PaymentGatewayException {
+        try {
+            Payment payment = client.payments.fetch(request.paymentToken());
+            return "captured".equals(payment.get("status"))
+                    && payment.get("amount") instanceof Number amount
+                    && amount.longValue() == request.amountInMinorUnits()
+                    && request.currency().equals(payment.get("currency"));
+        } catch (RazorpayException e) {
+            throw classify(e);
+        }
+    }
+
+    private static PaymentGatewayException classify(RazorpayException e) {
+        String message = String.valueOf(e.getMessage());
+        if (message.contains(BAD_REQUEST)) {
+            return new PaymentGatewayException(PaymentGatewayException.Failure.DECLINED, message, e);
+        }
+        if (e.getCause() instanceof ConnectException) {
+            // Connection refused: the request never reached Razorpay
+            return new PaymentGatewayException(PaymentGatewayException.Failure.NOT_SENT, message, e);
+        }
+        // Timeouts, resets, 5xx: the capture may have happened
+        return new PaymentGatewayException(PaymentGatewayException.Failure.RETRYABLE, message, e);
+    }
+}
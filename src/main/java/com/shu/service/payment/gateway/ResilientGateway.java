@@ -0,0 +1,244 @@
+package com.shu.service.payment.gateway;
+
+import com.shu.service.payment.PaymentRequest;
+import com.shu.service.payment.PaymentResult;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ResilientGateway
+ *
+ * One payment provider behind timeout, bulkhead, retry and circuit breaker.
+ *
+ * Per call:
+ * 1. bulkhead : at most {@code maxConcurrent} calls in flight to this provider; when full the call is
+ *               refused at once (NOT_SENT), so a slow provider cannot soak up every payment thread.
+ *               The permit is held until the provider call itself returns: a timed-out call that is
+ *               still running counts as in flight.
+ * 2. breaker  : refused while the provider's circuit is open (NOT_SENT → the caller fails over).
+ * 3. timeout  : each attempt runs as its own task on the payment executor and is cancelled (interrupted)
+ *               after {@code timeoutMillis}. A timeout is RETRYABLE: the charge may or may not have happened.
+ * 4. retry    : RETRYABLE failures are retried up to {@code maxAttempts} with exponential backoff and
+ *               full jitter (random delay in [0, min(maxDelay, baseDelay * 2^n)]), so a fleet of tills
+ *               does not retry in lock-step. The idempotency key makes a retried charge safe.
+ *               Once an attempt ended RETRYABLE, the call ends RETRYABLE even if a later attempt is refused
+ *               (NOT_SENT): the first attempt may have charged.
+ *
+ * Blocking: meant to be called from a payment executor thread (virtual), never from a request thread.
+ */
+public class ResilientGateway {
+
+    private final PaymentGateway gateway;
+    private final ExecutorService executor;
+    private final Semaphore bulkhead;
+    private final int maxConcurrent;
+    private final CircuitBreaker breaker;
+    private final long timeoutMillis;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    private Timer success;
+    private Timer declined;
+    private Timer retryable;
+    private Timer notSent;
+
+    public ResilientGateway(PaymentGateway gateway, ExecutorService executor, CircuitBreaker breaker,
+                            int maxConcurrent, long timeoutMillis, int maxAttempts,
+                            long baseDelayMillis, long maxDelayMillis) {
+        this.gateway = gateway;
+        this.executor = executor;
+        this.breaker = breaker;
+        this.maxConcurrent = maxConcurrent;
+        this.bulkhead = new Semaphore(maxConcurrent);
+        this.timeoutMillis = timeoutMillis;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    public String getName() {
+        return gateway.getName();
+    }
+
+    public PaymentGateway getGateway() {
+        return gateway;
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return breaker.getState();
+    }
+
+    public PaymentResult charge(PaymentRequest request) throws PaymentGatewayException {
+        return withRetry(() -> gateway.charge(request));
+    }
+
+    public void refund(PaymentResult payment, PaymentRequest request) throws PaymentGatewayException {
+        withRetry(() -> {
+            gateway.refund(payment, request);
+            return null;
+        });
+    }
+
+    /**
+     * Metrics "pos.payment.attempts{provider,outcome}", "pos.payment.circuit.state{provider}"
+     * (0 = closed, 1 = half-open, 2 = open) and "pos.payment.bulkhead.in-use{provider}".
+     */
+    public void bindTo(MeterRegistry registry) {
+        success = attemptTimer(registry, "success");
+        declined = attemptTimer(registry, "declined");
+        retryable = attemptTimer(registry, "retryable");
+        notSent = attemptTimer(registry, "not_sent");
+        Gauge.builder("pos.payment.circuit.state", breaker, b -> b.getState().ordinal())
+                .tag("provider", getName())
+                .register(registry);
+        Gauge.builder("pos.payment.bulkhead.in-use", bulkhead, b -> maxConcurrent - b.availablePermits())
+                .tag("provider", getName())
+                .register(registry);
+    }
+
+    private <T> T withRetry(GatewayCall<T> call) throws PaymentGatewayException {
+        PaymentGatewayException last = null;
+        for (int attempt = 0; attempt < maxAttempts; attempt++) {
+            if (attempt > 0) {
+                backoff(attempt);
+            }
+            try {
+                return attempt(call);
+            } catch (PaymentGatewayException e) {
+                if (e.getFailure() == PaymentGatewayException.Failure.NOT_SENT && last != null) {
+                    // This attempt was refused (bulkhead full, circuit open) but an earlier one may have charged:
+                    // the outcome stays unknown, the caller must not fail over to another provider
+                    throw last;
+                }
+                if (e.getFailure() != PaymentGatewayException.Failure.RETRYABLE) {
+                    throw e;
+                }
+                last = e;
+            }
+        }
+        throw last;
+    }
+
+    private <T> T attempt(GatewayCall<T> call) throws PaymentGatewayException {
+        if (!bulkhead.tryAcquire()) {
+            record(notSent, 0);
+            throw new PaymentGatewayException(PaymentGatewayException.Failure.NOT_SENT,
+                    getName() + ": too many payments in flight");
+        }
+        if (!breaker.tryAcquire()) {
+            bulkhead.release();
+            record(notSent, 0);
+            throw new PaymentGatewayException(PaymentGatewayException.Failure.NOT_SENT,
+                    getName() + ": circuit open");
+        }
+
+        // The permit belongs to whoever claims "started" first: the task when it runs the provider call,
+        // or cancel() when the task never got to run
+        AtomicBoolean started = new AtomicBoolean();
+        long start = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                if (!started.compareAndSet(false, true)) {
+                    return null;
+                }
+                try {
+                    return call.call();
+                } finally {
+                    bulkhead.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            bulkhead.release();
+            throw e;
+        }
+        try {
+            T result = future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            breaker.onSuccess();
+            record(success, start);
+            return result;
+        } catch (TimeoutException e) {
+            cancel(future, started);
+            breaker.onFailure();
+            record(retryable, start);
+            throw new PaymentGatewayException(PaymentGatewayException.Failure.RETRYABLE,
+                    getName() + ": no answer within " + timeoutMillis + " ms", e);
+        } catch (ExecutionException e) {
+            throw classify(e.getCause(), start);
+        } catch (InterruptedException e) {
+            cancel(future, started);
+            Thread.currentThread().interrupt();
+            breaker.onFailure();
+            throw new PaymentGatewayException(PaymentGatewayException.Failure.RETRYABLE,
+                    getName() + ": interrupted", e);
+        }
+    }
+
+    /**
+     * An interrupted SDK call may keep running (blocking socket I/O ignores interrupts): its permit is
+     * released only when it actually returns, so the bulkhead keeps counting it as in flight.
+     */
+    private void cancel(Future<?> future, AtomicBoolean started) {
+        future.cancel(true);
+        if (started.compareAndSet(false, true)) {
+            bulkhead.release();
+        }
+    }
+
+    private PaymentGatewayException classify(Throwable cause, long start) {
+        if (cause instanceof PaymentGatewayException failure) {
+            if (failure.getFailure() == PaymentGatewayException.Failure.DECLINED) {
+                breaker.onSuccess();   // the provider is healthy, the payment is not
+                record(declined, start);
+            } else {
+                breaker.onFailure();
+                record(failure.getFailure() == PaymentGatewayException.Failure.NOT_SENT ? notSent : retryable, start);
+            }
+            return failure;
+        }
+        breaker.onFailure();
+        record(retryable, start);
+        return new PaymentGatewayException(PaymentGatewayException.Failure.RETRYABLE,
+                getName() + ": " + cause.getMessage(), cause);
+    }
+
+    private void backoff(int attempt) throws PaymentGatewayException {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException(PaymentGatewayException.Failure.RETRYABLE,
+                    getName() + ": interrupted while backing off", e);
+        }
+    }
+
+    private static void record(Timer timer, long start) {
+        if (timer != null) {
+            timer.record(start == 0 ? 0 : System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer attemptTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("pos.payment.attempts")
+                .tags("provider", getName(), "outcome", outcome)
+                .register(registry);
+    }
+
+    @FunctionalInterface
+    private interface GatewayCall<T> {
+        T call() throws PaymentGatewayException;
+    }
+}
@@ -0,0 +1,118 @@
+package com.shu.service.payment.gateway;
+
+import com.shu.domain.PaymentMethod;
+import com.shu.service.payment.PaymentRequest;
+import com.shu.service.payment.PaymentResult;
+import com.stripe.StripeClient;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.AuthenticationException;
+import com.stripe.exception.CardException;
+import com.stripe.exception.IdempotencyException;
+import com.stripe.exception.InvalidRequestException;
+import com.stripe.exception.PermissionException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import com.stripe.net.RequestOptions;
+import com.stripe.param.PaymentIntentCreateParams;
+import com.stripe.param.RefundCreateParams;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * StripePaymentGateway
+ *
+ * Card payments through Stripe: one confirmed PaymentIntent per checkout, created with the
+ * checkout's Idempotency-Key (Stripe returns the first result for a retried request).
+ *
+ * - The payment token is the Stripe PaymentMethod id read by the card terminal / client SDK.
+ * - The SDK's own network retries are disabled: retries, timeouts and failover are handled by
+ *   {@link ResilientGateway}. Connect / read timeouts are still set so a hung socket is closed.
+ */
+@Component
+@ConditionalOnProperty(name = "pos.payment.stripe.enabled", havingValue = "true")
+public class StripePaymentGateway implements PaymentGateway {
+
+    public static final String NAME = "stripe";
+
+    private final StripeClient client;
+
+    public StripePaymentGateway(@Value("${pos.payment.stripe.api-key}") String apiKey,
+                                @Value("${pos.payment.stripe.timeout-ms:5000}") int timeoutMillis) {
+        this.client = StripeClient.builder()
+                .setApiKey(apiKey)
+                .setConnectTimeout(Math.min(timeoutMillis, 2000))
+                .setReadTimeout(timeoutMillis)
+                .setMaxNetworkRetries(0)
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean supports(PaymentMethod method) {
+        return method == PaymentMethod.CARD;
+    }
+
+    @Override
+    public PaymentResult charge(PaymentRequest request) throws PaymentGatewayException {
+        if (request.paymentToken() == null || request.paymentToken().isBlank()) {
+            throw new PaymentGatewayException(PaymentGatewayException.Failure.DECLINED, "Card payment token is required");
+        }
+        PaymentIntentCreateParams params = PaymentIntentCreateParams.builder()
+                .setAmount(request.amountInMinorUnits())
+                .setCurrency(request.currency().toLowerCase())
+                .setPaymentMethod(request.paymentToken())
+                .setConfirm(true)
+                .setDescription("POS branch " + request.branchId())
+                .putMetadata("idempotency_key", request.idempotencyKey())
+                .build();
+        try {
+            PaymentIntent intent = client.paymentIntents().create(params, RequestOptions.builder()
+                    .setIdempotencyKey("charge-" + request.idempotencyKey())
+                    .build());
+            if (!"succeeded".equals(intent.getStatus()) && !"requires_capture".equals(intent.getStatus())) {
+                throw new PaymentGatewayException(PaymentGatewayException.Failure.DECLINED,
+                        "Stripe payment " + intent.getId() + " ended in status " + intent.getStatus());
+            }
+            return new PaymentResult(NAME, intent.getId());
+        } catch (StripeException e) {
+            throw classify(e);
+        }
+    }
+
+    @Override
+    public void refund(PaymentResult payment, PaymentRequest request) throws PaymentGatewayException {
+        try {
+            client.refunds().create(RefundCreateParams.builder()
+                    .setPaymentIntent(payment.reference())
+                    .build(), RequestOptions.builder()
+                    .setIdempotencyKey("refund-" + request.idempotencyKey())
+                    .build());
+        } catch (StripeException e) {
+            throw classify(e);
+        }
+    }
+
+    private static PaymentGatewayException classify(StripeException e) {
+        if (e instanceof IdempotencyException) {
+            // The first request with this key is still running (or its outcome is unknown): not a decline,
+            // a retry gets its result
+            return new PaymentGatewayException(PaymentGatewayException.Failure.RETRYABLE, e.getMessage(), e);
+        }
+        if (e instanceof CardException || e instanceof InvalidRequestException) {
+            return new PaymentGatewayException(PaymentGatewayException.Failure.DECLINED, e.getMessage(), e);
+        }
+        if (e instanceof AuthenticationException || e instanceof PermissionException) {
+            // Rejected before any charge: another provider may take the payment
+            return new PaymentGatewayException(PaymentGatewayException.Failure.NOT_SENT, e.getMessage(), e);
+        }
+        if (e instanceof ApiConnectionException || e.getStatusCode() == null || e.getStatusCode() >= 429) {
+            return new PaymentGatewayException(PaymentGatewayException.Failure.RETRYABLE, e.getMessage(), e);
+        }
+        return new PaymentGatewayException(PaymentGatewayException.Failure.DECLINED, e.getMessage(), e);
+    }
+}
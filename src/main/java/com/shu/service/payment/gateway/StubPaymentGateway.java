@@ -0,0 +1,126 @@
+package com.shu.service.payment.gateway;
+
+import com.shu.domain.PaymentMethod;
+import com.shu.service.payment.PaymentRequest;
+import com.shu.service.payment.PaymentResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * StubPaymentGateway
+ *
+ * Local stand-in for a payment provider, so checkout can be load-tested offline.
+ *
+ * - Every call sleeps {@code latencyMillis} ± {@code jitterMillis}.
+ * - {@code failureRate} of the calls fail as RETRYABLE (like a 5xx / timeout),
+ *   {@code declineRate} are declined. Rates are fractions in [0, 1].
+ * - Charges are idempotent per key, like a real provider: a retried key returns the first payment id.
+ *
+ * Supports every non-cash method. Enabled with pos.payment.stub.enabled=true; put "stub" in a route to use it.
+ */
+@Component
+@ConditionalOnProperty(name = "pos.payment.stub.enabled", havingValue = "true")
+public class StubPaymentGateway implements PaymentGateway {
+
+    public static final String NAME = "stub";
+
+    private final String name;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double failureRate;
+    private final double declineRate;
+
+    private final Map<String, String> charges = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+
+    public StubPaymentGateway(@Value("${pos.payment.stub.latency-ms:150}") long latencyMillis,
+                              @Value("${pos.payment.stub.jitter-ms:100}") long jitterMillis,
+                              @Value("${pos.payment.stub.failure-rate:0.0}") double failureRate,
+                              @Value("${pos.payment.stub.decline-rate:0.0}") double declineRate) {
+        this(NAME, latencyMillis, jitterMillis, failureRate, declineRate);
+    }
+
+    /**
+     * @param name provider name, so several stubs can simulate a primary and a fallback provider
+     */
+    public StubPaymentGateway(String name, long latencyMillis, long jitterMillis, double failureRate, double declineRate) {
+        this.name = name;
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.failureRate = failureRate;
+        this.declineRate = declineRate;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean supports(PaymentMethod method) {
+        return method != PaymentMethod.CASH;
+    }
+
+    /**
+     * Every stub accepts any token, so stubs can stand in for a primary and a fallback provider.
+     */
+    @Override
+    public String getTokenType() {
+        return NAME;
+    }
+
+    @Override
+    public PaymentResult charge(PaymentRequest request) throws PaymentGatewayException {
+        simulateCall();
+        String reference = charges.computeIfAbsent(request.idempotencyKey(), k -> name + "_" + UUID.randomUUID());
+        return new PaymentResult(name, reference);
+    }
+
+    @Override
+    public void refund(PaymentResult payment, PaymentRequest request) throws PaymentGatewayException {
+        simulateCall();
+        charges.remove(request.idempotencyKey());
+    }
+
+    /**
+     * @return number of calls received (charges + refunds, including failed ones)
+     */
+    public long getCallCount() {
+        return calls.sum();
+    }
+
+    /**
+     * @return number of distinct payments currently charged
+     */
+    public int getChargedCount() {
+        return charges.size();
+    }
+
+    private void simulateCall() throws PaymentGatewayException {
+        calls.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMillis + (jitterMillis > 0 ? random.nextLong(-jitterMillis, jitterMillis + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PaymentGatewayException(PaymentGatewayException.Failure.RETRYABLE, name + ": interrupted", e);
+            }
+        }
+        double roll = random.nextDouble();
+        if (roll < failureRate) {
+            throw new PaymentGatewayException(PaymentGatewayException.Failure.RETRYABLE, name + ": simulated provider error");
+        }
+        if (roll < failureRate + declineRate) {
+            throw new PaymentGatewayException(PaymentGatewayException.Failure.DECLINED, name + ": simulated decline");
+        }
+    }
+}
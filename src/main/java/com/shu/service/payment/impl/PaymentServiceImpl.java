@@ -0,0 +1,242 @@
+package com.shu.service.payment.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shu.constant.ErrorCode;
+import com.shu.domain.PaymentMethod;
+import com.shu.exceptions.PaymentException;
+import com.shu.service.payment.PaymentRequest;
+import com.shu.service.payment.PaymentResult;
+import com.shu.service.payment.PaymentService;
+import com.shu.service.payment.gateway.CircuitBreaker;
+import com.shu.service.payment.gateway.PaymentGateway;
+import com.shu.service.payment.gateway.PaymentGatewayException;
+import com.shu.service.payment.gateway.ResilientGateway;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PaymentServiceImpl
+ *
+ * Orchestrates card / UPI payments over the configured providers without holding a request thread.
+ *
+ * Why?
+ * - A provider call takes hundreds of milliseconds, seconds when the provider is degraded.
+ *   Run on Tomcat threads, a slow provider takes the whole till API down with it.
+ *
+ * How it works:
+ * - Calls run on a dedicated executor of virtual threads ("payment-*"): a blocked SDK call costs no
+ *   platform thread. Checkout gets a CompletableFuture back immediately.
+ * - Each provider is wrapped in a {@link ResilientGateway} (per-provider timeout, bulkhead, retry with jitter,
+ *   circuit breaker).
+ * - Routes ("pos.payment.routes.card=stripe") give the failover order per payment method. Failover needs
+ *   providers that accept the same payment token ({@link PaymentGateway#getTokenType()}).
+ *   The next provider is only tried when the previous one was certainly not charged (circuit open,
+ *   bulkhead full, connection refused). Declines and unknown outcomes are reported to the till.
+ * - After an unknown outcome the Idempotency-Key is pinned to that provider for a while: the till's
+ *   retry goes to the same provider (which deduplicates by key) instead of charging a second one.
+ * - Cash is settled at the counter and never leaves the caller thread.
+ *
+ * Metrics: see {@link ResilientGateway#bindTo(MeterRegistry)}, plus "pos.payment.failovers{from}".
+ */
+@Slf4j
+@Service
+public class PaymentServiceImpl implements PaymentService, MeterBinder {
+
+    static final String CASH_PROVIDER = "cash";
+
+    private final ExecutorService executor;
+    private final Map<String, ResilientGateway> providers = new LinkedHashMap<>();
+    private final Map<PaymentMethod, List<ResilientGateway>> routes = new EnumMap<>(PaymentMethod.class);
+    private final Cache<String, String> pinnedProviders;
+    private final Map<String, Counter> failovers = new LinkedHashMap<>();
+
+    @Autowired
+    public PaymentServiceImpl(ObjectProvider<PaymentGateway> gateways,
+                              Environment environment,
+                              @Value("${pos.payment.retry.base-delay-ms:100}") long baseDelayMillis,
+                              @Value("${pos.payment.retry.max-delay-ms:1000}") long maxDelayMillis,
+                              @Value("${pos.payment.circuit.window-size:20}") int windowSize,
+                              @Value("${pos.payment.circuit.min-calls:10}") int minCalls,
+                              @Value("${pos.payment.circuit.failure-rate-percent:50}") int failureRatePercent,
+                              @Value("${pos.payment.circuit.open-ms:30000}") long openMillis,
+                              @Value("${pos.payment.circuit.half-open-calls:3}") int halfOpenCalls,
+                              @Value("${pos.payment.pin-ttl:1h}") Duration pinTtl) {
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("payment-", 0).factory());
+        this.pinnedProviders = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(pinTtl)
+                .build();
+
+        // 1. Wrap every enabled provider
+        gateways.orderedStream().forEach(gateway -> {
+            String prefix = "pos.payment." + gateway.getName() + ".";
+            CircuitBreaker breaker = new CircuitBreaker(windowSize, minCalls, failureRatePercent,
+                    TimeUnit.MILLISECONDS.toNanos(openMillis), halfOpenCalls, System::nanoTime);
+            providers.put(gateway.getName(), new ResilientGateway(gateway, executor, breaker,
+                    environment.getProperty(prefix + "max-concurrent", Integer.class, 50),
+                    environment.getProperty(prefix + "timeout-ms", Long.class, 5000L),
+                    environment.getProperty(prefix + "max-attempts", Integer.class, 3),
+                    baseDelayMillis, maxDelayMillis));
+        });
+
+        // 2. Routes: failover order per method, only providers that are enabled, support the method
+        //    and accept the same payment token as the first provider of the route
+        for (PaymentMethod method : PaymentMethod.values()) {
+            if (method == PaymentMethod.CASH) {
+                continue;
+            }
+            List<ResilientGateway> route = new ArrayList<>();
+            String configured = environment.getProperty(
+                    "pos.payment.routes." + method.name().toLowerCase(Locale.ROOT), "");
+            for (String name : configured.split(",")) {
+                ResilientGateway provider = providers.get(name.trim());
+                if (provider != null && provider.getGateway().supports(method)) {
+                    if (!route.isEmpty() && !route.get(0).getGateway().getTokenType()
+                            .equals(provider.getGateway().getTokenType())) {
+                        log.warn("Payment provider '{}' dropped from route for {}: it cannot charge a '{}' token",
+                                name.trim(), method, route.get(0).getGateway().getTokenType());
+                        continue;
+                    }
+                    route.add(provider);
+                } else if (!name.isBlank()) {
+                    log.warn("Payment provider '{}' in route for {} is not enabled or does not support it", name.trim(), method);
+                }
+            }
+            routes.put(method, List.copyOf(route));
+        }
+    }
+
+    /**
+     * Test / wiring constructor with ready-made providers and routes.
+     */
+    public PaymentServiceImpl(ExecutorService executor, List<ResilientGateway> providers,
+                              Map<PaymentMethod, List<ResilientGateway>> routes, Duration pinTtl) {
+        this.executor = executor;
+        providers.forEach(provider -> this.providers.put(provider.getName(), provider));
+        this.routes.putAll(routes);
+        this.pinnedProviders = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(pinTtl)
+                .build();
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> charge(PaymentRequest request) {
+        if (request.method() == PaymentMethod.CASH) {
+            return CompletableFuture.completedFuture(new PaymentResult(CASH_PROVIDER, null));
+        }
+        List<ResilientGateway> route = routeFor(request);
+        if (route.isEmpty()) {
+            return CompletableFuture.failedFuture(
+                    new PaymentException("No payment provider configured for " + request.method()));
+        }
+        return CompletableFuture.supplyAsync(() -> chargeWithFailover(route, request), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> refund(PaymentResult payment, PaymentRequest request) {
+        if (CASH_PROVIDER.equals(payment.provider())) {
+            // Cash is handed back at the counter
+            return CompletableFuture.completedFuture(null);
+        }
+        ResilientGateway provider = providers.get(payment.provider());
+        if (provider == null) {
+            return CompletableFuture.failedFuture(
+                    new PaymentException("Payment provider " + payment.provider() + " is not enabled"));
+        }
+        return CompletableFuture.runAsync(() -> {
+            try {
+                provider.refund(payment, request);
+            } catch (PaymentGatewayException e) {
+                throw new CompletionException(new PaymentException(ErrorCode.PAYMENT_FAILED,
+                        "Refund failed at " + provider.getName() + ": " + e.getMessage(), e));
+            }
+        }, executor);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (ResilientGateway provider : providers.values()) {
+            provider.bindTo(registry);
+            failovers.put(provider.getName(), Counter.builder("pos.payment.failovers")
+                    .tag("from", provider.getName())
+                    .register(registry));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Payment calls still running at shutdown");
+        }
+    }
+
+    /**
+     * Runs on a payment thread.
+     */
+    private PaymentResult chargeWithFailover(List<ResilientGateway> route, PaymentRequest request) {
+        for (int i = 0; i < route.size(); i++) {
+            ResilientGateway provider = route.get(i);
+            try {
+                return provider.charge(request);
+            } catch (PaymentGatewayException e) {
+                switch (e.getFailure()) {
+                    case NOT_SENT -> {
+                        if (i + 1 < route.size()) {
+                            log.warn("Payment provider {} unavailable ({}), failing over to {}",
+                                    provider.getName(), e.getMessage(), route.get(i + 1).getName());
+                            Counter counter = failovers.get(provider.getName());
+                            if (counter != null) {
+                                counter.increment();
+                            }
+                            continue;
+                        }
+                        throw failed("No payment provider available", e);
+                    }
+                    case RETRYABLE -> {
+                        pinnedProviders.put(request.idempotencyKey(), provider.getName());
+                        throw failed("Payment outcome unknown, retry the checkout with the same Idempotency-Key", e);
+                    }
+                    default -> throw failed("Payment declined", e);
+                }
+            }
+        }
+        throw failed("No payment provider available", null);
+    }
+
+    private List<ResilientGateway> routeFor(PaymentRequest request) {
+        String pinned = pinnedProviders.getIfPresent(request.idempotencyKey());
+        if (pinned != null && providers.containsKey(pinned)) {
+            return List.of(providers.get(pinned));
+        }
+        return routes.getOrDefault(request.method(), List.of());
+    }
+
+    private static CompletionException failed(String message, PaymentGatewayException cause) {
+        String detail = cause == null ? message : message + ": " + cause.getMessage();
+        return new CompletionException(new PaymentException(ErrorCode.PAYMENT_FAILED, detail, cause));
+    }
+}
@@ -0,0 +1,363 @@
+package com.shu.service.payment.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shu.constant.ErrorCode;
+import com.shu.domain.PaymentEventType;
+import com.shu.exceptions.PaymentException;
+import com.shu.journal.JournalEntry;
+import com.shu.journal.SegmentedJournal;
+import com.shu.model.entity.JournalCheckpoint;
+import com.shu.model.entity.PaymentEvent;
+import com.shu.repository.JournalCheckpointRepository;
+import com.shu.repository.PaymentEventRepository;
+import com.shu.service.payment.PaymentWebhookService;
+import com.shu.service.payment.webhook.WebhookEvent;
+import com.shu.service.payment.webhook.WebhookVerifier;
+import com.shu.service.reporting.SalesRollupService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * PaymentWebhookServiceImpl
+ *
+ * Webhook ingestion: acknowledge fast, de-duplicate and apply in batches.
+ *
+ * Why?
+ * - Providers redeliver a webhook until they get a 2xx quickly, and end-of-day settlement sends
+ *   thousands at once. A DB transaction per delivery makes the endpoint slow, which causes more redeliveries.
+ *
+ * How it works:
+ * 1. receive : signature check, then one (group-committed) append to a local journal → 2xx.
+ *              Events already known to the seen-set are acknowledged without being journaled again.
+ * 2. consume (scheduled): journal records after the checkpoint are de-duplicated by (provider, event id):
+ *              - within the batch and against the seen-set (bounded, most recent event ids),
+ *              - against the payment_event table (the seen-set is bounded and empty after a restart),
+ *              - the unique key on payment_event is the backstop (another node consuming the same event).
+ *              New events are inserted (JDBC batch), full refunds mark their order REFUNDED (JDBC batch)
+ *              and correct the sales rollups, and the checkpoint moves, all in one transaction.
+ *              Then persisted journal segments are deleted.
+ * 3. replay  : re-parses stored events of a provider and re-applies them (the state changes are idempotent).
+ *
+ * A failed batch stays in the journal and is retried by the next run. Every node consumes its own journal:
+ * the checkpoint is keyed by the journal id, so a node never skips records because another node's
+ * checkpoint is further ahead. A journal that ends before its checkpoint (restored from an old copy)
+ * is moved past it on startup.
+ *
+ * Metrics ("pos.payment.webhooks.*"):
+ * - received, duplicates, rejected and applied counts, journal lag (records not yet consumed).
+ */
+@Slf4j
+@Service
+public class PaymentWebhookServiceImpl implements PaymentWebhookService, SmartInitializingSingleton, MeterBinder {
+
+    static final String JOURNAL_NAME = "payment-webhooks";
+
+    private static final String COMPLETED_ORDER_SQL =
+            "SELECT id FROM orders WHERE payment_provider = ? AND payment_reference = ? AND status = 'COMPLETED'";
+
+    // Only a completed order can be refunded: a redelivered refund (or another node) changes nothing
+    private static final String REFUND_SQL =
+            "UPDATE orders SET status = 'REFUNDED' WHERE id = ? AND status = 'COMPLETED'";
+
+    private final Map<String, WebhookVerifier> verifiers = new HashMap<>();
+    private final PaymentEventRepository paymentEventRepository;
+    private final JournalCheckpointRepository checkpointRepository;
+    private final SalesRollupService salesRollupService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final SegmentedJournal journal;
+    private final String checkpointKey;
+    private final int batchSize;
+    private final Cache<String, Boolean> seen;
+
+    private final ReentrantLock consumeLock = new ReentrantLock();
+    private volatile long checkpointLsn;
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+
+    public PaymentWebhookServiceImpl(ObjectProvider<WebhookVerifier> verifiers,
+                                     PaymentEventRepository paymentEventRepository,
+                                     JournalCheckpointRepository checkpointRepository,
+                                     SalesRollupService salesRollupService,
+                                     JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     @Value("${pos.payment.webhook.journal.dir:./data/journal/payment-webhooks}") Path journalDir,
+                                     @Value("${pos.payment.webhook.journal.segment-bytes:16777216}") long segmentBytes,
+                                     @Value("${pos.payment.webhook.journal.fsync:true}") boolean fsync,
+                                     @Value("${pos.payment.webhook.batch-size:500}") int batchSize,
+                                     @Value("${pos.payment.webhook.seen-set-size:200000}") long seenSetSize) {
+        verifiers.orderedStream().forEach(verifier -> this.verifiers.put(verifier.getProvider(), verifier));
+        this.paymentEventRepository = paymentEventRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.salesRollupService = salesRollupService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.journal = new SegmentedJournal(journalDir, segmentBytes, fsync);
+        this.checkpointKey = JOURNAL_NAME + ":" + journal.getId();
+        this.batchSize = batchSize;
+        this.seen = Caffeine.newBuilder()
+                .maximumSize(seenSetSize)
+                .build();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        checkpointLsn = checkpointRepository.findById(checkpointKey)
+                .map(JournalCheckpoint::getLsn)
+                .orElse(0L);
+        long journalEnd = journal.getDurableLsn();
+        if (journal.skipTo(checkpointLsn)) {
+            // Otherwise new webhooks would get LSNs <= checkpoint: acknowledged, but never consumed
+            log.warn("Payment webhook journal ends at LSN {} but MySQL is at {} (journal directory wiped or replaced?): "
+                    + "new webhooks continue at LSN {}", journalEnd, checkpointLsn, checkpointLsn + 1);
+        }
+        log.info("Payment webhook journal: {} records to consume, providers {}", getJournalLag(), verifiers.keySet());
+    }
+
+    @Override
+    public void receive(String provider, String payload, HttpHeaders headers) throws PaymentException {
+        WebhookVerifier verifier = verifier(provider);
+        WebhookEvent event;
+        try {
+            event = verifier.verify(payload, headers);
+        } catch (PaymentException e) {
+            rejected.increment();
+            throw e;
+        }
+        received.increment();
+        if (seen.getIfPresent(event.dedupeKey()) != null) {
+            // Redelivery of an event that is already persisted: acknowledge, nothing to do
+            duplicates.increment();
+            return;
+        }
+        journal.append(event.encode());
+    }
+
+    /**
+     * Periodic consumption of journaled webhooks.
+     */
+    @Scheduled(fixedDelayString = "${pos.payment.webhook.consume-interval-ms:200}")
+    public void scheduledConsume() {
+        consume();
+    }
+
+    /**
+     * Consume everything journaled so far before the DataSource goes away.
+     */
+    @PreDestroy
+    public void consumeOnShutdown() {
+        int consumed = consume();
+        if (consumed > 0) {
+            log.info("Consumed {} payment webhook records on shutdown", consumed);
+        }
+        journal.close();
+    }
+
+    /**
+     * Applies journal records after the checkpoint, {@code batchSize} records per transaction.
+     *
+     * @return number of journal records consumed (duplicates included)
+     */
+    public int consume() {
+        consumeLock.lock();
+        try {
+            int consumed = 0;
+            while (true) {
+                List<JournalEntry> entries = journal.read(checkpointLsn + 1, batchSize);
+                if (entries.isEmpty()) {
+                    return consumed;
+                }
+                long lastLsn = entries.get(entries.size() - 1).lsn();
+
+                // 1. Drop redeliveries within the batch and those seen recently
+                Map<String, PendingEvent> fresh = new LinkedHashMap<>();
+                for (JournalEntry entry : entries) {
+                    WebhookEvent event = WebhookEvent.decode(entry.payload());
+                    if (seen.getIfPresent(event.dedupeKey()) != null
+                            || fresh.putIfAbsent(event.dedupeKey(), new PendingEvent(event, entry.lsn())) != null) {
+                        duplicates.increment();
+                    }
+                }
+
+                // 2. Persist and apply the rest
+                try {
+                    transactionTemplate.executeWithoutResult(status -> persist(fresh, lastLsn));
+                } catch (RuntimeException e) {
+                    log.warn("Payment webhook batch LSN {}..{} failed, will retry", entries.get(0).lsn(), lastLsn, e);
+                    return consumed;
+                }
+                checkpointLsn = lastLsn;
+                journal.deleteUpTo(lastLsn);
+                fresh.keySet().forEach(key -> seen.put(key, Boolean.TRUE));
+                consumed += entries.size();
+                if (entries.size() < batchSize) {
+                    return consumed;
+                }
+            }
+        } finally {
+            consumeLock.unlock();
+        }
+    }
+
+    @Override
+    public int replay(String provider, LocalDateTime from, LocalDateTime to) throws PaymentException {
+        WebhookVerifier verifier = verifier(provider);
+        int replayed = 0;
+        int page = 0;
+        while (true) {
+            int pageNumber = page++;
+            Slice<PaymentEvent> slice = transactionTemplate.execute(status -> {
+                Slice<PaymentEvent> events = paymentEventRepository.findByProviderAndReceivedAtBetweenOrderById(
+                        provider, from, to, PageRequest.of(pageNumber, batchSize));
+                List<WebhookEvent> reparsed = new ArrayList<>(events.getNumberOfElements());
+                for (PaymentEvent stored : events) {
+                    WebhookEvent event = verifier.parse(stored.getEventId(), stored.getPayload(),
+                            toMillis(stored.getReceivedAt()));
+                    // Managed entity: a changed mapping is written back on commit
+                    stored.setType(event.type());
+                    stored.setPaymentReference(event.paymentReference());
+                    reparsed.add(event);
+                }
+                applyRefunds(reparsed);
+                return events;
+            });
+            replayed += slice.getNumberOfElements();
+            if (!slice.hasNext()) {
+                log.info("Replayed {} {} webhook events received between {} and {}", replayed, provider, from, to);
+                return replayed;
+            }
+        }
+    }
+
+    /**
+     * @return journal records not yet consumed
+     */
+    public long getJournalLag() {
+        return Math.max(0, journal.getDurableLsn() - checkpointLsn);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("pos.payment.webhooks.received", received, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("pos.payment.webhooks.duplicates", duplicates, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("pos.payment.webhooks.rejected", rejected, LongAdder::sum)
+                .register(registry);
+        FunctionCounter.builder("pos.payment.webhooks.applied", applied, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("pos.payment.webhooks.journal.lag", this, PaymentWebhookServiceImpl::getJournalLag)
+                .register(registry);
+    }
+
+    /**
+     * One transaction: new payment_event rows, order refunds and the checkpoint.
+     */
+    private void persist(Map<String, PendingEvent> fresh, long lastLsn) {
+        // 1. Events persisted before (seen-set evicted or lost on restart)
+        Map<String, List<String>> idsByProvider = new HashMap<>();
+        fresh.values().forEach(pending -> idsByProvider
+                .computeIfAbsent(pending.event().provider(), p -> new ArrayList<>())
+                .add(pending.event().eventId()));
+        Map<String, Set<String>> existing = new HashMap<>();
+        idsByProvider.forEach((provider, ids) ->
+                existing.put(provider, paymentEventRepository.findExistingEventIds(provider, ids)));
+
+        // 2. Insert the new ones and apply them
+        List<PaymentEvent> rows = new ArrayList<>(fresh.size());
+        List<WebhookEvent> events = new ArrayList<>(fresh.size());
+        for (PendingEvent pending : fresh.values()) {
+            WebhookEvent event = pending.event();
+            if (existing.get(event.provider()).contains(event.eventId())) {
+                duplicates.increment();
+                continue;
+            }
+            rows.add(new PaymentEvent(event.provider(), event.eventId(), event.type(), event.paymentReference(),
+                    event.payload(), pending.lsn(), toDateTime(event.receivedAtMillis())));
+            events.add(event);
+        }
+        paymentEventRepository.saveAll(rows);
+        paymentEventRepository.flush();
+        applyRefunds(events);
+
+        checkpointRepository.save(new JournalCheckpoint(checkpointKey, lastLsn));
+        applied.add(events.size());
+    }
+
+    /**
+     * Marks the orders of full refunds REFUNDED and corrects the sales rollups of the orders actually changed.
+     */
+    private void applyRefunds(List<WebhookEvent> events) {
+        List<Long> orderIds = new ArrayList<>();
+        for (WebhookEvent event : events) {
+            if (event.type() == PaymentEventType.REFUNDED && event.paymentReference() != null) {
+                orderIds.addAll(jdbcTemplate.queryForList(COMPLETED_ORDER_SQL, Long.class,
+                        event.provider(), event.paymentReference()));
+            }
+        }
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        // One statement per order, not a batch: a rewritten batch reports SUCCESS_NO_INFO instead of
+        // row counts, and an order refunded meanwhile (0 rows) must not be corrected twice.
+        // Refunds are rare, so the extra round trips don't matter.
+        List<Long> refunded = new ArrayList<>(orderIds.size());
+        for (Long orderId : orderIds) {
+            if (jdbcTemplate.update(REFUND_SQL, orderId) > 0) {
+                refunded.add(orderId);
+            }
+        }
+        salesRollupService.recordRefunds(refunded);
+    }
+
+    private WebhookVerifier verifier(String provider) {
+        WebhookVerifier verifier = verifiers.get(provider);
+        if (verifier == null) {
+            throw new PaymentException(ErrorCode.UNKNOWN_WEBHOOK_PROVIDER, "No payment provider " + provider + " enabled");
+        }
+        return verifier;
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record PendingEvent(WebhookEvent event, long lsn) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.shu.service.payment.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+import com.shu.constant.ErrorCode;
+import com.shu.domain.PaymentEventType;
+import com.shu.exceptions.PaymentException;
+import com.shu.service.payment.gateway.RazorpayPaymentGateway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * RazorpayWebhookVerifier
+ *
+ * - Signature: "X-Razorpay-Signature" header (HMAC-SHA256 of the body), checked with the webhook secret.
+ * - Event id: "X-Razorpay-Event-Id" header (the same on every redelivery).
+ * - The payment is "payload.payment.entity.id", or "payload.refund.entity.payment_id" for refunds.
+ *   Partial refunds (payment refund_status "partial") are stored as OTHER.
+ */
+@Component
+@ConditionalOnProperty(name = "pos.payment.razorpay.enabled", havingValue = "true")
+public class RazorpayWebhookVerifier implements WebhookVerifier {
+
+    static final String SIGNATURE_HEADER = "X-Razorpay-Signature";
+    static final String EVENT_ID_HEADER = "X-Razorpay-Event-Id";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String webhookSecret;
+
+    public RazorpayWebhookVerifier(@Value("${pos.payment.razorpay.webhook-secret}") String webhookSecret) {
+        this.webhookSecret = webhookSecret;
+    }
+
+    @Override
+    public String getProvider() {
+        return RazorpayPaymentGateway.NAME;
+    }
+
+    @Override
+    public WebhookEvent verify(String payload, HttpHeaders headers) throws PaymentException {
+        String signature = headers.getFirst(SIGNATURE_HEADER);
+        String eventId = headers.getFirst(EVENT_ID_HEADER);
+        if (signature == null || eventId == null) {
+            throw new PaymentException(ErrorCode.INVALID_WEBHOOK,
+                    "Missing " + SIGNATURE_HEADER + " or " + EVENT_ID_HEADER + " header");
+        }
+        boolean valid;
+        try {
+            valid = Utils.verifyWebhookSignature(payload, signature, webhookSecret);
+        } catch (RazorpayException e) {
+            valid = false;
+        }
+        if (!valid) {
+            throw new PaymentException(ErrorCode.INVALID_WEBHOOK, "Invalid Razorpay signature");
+        }
+        return parse(eventId, payload, System.currentTimeMillis());
+    }
+
+    @Override
+    public WebhookEvent parse(String eventId, String payload, long receivedAtMillis) {
+        JsonNode event;
+        try {
+            event = JSON.readTree(payload);
+        } catch (IOException e) {
+            throw new PaymentException(ErrorCode.INVALID_WEBHOOK, "Razorpay webhook is not JSON", e);
+        }
+        JsonNode entities = event.path("payload");
+        return switch (event.path("event").asText()) {
+            case "payment.captured" -> new WebhookEvent(getProvider(), eventId, PaymentEventType.CAPTURED,
+                    entities.path("payment").path("entity").path("id").asText(null), payload, receivedAtMillis);
+            case "payment.failed" -> new WebhookEvent(getProvider(), eventId, PaymentEventType.FAILED,
+                    entities.path("payment").path("entity").path("id").asText(null), payload, receivedAtMillis);
+            // Also sent for partial refunds: only a full refund changes the order
+            case "refund.processed" -> new WebhookEvent(getProvider(), eventId,
+                    "partial".equals(entities.path("payment").path("entity").path("refund_status").asText())
+                            ? PaymentEventType.OTHER : PaymentEventType.REFUNDED,
+                    entities.path("refund").path("entity").path("payment_id").asText(null), payload, receivedAtMillis);
+            default -> new WebhookEvent(getProvider(), eventId, PaymentEventType.OTHER, null, payload, receivedAtMillis);
+        };
+    }
+}
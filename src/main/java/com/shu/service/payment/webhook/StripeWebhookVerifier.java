@@ -0,0 +1,94 @@
+package com.shu.service.payment.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shu.constant.ErrorCode;
+import com.shu.domain.PaymentEventType;
+import com.shu.exceptions.PaymentException;
+import com.shu.service.payment.gateway.StripePaymentGateway;
+import com.stripe.exception.SignatureVerificationException;
+import com.stripe.net.Webhook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * StripeWebhookVerifier
+ *
+ * - Signature: "Stripe-Signature" header (HMAC-SHA256 over timestamp + body), checked with the endpoint secret.
+ *   Deliveries older than the tolerance are rejected (replayed captures of the request).
+ * - Event id: "id" of the event object; the payment is "data.object.id" of a PaymentIntent event,
+ *   or "data.object.payment_intent" of a Charge event. Partial refunds are stored as OTHER.
+ */
+@Component
+@ConditionalOnProperty(name = "pos.payment.stripe.enabled", havingValue = "true")
+public class StripeWebhookVerifier implements WebhookVerifier {
+
+    static final String SIGNATURE_HEADER = "Stripe-Signature";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String webhookSecret;
+    private final long toleranceSeconds;
+
+    public StripeWebhookVerifier(@Value("${pos.payment.stripe.webhook-secret}") String webhookSecret,
+                                 @Value("${pos.payment.stripe.webhook-tolerance-seconds:300}") long toleranceSeconds) {
+        this.webhookSecret = webhookSecret;
+        this.toleranceSeconds = toleranceSeconds;
+    }
+
+    @Override
+    public String getProvider() {
+        return StripePaymentGateway.NAME;
+    }
+
+    @Override
+    public WebhookEvent verify(String payload, HttpHeaders headers) throws PaymentException {
+        String signature = headers.getFirst(SIGNATURE_HEADER);
+        if (signature == null) {
+            throw new PaymentException(ErrorCode.INVALID_WEBHOOK, "Missing " + SIGNATURE_HEADER + " header");
+        }
+        try {
+            Webhook.Signature.verifyHeader(payload, signature, webhookSecret, toleranceSeconds);
+        } catch (SignatureVerificationException e) {
+            throw new PaymentException(ErrorCode.INVALID_WEBHOOK, "Invalid Stripe signature", e);
+        }
+        JsonNode event = read(payload);
+        return toEvent(event.path("id").asText(), event, payload, System.currentTimeMillis());
+    }
+
+    @Override
+    public WebhookEvent parse(String eventId, String payload, long receivedAtMillis) {
+        return toEvent(eventId, read(payload), payload, receivedAtMillis);
+    }
+
+    private WebhookEvent toEvent(String eventId, JsonNode event, String payload, long receivedAtMillis) {
+        if (eventId.isEmpty()) {
+            throw new PaymentException(ErrorCode.INVALID_WEBHOOK, "Stripe event without id");
+        }
+        JsonNode object = event.path("data").path("object");
+        String type = event.path("type").asText();
+        return switch (type) {
+            case "payment_intent.succeeded" -> new WebhookEvent(getProvider(), eventId, PaymentEventType.CAPTURED,
+                    object.path("id").asText(null), payload, receivedAtMillis);
+            case "payment_intent.payment_failed" -> new WebhookEvent(getProvider(), eventId, PaymentEventType.FAILED,
+                    object.path("id").asText(null), payload, receivedAtMillis);
+            // Also sent for partial refunds: only a full refund changes the order
+            case "charge.refunded" -> new WebhookEvent(getProvider(), eventId,
+                    object.path("refunded").asBoolean() ? PaymentEventType.REFUNDED : PaymentEventType.OTHER,
+                    object.path("payment_intent").asText(null), payload, receivedAtMillis);
+            default -> new WebhookEvent(getProvider(), eventId, PaymentEventType.OTHER, null, payload, receivedAtMillis);
+        };
+    }
+
+    private static JsonNode read(String payload) {
+        try {
+            return JSON.readTree(payload);
+        } catch (IOException e) {
+            throw new PaymentException(ErrorCode.INVALID_WEBHOOK, "Stripe webhook is not JSON", e);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.shu.service.payment.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shu.constant.ErrorCode;
+import com.shu.domain.PaymentEventType;
+import com.shu.exceptions.PaymentException;
+import com.shu.service.payment.gateway.StubPaymentGateway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * StubWebhookVerifier
+ *
+ * Webhooks of the local stub provider, for offline load tests of the ingestion path.
+ *
+ * - Signature: "X-Stub-Signature" header, hex HMAC-SHA256 of the body (see {@link #sign(String, String)}).
+ * - Body: {"id": "evt_1", "type": "captured|failed|refunded", "payment": "stub_..."}.
+ */
+@Component
+@ConditionalOnProperty(name = "pos.payment.stub.enabled", havingValue = "true")
+public class StubWebhookVerifier implements WebhookVerifier {
+
+    public static final String SIGNATURE_HEADER = "X-Stub-Signature";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final String webhookSecret;
+
+    public StubWebhookVerifier(@Value("${pos.payment.stub.webhook-secret:stub-secret}") String webhookSecret) {
+        this.webhookSecret = webhookSecret;
+    }
+
+    /**
+     * @return the signature header value for a body, as the stub provider would send it
+     */
+    public static String sign(String secret, String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    @Override
+    public String getProvider() {
+        return StubPaymentGateway.NAME;
+    }
+
+    @Override
+    public WebhookEvent verify(String payload, HttpHeaders headers) throws PaymentException {
+        String signature = headers.getFirst(SIGNATURE_HEADER);
+        // Constant-time comparison: no timing hint about how much of a forged signature matched
+        if (signature == null || !MessageDigest.isEqual(
+                signature.getBytes(StandardCharsets.UTF_8),
+                sign(webhookSecret, payload).getBytes(StandardCharsets.UTF_8))) {
+            throw new PaymentException(ErrorCode.INVALID_WEBHOOK, "Invalid stub signature");
+        }
+        return parse(null, payload, System.currentTimeMillis());
+    }
+
+    @Override
+    public WebhookEvent parse(String eventId, String payload, long receivedAtMillis) {
+        JsonNode event;
+        try {
+            event = JSON.readTree(payload);
+        } catch (IOException e) {
+            throw new PaymentException(ErrorCode.INVALID_WEBHOOK, "Stub webhook is not JSON", e);
+        }
+        String id = eventId != null ? eventId : event.path("id").asText();
+        if (id.isEmpty()) {
+            throw new PaymentException(ErrorCode.INVALID_WEBHOOK, "Stub event without id");
+        }
+        PaymentEventType type = switch (event.path("type").asText()) {
+            case "captured" -> PaymentEventType.CAPTURED;
+            case "failed" -> PaymentEventType.FAILED;
+            case "refunded" -> PaymentEventType.REFUNDED;
+            default -> PaymentEventType.OTHER;
+        };
+        return new WebhookEvent(getProvider(), id, type, event.path("payment").asText(null), payload, receivedAtMillis);
+    }
+}
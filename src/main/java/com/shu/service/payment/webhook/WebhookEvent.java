@@ -0,0 +1,78 @@
+package com.shu.service.payment.webhook;
+
+import com.shu.domain.PaymentEventType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Signature-checked provider webhook, as written to the webhook journal.
+ *
+ * @param provider         provider name ("stripe", "razorpay", "stub")
+ * @param eventId          provider event id (the de-duplication key, together with the provider)
+ * @param type             normalized event type
+ * @param paymentReference provider payment id the event is about (may be null)
+ * @param payload          raw request body
+ * @param receivedAtMillis when the webhook was received
+ */
+public record WebhookEvent(String provider, String eventId, PaymentEventType type, String paymentReference,
+                           String payload, long receivedAtMillis) {
+
+    private static final byte VERSION = 1;
+
+    /**
+     * @return key of the seen-set: provider + event id
+     */
+    public String dedupeKey() {
+        return provider + ':' + eventId;
+    }
+
+    /**
+     * @return journal payload: [version][received][provider][eventId][type][reference][payload length][payload]
+     */
+    public byte[] encode() {
+        try {
+            byte[] body = payload.getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + body.length);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            out.writeLong(receivedAtMillis);
+            out.writeUTF(provider);
+            out.writeUTF(eventId);
+            out.writeByte(type.ordinal());
+            out.writeUTF(paymentReference == null ? "" : paymentReference);
+            // Bodies can exceed writeUTF's 64 KB limit
+            out.writeInt(body.length);
+            out.write(body);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static WebhookEvent decode(byte[] record) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unknown webhook record version " + version);
+            }
+            long receivedAt = in.readLong();
+            String provider = in.readUTF();
+            String eventId = in.readUTF();
+            PaymentEventType type = PaymentEventType.values()[in.readByte()];
+            String reference = in.readUTF();
+            byte[] body = new byte[in.readInt()];
+            in.readFully(body);
+            return new WebhookEvent(provider, eventId, type, reference.isEmpty() ? null : reference,
+                    new String(body, StandardCharsets.UTF_8), receivedAt);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.shu.service.payment.webhook;
+
+import com.shu.exceptions.PaymentException;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Signature check and parsing of one provider's webhooks.
+ *
+ * Implementations are Spring beans, enabled together with the provider (pos.payment.<provider>.enabled).
+ */
+public interface WebhookVerifier {
+
+    /**
+     * @return provider name, the last path segment of the webhook URL
+     */
+    String getProvider();
+
+    /**
+     * Checks the signature of a delivery and parses it.
+     *
+     * @param payload raw request body, exactly as received (the signature covers the bytes)
+     * @param headers request headers (signature, event id)
+     * @return the parsed event, received now
+     * @throws PaymentException (ErrorCode.INVALID_WEBHOOK) when the signature does not match
+     */
+    WebhookEvent verify(String payload, HttpHeaders headers) throws PaymentException;
+
+    /**
+     * Parses an already verified payload again (replay), without a signature check.
+     *
+     * @param eventId          provider event id as stored
+     * @param payload          raw body as stored
+     * @param receivedAtMillis original receive time
+     */
+    WebhookEvent parse(String eventId, String payload, long receivedAtMillis);
+}
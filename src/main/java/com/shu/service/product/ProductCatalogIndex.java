@@ -0,0 +1,318 @@
+package com.shu.service.product;
+
+import com.shu.model.dto.ProductDto;
+import com.shu.util.LongObjectHashMap;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * ProductCatalogIndex
+ *
+ * In-memory read index of active products, keyed by id, barcode and SKU.
+ *
+ * Why?
+ * - A barcode scan is the most latency-sensitive call of the till. Going to MySQL for
+ *   every scan costs a connection checkout and a network round-trip.
+ *
+ * How it works:
+ * - Numeric barcodes (EAN-8/13, UPC-A, internal codes up to 18 digits) are parsed into a long
+ *   and stored in a {@link LongObjectHashMap}: the lookup parses the string in place and allocates nothing.
+ *   Other barcodes go to a small String map.
+ * - SKUs are keyed by a 64-bit case-insensitive hash computed without creating a new String;
+ *   the hit is verified against the stored SKU. Hash collisions (practically never) go to a String map.
+ * - Reads use a {@link StampedLock} optimistic read (no lock, no CAS on the hot path) and only
+ *   fall back to a read lock when a write happened at the same time.
+ * - Writers (startup load, incremental refresh) take the write lock for one product at a time.
+ *
+ * The index only holds active products. Callers fall back to the database on a miss
+ * (see ProductServiceImpl).
+ *
+ * Metrics: "pos.catalog.index.size", "pos.catalog.index.lookups{key=barcode|sku,result=hit|miss}".
+ */
+@Component
+public class ProductCatalogIndex implements MeterBinder {
+
+    private static final int MAX_NUMERIC_BARCODE_DIGITS = 18;
+
+    private final StampedLock lock = new StampedLock();
+
+    private final LongObjectHashMap<ProductDto> byId = new LongObjectHashMap<>(1024);
+    private final LongObjectHashMap<ProductDto> byNumericBarcode = new LongObjectHashMap<>(1024);
+    private final LongObjectHashMap<ProductDto> bySkuHash = new LongObjectHashMap<>(1024);
+    private final Map<String, ProductDto> byTextBarcode = new HashMap<>();
+    private final Map<String, ProductDto> bySkuCollision = new HashMap<>();
+
+    private final LongAdder barcodeHits = new LongAdder();
+    private final LongAdder barcodeMisses = new LongAdder();
+    private final LongAdder skuHits = new LongAdder();
+    private final LongAdder skuMisses = new LongAdder();
+
+    /**
+     * @param barcode scanned barcode
+     * @return the active product, or null when it is not indexed
+     */
+    public ProductDto findByBarcode(String barcode) {
+        ProductDto product = barcode == null ? null : lookupBarcode(barcode);
+        (product != null ? barcodeHits : barcodeMisses).increment();
+        return product;
+    }
+
+    /**
+     * @param sku SKU code (case-insensitive)
+     * @return the active product, or null when it is not indexed
+     */
+    public ProductDto findBySku(String sku) {
+        ProductDto product = sku == null ? null : lookupSku(sku);
+        (product != null ? skuHits : skuMisses).increment();
+        return product;
+    }
+
+    /**
+     * @param productId product id (cart lines, checkout pricing)
+     * @return the active product, or null when it is not indexed
+     */
+    public ProductDto findById(long productId) {
+        long stamp = lock.tryOptimisticRead();
+        ProductDto product = byId.get(productId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                product = byId.get(productId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return product;
+    }
+
+    /**
+     * Adds or replaces a product. Inactive products are removed instead.
+     */
+    public void upsert(ProductDto product) {
+        long stamp = lock.writeLock();
+        try {
+            removeUnlocked(product.getId());
+            if (product.isActive()) {
+                addUnlocked(product);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Adds or replaces many products under one write lock (startup load).
+     */
+    public void upsertAll(Collection<ProductDto> products) {
+        long stamp = lock.writeLock();
+        try {
+            for (ProductDto product : products) {
+                removeUnlocked(product.getId());
+                if (product.isActive()) {
+                    addUnlocked(product);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void remove(long productId) {
+        long stamp = lock.writeLock();
+        try {
+            removeUnlocked(productId);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return byId.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("pos.catalog.index.size", this, ProductCatalogIndex::size)
+                .register(registry);
+        lookups(registry, "barcode", "hit", barcodeHits);
+        lookups(registry, "barcode", "miss", barcodeMisses);
+        lookups(registry, "sku", "hit", skuHits);
+        lookups(registry, "sku", "miss", skuMisses);
+    }
+
+    private static void lookups(MeterRegistry registry, String key, String result, LongAdder counter) {
+        FunctionCounter.builder("pos.catalog.index.lookups", counter, LongAdder::sum)
+                .tags("key", key, "result", result)
+                .register(registry);
+    }
+
+    // ------------------------------------------------------------------ reads
+
+    private ProductDto lookupBarcode(String barcode) {
+        long numeric = parseNumericBarcode(barcode);
+
+        long stamp = lock.tryOptimisticRead();
+        ProductDto product = readBarcode(barcode, numeric);
+        if (!lock.validate(stamp)) {
+            // A writer was active: read again under the lock
+            stamp = lock.readLock();
+            try {
+                product = readBarcode(barcode, numeric);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return product;
+    }
+
+    private ProductDto readBarcode(String barcode, long numeric) {
+        if (numeric >= 0) {
+            return byNumericBarcode.get(numeric);
+        }
+        try {
+            return byTextBarcode.get(barcode);
+        } catch (RuntimeException e) {
+            // HashMap read raced with a resize during an optimistic read; the stamp check will retry
+            return null;
+        }
+    }
+
+    private ProductDto lookupSku(String sku) {
+        long hash = skuHash(sku);
+
+        long stamp = lock.tryOptimisticRead();
+        ProductDto product = readSku(sku, hash);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                product = readSku(sku, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return product;
+    }
+
+    private ProductDto readSku(String sku, long hash) {
+        ProductDto product = bySkuHash.get(hash);
+        if (product != null && product.getSku().equalsIgnoreCase(sku)) {
+            return product;
+        }
+        if (bySkuCollision.isEmpty()) {
+            return null;
+        }
+        try {
+            return bySkuCollision.get(sku.toUpperCase(Locale.ROOT));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    // ----------------------------------------------------------------- writes
+
+    private void addUnlocked(ProductDto product) {
+        byId.put(product.getId(), product);
+
+        String barcode = product.getBarcode();
+        if (barcode != null) {
+            long numeric = parseNumericBarcode(barcode);
+            if (numeric >= 0) {
+                byNumericBarcode.put(numeric, product);
+            } else {
+                byTextBarcode.put(barcode, product);
+            }
+        }
+
+        long hash = skuHash(product.getSku());
+        ProductDto existing = bySkuHash.get(hash);
+        if (existing == null || existing.getSku().equalsIgnoreCase(product.getSku())) {
+            bySkuHash.put(hash, product);
+        } else {
+            bySkuCollision.put(product.getSku().toUpperCase(Locale.ROOT), product);
+        }
+    }
+
+    private void removeUnlocked(long productId) {
+        ProductDto product = byId.remove(productId);
+        if (product == null) {
+            return;
+        }
+
+        // Only drop keys still pointing at this product (another product may have taken the barcode meanwhile)
+        String barcode = product.getBarcode();
+        if (barcode != null) {
+            long numeric = parseNumericBarcode(barcode);
+            if (numeric >= 0) {
+                if (sameProduct(byNumericBarcode.get(numeric), product)) {
+                    byNumericBarcode.remove(numeric);
+                }
+            } else {
+                byTextBarcode.remove(barcode, product);
+            }
+        }
+
+        long hash = skuHash(product.getSku());
+        ProductDto indexed = bySkuHash.get(hash);
+        if (sameProduct(indexed, product)) {
+            bySkuHash.remove(hash);
+        } else {
+            bySkuCollision.remove(product.getSku().toUpperCase(Locale.ROOT), product);
+        }
+    }
+
+    private static boolean sameProduct(ProductDto indexed, ProductDto product) {
+        return indexed != null && indexed.getId().equals(product.getId());
+    }
+
+    // ---------------------------------------------------------------- helpers
+
+    /**
+     * Parses an all-digit barcode without allocating.
+     * A leading "1" marker keeps codes that differ only in leading zeros apart
+     * (e.g. UPC "012345678905" vs EAN "0012345678905").
+     *
+     * @return the numeric key, or -1 when the barcode is not purely numeric / too long
+     */
+    static long parseNumericBarcode(String barcode) {
+        int length = barcode.length();
+        if (length == 0 || length > MAX_NUMERIC_BARCODE_DIGITS) {
+            return -1;
+        }
+        long value = 1;
+        for (int i = 0; i < length; i++) {
+            char c = barcode.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * 64-bit FNV-1a over the upper-cased characters, computed in place.
+     */
+    static long skuHash(String sku) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < sku.length(); i++) {
+            hash ^= Character.toUpperCase(sku.charAt(i));
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+}
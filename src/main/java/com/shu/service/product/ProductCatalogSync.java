@@ -0,0 +1,110 @@
+package com.shu.service.product;
+
+import com.shu.mapper.ProductMapper;
+import com.shu.model.dto.ProductDto;
+import com.shu.model.entity.Product;
+import com.shu.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ProductCatalogSync
+ *
+ * Keeps {@link ProductCatalogIndex} (barcode / SKU) and {@link ProductSearchIndex} (name search)
+ * in line with the product table.
+ *
+ * 1. Startup: loads all active products in keyset pages once the application is ready.
+ * 2. Local changes: applies {@link ProductChangedEvent} after the transaction commits
+ *    (a rolled back change never reaches the index).
+ * 3. Changes made by other nodes: a scheduled delta query on updatedAt
+ *    (deactivation is an update, so it is picked up too).
+ * 4. Index misses: ProductServiceImpl hands products it found in the database to {@link #apply}.
+ */
+@Slf4j
+@Component
+public class ProductCatalogSync {
+
+    // Re-read a little before the last sync so rows committed late are not missed
+    private static final long DELTA_OVERLAP_SECONDS = 5;
+
+    private final ProductRepository productRepository;
+    private final ProductCatalogIndex catalogIndex;
+    private final ProductSearchIndex searchIndex;
+    private final int pageSize;
+
+    private volatile LocalDateTime lastSync;
+
+    public ProductCatalogSync(ProductRepository productRepository,
+                              ProductCatalogIndex catalogIndex,
+                              ProductSearchIndex searchIndex,
+                              @Value("${pos.catalog.index.load-page-size:1000}") int pageSize) {
+        this.productRepository = productRepository;
+        this.catalogIndex = catalogIndex;
+        this.searchIndex = searchIndex;
+        this.pageSize = pageSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        long start = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+
+        long lastId = 0;
+        Slice<Product> page;
+        do {
+            page = productRepository.findByActiveTrueAndIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, pageSize));
+            List<ProductDto> products = page.getContent().stream().map(ProductMapper::toDTO).toList();
+            catalogIndex.upsertAll(products);
+            searchIndex.upsertAll(products);
+            if (!products.isEmpty()) {
+                lastId = products.get(products.size() - 1).getId();
+            }
+        } while (page.hasNext());
+
+        lastSync = startedAt;
+        log.info("Catalog index loaded: {} products, {} search terms in {} ms",
+                catalogIndex.size(), searchIndex.termCount(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        apply(event.product());
+    }
+
+    @Scheduled(fixedDelayString = "${pos.catalog.index.refresh-interval-ms:30000}")
+    public void refreshChanged() {
+        LocalDateTime since = lastSync;
+        if (since == null) {
+            return;   // initial load not finished yet
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+
+        List<Product> changed = productRepository.findByUpdatedAtAfter(since.minusSeconds(DELTA_OVERLAP_SECONDS));
+        changed.forEach(product -> apply(ProductMapper.toDTO(product)));
+
+        lastSync = startedAt;
+        if (!changed.isEmpty()) {
+            log.debug("Catalog index refreshed {} changed products", changed.size());
+        }
+    }
+
+    /**
+     * Applies one product to both indexes (an inactive product is removed from them).
+     * Every index write goes through here so barcode lookups and name search never disagree.
+     */
+    public void apply(ProductDto product) {
+        catalogIndex.upsert(product);
+        searchIndex.upsert(product);
+    }
+}
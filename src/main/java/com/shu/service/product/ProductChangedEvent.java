@@ -0,0 +1,12 @@
+package com.shu.service.product;
+
+import com.shu.model.dto.ProductDto;
+
+/**
+ * Published by the product service whenever a product is created, updated or deactivated.
+ * Carries the committed state so listeners (catalog index, search index, ...) need no extra query.
+ *
+ * @param product snapshot of the product after the change ({@code active=false} when it was removed)
+ */
+public record ProductChangedEvent(ProductDto product) {
+}
@@ -0,0 +1,652 @@
+package com.shu.service.product;
+
+import com.shu.model.dto.ProductDto;
+import com.shu.util.IntList;
+import com.shu.util.LongObjectHashMap;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ProductSearchIndex
+ *
+ * In-process search-as-you-type index over product name, category and brand.
+ *
+ * Why?
+ * - {@code LIKE '%milk%'} cannot use an index: every keystroke at the till would scan the product table.
+ *
+ * Structure:
+ * - Vocabulary: every distinct lower-cased word, with two posting lists (products having it in the
+ *   name / in category or brand). A {@link TreeMap} over the words answers prefix queries.
+ * - Trigram index: word trigrams (with two leading pad characters) → word ids. Used to find
+ *   candidates for typo-tolerant matching (q-gram lemma: a word within k edits shares at least
+ *   |q| - 3k trigrams with the query term), then verified with a bounded edit distance.
+ *
+ * Query:
+ * 1. Split into terms; every term must match (AND), the last one is usually still being typed.
+ * 2. Each term matches vocabulary words by: exact (1.0) > prefix (0.6..0.9) > typo (0.25..0.45,
+ *    Damerau-Levenshtein against a prefix of the word, 1 edit from 5 chars, 2 from 9 chars).
+ * 3. Terms are applied rarest first; a product missing an earlier term is skipped for the next ones.
+ * 4. Product score = sum over terms of the best match, name matches weigh more than category/brand.
+ * 5. Top-N by score, then shorter name, then id.
+ *
+ * Scores are accumulated in dense arrays indexed by document ordinal; the arrays are pooled
+ * (not thread-local, so virtual threads do not each allocate their own).
+ *
+ * Updates are incremental (one product at a time) under a write lock; searches share a read lock.
+ * Only active products are indexed. Kept in sync by {@link ProductCatalogSync}.
+ *
+ * Metrics: "pos.catalog.search" (timer), "pos.catalog.search.terms", "pos.catalog.search.documents".
+ */
+@Component
+public class ProductSearchIndex implements MeterBinder {
+
+    public static final int MAX_QUERY_TERMS = 8;
+
+    private static final int MAX_PREFIX_EXPANSIONS = 1024;
+    private static final int MAX_FUZZY_WORD_LENGTH = 40;
+    private static final float NAME_WEIGHT = 1.0f;
+    private static final float ATTRIBUTE_WEIGHT = 0.6f;
+    private static final char PAD = '\u0001';
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Vocabulary
+    private final Map<String, Term> terms = new HashMap<>();
+    private final TreeMap<String, Term> sortedTerms = new TreeMap<>();
+    private final List<Term> termsById = new ArrayList<>();
+    private final IntList freeTermIds = new IntList();
+    private final LongObjectHashMap<IntList> trigrams = new LongObjectHashMap<>(4096);
+
+    // Documents
+    private final LongObjectHashMap<Doc> docsByProductId = new LongObjectHashMap<>(1024);
+    private Doc[] docsByOrdinal = new Doc[1024];
+    private final IntList freeOrdinals = new IntList();
+    private int ordinalCount;
+
+    private final ConcurrentLinkedQueue<Scratch> scratchPool = new ConcurrentLinkedQueue<>();
+    private volatile Timer searchTimer;
+
+    /**
+     * Returns the best matching active products.
+     *
+     * @param query free text typed by the cashier
+     * @param limit maximum number of results
+     * @return products ordered by relevance (empty when nothing matches every term)
+     */
+    public List<ProductDto> search(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            List<String> queryTerms = new ArrayList<>(tokenize(query));
+            if (queryTerms.isEmpty() || limit <= 0) {
+                return List.of();
+            }
+            if (queryTerms.size() > MAX_QUERY_TERMS) {
+                queryTerms = queryTerms.subList(0, MAX_QUERY_TERMS);
+            }
+            return searchTerms(queryTerms, limit);
+        } finally {
+            Timer timer = searchTimer;
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Adds or replaces a product. Inactive products are removed instead.
+     */
+    public void upsert(ProductDto product) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(product.getId());
+            if (product.isActive()) {
+                addUnlocked(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds or replaces many products under one write lock (startup load).
+     */
+    public void upsertAll(List<ProductDto> products) {
+        lock.writeLock().lock();
+        try {
+            for (ProductDto product : products) {
+                removeUnlocked(product.getId());
+                if (product.isActive()) {
+                    addUnlocked(product);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int documentCount() {
+        lock.readLock().lock();
+        try {
+            return docsByProductId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        searchTimer = Timer.builder("pos.catalog.search")
+                .description("Product search-as-you-type latency")
+                .register(registry);
+        Gauge.builder("pos.catalog.search.terms", this, ProductSearchIndex::termCount)
+                .register(registry);
+        Gauge.builder("pos.catalog.search.documents", this, ProductSearchIndex::documentCount)
+                .register(registry);
+    }
+
+    // ----------------------------------------------------------------- search
+
+    private List<ProductDto> searchTerms(List<String> queryTerms, int limit) {
+        Scratch scratch = borrowScratch();
+        lock.readLock().lock();
+        try {
+            scratch.ensureCapacity(ordinalCount, termsById.size());
+
+            // 1. Match every term against the vocabulary
+            List<List<Postings>> matches = new ArrayList<>(queryTerms.size());
+            for (String queryTerm : queryTerms) {
+                List<Postings> postings = matchTerm(queryTerm, scratch);
+                if (postings.isEmpty()) {
+                    return List.of();   // every term has to match
+                }
+                // Best match first, so the first hit of a product for this term is its best score
+                postings.sort((a, b) -> Float.compare(b.score(), a.score()));
+                matches.add(postings);
+            }
+
+            // 2. Rarest term first: later terms only update products that matched all previous ones
+            matches.sort(Comparator.comparingInt(ProductSearchIndex::documentFrequency));
+            int required = 0;
+            for (int q = 0; q < matches.size(); q++) {
+                int bit = 1 << q;
+                for (Postings posting : matches.get(q)) {
+                    IntList docs = posting.docs();
+                    for (int i = 0; i < docs.size(); i++) {
+                        scratch.accumulate(docs.get(i), required, bit, posting.score());
+                    }
+                }
+                required |= bit;
+            }
+
+            return topN(scratch, (1 << queryTerms.size()) - 1, limit);
+        } finally {
+            lock.readLock().unlock();
+            scratch.reset();
+            scratchPool.offer(scratch);
+        }
+    }
+
+    /**
+     * Posting lists of all vocabulary words matching one query term, with their score.
+     */
+    private List<Postings> matchTerm(String queryTerm, Scratch scratch) {
+        List<Postings> postings = new ArrayList<>();
+
+        Term exact = terms.get(queryTerm);
+        if (exact != null) {
+            exact.addPostings(postings, 1.0f);
+        }
+
+        // Prefix: the term is still being typed
+        NavigableMap<String, Term> prefixed = sortedTerms.subMap(queryTerm, false, queryTerm + Character.MAX_VALUE, false);
+        int expansions = 0;
+        for (Term term : prefixed.values()) {
+            if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            term.addPostings(postings, 0.6f + 0.3f * queryTerm.length() / term.word.length());
+        }
+
+        // Typos: only when the term is long enough for trigrams to be selective
+        int maxEdits = maxEdits(queryTerm.length());
+        int threshold = queryTerm.length() - 3 * maxEdits;
+        if (maxEdits > 0 && threshold > 0) {
+            addFuzzyMatches(queryTerm, maxEdits, threshold, scratch, postings);
+        }
+        return postings;
+    }
+
+    private void addFuzzyMatches(String queryTerm, int maxEdits, int threshold,
+                                 Scratch scratch, List<Postings> postings) {
+        for (int i = 0; i < queryTerm.length(); i++) {
+            IntList wordIds = trigrams.get(trigram(queryTerm, i));
+            if (wordIds == null) {
+                continue;
+            }
+            for (int j = 0; j < wordIds.size(); j++) {
+                scratch.countTerm(wordIds.get(j));
+            }
+        }
+
+        for (int i = 0; i < scratch.touchedTermCount; i++) {
+            int termId = scratch.touchedTerms[i];
+            if (scratch.termCounts[termId] < threshold) {
+                continue;
+            }
+            Term term = termsById.get(termId);
+            if (term == null || term.word.startsWith(queryTerm) || term.word.length() > MAX_FUZZY_WORD_LENGTH) {
+                continue;   // already matched as exact / prefix
+            }
+            int distance = prefixEditDistance(queryTerm, term.word, maxEdits, scratch);
+            if (distance > 0 && distance <= maxEdits) {
+                float lengthRatio = (float) Math.min(queryTerm.length(), term.word.length())
+                        / Math.max(queryTerm.length(), term.word.length());
+                float score = (distance == 1 ? 0.45f : 0.3f) * (0.8f + 0.2f * lengthRatio);
+                term.addPostings(postings, score);
+            }
+        }
+        scratch.resetTermCounts();
+    }
+
+    private static int documentFrequency(List<Postings> postings) {
+        int total = 0;
+        for (Postings posting : postings) {
+            total += posting.docs().size();
+        }
+        return total;
+    }
+
+    private List<ProductDto> topN(Scratch scratch, int fullMask, int limit) {
+        int[] top = new int[limit];
+        int count = 0;
+
+        for (int i = 0; i < scratch.touchedCount; i++) {
+            int ordinal = scratch.touched[i];
+            if (scratch.masks[ordinal] != fullMask) {
+                continue;
+            }
+            if (count == limit && !ranksBefore(ordinal, top[count - 1], scratch)) {
+                continue;
+            }
+            // Insertion into the small sorted array
+            int position = count == limit ? limit - 1 : count++;
+            while (position > 0 && ranksBefore(ordinal, top[position - 1], scratch)) {
+                top[position] = top[position - 1];
+                position--;
+            }
+            top[position] = ordinal;
+        }
+
+        List<ProductDto> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(docsByOrdinal[top[i]].product);
+        }
+        return results;
+    }
+
+    private boolean ranksBefore(int a, int b, Scratch scratch) {
+        float scoreA = scratch.scores[a];
+        float scoreB = scratch.scores[b];
+        if (scoreA != scoreB) {
+            return scoreA > scoreB;
+        }
+        Doc docA = docsByOrdinal[a];
+        Doc docB = docsByOrdinal[b];
+        if (docA.nameLength != docB.nameLength) {
+            return docA.nameLength < docB.nameLength;
+        }
+        return docA.product.getId() < docB.product.getId();
+    }
+
+    // ----------------------------------------------------------------- writes
+
+    private void addUnlocked(ProductDto product) {
+        Set<String> nameWords = tokenize(product.getName());
+        Set<String> attributeWords = tokenize(product.getCategory());
+        attributeWords.addAll(tokenize(product.getBrand()));
+        attributeWords.removeAll(nameWords);
+
+        int ordinal = freeOrdinals.isEmpty() ? ordinalCount++ : popFreeOrdinal();
+        if (ordinal >= docsByOrdinal.length) {
+            docsByOrdinal = Arrays.copyOf(docsByOrdinal, docsByOrdinal.length * 2);
+        }
+
+        Doc doc = new Doc(ordinal, product,
+                nameWords.toArray(String[]::new), attributeWords.toArray(String[]::new));
+        docsByOrdinal[ordinal] = doc;
+        docsByProductId.put(product.getId(), doc);
+
+        for (String word : doc.nameWords) {
+            termFor(word).nameDocs.add(ordinal);
+        }
+        for (String word : doc.attributeWords) {
+            termFor(word).attributeDocs.add(ordinal);
+        }
+    }
+
+    private void removeUnlocked(long productId) {
+        Doc doc = docsByProductId.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        for (String word : doc.nameWords) {
+            Term term = terms.get(word);
+            term.nameDocs.removeValue(doc.ordinal);
+            dropIfUnused(term);
+        }
+        for (String word : doc.attributeWords) {
+            Term term = terms.get(word);
+            term.attributeDocs.removeValue(doc.ordinal);
+            dropIfUnused(term);
+        }
+        docsByOrdinal[doc.ordinal] = null;
+        freeOrdinals.add(doc.ordinal);
+    }
+
+    private Term termFor(String word) {
+        Term term = terms.get(word);
+        if (term != null) {
+            return term;
+        }
+
+        int id;
+        if (freeTermIds.isEmpty()) {
+            id = termsById.size();
+            termsById.add(null);
+        } else {
+            id = freeTermIds.get(freeTermIds.size() - 1);
+            freeTermIds.removeValue(id);
+        }
+        term = new Term(id, word);
+        termsById.set(id, term);
+        terms.put(word, term);
+        sortedTerms.put(word, term);
+
+        for (int i = 0; i < word.length(); i++) {
+            long key = trigram(word, i);
+            IntList wordIds = trigrams.get(key);
+            if (wordIds == null) {
+                wordIds = new IntList(2);
+                trigrams.put(key, wordIds);
+            }
+            wordIds.add(id);
+        }
+        return term;
+    }
+
+    private void dropIfUnused(Term term) {
+        if (!term.nameDocs.isEmpty() || !term.attributeDocs.isEmpty()) {
+            return;
+        }
+        terms.remove(term.word);
+        sortedTerms.remove(term.word);
+        termsById.set(term.id, null);
+        freeTermIds.add(term.id);
+
+        for (int i = 0; i < term.word.length(); i++) {
+            long key = trigram(term.word, i);
+            IntList wordIds = trigrams.get(key);
+            if (wordIds != null) {
+                wordIds.removeValue(term.id);
+                if (wordIds.isEmpty()) {
+                    trigrams.remove(key);
+                }
+            }
+        }
+    }
+
+    private int popFreeOrdinal() {
+        int ordinal = freeOrdinals.get(freeOrdinals.size() - 1);
+        freeOrdinals.removeValue(ordinal);
+        return ordinal;
+    }
+
+    private Scratch borrowScratch() {
+        Scratch scratch = scratchPool.poll();
+        return scratch != null ? scratch : new Scratch();
+    }
+
+    // ---------------------------------------------------------------- helpers
+
+    /**
+     * Lower-cased words (letters and digits) in order of appearance, without duplicates.
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) {
+            return words;
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+            } else if (!word.isEmpty()) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Typos allowed for a term: 1 from 5 characters, 2 from 9 characters
+     * (shorter terms share too few trigrams for the candidate filter to be selective).
+     */
+    static int maxEdits(int termLength) {
+        if (termLength >= 9) {
+            return 2;
+        }
+        return termLength >= 5 ? 1 : 0;
+    }
+
+    /**
+     * Trigram ending at position i, with two pad characters before the word start.
+     */
+    private static long trigram(String word, int i) {
+        char c0 = i >= 2 ? word.charAt(i - 2) : PAD;
+        char c1 = i >= 1 ? word.charAt(i - 1) : PAD;
+        char c2 = word.charAt(i);
+        return ((long) c0 << 32) | ((long) c1 << 16) | c2;
+    }
+
+    /**
+     * Smallest optimal-string-alignment distance between the query term and any prefix of the word
+     * (so "choclat" matches "chocolate" while the cashier is still typing).
+     *
+     * @return the distance, or maxEdits + 1 when it is larger than maxEdits
+     */
+    private static int prefixEditDistance(String term, String word, int maxEdits, Scratch scratch) {
+        int n = term.length();
+        int m = Math.min(word.length(), n + maxEdits);
+        if (m < n - maxEdits) {
+            return maxEdits + 1;
+        }
+
+        int[] prevPrev = scratch.row(0, m + 1);
+        int[] prev = scratch.row(1, m + 1);
+        int[] cur = scratch.row(2, m + 1);
+        for (int j = 0; j <= m; j++) {
+            prev[j] = j;
+        }
+
+        for (int i = 1; i <= n; i++) {
+            cur[0] = i;
+            int rowMin = cur[0];
+            char tc = term.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                char wc = word.charAt(j - 1);
+                int cost = tc == wc ? 0 : 1;
+                int value = Math.min(Math.min(prev[j] + 1, cur[j - 1] + 1), prev[j - 1] + cost);
+                if (i > 1 && j > 1 && tc == word.charAt(j - 2) && term.charAt(i - 2) == wc) {
+                    value = Math.min(value, prevPrev[j - 2] + 1);
+                }
+                cur[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = prevPrev;
+            prevPrev = prev;
+            prev = cur;
+            cur = recycled;
+        }
+
+        int best = maxEdits + 1;
+        for (int j = Math.max(0, n - maxEdits); j <= m; j++) {
+            best = Math.min(best, prev[j]);
+        }
+        return best;
+    }
+
+    private record Postings(IntList docs, float score) {
+    }
+
+    private static final class Term {
+        final int id;
+        final String word;
+        final IntList nameDocs = new IntList(2);
+        final IntList attributeDocs = new IntList(2);
+
+        Term(int id, String word) {
+            this.id = id;
+            this.word = word;
+        }
+
+        void addPostings(List<Postings> postings, float score) {
+            if (!nameDocs.isEmpty()) {
+                postings.add(new Postings(nameDocs, score * NAME_WEIGHT));
+            }
+            if (!attributeDocs.isEmpty()) {
+                postings.add(new Postings(attributeDocs, score * ATTRIBUTE_WEIGHT));
+            }
+        }
+    }
+
+    private static final class Doc {
+        final int ordinal;
+        final ProductDto product;
+        final String[] nameWords;
+        final String[] attributeWords;
+        final int nameLength;
+
+        Doc(int ordinal, ProductDto product, String[] nameWords, String[] attributeWords) {
+            this.ordinal = ordinal;
+            this.product = product;
+            this.nameWords = nameWords;
+            this.attributeWords = attributeWords;
+            this.nameLength = product.getName() == null ? 0 : product.getName().length();
+        }
+    }
+
+    /**
+     * Per-search working memory, reused through a pool.
+     */
+    private static final class Scratch {
+        float[] scores = new float[0];
+        int[] masks = new int[0];
+        int[] touched = new int[0];
+        int touchedCount;
+
+        int[] termCounts = new int[0];
+        int[] touchedTerms = new int[0];
+        int touchedTermCount;
+
+        private final int[][] rows = new int[3][MAX_FUZZY_WORD_LENGTH + 16];
+
+        void ensureCapacity(int documents, int vocabulary) {
+            if (scores.length < documents) {
+                int capacity = Math.max(documents, scores.length * 2);
+                scores = new float[capacity];
+                masks = new int[capacity];
+                touched = new int[capacity];
+            }
+            if (termCounts.length < vocabulary) {
+                int capacity = Math.max(vocabulary, termCounts.length * 2);
+                termCounts = new int[capacity];
+                touchedTerms = new int[capacity];
+            }
+        }
+
+        /**
+         * @param required bits of the terms already processed (the product must have matched all of them)
+         */
+        void accumulate(int ordinal, int required, int bit, float score) {
+            int mask = masks[ordinal];
+            if ((mask & required) != required || (mask & bit) != 0) {
+                return;
+            }
+            if (mask == 0) {
+                touched[touchedCount++] = ordinal;
+            }
+            masks[ordinal] = mask | bit;
+            scores[ordinal] += score;
+        }
+
+        void countTerm(int termId) {
+            if (termCounts[termId]++ == 0) {
+                touchedTerms[touchedTermCount++] = termId;
+            }
+        }
+
+        int[] row(int index, int length) {
+            if (rows[index].length < length) {
+                rows[index] = new int[length];
+            }
+            return rows[index];
+        }
+
+        void resetTermCounts() {
+            for (int i = 0; i < touchedTermCount; i++) {
+                termCounts[touchedTerms[i]] = 0;
+            }
+            touchedTermCount = 0;
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                int ordinal = touched[i];
+                scores[ordinal] = 0;
+                masks[ordinal] = 0;
+            }
+            touchedCount = 0;
+            resetTermCounts();
+        }
+    }
+}
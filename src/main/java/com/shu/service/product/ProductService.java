@@ -0,0 +1,67 @@
+package com.shu.service.product;
+
+import com.shu.exceptions.ProductException;
+import com.shu.model.dto.ProductDto;
+import com.shu.payload.request.ProductRequest;
+
+import java.util.List;
+
+/**
+ * ProductService
+ *
+ * Catalog management and till lookups.
+ * Lookups by barcode / SKU are served from {@link ProductCatalogIndex}, the database is only hit on a miss.
+ */
+public interface ProductService {
+
+    /**
+     * Creates a product.
+     *
+     * @throws ProductException if the SKU or barcode is already used
+     */
+    ProductDto createProduct(ProductRequest request) throws ProductException;
+
+    /**
+     * Updates a product.
+     *
+     * @throws ProductException if the product does not exist or the SKU / barcode is taken
+     */
+    ProductDto updateProduct(Long id, ProductRequest request) throws ProductException;
+
+    /**
+     * Deactivates a product (kept for order history, removed from the till).
+     *
+     * @throws ProductException if the product does not exist
+     */
+    void deleteProduct(Long id) throws ProductException;
+
+    ProductDto getProductById(Long id) throws ProductException;
+
+    /**
+     * Product as sold at the till (checkout pricing).
+     *
+     * @throws ProductException (PRODUCT_NOT_FOUND) for unknown or inactive products
+     */
+    ProductDto getActiveProductById(Long id) throws ProductException;
+
+    /**
+     * Barcode scan at the till.
+     *
+     * @throws ProductException (PRODUCT_NOT_FOUND) for unknown or inactive products
+     */
+    ProductDto getProductByBarcode(String barcode) throws ProductException;
+
+    /**
+     * @throws ProductException (PRODUCT_NOT_FOUND) for unknown or inactive products
+     */
+    ProductDto getProductBySku(String sku) throws ProductException;
+
+    /**
+     * Search-as-you-type over name, category and brand (typo tolerant), served by {@link ProductSearchIndex}.
+     *
+     * @param query text typed so far (at least 2 characters, otherwise no results)
+     * @param limit maximum number of results (capped)
+     * @return active products, best match first
+     */
+    List<ProductDto> searchProducts(String query, int limit);
+}
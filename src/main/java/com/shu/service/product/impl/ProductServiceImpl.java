@@ -0,0 +1,175 @@
+package com.shu.service.product.impl;
+
+import com.shu.constant.ErrorCode;
+import com.shu.exceptions.ProductException;
+import com.shu.mapper.ProductMapper;
+import com.shu.model.dto.ProductDto;
+import com.shu.model.entity.Product;
+import com.shu.payload.request.ProductRequest;
+import com.shu.repository.ProductRepository;
+import com.shu.service.product.ProductCatalogIndex;
+import com.shu.service.product.ProductCatalogSync;
+import com.shu.service.product.ProductChangedEvent;
+import com.shu.service.product.ProductSearchIndex;
+import com.shu.service.product.ProductService;
+import com.shu.service.sync.SyncVersionAllocator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * ProductServiceImpl
+ *
+ * Writes go to the database with a new change-feed version (see SyncVersionAllocator) and publish
+ * a {@link ProductChangedEvent} (applied to the catalog index after commit).
+ * Barcode / SKU reads are answered by {@link ProductCatalogIndex}; on a miss the
+ * database is queried and an active product found there is added to both indexes.
+ * Name search is answered by {@link ProductSearchIndex} only (never a LIKE query).
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductServiceImpl implements ProductService {
+
+    private static final int MIN_SEARCH_LENGTH = 2;
+    private static final int MAX_SEARCH_RESULTS = 50;
+
+    private final ProductRepository productRepository;
+    private final ProductCatalogIndex catalogIndex;
+    private final ProductSearchIndex searchIndex;
+    private final ProductCatalogSync catalogSync;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SyncVersionAllocator versionAllocator;
+
+    @Override
+    @Transactional
+    public ProductDto createProduct(ProductRequest request) throws ProductException {
+        validate(request);
+
+        if (productRepository.findBySku(request.getSku().trim()) != null) {
+            throw new ProductException(ErrorCode.PRODUCT_ALREADY_EXISTS, "SKU already exists!");
+        }
+
+        Product product = new Product();
+        ProductMapper.copy(request, product);
+        if (product.getBarcode() != null && productRepository.findByBarcode(product.getBarcode()) != null) {
+            throw new ProductException(ErrorCode.PRODUCT_ALREADY_EXISTS, "Barcode already exists!");
+        }
+
+        return saveAndPublish(product);
+    }
+
+    @Override
+    @Transactional
+    public ProductDto updateProduct(Long id, ProductRequest request) throws ProductException {
+        validate(request);
+        Product product = findEntity(id);
+
+        ProductMapper.copy(request, product);
+        return saveAndPublish(product);
+    }
+
+    @Override
+    @Transactional
+    public void deleteProduct(Long id) throws ProductException {
+        Product product = findEntity(id);
+        product.setActive(false);
+        saveAndPublish(product);
+    }
+
+    @Override
+    public ProductDto getProductById(Long id) throws ProductException {
+        return ProductMapper.toDTO(findEntity(id));
+    }
+
+    @Override
+    public ProductDto getActiveProductById(Long id) throws ProductException {
+        ProductDto product = id == null ? null : catalogIndex.findById(id);
+        if (product == null && id != null) {
+            product = loadActive(productRepository.findById(id).orElse(null));
+        }
+        if (product == null) {
+            throw new ProductException(ErrorCode.PRODUCT_NOT_FOUND, "Product not found: " + id);
+        }
+        return product;
+    }
+
+    @Override
+    public ProductDto getProductByBarcode(String barcode) throws ProductException {
+        ProductDto product = catalogIndex.findByBarcode(barcode);
+        if (product == null) {
+            product = loadActive(productRepository.findByBarcode(barcode));
+        }
+        if (product == null) {
+            throw new ProductException(ErrorCode.PRODUCT_NOT_FOUND, "Product not found for barcode " + barcode);
+        }
+        return product;
+    }
+
+    @Override
+    public ProductDto getProductBySku(String sku) throws ProductException {
+        ProductDto product = catalogIndex.findBySku(sku);
+        if (product == null) {
+            product = loadActive(productRepository.findBySku(sku));
+        }
+        if (product == null) {
+            throw new ProductException(ErrorCode.PRODUCT_NOT_FOUND, "Product not found for sku " + sku);
+        }
+        return product;
+    }
+
+    @Override
+    public List<ProductDto> searchProducts(String query, int limit) {
+        if (query == null || query.strip().length() < MIN_SEARCH_LENGTH) {
+            return List.of();
+        }
+        return searchIndex.search(query, Math.max(1, Math.min(limit, MAX_SEARCH_RESULTS)));
+    }
+
+    /**
+     * Index miss → database. Active products found there are added to the catalog and search
+     * indexes (e.g. created on another node since the last refresh).
+     */
+    private ProductDto loadActive(Product product) {
+        if (product == null || !product.isActive()) {
+            return null;
+        }
+        ProductDto dto = ProductMapper.toDTO(product);
+        catalogSync.apply(dto);
+        return dto;
+    }
+
+    private ProductDto saveAndPublish(Product product) {
+        try {
+            // last step before the flush: the version allocation locks the counter until commit
+            product.setSyncVersion(versionAllocator.allocate(1));
+            // flush so unique-key violations surface here and updatedAt is set
+            Product saved = productRepository.saveAndFlush(product);
+            ProductDto dto = ProductMapper.toDTO(saved);
+            eventPublisher.publishEvent(new ProductChangedEvent(dto));
+            return dto;
+        } catch (DataIntegrityViolationException e) {
+            throw new ProductException(ErrorCode.PRODUCT_ALREADY_EXISTS, "SKU or barcode already exists!");
+        }
+    }
+
+    private Product findEntity(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new ProductException(ErrorCode.PRODUCT_NOT_FOUND, "Product not found"));
+    }
+
+    private static void validate(ProductRequest request) {
+        if (request.getName() == null || request.getName().isBlank()) {
+            throw new ProductException("Product name is required");
+        }
+        if (request.getSku() == null || request.getSku().isBlank()) {
+            throw new ProductException("SKU is required");
+        }
+        if (request.getSellingPrice() == null || request.getSellingPrice().signum() < 0) {
+            throw new ProductException("Selling price must be zero or positive");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.shu.service.reporting;
+
+import com.shu.domain.ReportGranularity;
+import com.shu.exceptions.ReportException;
+import com.shu.payload.response.BranchSalesResponse;
+import com.shu.payload.response.ProductSalesResponse;
+import com.shu.payload.response.SalesBucketResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * SalesReportService
+ *
+ * Sales dashboards for branch and store managers. Reads the hourly rollups only, never orders.
+ * Ranges are [from, to) on hour boundaries (from is rounded down, to is rounded up).
+ */
+public interface SalesReportService {
+
+    /**
+     * @return one bucket per hour / day that had sales, in time order
+     * @throws ReportException if the range is reversed or too large
+     */
+    List<SalesBucketResponse> getBranchSales(Long branchId, LocalDateTime from, LocalDateTime to,
+                                             ReportGranularity granularity) throws ReportException;
+
+    /**
+     * @return best-selling products of a branch by net amount
+     * @throws ReportException if the range is reversed or too large, or limit is out of range
+     */
+    List<ProductSalesResponse> getTopProducts(Long branchId, LocalDateTime from, LocalDateTime to, int limit)
+            throws ReportException;
+
+    /**
+     * @return totals per branch
+     * @throws ReportException if the range is reversed or too large
+     */
+    List<BranchSalesResponse> getSalesByBranch(LocalDateTime from, LocalDateTime to) throws ReportException;
+}
@@ -0,0 +1,36 @@
+package com.shu.service.reporting;
+
+import com.shu.model.entity.Order;
+import com.shu.payload.response.RollupRebuildResponse;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * SalesRollupService
+ *
+ * Maintains the hourly sales rollups (branch_hourly_sales, product_hourly_sales) that dashboards read.
+ * Rollups are changed by delta upserts in the same transaction as the order change they reflect,
+ * so a rollup never counts an order that was rolled back.
+ */
+public interface SalesRollupService {
+
+    /**
+     * Adds a new order to the rollups of its hour. Must run in the transaction that inserts the order.
+     */
+    void recordSale(Order order);
+
+    /**
+     * Late correction: books refunds on the hour of the original sale. Must run in the transaction that
+     * changes the orders to REFUNDED, and only for orders that this transaction changed (exactly once).
+     *
+     * @param orderIds orders that were just refunded
+     */
+    void recordRefunds(Collection<Long> orderIds);
+
+    /**
+     * Recomputes the rollups of [from, to) from the orders, one branch per task, branches in parallel.
+     * Hours are truncated: from is rounded down, to is rounded up to a full hour.
+     */
+    RollupRebuildResponse rebuild(LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,110 @@
+package com.shu.service.reporting.impl;
+
+import com.shu.domain.ReportGranularity;
+import com.shu.exceptions.ReportException;
+import com.shu.model.dto.ProductDto;
+import com.shu.model.entity.BranchHourlySales;
+import com.shu.payload.response.BranchSalesResponse;
+import com.shu.payload.response.ProductSalesResponse;
+import com.shu.payload.response.SalesBucketResponse;
+import com.shu.repository.BranchHourlySalesRepository;
+import com.shu.repository.ProductHourlySalesRepository;
+import com.shu.service.product.ProductCatalogIndex;
+import com.shu.service.reporting.SalesReportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SalesReportServiceImpl
+ *
+ * Dashboard queries over the hourly rollups (see SalesRollupServiceImpl):
+ * - a branch's time series reads at most 24 rows per day of range (days are summed here),
+ * - top products and branch totals are GROUP BYs over the rollup rows of the range.
+ * Product names come from the in-memory catalog index, not from a join.
+ */
+@Service
+public class SalesReportServiceImpl implements SalesReportService {
+
+    private static final int MAX_TOP_PRODUCTS = 100;
+
+    private final BranchHourlySalesRepository branchHourlySalesRepository;
+    private final ProductHourlySalesRepository productHourlySalesRepository;
+    private final ProductCatalogIndex catalogIndex;
+    private final Duration maxRange;
+
+    public SalesReportServiceImpl(BranchHourlySalesRepository branchHourlySalesRepository,
+                                  ProductHourlySalesRepository productHourlySalesRepository,
+                                  ProductCatalogIndex catalogIndex,
+                                  @Value("${pos.reporting.max-range-days:366}") long maxRangeDays) {
+        this.branchHourlySalesRepository = branchHourlySalesRepository;
+        this.productHourlySalesRepository = productHourlySalesRepository;
+        this.catalogIndex = catalogIndex;
+        this.maxRange = Duration.ofDays(maxRangeDays);
+    }
+
+    @Override
+    public List<SalesBucketResponse> getBranchSales(Long branchId, LocalDateTime from, LocalDateTime to,
+                                                    ReportGranularity granularity) throws ReportException {
+        Range range = range(from, to);
+        List<BranchHourlySales> hours = branchHourlySalesRepository.findHours(branchId, range.from(), range.to());
+
+        Map<LocalDateTime, SalesBucketResponse> buckets = new LinkedHashMap<>();
+        for (BranchHourlySales hour : hours) {
+            LocalDateTime periodStart = granularity == ReportGranularity.DAY
+                    ? hour.getId().getHourStart().truncatedTo(ChronoUnit.DAYS)
+                    : hour.getId().getHourStart();
+            buckets.merge(periodStart,
+                    new SalesBucketResponse(periodStart, hour.getOrderCount(), hour.getGrossAmount(),
+                            hour.getRefundCount(), hour.getRefundedAmount()),
+                    (a, b) -> new SalesBucketResponse(periodStart, a.getOrderCount() + b.getOrderCount(),
+                            a.getGrossAmount().add(b.getGrossAmount()), a.getRefundCount() + b.getRefundCount(),
+                            a.getRefundedAmount().add(b.getRefundedAmount())));
+        }
+        return new ArrayList<>(buckets.values());
+    }
+
+    @Override
+    public List<ProductSalesResponse> getTopProducts(Long branchId, LocalDateTime from, LocalDateTime to, int limit)
+            throws ReportException {
+        if (limit < 1 || limit > MAX_TOP_PRODUCTS) {
+            throw new ReportException("limit must be between 1 and " + MAX_TOP_PRODUCTS);
+        }
+        Range range = range(from, to);
+        List<ProductSalesResponse> products = productHourlySalesRepository.findTopProducts(
+                branchId, range.from(), range.to(), PageRequest.of(0, limit));
+        for (ProductSalesResponse product : products) {
+            ProductDto catalogEntry = catalogIndex.findById(product.getProductId());
+            product.setName(catalogEntry == null ? null : catalogEntry.getName());
+        }
+        return products;
+    }
+
+    @Override
+    public List<BranchSalesResponse> getSalesByBranch(LocalDateTime from, LocalDateTime to) throws ReportException {
+        Range range = range(from, to);
+        return branchHourlySalesRepository.sumByBranch(range.from(), range.to());
+    }
+
+    private Range range(LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new ReportException("from must be before to");
+        }
+        if (Duration.between(from, to).compareTo(maxRange) > 0) {
+            throw new ReportException("Range must not exceed " + maxRange.toDays() + " days");
+        }
+        LocalDateTime toHour = to.truncatedTo(ChronoUnit.HOURS);
+        return new Range(from.truncatedTo(ChronoUnit.HOURS), toHour.equals(to) ? to : toHour.plusHours(1));
+    }
+
+    private record Range(LocalDateTime from, LocalDateTime to) {
+    }
+}
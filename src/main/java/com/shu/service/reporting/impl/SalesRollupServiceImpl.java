@@ -0,0 +1,294 @@
+package com.shu.service.reporting.impl;
+
+import com.shu.model.entity.Order;
+import com.shu.model.entity.OrderItem;
+import com.shu.payload.response.RollupRebuildResponse;
+import com.shu.service.reporting.SalesRollupService;
+import com.shu.util.StreamingStatements;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * SalesRollupServiceImpl
+ *
+ * Hourly sales rollups per branch and per (branch, product), kept up to date incrementally.
+ *
+ * Why?
+ * - Dashboards summing orders / order_item over days scan millions of rows on the primary
+ *   while the tills are writing. Rollups answer the same questions from a few hundred rows.
+ *
+ * How it works:
+ * - Sale   : one delta upsert per (product, hour) plus one per (branch, hour), sent as JDBC batches
+ *            ("INSERT ... ON DUPLICATE KEY UPDATE x = x + VALUES(x)") inside the checkout transaction.
+ * - Refund : the same upserts on the refunded columns of the sale's hour (late correction),
+ *            inside the transaction that marks the order REFUNDED.
+ * - Deltas are sent in key order (product rows by product, then the branch row), so concurrent
+ *   checkouts lock rollup rows in the same order and cannot deadlock each other.
+ * - Rebuild: per branch, one transaction that deletes the branch's rollups of the range and
+ *   recomputes them from the orders. Branches run in parallel (pos.reporting.rebuild.parallelism,
+ *   keep it below the connection pool size). The delete comes first: its row/gap locks make
+ *   concurrent sale / refund upserts of the range wait, and the orders are read after it,
+ *   so every order is counted either by the rebuild or by its own upsert, never both.
+ */
+@Slf4j
+@Service
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    private static final String BRANCH_UPSERT_SQL =
+            "INSERT INTO branch_hourly_sales (branch_id, hour_start, order_count, gross_amount, refund_count, "
+                    + "refunded_amount, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), "
+                    + "gross_amount = gross_amount + VALUES(gross_amount), "
+                    + "refund_count = refund_count + VALUES(refund_count), "
+                    + "refunded_amount = refunded_amount + VALUES(refunded_amount), "
+                    + "updated_at = VALUES(updated_at)";
+
+    private static final String PRODUCT_UPSERT_SQL =
+            "INSERT INTO product_hourly_sales (branch_id, product_id, hour_start, quantity, gross_amount, "
+                    + "refunded_quantity, refunded_amount, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), "
+                    + "gross_amount = gross_amount + VALUES(gross_amount), "
+                    + "refunded_quantity = refunded_quantity + VALUES(refunded_quantity), "
+                    + "refunded_amount = refunded_amount + VALUES(refunded_amount), "
+                    + "updated_at = VALUES(updated_at)";
+
+    private static final String REFUNDED_ORDERS_SQL =
+            "SELECT id, branch_id, created_at, total_amount FROM orders WHERE id IN (:ids)";
+
+    private static final String REFUNDED_ITEMS_SQL =
+            "SELECT i.order_id, i.product_id, i.quantity, i.line_total FROM order_item i WHERE i.order_id IN (:ids)";
+
+    private static final String BRANCHES_SQL =
+            "SELECT DISTINCT branch_id FROM orders WHERE created_at >= ? AND created_at < ?";
+
+    private static final String REBUILD_ORDERS_SQL =
+            "SELECT created_at, status, total_amount FROM orders "
+                    + "WHERE branch_id = ? AND created_at >= ? AND created_at < ?";
+
+    private static final String REBUILD_ITEMS_SQL =
+            "SELECT o.created_at, o.status, i.product_id, i.quantity, i.line_total "
+                    + "FROM orders o JOIN order_item i ON i.order_id = o.id "
+                    + "WHERE o.branch_id = ? AND o.created_at >= ? AND o.created_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildParallelism;
+    private final int fetchSize;
+
+    public SalesRollupServiceImpl(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${pos.reporting.rebuild.parallelism:4}") int rebuildParallelism,
+                                  @Value("${pos.reporting.rebuild.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildParallelism = rebuildParallelism;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void recordSale(Order order) {
+        Deltas deltas = new Deltas();
+        LocalDateTime hour = hourOf(order.getCreatedAt());
+        deltas.branch(order.getBranchId(), hour).addSale(order.getTotalAmount());
+        for (OrderItem item : order.getItems()) {
+            deltas.product(order.getBranchId(), item.getProductId(), hour).addSale(item.getQuantity(), item.getLineTotal());
+        }
+        write(deltas);
+    }
+
+    @Override
+    public void recordRefunds(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        Deltas deltas = new Deltas();
+        Map<Long, BranchHour> orderHours = new TreeMap<>();
+        Map<String, Object> ids = Map.of("ids", orderIds);
+        namedJdbcTemplate.query(REFUNDED_ORDERS_SQL, ids, rs -> {
+            BranchHour key = new BranchHour(rs.getLong("branch_id"), hourOf(rs.getTimestamp("created_at").toLocalDateTime()));
+            orderHours.put(rs.getLong("id"), key);
+            deltas.branch(key.branchId(), key.hour()).addRefund(rs.getBigDecimal("total_amount"));
+        });
+        namedJdbcTemplate.query(REFUNDED_ITEMS_SQL, ids, rs -> {
+            BranchHour key = orderHours.get(rs.getLong("order_id"));
+            deltas.product(key.branchId(), rs.getLong("product_id"), key.hour())
+                    .addRefund(rs.getLong("quantity"), rs.getBigDecimal("line_total"));
+        });
+        write(deltas);
+    }
+
+    @Override
+    public RollupRebuildResponse rebuild(LocalDateTime from, LocalDateTime to) {
+        LocalDateTime fromHour = hourOf(from);
+        LocalDateTime toHour = to.equals(hourOf(to)) ? to : hourOf(to).plusHours(1);
+        long start = System.currentTimeMillis();
+
+        List<Long> branches = jdbcTemplate.queryForList(BRANCHES_SQL, Long.class,
+                Timestamp.valueOf(fromHour), Timestamp.valueOf(toHour));
+
+        // One task (and one transaction / connection) per branch
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, rebuildParallelism),
+                Thread.ofPlatform().name("rollup-rebuild-", 0).factory());
+        long orders = 0;
+        try {
+            List<Future<Long>> results = new ArrayList<>(branches.size());
+            for (Long branchId : branches) {
+                results.add(executor.submit(() -> transactionTemplate.execute(
+                        status -> rebuildBranch(branchId, fromHour, toHour))));
+            }
+            for (Future<Long> result : results) {
+                orders += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rollup rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rollup rebuild failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long duration = System.currentTimeMillis() - start;
+        log.info("Rebuilt sales rollups {}..{}: {} branches, {} orders in {} ms",
+                fromHour, toHour, branches.size(), orders, duration);
+        return new RollupRebuildResponse(fromHour, toHour, branches.size(), orders, duration);
+    }
+
+    /**
+     * @return number of orders aggregated
+     */
+    private long rebuildBranch(long branchId, LocalDateTime fromHour, LocalDateTime toHour) {
+        Timestamp from = Timestamp.valueOf(fromHour);
+        Timestamp to = Timestamp.valueOf(toHour);
+
+        // 1. Delete first (locks the range against concurrent upserts, see class comment)
+        jdbcTemplate.update("DELETE FROM product_hourly_sales WHERE branch_id = ? AND hour_start >= ? AND hour_start < ?",
+                branchId, from, to);
+        jdbcTemplate.update("DELETE FROM branch_hourly_sales WHERE branch_id = ? AND hour_start >= ? AND hour_start < ?",
+                branchId, from, to);
+
+        // 2. Aggregate the orders, streamed (each result is read to its end before the next statement)
+        Deltas deltas = new Deltas();
+        long[] orders = new long[1];
+        jdbcTemplate.query(StreamingStatements.streaming(REBUILD_ORDERS_SQL, fetchSize, branchId, from, to), rs -> {
+            Delta delta = deltas.branch(branchId, hourOf(rs.getTimestamp("created_at").toLocalDateTime()));
+            BigDecimal total = rs.getBigDecimal("total_amount");
+            delta.addSale(total);
+            if ("REFUNDED".equals(rs.getString("status"))) {
+                delta.addRefund(total);
+            }
+            orders[0]++;
+        });
+        jdbcTemplate.query(StreamingStatements.streaming(REBUILD_ITEMS_SQL, fetchSize, branchId, from, to), rs -> {
+            Delta delta = deltas.product(branchId, rs.getLong("product_id"),
+                    hourOf(rs.getTimestamp("created_at").toLocalDateTime()));
+            long quantity = rs.getLong("quantity");
+            BigDecimal lineTotal = rs.getBigDecimal("line_total");
+            delta.addSale(quantity, lineTotal);
+            if ("REFUNDED".equals(rs.getString("status"))) {
+                delta.addRefund(quantity, lineTotal);
+            }
+        });
+
+        // 3. Insert (the rows were just deleted, the upsert degrades to a plain insert)
+        write(deltas);
+        return orders[0];
+    }
+
+    private void write(Deltas deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        if (!deltas.products.isEmpty()) {
+            List<Object[]> args = new ArrayList<>(deltas.products.size());
+            deltas.products.forEach((key, delta) -> args.add(new Object[]{key.branchId(), key.productId(),
+                    Timestamp.valueOf(key.hour()), delta.count, delta.amount, delta.refundCount, delta.refundedAmount, now}));
+            jdbcTemplate.batchUpdate(PRODUCT_UPSERT_SQL, args);
+        }
+        if (!deltas.branches.isEmpty()) {
+            List<Object[]> args = new ArrayList<>(deltas.branches.size());
+            deltas.branches.forEach((key, delta) -> args.add(new Object[]{key.branchId(), Timestamp.valueOf(key.hour()),
+                    delta.count, delta.amount, delta.refundCount, delta.refundedAmount, now}));
+            jdbcTemplate.batchUpdate(BRANCH_UPSERT_SQL, args);
+        }
+    }
+
+    static LocalDateTime hourOf(LocalDateTime time) {
+        return time.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private record BranchHour(long branchId, LocalDateTime hour) {
+    }
+
+    private record ProductHour(long branchId, long productId, LocalDateTime hour) {
+    }
+
+    /**
+     * Deltas per rollup row, in lock order.
+     */
+    private static final class Deltas {
+
+        final Map<ProductHour, Delta> products = new TreeMap<>(Comparator.comparingLong(ProductHour::branchId)
+                .thenComparingLong(ProductHour::productId)
+                .thenComparing(ProductHour::hour));
+        final Map<BranchHour, Delta> branches = new TreeMap<>(Comparator.comparingLong(BranchHour::branchId)
+                .thenComparing(BranchHour::hour));
+
+        Delta branch(long branchId, LocalDateTime hour) {
+            return branches.computeIfAbsent(new BranchHour(branchId, hour), k -> new Delta());
+        }
+
+        Delta product(long branchId, long productId, LocalDateTime hour) {
+            return products.computeIfAbsent(new ProductHour(branchId, productId, hour), k -> new Delta());
+        }
+    }
+
+    /**
+     * Change of one rollup row. For a branch row count = orders, for a product row count = units.
+     */
+    private static final class Delta {
+
+        long count;
+        BigDecimal amount = BigDecimal.ZERO;
+        long refundCount;
+        BigDecimal refundedAmount = BigDecimal.ZERO;
+
+        void addSale(BigDecimal total) {
+            addSale(1, total);
+        }
+
+        void addSale(long units, BigDecimal total) {
+            count += units;
+            amount = amount.add(total);
+        }
+
+        void addRefund(BigDecimal total) {
+            addRefund(1, total);
+        }
+
+        void addRefund(long units, BigDecimal total) {
+            refundCount += units;
+            refundedAmount = refundedAmount.add(total);
+        }
+    }
+}
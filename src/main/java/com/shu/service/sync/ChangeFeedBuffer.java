@@ -0,0 +1,185 @@
+package com.shu.service.sync;
+
+import com.shu.util.LongObjectHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * ChangeFeedBuffer
+ *
+ * Ring buffer of the most recent change-feed entries, in version order.
+ *
+ * Invariants:
+ * - floor     : the buffer holds every change with floor < version <= watermark
+ *               (the version of the last evicted entry, or the watermark the buffer started from).
+ * - watermark : all changes up to it are in the buffer; set by the single writer (the tailer).
+ *
+ * A cursor below the floor cannot be answered from memory (read returns null): the caller falls back
+ * to the database. When an entity changes again while its older entry is still buffered, the older
+ * entry is marked superseded and skipped by readers: a till gets each entity at most once per page.
+ *
+ * One writer, many readers: appends take the write lock, reads the read lock (a page is copied out).
+ */
+public class ChangeFeedBuffer {
+
+    private final ChangeRecord[] ring;
+    private final LongObjectHashMap<ChangeRecord> latest;
+    private final StampedLock lock = new StampedLock();
+
+    private long appended;
+    private int size;
+    private long floor = -1;
+    private long watermark = -1;
+
+    public ChangeFeedBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.ring = new ChangeRecord[capacity];
+        this.latest = new LongObjectHashMap<>(capacity);
+    }
+
+    /**
+     * Empties the buffer; it then covers nothing below {@code watermark}.
+     */
+    public void reset(long watermark) {
+        long stamp = lock.writeLock();
+        try {
+            Arrays.fill(ring, null);
+            latest.clear();
+            appended = 0;
+            size = 0;
+            floor = watermark;
+            this.watermark = watermark;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Appends the changes of (watermark, newWatermark], which must be complete and in version order.
+     */
+    public void append(List<ChangeRecord> records, long newWatermark) {
+        long stamp = lock.writeLock();
+        try {
+            if (floor < 0) {
+                throw new IllegalStateException("Buffer not started, call reset first");
+            }
+            for (ChangeRecord record : records) {
+                if (size == ring.length) {
+                    evictOldest();
+                }
+                ring[slot(appended)] = record;
+                appended++;
+                size++;
+                ChangeRecord previous = latest.put(record.entityKey(), record);
+                if (previous != null) {
+                    previous.markSuperseded();
+                }
+            }
+            watermark = Math.max(watermark, newWatermark);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @return up to {@code limit} changes after {@code since}, or null when {@code since} is older
+     *         than the buffer (or the buffer has not started)
+     */
+    public Page read(long since, int limit) {
+        long stamp = lock.readLock();
+        try {
+            if (floor < 0 || since < floor) {
+                return null;
+            }
+            if (since >= watermark) {
+                // Nothing new (a cursor ahead of us was issued by a node that tailed further)
+                return new Page(List.of(), since, false);
+            }
+            List<ChangeRecord> changes = new ArrayList<>(Math.min(limit, size));
+            int i = firstAfter(since);
+            for (; i < size && changes.size() < limit; i++) {
+                ChangeRecord record = ring[slot(appended - size + i)];
+                if (!record.isSuperseded()) {
+                    changes.add(record);
+                }
+            }
+            boolean hasMore = i < size;
+            long cursor = hasMore ? ring[slot(appended - size + i - 1)].version() : watermark;
+            return new Page(changes, cursor, hasMore);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long getFloor() {
+        long stamp = lock.readLock();
+        try {
+            return floor;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public long getWatermark() {
+        long stamp = lock.readLock();
+        try {
+            return watermark;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void evictOldest() {
+        int oldest = slot(appended - size);
+        ChangeRecord evicted = ring[oldest];
+        ring[oldest] = null;
+        size--;
+        floor = evicted.version();
+        if (latest.get(evicted.entityKey()) == evicted) {
+            latest.remove(evicted.entityKey());
+        }
+    }
+
+    /**
+     * Binary search: logical index of the first entry with version > since (size if none).
+     */
+    private int firstAfter(long since) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ring[slot(appended - size + mid)].version() <= since) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int slot(long position) {
+        return (int) (position % ring.length);
+    }
+
+    /**
+     * @param changes changes in version order (superseded ones left out)
+     * @param cursor  the version to ask from next time
+     * @param hasMore true when the page was cut at the limit
+     */
+    public record Page(List<ChangeRecord> changes, long cursor, boolean hasMore) {
+    }
+}
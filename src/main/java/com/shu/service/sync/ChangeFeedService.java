@@ -0,0 +1,28 @@
+package com.shu.service.sync;
+
+/**
+ * ChangeFeedService
+ *
+ * Delta sync for till clients: instead of reloading the whole catalog and user roster, a till keeps
+ * a cursor (a change-feed version) and asks for what changed since.
+ *
+ * Versions come from SyncVersionAllocator and are stored on each product / user (syncVersion).
+ * Recent changes are answered from an in-memory ring buffer (ChangeFeedBuffer) filled by a background
+ * tailer; older cursors (a till that was off for days, or 0 for a first sync) are answered by an
+ * indexed query on syncVersion.
+ */
+public interface ChangeFeedService {
+
+    /**
+     * Returns one page of changes as JSON:
+     * {@code {"cursor":<version>,"hasMore":<boolean>,"changes":[SyncChange, ...]}}
+     *
+     * The till applies the changes in order, stores the cursor and asks again right away while
+     * hasMore is true.
+     *
+     * @param since cursor of the till (0 = everything)
+     * @param limit maximum number of changes (capped by pos.sync.max-page-size)
+     * @return the page, already serialized
+     */
+    byte[] changesSince(long since, int limit);
+}
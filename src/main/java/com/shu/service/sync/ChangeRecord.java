@@ -0,0 +1,61 @@
+package com.shu.service.sync;
+
+import com.shu.domain.ChangeType;
+
+/**
+ * One entry of the change feed, already serialized.
+ *
+ * The JSON is rendered once when the change enters the feed; every till that asks for it gets the same
+ * bytes copied into its response (no per-request object mapping).
+ */
+public final class ChangeRecord {
+
+    private final long version;
+    private final ChangeType type;
+    private final long id;
+    private final byte[] json;
+
+    // Set once a later change of the same entity is in the buffer (guarded by the ChangeFeedBuffer lock)
+    private boolean superseded;
+
+    public ChangeRecord(long version, ChangeType type, long id, byte[] json) {
+        this.version = version;
+        this.type = type;
+        this.id = id;
+        this.json = json;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public ChangeType type() {
+        return type;
+    }
+
+    public long id() {
+        return id;
+    }
+
+    /**
+     * @return the serialized SyncChange (shared: do not modify)
+     */
+    public byte[] json() {
+        return json;
+    }
+
+    boolean isSuperseded() {
+        return superseded;
+    }
+
+    void markSuperseded() {
+        superseded = true;
+    }
+
+    /**
+     * Key of the entity, unique across types.
+     */
+    long entityKey() {
+        return ((long) type.ordinal() << 56) | id;
+    }
+}
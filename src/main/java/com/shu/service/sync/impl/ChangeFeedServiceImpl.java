@@ -0,0 +1,300 @@
+package com.shu.service.sync.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shu.mapper.SyncChangeMapper;
+import com.shu.payload.response.SyncChange;
+import com.shu.service.sync.ChangeFeedBuffer;
+import com.shu.service.sync.ChangeFeedService;
+import com.shu.service.sync.ChangeRecord;
+import com.shu.service.sync.SyncVersionAllocator;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ChangeFeedServiceImpl
+ *
+ * How it works:
+ * 1. Startup: rows without a version (created before the change feed existed) get one, in chunks.
+ * 2. Tail (every pos.sync.tail-interval-ms): reads the committed counter C, then the products and users
+ *    with watermark < syncVersion <= C, serializes each once and appends them to the ring buffer.
+ *    Every version <= C is committed (the counter is incremented in the writing transaction), so the
+ *    tail never skips a change that commits late. One query per node and interval, whatever the number
+ *    of tills.
+ * 3. Reads: a cursor inside the buffer is answered from memory (pre-serialized entries are copied into
+ *    the response). A cursor older than the buffer goes to the database (indexed range on syncVersion),
+ *    bounded by the buffer's watermark so both sources agree.
+ *
+ * Changes become visible to tills after the next tail (about a second), on every node alike.
+ *
+ * Metrics ("pos.sync.*"): requests{source=buffer|database}, response bytes, buffer size.
+ */
+@Slf4j
+@Service
+public class ChangeFeedServiceImpl implements ChangeFeedService, MeterBinder {
+
+    private static final int BACKFILL_CHUNK = 1000;
+
+    private static final byte[] CURSOR = "{\"cursor\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HAS_MORE = ",\"hasMore\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CHANGES = ",\"changes\":[".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END = "]}".getBytes(StandardCharsets.US_ASCII);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SyncVersionAllocator versionAllocator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ChangeFeedBuffer buffer;
+    private final int maxPageSize;
+    private final int tailBatchSize;
+
+    private final ReentrantLock tailLock = new ReentrantLock();
+    private final LongAdder bufferReads = new LongAdder();
+    private final LongAdder databaseReads = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+
+    public ChangeFeedServiceImpl(JdbcTemplate jdbcTemplate,
+                                 SyncVersionAllocator versionAllocator,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${pos.sync.buffer-capacity:100000}") int bufferCapacity,
+                                 @Value("${pos.sync.max-page-size:5000}") int maxPageSize,
+                                 @Value("${pos.sync.tail-batch-size:5000}") int tailBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.versionAllocator = versionAllocator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.buffer = new ChangeFeedBuffer(bufferCapacity);
+        this.maxPageSize = maxPageSize;
+        this.tailBatchSize = tailBatchSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int versioned = backfill("product") + backfill("user");
+        if (versioned > 0) {
+            log.info("Change feed: assigned versions to {} existing products / users", versioned);
+        }
+        tail();
+    }
+
+    @Scheduled(fixedDelayString = "${pos.sync.tail-interval-ms:1000}")
+    public void scheduledTail() {
+        try {
+            tail();
+        } catch (RuntimeException e) {
+            log.warn("Change feed tail failed, will retry", e);
+        }
+    }
+
+    /**
+     * Moves the buffer up to the committed counter.
+     */
+    public void tail() {
+        if (!tailLock.tryLock()) {
+            return;
+        }
+        try {
+            long committed = versionAllocator.current();
+            long watermark = buffer.getWatermark();
+            if (buffer.getFloor() < 0 || committed < watermark) {
+                // First tail, or the database was restored to an older state: older cursors go to the database
+                buffer.reset(committed);
+                return;
+            }
+            while (watermark < committed) {
+                Batch batch = read(watermark, committed, tailBatchSize);
+                List<ChangeRecord> records = new ArrayList<>(batch.changes().size());
+                for (SyncChange change : batch.changes()) {
+                    records.add(toRecord(change));
+                }
+                buffer.append(records, batch.upTo());
+                watermark = batch.upTo();
+            }
+        } finally {
+            tailLock.unlock();
+        }
+    }
+
+    @Override
+    public byte[] changesSince(long since, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        long cursor = Math.max(0, since);
+
+        ChangeFeedBuffer.Page page = buffer.read(cursor, pageSize);
+        if (page != null) {
+            bufferReads.increment();
+        } else {
+            databaseReads.increment();
+            page = readDatabase(cursor, pageSize);
+        }
+
+        byte[] json = render(page);
+        responseBytes.add(json.length);
+        return json;
+    }
+
+    public int getBufferSize() {
+        return buffer.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("pos.sync.requests", bufferReads, LongAdder::sum)
+                .tag("source", "buffer")
+                .register(registry);
+        FunctionCounter.builder("pos.sync.requests", databaseReads, LongAdder::sum)
+                .tag("source", "database")
+                .register(registry);
+        FunctionCounter.builder("pos.sync.response", responseBytes, LongAdder::sum)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("pos.sync.buffer.size", this, ChangeFeedServiceImpl::getBufferSize)
+                .register(registry);
+    }
+
+    /**
+     * Cursor older than the buffer: indexed range query up to the buffer's watermark.
+     */
+    private ChangeFeedBuffer.Page readDatabase(long since, int pageSize) {
+        long watermark = buffer.getWatermark();
+        long upTo = watermark < 0 ? versionAllocator.current() : watermark;
+        if (since >= upTo) {
+            return new ChangeFeedBuffer.Page(List.of(), Math.max(since, upTo), false);
+        }
+
+        Batch batch = read(since, upTo, pageSize);
+        List<ChangeRecord> records = new ArrayList<>(batch.changes().size());
+        for (SyncChange change : batch.changes()) {
+            records.add(toRecord(change));
+        }
+        return new ChangeFeedBuffer.Page(records, batch.upTo(), batch.upTo() < upTo);
+    }
+
+    /**
+     * Reads up to {@code limit} products and {@code limit} users in (after, upTo], merged by version.
+     * When a table had more rows, the batch ends at the last version that is complete in both
+     * (at most {@code limit} changes).
+     */
+    private Batch read(long after, long upTo, int limit) {
+        List<SyncChange> products = jdbcTemplate.query(SyncChangeMapper.PRODUCTS_SQL,
+                (rs, i) -> SyncChangeMapper.toProductChange(rs), after, upTo, limit);
+        List<SyncChange> users = jdbcTemplate.query(SyncChangeMapper.USERS_SQL,
+                (rs, i) -> SyncChangeMapper.toUserChange(rs), after, upTo, limit);
+
+        long complete = upTo;
+        if (products.size() == limit) {
+            complete = Math.min(complete, products.get(limit - 1).getVersion());
+        }
+        if (users.size() == limit) {
+            complete = Math.min(complete, users.get(limit - 1).getVersion());
+        }
+
+        List<SyncChange> merged = new ArrayList<>(Math.min(limit, products.size() + users.size()));
+        int p = 0;
+        int u = 0;
+        while (merged.size() < limit) {
+            SyncChange next;
+            if (p < products.size() && (u >= users.size()
+                    || products.get(p).getVersion() < users.get(u).getVersion())) {
+                next = products.get(p++);
+            } else if (u < users.size()) {
+                next = users.get(u++);
+            } else {
+                break;
+            }
+            if (next.getVersion() > complete) {
+                break;
+            }
+            merged.add(next);
+        }
+        if (merged.size() == limit) {
+            complete = merged.get(limit - 1).getVersion();
+        }
+        return new Batch(merged, complete);
+    }
+
+    private ChangeRecord toRecord(SyncChange change) {
+        try {
+            return new ChangeRecord(change.getVersion(), change.getType(), change.getId(),
+                    objectMapper.writeValueAsBytes(change));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize change " + change.getVersion(), e);
+        }
+    }
+
+    private static byte[] render(ChangeFeedBuffer.Page page) {
+        int size = 64;
+        for (ChangeRecord record : page.changes()) {
+            size += record.json().length + 1;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        out.writeBytes(CURSOR);
+        out.writeBytes(Long.toString(page.cursor()).getBytes(StandardCharsets.US_ASCII));
+        out.writeBytes(HAS_MORE);
+        out.writeBytes(Boolean.toString(page.hasMore()).getBytes(StandardCharsets.US_ASCII));
+        out.writeBytes(CHANGES);
+        boolean first = true;
+        for (ChangeRecord record : page.changes()) {
+            if (!first) {
+                out.write(',');
+            }
+            out.writeBytes(record.json());
+            first = false;
+        }
+        out.writeBytes(END);
+        return out.toByteArray();
+    }
+
+    /**
+     * Gives versions to rows that have none (0), e.g. after upgrading a database from before the change feed.
+     */
+    private int backfill(String table) {
+        String selectSql = "SELECT id FROM " + table + " WHERE sync_version = 0 ORDER BY id LIMIT " + BACKFILL_CHUNK;
+        String updateSql = "UPDATE " + table + " SET sync_version = ? WHERE id = ? AND sync_version = 0";
+        int total = 0;
+        List<Long> ids;
+        do {
+            ids = jdbcTemplate.queryForList(selectSql, Long.class);
+            if (ids.isEmpty()) {
+                break;
+            }
+            List<Long> chunk = ids;
+            transactionTemplate.executeWithoutResult(status -> {
+                long first = versionAllocator.allocate(chunk.size()) - chunk.size() + 1;
+                List<Object[]> args = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    args.add(new Object[]{first + i, chunk.get(i)});
+                }
+                jdbcTemplate.batchUpdate(updateSql, args);
+            });
+            total += ids.size();
+        } while (ids.size() == BACKFILL_CHUNK);
+        return total;
+    }
+
+    /**
+     * @param changes changes in version order
+     * @param upTo    every change up to this version is in {@code changes} (or was before the range)
+     */
+    private record Batch(List<SyncChange> changes, long upTo) {
+    }
+}
@@ -0,0 +1,234 @@
+package com.shu.service.user;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LastLoginUpdater
+ *
+ * Write-behind updater for {@code User.lastLogin}.
+ *
+ * Why?
+ * - Bumping lastLogin with a synchronous save costs a SELECT + UPDATE on every login
+ *   and holds a DB connection while doing it. At shift start every cashier logs in at once.
+ *
+ * How it works:
+ * - Logins are recorded in memory, coalesced per user (only the newest timestamp is kept).
+ * - A scheduled job flushes all pending updates as JDBC batches.
+ * - The pending map is bounded: when it is full, the caller flushes inline (backpressure).
+ * - Everything still pending is flushed when the application shuts down.
+ * - Failed flushes are put back so the next run retries them.
+ * - While flushes fail (database down) or another flush is running, a full map is not flushed inline:
+ *   the new user's lastLogin is dropped instead. lastLogin is informational, a login must not wait
+ *   for a database that is not answering.
+ *
+ * Metrics ("pos.auth.last-login.*"):
+ * - pending count, lag (age of the oldest unflushed login), flushed and dropped row counts.
+ */
+@Slf4j
+@Service
+public class LastLoginUpdater implements MeterBinder {
+
+    // Never move lastLogin backwards (e.g. another node already wrote a newer value)
+    private static final String UPDATE_SQL =
+            "UPDATE user SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxPending;
+    private final int batchSize;
+
+    private final ConcurrentHashMap<Long, PendingLogin> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder droppedRows = new LongAdder();
+
+    // The last flush put at least one chunk back
+    private volatile boolean flushFailing;
+
+    public LastLoginUpdater(JdbcTemplate jdbcTemplate,
+                            @Value("${pos.auth.last-login.max-pending:10000}") int maxPending,
+                            @Value("${pos.auth.last-login.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Records a successful login. Returns immediately unless the queue is full and the database healthy.
+     *
+     * @param userId    id of the user who logged in
+     * @param loginTime time of the login
+     */
+    public void recordLogin(Long userId, LocalDateTime loginTime) {
+        if (pending.size() >= maxPending && !pending.containsKey(userId)) {
+            // Queue is full → flush on the caller thread instead of growing without limit
+            if (!flushFailing && flushLock.tryLock()) {
+                try {
+                    flushPending();
+                } finally {
+                    flushLock.unlock();
+                }
+            }
+            if (pending.size() >= maxPending) {
+                // Database failing or another flush running: drop this update rather than wait
+                droppedRows.increment();
+                return;
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        pending.merge(userId, new PendingLogin(loginTime, now), PendingLogin::coalesce);
+    }
+
+    /**
+     * Periodic flush of pending lastLogin updates.
+     */
+    @Scheduled(fixedDelayString = "${pos.auth.last-login.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * Flush everything that is still pending before the DataSource goes away.
+     */
+    @PreDestroy
+    public void flushOnShutdown() {
+        int flushed = flush();
+        if (flushed > 0) {
+            log.info("Flushed {} pending lastLogin updates on shutdown", flushed);
+        }
+    }
+
+    /**
+     * Writes all pending updates in JDBC batches.
+     *
+     * @return number of users updated
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            return flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * @return number of users drained (updated or put back)
+     */
+    private int flushPending() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        // 1. Drain the map (logins arriving meanwhile simply go to the next flush)
+        List<Map.Entry<Long, PendingLogin>> drained = new ArrayList<>(pending.size());
+        for (Long userId : pending.keySet()) {
+            PendingLogin login = pending.remove(userId);
+            if (login != null) {
+                drained.add(Map.entry(userId, login));
+            }
+        }
+
+        // 2. Send them in batches of batchSize
+        boolean failed = false;
+        for (int from = 0; from < drained.size(); from += batchSize) {
+            List<Map.Entry<Long, PendingLogin>> chunk =
+                    drained.subList(from, Math.min(from + batchSize, drained.size()));
+            try {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, toBatchArgs(chunk));
+                flushedRows.add(chunk.size());
+            } catch (RuntimeException e) {
+                // 3. Put the failed chunk back, the next run will retry it
+                failed = true;
+                log.warn("lastLogin flush failed for {} users, will retry", chunk.size(), e);
+                chunk.forEach(entry -> pending.merge(entry.getKey(), entry.getValue(), PendingLogin::coalesce));
+            }
+        }
+        flushFailing = failed;
+        return drained.size();
+    }
+
+    /**
+     * @return number of users with an unflushed lastLogin
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * @return age in millis of the oldest unflushed login (0 when nothing is pending)
+     */
+    public long getLagMillis() {
+        long oldest = Long.MAX_VALUE;
+        for (PendingLogin login : pending.values()) {
+            oldest = Math.min(oldest, login.enqueuedAtMillis());
+        }
+        return oldest == Long.MAX_VALUE ? 0 : System.currentTimeMillis() - oldest;
+    }
+
+    /**
+     * @return total rows written since startup
+     */
+    public long getFlushedCount() {
+        return flushedRows.sum();
+    }
+
+    /**
+     * @return logins whose lastLogin was dropped because the queue was full and could not be flushed
+     */
+    public long getDroppedCount() {
+        return droppedRows.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("pos.auth.last-login.pending", this, LastLoginUpdater::getPendingCount)
+                .register(registry);
+        Gauge.builder("pos.auth.last-login.lag", this, LastLoginUpdater::getLagMillis)
+                .baseUnit("milliseconds")
+                .register(registry);
+        FunctionCounter.builder("pos.auth.last-login.flushed", this, LastLoginUpdater::getFlushedCount)
+                .register(registry);
+        FunctionCounter.builder("pos.auth.last-login.dropped", this, LastLoginUpdater::getDroppedCount)
+                .register(registry);
+    }
+
+    private static List<Object[]> toBatchArgs(List<Map.Entry<Long, PendingLogin>> chunk) {
+        List<Object[]> args = new ArrayList<>(chunk.size());
+        for (Map.Entry<Long, PendingLogin> entry : chunk) {
+            Timestamp loginTime = Timestamp.valueOf(entry.getValue().loginTime());
+            args.add(new Object[]{loginTime, entry.getKey(), loginTime});
+        }
+        return args;
+    }
+
+    /**
+     * Latest login time of a user plus the time its first unflushed login was queued.
+     */
+    private record PendingLogin(LocalDateTime loginTime, long enqueuedAtMillis) {
+
+        static PendingLogin coalesce(PendingLogin older, PendingLogin newer) {
+            LocalDateTime latest = newer.loginTime().isAfter(older.loginTime())
+                    ? newer.loginTime() : older.loginTime();
+            return new PendingLogin(latest, Math.min(older.enqueuedAtMillis(), newer.enqueuedAtMillis()));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.shu.service.user;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.shu.model.entity.User;
+import com.shu.repository.UserRepository;
+import com.shu.util.EmailAddresses;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * UserCache
+ *
+ * Read-through, in-process cache in front of {@link UserRepository#findByEmail(String)}.
+ * Steady-state auth traffic (login, signup checks, UserDetails loading) resolves identities
+ * from memory instead of MySQL.
+ *
+ * Design:
+ * - Keyed by normalized email ({@link EmailAddresses#normalize}), matching MySQL's case-insensitive collation.
+ * - Two bounded caches with size + TTL eviction:
+ *     users         : email → User
+ *     unknownEmails : negative lookups, so repeated misses (typos, probing) don't hit the DB
+ * - The query of a miss runs on the calling thread outside any cache lock (users is an AsyncCache holding
+ *   the future of the load): Cache.get(key, loader) would run it inside ConcurrentHashMap.compute, whose
+ *   synchronized block pins a virtual request thread (spring.threads.virtual.enabled) while it waits
+ *   for a pooled connection. With every carrier pinned that way, nothing releases a connection.
+ * - Invalidated by {@link UserCacheInvalidator} whenever a User is inserted, updated or deleted
+ *   (signup, profile update, role change), and explicitly after bulk JPQL/JDBC updates.
+ * - Hit ratio and eviction counts are recorded per cache and published as "cache.*"
+ *   metrics (cache = users | users.unknown).
+ *
+ * Note: cached User instances are shared between threads and must be treated as read-only.
+ */
+@Service
+public class UserCache implements MeterBinder {
+
+    private final UserRepository userRepository;
+    private final AsyncCache<String, User> users;
+    private final Cache<String, Boolean> unknownEmails;
+
+    public UserCache(UserRepository userRepository,
+                     @Value("${pos.cache.users.max-size:50000}") long maxSize,
+                     @Value("${pos.cache.users.ttl:10m}") Duration ttl,
+                     @Value("${pos.cache.users.negative-max-size:10000}") long negativeMaxSize,
+                     @Value("${pos.cache.users.negative-ttl:30s}") Duration negativeTtl) {
+        this.userRepository = userRepository;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.unknownEmails = Caffeine.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(negativeTtl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Looks up a user by email, going to the database only on a cache miss.
+     * Concurrent misses for the same email trigger a single query.
+     *
+     * @param email email address (any case / surrounding spaces)
+     * @return the user, or null if no user has this email
+     */
+    public User findByEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        String key = EmailAddresses.normalize(email);
+
+        if (unknownEmails.getIfPresent(key) != null) {
+            return null;
+        }
+        CompletableFuture<User> loading = new CompletableFuture<>();
+        CompletableFuture<User> user = users.get(key, (k, executor) -> loading);
+        if (user == loading) {
+            try {
+                // A null user or a failure completes the future and removes the entry
+                loading.complete(load(key));
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return user.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Drops everything cached for an email (positive and negative entries).
+     *
+     * @param email email address of the changed user
+     */
+    public void invalidate(String email) {
+        if (email == null) {
+            return;
+        }
+        String key = EmailAddresses.normalize(email);
+        users.synchronous().invalidate(key);
+        unknownEmails.invalidate(key);
+    }
+
+    /**
+     * Drops a user by id. Needed when the email itself changed,
+     * because the old email key is no longer known to the caller.
+     *
+     * @param userId id of the changed user
+     */
+    public void invalidateById(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        users.synchronous().asMap().values().removeIf(user -> userId.equals(user.getId()));
+    }
+
+    public CacheStats getUserStats() {
+        return users.synchronous().stats();
+    }
+
+    public CacheStats getUnknownEmailStats() {
+        return unknownEmails.stats();
+    }
+
+    public long getUserCount() {
+        return users.synchronous().estimatedSize();
+    }
+
+    public long getUnknownEmailCount() {
+        return unknownEmails.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, users, "users");
+        CaffeineCacheMetrics.monitor(registry, unknownEmails, "users.unknown");
+    }
+
+    private User load(String normalizedEmail) {
+        User user = userRepository.findByEmail(normalizedEmail);
+        if (user == null) {
+            // Returning null keeps "users" free of the key; remember the miss separately
+            unknownEmails.put(normalizedEmail, Boolean.TRUE);
+        }
+        return user;
+    }
+}
@@ -0,0 +1,74 @@
+package com.shu.service.user;
+
+import com.shu.model.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * UserCacheInvalidator
+ *
+ * JPA entity listener on {@link User}: every insert, update or delete evicts the user
+ * from {@link UserCache}, so signup, profile updates and role changes are visible immediately.
+ *
+ * The entry is evicted right away and again after the transaction completes,
+ * so a concurrent reader cannot re-cache the old row between flush and commit.
+ *
+ * Created by Hibernate through Spring's bean container; the cache is looked up lazily
+ * so the listener also works in contexts without a UserCache (e.g. JPA slice tests).
+ */
+public class UserCacheInvalidator {
+
+    private ObjectProvider<UserCache> userCacheProvider;
+
+    @Autowired
+    public void setUserCacheProvider(ObjectProvider<UserCache> userCacheProvider) {
+        this.userCacheProvider = userCacheProvider;
+    }
+
+    /**
+     * New user: only the email key matters (it may be cached as "unknown").
+     */
+    @PostPersist
+    public void onUserCreated(User user) {
+        UserCache userCache = currentCache();
+        if (userCache != null) {
+            afterFlushAndCommit(() -> userCache.invalidate(user.getEmail()));
+        }
+    }
+
+    /**
+     * Updated or deleted user: the email may have changed, so also evict by id.
+     */
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        UserCache userCache = currentCache();
+        if (userCache != null) {
+            afterFlushAndCommit(() -> {
+                userCache.invalidate(user.getEmail());
+                userCache.invalidateById(user.getId());
+            });
+        }
+    }
+
+    private UserCache currentCache() {
+        return userCacheProvider == null ? null : userCacheProvider.getIfAvailable();
+    }
+
+    private static void afterFlushAndCommit(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.shu.service.user;
+
+import com.shu.exceptions.UserException;
+import com.shu.payload.request.BulkSignupRequest;
+import com.shu.payload.response.BulkProvisionResponse;
+
+/**
+ * UserProvisioningService
+ *
+ * Creates many users in one call for admins (branch onboarding).
+ * Unlike signup, no token is generated and rows are processed set-wise.
+ */
+public interface UserProvisioningService {
+
+    /**
+     * Validates, hashes and inserts a batch of users.
+     *
+     * @param request batch of SignupRequests
+     * @return per-row result report (created / failed with reason)
+     * @throws UserException if the batch is empty or larger than the configured limit
+     */
+    BulkProvisionResponse provision(BulkSignupRequest request) throws UserException;
+}
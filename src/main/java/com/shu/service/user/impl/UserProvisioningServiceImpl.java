@@ -0,0 +1,247 @@
+package com.shu.service.user.impl;
+
+import com.shu.constant.ErrorCode;
+import com.shu.domain.UserRole;
+import com.shu.exceptions.UserException;
+import com.shu.model.entity.User;
+import com.shu.payload.request.BulkSignupRequest;
+import com.shu.payload.request.SignupRequest;
+import com.shu.payload.response.BulkProvisionResponse;
+import com.shu.repository.UserRepository;
+import com.shu.service.auth.PasswordHashingService;
+import com.shu.service.sync.SyncVersionAllocator;
+import com.shu.service.user.UserProvisioningService;
+import com.shu.util.EmailAddresses;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * UserProvisioningServiceImpl
+ *
+ * Bulk user creation for admins.
+ *
+ * Steps:
+ * 1. Validate every row on its own (bean validation, role rules, duplicates inside the batch)
+ * 2. Find already registered emails with one set-based query per 1000 emails
+ * 3. Hash all passwords in parallel on the password-hashing pool
+ * 4. Insert in chunks, one transaction per chunk, using Hibernate JDBC batching
+ *    (hibernate.jdbc.batch_size + rewriteBatchedStatements)
+ * 5. Return a per-row report
+ *
+ * A failing chunk (e.g. an email registered concurrently) only fails its own rows.
+ */
+@Slf4j
+@Service
+public class UserProvisioningServiceImpl implements UserProvisioningService {
+
+    private static final int EMAIL_LOOKUP_CHUNK = 1000;
+
+    private static final String CREATED = "CREATED";
+    private static final String FAILED = "FAILED";
+
+    private final UserRepository userRepository;
+    private final PasswordHashingService passwordHashingService;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final SyncVersionAllocator versionAllocator;
+    private final int maxBatchSize;
+    private final int insertChunkSize;
+
+    public UserProvisioningServiceImpl(UserRepository userRepository,
+                                       PasswordHashingService passwordHashingService,
+                                       Validator validator,
+                                       EntityManager entityManager,
+                                       PlatformTransactionManager transactionManager,
+                                       SyncVersionAllocator versionAllocator,
+                                       @Value("${pos.admin.provisioning.max-batch-size:5000}") int maxBatchSize,
+                                       @Value("${pos.admin.provisioning.insert-chunk-size:500}") int insertChunkSize) {
+        this.userRepository = userRepository;
+        this.passwordHashingService = passwordHashingService;
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.versionAllocator = versionAllocator;
+        this.maxBatchSize = maxBatchSize;
+        this.insertChunkSize = insertChunkSize;
+    }
+
+    @Override
+    public BulkProvisionResponse provision(BulkSignupRequest request) throws UserException {
+        List<SignupRequest> rows = request.getUsers();
+        if (rows == null || rows.isEmpty()) {
+            throw new UserException("No users to provision");
+        }
+        if (rows.size() > maxBatchSize) {
+            throw new UserException("At most " + maxBatchSize + " users can be provisioned per call");
+        }
+
+        BulkProvisionResponse.RowResult[] results = new BulkProvisionResponse.RowResult[rows.size()];
+
+        // 1. Row-level validation + duplicates inside the request
+        Map<String, Integer> candidates = new HashMap<>();
+        for (int row = 0; row < rows.size(); row++) {
+            SignupRequest signup = rows.get(row);
+            String error = validate(signup);
+            if (error != null) {
+                results[row] = failed(row, signup, errorCodeFor(signup), error);
+                continue;
+            }
+            String email = EmailAddresses.normalize(signup.getEmail());
+            if (candidates.putIfAbsent(email, row) != null) {
+                results[row] = failed(row, signup, ErrorCode.USER_ALREADY_EXISTS, "Duplicate email in request");
+            }
+        }
+
+        // 2. Already registered emails (set-based lookup)
+        Set<String> existing = findExistingEmails(candidates.keySet());
+        List<Integer> toCreate = new ArrayList<>();
+        for (Map.Entry<String, Integer> candidate : candidates.entrySet()) {
+            int row = candidate.getValue();
+            if (existing.contains(candidate.getKey())) {
+                results[row] = failed(row, rows.get(row), ErrorCode.USER_ALREADY_EXISTS, "Email id already register!");
+            } else {
+                toCreate.add(row);
+            }
+        }
+        toCreate.sort(null);
+
+        // 3. Hash passwords in parallel
+        List<String> hashes = passwordHashingService.encodeAll(
+                toCreate.stream().map(row -> rows.get(row).getPassword()).toList());
+
+        // 4. Insert in chunks
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < toCreate.size(); from += insertChunkSize) {
+            int to = Math.min(from + insertChunkSize, toCreate.size());
+            List<User> users = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                users.add(newUser(rows.get(toCreate.get(i)), hashes.get(i), now));
+            }
+            insertChunk(rows, results, toCreate.subList(from, to), users);
+        }
+
+        // 5. Report
+        BulkProvisionResponse response = new BulkProvisionResponse();
+        response.setResults(List.of(results));
+        response.setRequested(rows.size());
+        response.setCreated((int) response.getResults().stream().filter(r -> CREATED.equals(r.getStatus())).count());
+        response.setFailed(rows.size() - response.getCreated());
+        return response;
+    }
+
+    /**
+     * Inserts one chunk in its own transaction; on failure only this chunk's rows are reported as failed.
+     */
+    private void insertChunk(List<SignupRequest> rows,
+                             BulkProvisionResponse.RowResult[] results,
+                             List<Integer> chunkRows,
+                             List<User> users) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // One counter update per chunk (change-feed versions for the tills' rosters)
+                long version = versionAllocator.allocate(users.size()) - users.size();
+                for (User user : users) {
+                    user.setSyncVersion(++version);
+                }
+                userRepository.saveAll(users);
+                entityManager.flush();
+                // Don't keep thousands of entities in the persistence context
+                entityManager.clear();
+            });
+            for (int i = 0; i < users.size(); i++) {
+                int row = chunkRows.get(i);
+                BulkProvisionResponse.RowResult result = result(row, rows.get(row), CREATED);
+                result.setUserId(users.get(i).getId());
+                results[row] = result;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Bulk provisioning chunk of {} users failed", users.size(), e);
+            for (int row : chunkRows) {
+                results[row] = failed(row, rows.get(row), ErrorCode.USER_ERROR,
+                        "Insert failed, the email may have been registered concurrently");
+            }
+        }
+    }
+
+    private Set<String> findExistingEmails(Set<String> emails) {
+        Set<String> existing = new HashSet<>();
+        List<String> all = new ArrayList<>(emails);
+        for (int from = 0; from < all.size(); from += EMAIL_LOOKUP_CHUNK) {
+            userRepository.findExistingEmails(all.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK, all.size())))
+                    .forEach(email -> existing.add(EmailAddresses.normalize(email)));
+        }
+        return existing;
+    }
+
+    /**
+     * @return an error message, or null when the row is valid
+     */
+    private String validate(SignupRequest signup) {
+        if (signup == null) {
+            return "Row is empty";
+        }
+        Set<ConstraintViolation<SignupRequest>> violations = validator.validate(signup);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (signup.getRole() == null) {
+            return "role must not be null";
+        }
+        if (signup.getRole() == UserRole.ROLE_ADMIN) {
+            return "Role admin is not allowed!";
+        }
+        return null;
+    }
+
+    private static String errorCodeFor(SignupRequest signup) {
+        return signup != null && signup.getRole() == UserRole.ROLE_ADMIN
+                ? ErrorCode.ROLE_NOT_ALLOWED
+                : ErrorCode.USER_ERROR;
+    }
+
+    private static User newUser(SignupRequest signup, String passwordHash, LocalDateTime now) {
+        User user = new User();
+        user.setEmail(EmailAddresses.normalize(signup.getEmail()));
+        user.setFullName(signup.getFullName());
+        user.setPassword(passwordHash);
+        user.setRole(signup.getRole());
+        user.setPhone(signup.getPhone());
+        user.setCreatedAt(now);
+        user.setUpdatedAt(now);
+        return user;
+    }
+
+    private static BulkProvisionResponse.RowResult failed(int row, SignupRequest signup, String errorCode, String message) {
+        BulkProvisionResponse.RowResult result = result(row, signup, FAILED);
+        result.setErrorCode(errorCode);
+        result.setMessage(message);
+        return result;
+    }
+
+    private static BulkProvisionResponse.RowResult result(int row, SignupRequest signup, String status) {
+        BulkProvisionResponse.RowResult result = new BulkProvisionResponse.RowResult();
+        result.setRow(row);
+        result.setEmail(signup == null ? null : signup.getEmail());
+        result.setStatus(status);
+        return result;
+    }
+}
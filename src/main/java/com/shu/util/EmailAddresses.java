@@ -0,0 +1,18 @@
+package com.shu.util;
+
+import java.util.Locale;
+
+/**
+ * The one normalized form of an email address: trimmed and lower-case, matching MySQL's case-insensitive
+ * collation. Stored emails, cache keys and throttle keys all use it, whichever way a user was created
+ * (POST /auth/signup or the admin bulk import).
+ */
+public final class EmailAddresses {
+
+    private EmailAddresses() {
+    }
+
+    public static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,59 @@
+package com.shu.util;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints (no boxing), used for posting lists.
+ * Order is not preserved by {@link #removeValue(int)}.
+ * Not thread-safe.
+ */
+public class IntList {
+
+    private int[] values;
+    private int size;
+
+    public IntList() {
+        this(4);
+    }
+
+    public IntList(int capacity) {
+        this.values = new int[Math.max(1, capacity)];
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Removes one occurrence of the value by moving the last element into its place.
+     *
+     * @return true if the value was present
+     */
+    public boolean removeValue(int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                values[i] = values[--size];
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,216 @@
+package com.shu.util;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * LongObjectHashMap
+ *
+ * Open-addressing hash map with primitive {@code long} keys.
+ *
+ * Why?
+ * - {@code HashMap<Long, V>} boxes every key and allocates a node per entry:
+ *   a lookup allocates a Long and chases two pointers.
+ * - Here keys live in a {@code long[]}, values in a parallel {@code Object[]},
+ *   so {@link #get(long)} allocates nothing.
+ *
+ * Layout:
+ * - Linear probing, power-of-two capacity, load factor 0.5 (short probe chains).
+ * - Removal uses backward-shift deletion (no tombstones, lookups stay short).
+ * - Both arrays are held by one immutable {@link Table} reference, swapped on resize,
+ *   so a reader always sees a matching keys/values pair.
+ *
+ * Not thread-safe: callers guard writes (see ProductCatalogIndex, which uses a StampedLock).
+ * Reads are safe to run optimistically: they never loop more than the table length and
+ * never index outside the table they read.
+ *
+ * @param <V> value type
+ */
+public class LongObjectHashMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private Table table;
+    private int size;
+
+    public LongObjectHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongObjectHashMap(int expectedSize) {
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    /**
+     * @return the value for the key, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        Table t = table;
+        long[] keys = t.keys;
+        Object[] values = t.values;
+        int mask = keys.length - 1;
+
+        int slot = mix(key) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            Object value = values[slot];
+            if (value == null) {
+                return null;
+            }
+            if (keys[slot] == key) {
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * @return the previous value, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+        if ((size + 1) * 2 > table.keys.length) {
+            resize(table.keys.length * 2);
+        }
+
+        long[] keys = table.keys;
+        Object[] values = table.values;
+        int mask = keys.length - 1;
+
+        int slot = mix(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                Object previous = values[slot];
+                values[slot] = value;
+                return (V) previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        return null;
+    }
+
+    /**
+     * @return the removed value, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        long[] keys = table.keys;
+        Object[] values = table.values;
+        int mask = keys.length - 1;
+
+        int slot = mix(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                Object previous = values[slot];
+                shiftBack(slot);
+                size--;
+                return (V) previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(table.values, null);
+        size = 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> action) {
+        for (Object value : table.values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    /**
+     * Backward-shift deletion: moves following entries of the probe chain into the gap.
+     */
+    private void shiftBack(int gap) {
+        long[] keys = table.keys;
+        Object[] values = table.values;
+        int mask = keys.length - 1;
+
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (values[slot] == null) {
+                break;
+            }
+            int home = mix(keys[slot]) & mask;
+            // Entry can move into the gap if its home slot is not between gap (exclusive) and slot (inclusive)
+            boolean movable = gap <= slot
+                    ? (home <= gap || home > slot)
+                    : (home <= gap && home > slot);
+            if (movable) {
+                keys[gap] = keys[slot];
+                values[gap] = values[slot];
+                gap = slot;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void resize(int capacity) {
+        Table old = table;
+        Table resized = new Table(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < old.keys.length; i++) {
+            Object value = old.values[i];
+            if (value != null) {
+                int slot = mix(old.keys[i]) & mask;
+                while (resized.values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                resized.keys[slot] = old.keys[i];
+                resized.values[slot] = value;
+            }
+        }
+        table = resized;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+        return Math.max(MIN_CAPACITY, capacity);
+    }
+
+    /**
+     * Spreads sequential keys (ids, EAN ranges) over the table (Murmur3 finalizer).
+     */
+    private static int mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static final class Table {
+        final long[] keys;
+        final Object[] values;
+
+        Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+    }
+}
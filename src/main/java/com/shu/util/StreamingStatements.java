@@ -0,0 +1,47 @@
+package com.shu.util;
+
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Queries whose rows are streamed instead of read into memory as a whole (exports, rollup rebuild).
+ *
+ * MySQL Connector/J ignores a positive fetch size unless useCursorFetch=true is on the JDBC URL, which
+ * would make every prepared statement of the pool a server-side one. Instead, a fetch size of
+ * Integer.MIN_VALUE on a forward-only, read-only statement streams the rows of that statement only.
+ * Other databases (H2 in tests) get the given fetch size.
+ *
+ * While a MySQL streamed result is open its connection cannot run another statement: read it to the end
+ * (or close it) before using the connection again.
+ */
+public final class StreamingStatements {
+
+    private static final String MYSQL = "MySQL";
+
+    private StreamingStatements() {
+    }
+
+    /**
+     * @param fetchSize rows per fetch where the driver honours it (not MySQL, which streams row by row)
+     * @param args      bind values, in order
+     */
+    public static PreparedStatementCreator streaming(String sql, int fetchSize, Object... args) {
+        return connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize(connection, fetchSize));
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        };
+    }
+
+    private static int fetchSize(Connection connection, int fetchSize) throws SQLException {
+        return MYSQL.equals(connection.getMetaData().getDatabaseProductName()) ? Integer.MIN_VALUE : fetchSize;
+    }
+}
@@ -0,0 +1,16 @@
+-- Baseline schema for H2 in MySQL mode (load tests and the startup benchmark), same as ../mysql/V1.
+
+create sequence user_seq start with 1 increment by 100;
+
+create table user (
+    created_at timestamp(6),
+    id bigint not null,
+    last_login timestamp(6),
+    updated_at timestamp(6),
+    email varchar(255) not null unique,
+    full_name varchar(255) not null,
+    password varchar(255) not null,
+    phone varchar(255),
+    role enum ('ROLE_ADMIN','ROLE_BRANCH_MANAGER','ROLE_CASHIER','ROLE_STORE_MANAGER','ROLE_USER') not null,
+    primary key (id)
+);
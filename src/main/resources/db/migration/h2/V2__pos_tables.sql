@@ -0,0 +1,195 @@
+-- Same as ../mysql/V2.
+
+alter table user
+   add column sync_version bigint default 0 not null;
+
+create sequence mail_outbox_seq start with 1 increment by 100;
+
+create sequence order_item_seq start with 1 increment by 100;
+
+create sequence orders_seq start with 1 increment by 100;
+
+create sequence payment_event_seq start with 1 increment by 100;
+
+create sequence product_seq start with 1 increment by 100;
+
+create sequence stock_movement_seq start with 1 increment by 100;
+
+create table branch_hourly_sales (
+    gross_amount numeric(14,2) not null,
+    refunded_amount numeric(14,2) not null,
+    branch_id bigint not null,
+    hour_start timestamp(6) not null,
+    order_count bigint not null,
+    refund_count bigint not null,
+    updated_at timestamp(6),
+    primary key (branch_id, hour_start)
+);
+
+create table inventory (
+    branch_id bigint not null,
+    product_id bigint not null,
+    quantity bigint not null,
+    updated_at timestamp(6),
+    primary key (branch_id, product_id)
+);
+
+create table journal_checkpoint (
+    lsn bigint not null,
+    journal varchar(64) not null,
+    primary key (journal)
+);
+
+create table mail_outbox (
+    attempts integer not null,
+    created_at timestamp(6) not null,
+    id bigint not null,
+    next_attempt_at timestamp(6) not null,
+    sent_at timestamp(6),
+    claim_token varchar(36),
+    recipient varchar(320) not null,
+    last_error varchar(500),
+    subject varchar(255) not null,
+    body clob not null,
+    status enum ('DEAD','PENDING','SENT') not null,
+    type enum ('RECEIPT','SIGNUP_CONFIRMATION') not null,
+    primary key (id)
+);
+
+create table order_item (
+    line_total numeric(12,2) not null,
+    unit_price numeric(12,2) not null,
+    id bigint not null,
+    order_id bigint not null,
+    product_id bigint not null,
+    quantity bigint not null,
+    sku varchar(64),
+    name varchar(255),
+    primary key (id)
+);
+
+create table orders (
+    total_amount numeric(12,2) not null,
+    branch_id bigint not null,
+    cashier_id bigint,
+    created_at timestamp(6),
+    id bigint not null,
+    idempotency_key varchar(64) not null unique,
+    request_hash varchar(64) not null,
+    payment_provider varchar(255),
+    payment_reference varchar(255),
+    payment_method enum ('CARD','CASH','UPI') not null,
+    status enum ('COMPLETED','REFUNDED') not null,
+    primary key (id)
+);
+
+create table payment_event (
+    id bigint not null,
+    journal_lsn bigint not null,
+    received_at timestamp(6),
+    provider varchar(32) not null,
+    event_id varchar(128) not null,
+    payment_reference varchar(255),
+    payload clob not null,
+    type enum ('CAPTURED','FAILED','OTHER','REFUNDED') not null,
+    primary key (id),
+    constraint uk_payment_event_provider_event unique (provider, event_id)
+);
+
+create table product (
+    active boolean not null,
+    mrp numeric(12,2),
+    selling_price numeric(12,2) not null,
+    created_at timestamp(6),
+    id bigint not null,
+    sync_version bigint default 0 not null,
+    updated_at timestamp(6),
+    barcode varchar(64) unique,
+    sku varchar(64) not null unique,
+    description varchar(1000),
+    brand varchar(255),
+    category varchar(255),
+    name varchar(255) not null,
+    primary key (id)
+);
+
+create table product_hourly_sales (
+    gross_amount numeric(14,2) not null,
+    refunded_amount numeric(14,2) not null,
+    branch_id bigint not null,
+    hour_start timestamp(6) not null,
+    product_id bigint not null,
+    quantity bigint not null,
+    refunded_quantity bigint not null,
+    updated_at timestamp(6),
+    primary key (branch_id, hour_start, product_id)
+);
+
+create table stock_movement (
+    branch_id bigint not null,
+    created_at timestamp(6),
+    id bigint not null,
+    journal_lsn bigint not null,
+    product_id bigint not null,
+    quantity bigint not null,
+    reference varchar(255),
+    type enum ('ADJUSTMENT','RESTOCK','SALE') not null,
+    primary key (id)
+);
+
+create table sync_counter (
+    version bigint not null,
+    name varchar(64) not null,
+    primary key (name)
+);
+
+create table token_revocation (
+    expires_at bigint not null,
+    revoked_at bigint not null,
+    token_key varchar(330) not null,
+    primary key (token_key)
+);
+
+create index idx_mail_outbox_due
+   on mail_outbox (status, next_attempt_at);
+
+create index idx_mail_outbox_claim
+   on mail_outbox (claim_token);
+
+create index idx_order_item_order
+   on order_item (order_id);
+
+create index idx_orders_branch_created
+   on orders (branch_id, created_at);
+
+create index idx_orders_payment
+   on orders (payment_provider, payment_reference);
+
+create index idx_payment_event_received
+   on payment_event (provider, received_at);
+
+create index idx_product_updated_at
+   on product (updated_at);
+
+create index idx_product_sync_version
+   on product (sync_version);
+
+create index idx_stock_movement_branch_product
+   on stock_movement (branch_id, product_id);
+
+create index idx_stock_movement_journal_lsn
+   on stock_movement (journal_lsn);
+
+create index idx_token_revocation_revoked_at
+   on token_revocation (revoked_at);
+
+create index idx_token_revocation_expires_at
+   on token_revocation (expires_at);
+
+create index idx_user_sync_version
+   on user (sync_version);
+
+alter table if exists order_item
+   add constraint FKt4dc2r9nbvbujrljv3e23iibt
+   foreign key (order_id)
+   references orders;
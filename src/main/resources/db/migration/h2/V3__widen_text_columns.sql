@@ -0,0 +1,2 @@
+-- Same version as ../mysql/V3. H2 V2 already maps these columns to CLOB: nothing to widen.
+select 1;
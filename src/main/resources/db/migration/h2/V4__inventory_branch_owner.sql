@@ -0,0 +1,8 @@
+-- Same as ../mysql/V4.
+
+create table inventory_branch_owner (
+    branch_id bigint not null,
+    claimed_at timestamp(6),
+    journal_id varchar(36),
+    primary key (branch_id)
+);
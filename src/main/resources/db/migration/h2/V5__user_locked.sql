@@ -0,0 +1,4 @@
+-- Same as ../mysql/V5.
+
+alter table user
+   add column locked boolean default false not null;
@@ -0,0 +1,25 @@
+-- Baseline: the schema as created by spring.jpa.hibernate.ddl-auto=update before migrations existed
+-- (MySQL 8): the user table and its id sequence. Existing databases created that way are baselined
+-- at this version (spring.flyway.baseline-on-migrate), new ones are created from it.
+
+create table user (
+    created_at datetime(6),
+    id bigint not null,
+    last_login datetime(6),
+    updated_at datetime(6),
+    email varchar(255) not null,
+    full_name varchar(255) not null,
+    password varchar(255) not null,
+    phone varchar(255),
+    role enum ('ROLE_ADMIN','ROLE_BRANCH_MANAGER','ROLE_CASHIER','ROLE_STORE_MANAGER','ROLE_USER') not null,
+    primary key (id)
+) engine=InnoDB;
+
+create table user_seq (
+    next_val bigint
+) engine=InnoDB;
+
+insert into user_seq values ( 1 );
+
+alter table user
+   add constraint UKob8kqyqqgmefl0aco34akdtpe unique (email);
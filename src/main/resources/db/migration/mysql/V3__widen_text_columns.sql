@@ -0,0 +1,5 @@
+-- @Lob strings without a length were created as TINYTEXT (255 bytes): too small for mail bodies
+-- and provider webhook payloads.
+alter table mail_outbox modify body text not null;
+
+alter table payment_event modify payload mediumtext not null;
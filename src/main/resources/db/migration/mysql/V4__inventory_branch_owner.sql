@@ -0,0 +1,8 @@
+-- Inventory node serving each branch (0 = every branch), see InventoryBranchClaims.
+
+create table inventory_branch_owner (
+    branch_id bigint not null,
+    claimed_at datetime(6),
+    journal_id varchar(36),
+    primary key (branch_id)
+) engine=InnoDB;
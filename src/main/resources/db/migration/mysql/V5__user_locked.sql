@@ -0,0 +1,4 @@
+-- Locked accounts cannot log in or refresh a token (POST /api/admin/users/{id}/revoke-tokens, .../unlock).
+
+alter table user
+   add column locked bit default 0 not null;
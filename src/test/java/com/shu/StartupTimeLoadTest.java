@@ -0,0 +1,204 @@
+package com.shu;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Time from JVM launch to the first served request (GET /actuator/health) of ShuPosSystemApplication.
+ *
+ * Each mode starts the application {@value #RUNS} times in a fresh JVM (test classpath, file-based
+ * H2 in MySQL mode standing in for the database) after one untimed run that creates the schema:
+ * - ddl-update    : h2 profile with spring.jpa.hibernate.ddl-auto=update (the old default)
+ * - migrations    : h2,prod profiles without lazy init (Flyway checks its history, Hibernate validates)
+ * - prod          : h2,prod profiles (migrations + lazy init, see StartupConfig)
+ * - prod+cds      : prod with a class data sharing archive dumped by the untimed run
+ *
+ * The JVM only archives classes loaded from jars, so target/classes and target/test-classes are
+ * packed into jars first and every mode runs from the same jar-only classpath.
+ * Report (median and min per mode): target/loadtest/startup.txt
+ *
+ * Run: ./mvnw test -Pload-test -Dtest=StartupTimeLoadTest
+ */
+@Tag("load")
+class StartupTimeLoadTest {
+
+    private static final int RUNS = 3;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Path WORK_DIR = Path.of("target", "startup-bench").toAbsolutePath();
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    private String classpath;
+
+    @Test
+    void classDataSharingServesFirstRequestSooner() throws Exception {
+        classpath = jarOnlyClasspath();
+
+        Result ddlUpdate = measure("ddl-update", List.of(),
+                "--spring.profiles.active=h2", "--spring.jpa.hibernate.ddl-auto=update");
+        Result migrations = measure("migrations", List.of(),
+                "--spring.profiles.active=h2,prod", "--spring.main.lazy-initialization=false");
+        Result prod = measure("prod", List.of(),
+                "--spring.profiles.active=h2,prod");
+        Path archive = WORK_DIR.resolve("prod+cds").resolve("application.jsa");
+        Result cds = measure("prod+cds", List.of("-XX:SharedArchiveFile=" + archive),
+                "--spring.profiles.active=h2,prod");
+
+        writeReport(ddlUpdate, migrations, prod, cds);
+
+        // Against an in-process H2 with an empty schema, ddl-update vs migrations and lazy init differ by
+        // less than the run-to-run noise; their gain grows with schema size and database round-trips
+        assertThat(cds.medianMillis()).isLessThan(prod.medianMillis());
+        assertThat(cds.medianMillis()).isLessThan(ddlUpdate.medianMillis());
+    }
+
+    private Result measure(String mode, List<String> jvmArgs, String... appArgs) throws Exception {
+        Path dir = WORK_DIR.resolve(mode);
+        deleteRecursively(dir);
+        Files.createDirectories(dir);
+
+        // Untimed: creates (or migrates) the database; for CDS it dumps the archive at exit
+        List<String> firstRunArgs = jvmArgs.stream()
+                .map(arg -> arg.startsWith("-XX:SharedArchiveFile=")
+                        ? "-XX:ArchiveClassesAtExit=" + arg.substring("-XX:SharedArchiveFile=".length())
+                        : arg)
+                .toList();
+        startAndStop(dir, firstRunArgs, appArgs);
+
+        long[] millis = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            millis[i] = startAndStop(dir, jvmArgs, appArgs);
+        }
+        Arrays.sort(millis);
+        return new Result(mode, millis[RUNS / 2], millis[0]);
+    }
+
+    /**
+     * @return millis from process launch to the first HTTP response
+     */
+    private long startAndStop(Path dir, List<String> jvmArgs, String... appArgs) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(classpath);
+        command.add("-Dspring.devtools.restart.enabled=false");
+        command.add(ShuPosSystemApplication.class.getName());
+        command.add("--server.port=" + port);
+        command.add("--spring.datasource.url=jdbc:h2:file:" + dir.resolve("pos_sys")
+                + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER");
+        command.addAll(Arrays.asList(appArgs));
+
+        Process process = new ProcessBuilder(command)
+                .directory(dir.toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(dir.resolve("app.log").toFile())
+                .start();
+        long start = System.nanoTime();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health"))
+                    .timeout(Duration.ofSeconds(10))
+                    .build();
+            while (System.nanoTime() - start < STARTUP_TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited during startup, see " + dir.resolve("app.log"));
+                }
+                try {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                } catch (IOException notListeningYet) {
+                    Thread.sleep(10);
+                }
+            }
+            throw new IllegalStateException("No response within " + STARTUP_TIMEOUT + ", see " + dir.resolve("app.log"));
+        } finally {
+            // SIGTERM: graceful shutdown, and the JVM writes the CDS archive on exit
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static String jarOnlyClasspath() throws IOException {
+        Path jars = WORK_DIR.resolve("classpath");
+        deleteRecursively(jars);
+        Files.createDirectories(jars);
+        List<String> entries = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            Path path = Path.of(entry);
+            if (Files.isDirectory(path)) {
+                Path jar = jars.resolve(path.getFileName() + ".jar");
+                writeJar(path, jar);
+                entries.add(jar.toString());
+            } else {
+                entries.add(entry);
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static void writeJar(Path dir, Path jar) throws IOException {
+        try (var out = new JarOutputStream(Files.newOutputStream(jar));
+             var paths = Files.walk(dir)) {
+            for (Path file : (Iterable<Path>) paths.filter(Files::isRegularFile)::iterator) {
+                out.putNextEntry(new JarEntry(dir.relativize(file).toString().replace(File.separatorChar, '/')));
+                Files.copy(file, out);
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (var paths = Files.walk(dir)) {
+            paths.sorted((a, b) -> b.compareTo(a)).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static void writeReport(Result... results) throws IOException {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("runs=%d java=%s cpus=%d%n",
+                RUNS, Runtime.version(), Runtime.getRuntime().availableProcessors()));
+        for (Result result : results) {
+            report.append(String.format("%-12s first_request median=%6d ms min=%6d ms%n",
+                    result.mode(), result.medianMillis(), result.minMillis()));
+        }
+        Path file = Path.of("target", "loadtest", "startup.txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, report);
+    }
+
+    private record Result(String mode, long medianMillis, long minMillis) {
+    }
+}
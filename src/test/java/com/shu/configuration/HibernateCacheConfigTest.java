@@ -0,0 +1,121 @@
+package com.shu.configuration;
+
+import com.shu.domain.UserRole;
+import com.shu.model.entity.Product;
+import com.shu.model.entity.User;
+import com.shu.repository.ProductRepository;
+import com.shu.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Second-level and query cache against H2: repeated lookups of users and products run no SQL,
+ * and writes through Hibernate are visible to the next lookup.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(HibernateCacheConfig.class)
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class HibernateCacheConfigTest {
+
+    private static final int LOOKUPS = 20;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM user");
+        jdbcTemplate.update("DELETE FROM product");
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void repeatedUserLookupsIssueNoSql() {
+        User user = userRepository.save(newUser("cashier@shop.test", "Cashier One"));
+        userRepository.findByEmail("cashier@shop.test");   // fills the query cache
+        assertThat(userRepository.findByEmail("nobody@shop.test")).isNull();
+
+        statistics.clear();
+        for (int i = 0; i < LOOKUPS; i++) {
+            assertThat(userRepository.findByEmail("cashier@shop.test").getFullName()).isEqualTo("Cashier One");
+            assertThat(userRepository.findById(user.getId())).isPresent();
+            assertThat(userRepository.findByEmail("nobody@shop.test")).isNull();
+        }
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(2 * LOOKUPS);
+        // findById from the "user" region
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThanOrEqualTo(LOOKUPS);
+    }
+
+    @Test
+    void writesThroughHibernateAreSeenByTheNextLookup() {
+        User user = userRepository.save(newUser("cashier@shop.test", "Cashier One"));
+        userRepository.findByEmail("cashier@shop.test");
+        assertThat(userRepository.findByEmail("new@shop.test")).isNull();
+
+        user.setFullName("Cashier Renamed");
+        userRepository.save(user);
+        userRepository.save(newUser("new@shop.test", "New Cashier"));
+
+        assertThat(userRepository.findByEmail("cashier@shop.test").getFullName()).isEqualTo("Cashier Renamed");
+        assertThat(userRepository.findByEmail("new@shop.test")).isNotNull();
+    }
+
+    @Test
+    void repeatedProductLookupsIssueNoSql() {
+        Product product = new Product();
+        product.setName("Milk 1L");
+        product.setSku("MILK-1L");
+        product.setBarcode("8901234567890");
+        product.setSellingPrice(new BigDecimal("52.50"));
+        product.setActive(true);
+        product = productRepository.save(product);
+        productRepository.findBySku("MILK-1L");
+        productRepository.findByBarcode("8901234567890");
+        productRepository.findByBarcode("0000000000000");
+
+        statistics.clear();
+        for (int i = 0; i < LOOKUPS; i++) {
+            assertThat(productRepository.findById(product.getId())).isPresent();
+            assertThat(productRepository.findBySku("MILK-1L")).isNotNull();
+            assertThat(productRepository.findByBarcode("8901234567890")).isNotNull();
+            assertThat(productRepository.findByBarcode("0000000000000")).isNull();
+        }
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    private static User newUser(String email, String fullName) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFullName(fullName);
+        user.setRole(UserRole.ROLE_CASHIER);
+        user.setPassword("$2a$10$hash");
+        return user;
+    }
+}
@@ -0,0 +1,33 @@
+package com.shu.configuration;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.internal.NoCachingRegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * pos.cache.l2.enabled=false turns Hibernate's caches off instead of leaving it to start unbounded regions.
+ */
+@DataJpaTest(properties = "pos.cache.l2.enabled=false")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class HibernateCacheDisabledTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void noRegionFactoryWhenDisabled() {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+
+        assertThat(sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()).isFalse();
+        assertThat(sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled()).isFalse();
+        assertThat(sessionFactory.getCache().getRegionFactory()).isInstanceOf(NoCachingRegionFactory.class);
+    }
+}
@@ -0,0 +1,51 @@
+package com.shu.configuration;
+
+import com.shu.domain.UserRole;
+import com.shu.service.auth.JwtProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Actuator access: health is public, metrics and the Prometheus scrape need an ADMIN token.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtProvider jwtProvider;
+
+    @Test
+    void healthIsPublic() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Test
+    void metricsNeedAnAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/metrics")
+                        .header("Authorization", bearer("cashier@shop", UserRole.ROLE_CASHIER)))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/actuator/metrics")
+                        .header("Authorization", bearer("admin@shop", UserRole.ROLE_ADMIN)))
+                .andExpect(status().isOk());
+    }
+
+    private String bearer(String email, UserRole role) {
+        return "Bearer " + jwtProvider.generateToken(new UsernamePasswordAuthenticationToken(email, null,
+                AuthorityUtils.createAuthorityList(role.name())), jwtProvider.newSessionId());
+    }
+}
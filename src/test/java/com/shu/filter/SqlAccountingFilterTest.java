@@ -0,0 +1,67 @@
+package com.shu.filter;
+
+import com.shu.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Query budget in fail mode (h2 profile, budget 20) over real HTTP: an N+1 endpoint answers 500 even when
+ * its body is larger than the response buffer, an endpoint within budget gets its whole body.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("h2")
+@Import(SqlAccountingFilterTest.LookupController.class)
+class SqlAccountingFilterTest {
+
+    private static final int BODY_SIZE = 256 * 1024;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void endpointOverBudgetFails() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/test/users?lookups=30", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    void endpointWithinBudgetGetsItsWholeBody() {
+        ResponseEntity<String> response = restTemplate.getForEntity("/test/users?lookups=5", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).hasSize(BODY_SIZE);
+    }
+
+    /**
+     * One query per looked-up user, then a body well past the response buffer.
+     */
+    @RestController
+    static class LookupController {
+
+        private final UserRepository userRepository;
+
+        LookupController(UserRepository userRepository) {
+            this.userRepository = userRepository;
+        }
+
+        @GetMapping("/test/users")
+        String lookUp(@RequestParam int lookups) {
+            for (long id = 1; id <= lookups; id++) {
+                userRepository.findById(-id);
+            }
+            return "x".repeat(BODY_SIZE);
+        }
+    }
+}
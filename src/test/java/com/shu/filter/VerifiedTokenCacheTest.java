@@ -0,0 +1,106 @@
+package com.shu.filter;
+
+import com.shu.service.auth.JwtProvider;
+import com.shu.service.auth.TokenIds;
+import com.shu.service.auth.TokenRevocationList;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class VerifiedTokenCacheTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void hitReturnsANewAuthenticationPerRequest() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        long now = System.currentTimeMillis();
+        TokenIds ids = new TokenIds("t1", "s1", "cashier@shop", now / 1000, now + HOUR);
+        cache.put("token-1", authentication("cashier@shop", ids), now + HOUR);
+
+        Authentication first = cache.get("token-1", now);
+        assertThat(first.getName()).isEqualTo("cashier@shop");
+        assertThat(AuthorityUtils.authorityListToSet(first.getAuthorities())).containsExactly("ROLE_CASHIER");
+        assertThat(first.getDetails()).isEqualTo(ids);
+        assertThat(first.isAuthenticated()).isTrue();
+
+        // one request tampering with its Authentication does not reach the next one
+        first.setAuthenticated(false);
+        ((UsernamePasswordAuthenticationToken) first).setDetails(null);
+        Authentication second = cache.get("token-1", now);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.isAuthenticated()).isTrue();
+        assertThat(second.getDetails()).isEqualTo(ids);
+
+        assertThat(cache.get("token-2", now)).isNull();
+        assertThat(cache.getHitCount()).isEqualTo(2);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    void entryExpiresWithTheToken() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        long now = System.currentTimeMillis();
+        cache.put("token-1", authentication("cashier@shop", null), now + HOUR);
+        cache.put("already-expired", authentication("cashier@shop", null), now - 1);
+
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(cache.get("token-1", now + HOUR - 1)).isNotNull();
+        assertThat(cache.get("token-1", now + HOUR)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceItsSessionIsRevoked() throws Exception {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        TokenRevocationList revocationList = new TokenRevocationList(1000);
+        JwtValidator validator = new JwtValidator(cache, revocationList, new SimpleMeterRegistry());
+        JwtProvider jwtProvider = new JwtProvider(Duration.ofMinutes(15), Duration.ofHours(12));
+        String sessionId = jwtProvider.newSessionId();
+        String jwt = jwtProvider.generateToken(new UsernamePasswordAuthenticationToken("cashier@shop", null,
+                AuthorityUtils.createAuthorityList("ROLE_CASHIER")), sessionId);
+
+        validator.doFilter(request(jwt), new MockHttpServletResponse(), new MockFilterChain());
+        validator.doFilter(request(jwt), new MockHttpServletResponse(), new MockFilterChain());
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(SecurityContextHolder.getContext().getAuthentication().getName()).isEqualTo("cashier@shop");
+
+        long now = System.currentTimeMillis();
+        revocationList.add(TokenRevocationList.SESSION_PREFIX + sessionId, now, now + HOUR);
+
+        assertThatThrownBy(() -> validator.doFilter(request(jwt), new MockHttpServletResponse(), new MockFilterChain()))
+                .isInstanceOf(BadCredentialsException.class);
+        assertThat(cache.getHitCount()).isEqualTo(2);
+    }
+
+    private static Authentication authentication(String email, TokenIds ids) {
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(email, null,
+                AuthorityUtils.createAuthorityList("ROLE_CASHIER"));
+        authentication.setDetails(ids);
+        return authentication;
+    }
+
+    private static MockHttpServletRequest request(String jwt) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products/barcode/1");
+        request.addHeader("Authorization", "Bearer " + jwt);
+        return request;
+    }
+}
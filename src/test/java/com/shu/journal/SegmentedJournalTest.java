@@ -0,0 +1,148 @@
+package com.shu.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentedJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsBackAppendedRecordsInOrderAcrossSegments() {
+        try (SegmentedJournal journal = new SegmentedJournal(dir, 256, false)) {
+            for (int i = 1; i <= 50; i++) {
+                assertThat(journal.append(bytes("record-" + i))).isEqualTo(i);
+            }
+            assertThat(journal.getSegmentCount()).isGreaterThan(1);
+
+            List<JournalEntry> first = journal.read(1, 20);
+            List<JournalEntry> rest = journal.read(21, 100);
+
+            assertThat(first).hasSize(20);
+            assertThat(rest).hasSize(30);
+            assertThat(text(first.get(0))).isEqualTo("record-1");
+            assertThat(rest.get(0).lsn()).isEqualTo(21);
+            assertThat(text(rest.get(29))).isEqualTo("record-50");
+            assertThat(journal.read(51, 10)).isEmpty();
+        }
+    }
+
+    @Test
+    void recoversAfterRestartAndTruncatesTornTail() throws IOException {
+        try (SegmentedJournal journal = new SegmentedJournal(dir, 1 << 20, true)) {
+            journal.append(bytes("a"));
+            journal.append(bytes("b"));
+        }
+
+        // crash in the middle of a write: half a header at the end of the segment
+        Path segment;
+        try (Stream<Path> files = Files.list(dir)) {
+            segment = files.filter(f -> f.toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 9, 0, 0}));
+        }
+
+        try (SegmentedJournal journal = new SegmentedJournal(dir, 1 << 20, true)) {
+            assertThat(journal.getDurableLsn()).isEqualTo(2);
+            assertThat(journal.append(bytes("c"))).isEqualTo(3);
+            assertThat(journal.read(1, 10)).extracting(SegmentedJournalTest::text).containsExactly("a", "b", "c");
+        }
+    }
+
+    @Test
+    void failedFsyncDiscardsTheRecordAndRefusesLaterAppends() {
+        AtomicBoolean diskFull = new AtomicBoolean();
+        SegmentedJournal journal = new SegmentedJournal(dir, 1 << 20, true) {
+            @Override
+            void force(FileChannel channel) throws IOException {
+                if (diskFull.get()) {
+                    throw new IOException("No space left on device");
+                }
+                super.force(channel);
+            }
+        };
+        journal.append(bytes("a"));
+
+        diskFull.set(true);
+        assertThatThrownBy(() -> journal.append(bytes("b"))).isInstanceOf(UncheckedIOException.class);
+        // The next fsync would make "b" durable although its caller was told it failed
+        diskFull.set(false);
+        assertThatThrownBy(() -> journal.append(bytes("c"))).isInstanceOf(UncheckedIOException.class);
+        assertThat(journal.getDurableLsn()).isEqualTo(1);
+        journal.close();
+
+        try (SegmentedJournal reopened = new SegmentedJournal(dir, 1 << 20, true)) {
+            assertThat(reopened.read(1, 10)).extracting(SegmentedJournalTest::text).containsExactly("a");
+            assertThat(reopened.append(bytes("d"))).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void skipToMovesAnEmptyJournalPastTheConsumerCheckpoint() {
+        try (SegmentedJournal journal = new SegmentedJournal(dir, 1 << 20, true)) {
+            assertThat(journal.skipTo(100)).isTrue();
+            assertThat(journal.append(bytes("a"))).isEqualTo(101);
+            assertThat(journal.skipTo(50)).isFalse();
+        }
+
+        try (SegmentedJournal reopened = new SegmentedJournal(dir, 1 << 20, true)) {
+            assertThat(reopened.getDurableLsn()).isEqualTo(101);
+            assertThat(reopened.read(1, 10)).extracting(JournalEntry::lsn).containsExactly(101L);
+        }
+    }
+
+    @Test
+    void idIsKeptAcrossRestartsAndDiffersPerDirectory(@TempDir Path otherDir) {
+        String id;
+        try (SegmentedJournal journal = new SegmentedJournal(dir, 1 << 20, true)) {
+            id = journal.getId();
+        }
+
+        try (SegmentedJournal reopened = new SegmentedJournal(dir, 1 << 20, true);
+             SegmentedJournal other = new SegmentedJournal(otherDir, 1 << 20, true)) {
+            assertThat(reopened.getId()).isEqualTo(id);
+            assertThat(other.getId()).isNotEqualTo(id);
+        }
+    }
+
+    @Test
+    void deleteUpToKeepsUnpersistedRecords() {
+        try (SegmentedJournal journal = new SegmentedJournal(dir, 128, false)) {
+            for (int i = 1; i <= 40; i++) {
+                journal.append(bytes("record-" + i));
+            }
+            int segments = journal.getSegmentCount();
+
+            journal.deleteUpTo(20);
+
+            assertThat(journal.getSegmentCount()).isLessThan(segments);
+            assertThat(journal.read(21, 100)).hasSize(20);
+            assertThat(journal.read(21, 1).get(0).lsn()).isEqualTo(21);
+        }
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(JournalEntry entry) {
+        return new String(entry.payload(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,86 @@
+package com.shu.loadtest;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * HTTP load test of the whole application: ShuPosSystemApplication on a random port, embedded H2 in MySQL
+ * mode (h2 profile), driven over real HTTP connections by the {@link LoadGenerator}. Runs offline.
+ *
+ * Setup and operations: {@link PosWorkload} (load.users cashiers, load.products products, load.mix weights of
+ * signup / login / authenticated).
+ *
+ * Settings (-D system properties, defaults in brackets):
+ *   load.mode [closed] | open, load.users [1000], load.products [1000], load.mix [login:10,signup:5,authenticated:85]
+ *   load.concurrency [32]: closed = virtual users, open = max requests in flight
+ *   load.rate [200]: open loop, requests per second;  load.think-time-ms [0]: closed loop
+ *   load.warmup-seconds [5], load.duration-seconds [20]
+ * Login throttling is raised for the run (every request comes from 127.0.0.1); other settings are the
+ * application's, e.g. -Dspring.threads.virtual.enabled=true (ThreadModeLoadTest runs both thread modes).
+ * The h2 profile runs the SQL budget in fail mode: an exercised endpoint with an N+1 query answers 500
+ * (see SqlAccountingFilterTest) and the run fails on its error count.
+ *
+ * Report (fixed layout, diff it between commits): target/loadtest/http-{mode}.txt
+ *
+ * Run: ./mvnw test -Pload-test -Dtest=HttpLoadTest [-Dload.mode=open -Dload.rate=500 ...]
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "pos.auth.login-throttle.ip.per-minute=100000000",
+        "pos.auth.login-throttle.ip.burst=100000000",
+        "pos.auth.login-throttle.email.per-minute=100000000",
+        "pos.auth.login-throttle.email.burst=100000000",
+        "logging.level.com.shu=WARN"
+})
+@ActiveProfiles("h2")
+class HttpLoadTest {
+
+    private final String mode = System.getProperty("load.mode", "closed");
+    private final int users = Integer.getInteger("load.users", 1_000);
+    private final int products = Integer.getInteger("load.products", 1_000);
+    private final String mix = System.getProperty("load.mix", "login:10,signup:5,authenticated:85");
+    private final int concurrency = Integer.getInteger("load.concurrency", 32);
+    private final double rate = Double.parseDouble(System.getProperty("load.rate", "200"));
+    private final Duration thinkTime = Duration.ofMillis(Long.getLong("load.think-time-ms", 0));
+    private final Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 5));
+    private final Duration duration = Duration.ofSeconds(Long.getLong("load.duration-seconds", 20));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void mixedAuthLoad() throws Exception {
+        PosWorkload workload = new PosWorkload(context, port);
+        workload.seed(users, products);
+
+        LoadGenerator generator = new LoadGenerator(workload.operations(mix));
+        LoadGenerator.Report report = "open".equals(mode)
+                ? generator.runOpenLoop(rate, concurrency, warmup, duration)
+                : generator.runClosedLoop(concurrency, thinkTime, warmup, duration);
+
+        String header = String.format("mode=%s users=%d products=%d mix=%s concurrency=%d %s warmup=%ds duration=%ds"
+                        + " cpus=%d java=%s virtual_threads=%s",
+                mode, users, products, mix, concurrency,
+                "open".equals(mode) ? "rate=" + rate + "/s" : "think_time=" + thinkTime.toMillis() + "ms",
+                warmup.toSeconds(), duration.toSeconds(), Runtime.getRuntime().availableProcessors(),
+                Runtime.version().feature(), System.getProperty("spring.threads.virtual.enabled", "false"));
+        report.write(Path.of("target", "loadtest", "http-" + mode + ".txt"), header);
+
+        assertThat(report.total().requests()).isPositive();
+        // includes 500s of endpoints over the SQL budget (N+1 queries)
+        assertThat(report.total().errorCount()).isZero();
+    }
+}
@@ -0,0 +1,246 @@
+package com.shu.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for the load tests: drives a weighted mix of operations and records their latency
+ * in HdrHistograms (microseconds, 3 significant digits).
+ *
+ * Two modes:
+ * - closed loop: a fixed number of virtual users, each sends its next request when the previous one
+ *   has returned (plus think time). Throughput is an output: it drops when the server slows down.
+ * - open loop: requests start at a fixed rate whatever the server does, like tills at rush hour.
+ *   Latency is measured from the intended start, so a stalled server is not hidden by requests that
+ *   were never sent (coordinated omission). Requests beyond maxInFlight are dropped and counted.
+ *
+ * Results of the warm-up period are discarded. Requests run on virtual threads.
+ */
+public final class LoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final List<Operation> mix;
+    private final int totalWeight;
+    private final Map<String, Stats> stats = new TreeMap<>();
+
+    /**
+     * One kind of request.
+     *
+     * @param name           name in the report
+     * @param weight         relative share of the requests
+     * @param expectedStatus status of a successful response
+     * @param request        sends the request, returns the HTTP status
+     */
+    public record Operation(String name, int weight, int expectedStatus, Request request) {
+    }
+
+    @FunctionalInterface
+    public interface Request {
+        int send() throws Exception;
+    }
+
+    public LoadGenerator(List<Operation> mix) {
+        this.mix = mix.stream().filter(operation -> operation.weight() > 0).toList();
+        this.totalWeight = this.mix.stream().mapToInt(Operation::weight).sum();
+        if (totalWeight == 0) {
+            throw new IllegalArgumentException("The mix has no operation with a weight > 0");
+        }
+        this.mix.forEach(operation -> stats.put(operation.name(), new Stats()));
+    }
+
+    /**
+     * @param users      concurrent virtual users
+     * @param thinkTime  pause between two requests of one user
+     */
+    public Report runClosedLoop(int users, Duration thinkTime, Duration warmup, Duration duration)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                executor.submit(() -> {
+                    long now;
+                    while ((now = System.nanoTime()) < end) {
+                        execute(pick(), now, measureFrom);
+                        if (!thinkTime.isZero()) {
+                            LockSupport.parkNanos(thinkTime.toNanos());
+                        }
+                    }
+                });
+            }
+        }
+        return report(duration);
+    }
+
+    /**
+     * @param ratePerSecond request starts per second
+     * @param maxInFlight   requests in flight above which new ones are dropped
+     */
+    public Report runOpenLoop(double ratePerSecond, int maxInFlight, Duration warmup, Duration duration)
+            throws InterruptedException {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long intended = start; intended < end; intended += intervalNanos) {
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = pick();
+                if (!inFlight.tryAcquire()) {
+                    if (intended >= measureFrom) {
+                        stats.get(operation.name()).dropped.increment();
+                    }
+                    continue;
+                }
+                long scheduled = intended;
+                executor.submit(() -> {
+                    try {
+                        execute(operation, scheduled, measureFrom);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        return report(duration);
+    }
+
+    private Operation pick() {
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : mix) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+
+    /**
+     * @param startNanos when the request started (open loop: when it should have started)
+     */
+    private void execute(Operation operation, long startNanos, long measureFrom) {
+        int status;
+        try {
+            status = operation.request().send();
+        } catch (Exception e) {
+            status = -1;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        if (startNanos < measureFrom) {
+            return;
+        }
+        Stats operationStats = stats.get(operation.name());
+        operationStats.latency.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        if (status != operation.expectedStatus()) {
+            operationStats.errors.computeIfAbsent(status, key -> new LongAdder()).increment();
+        }
+    }
+
+    private Report report(Duration duration) {
+        List<OperationReport> operations = new ArrayList<>();
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+        long totalDropped = 0;
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            Stats operationStats = entry.getValue();
+            Histogram histogram = operationStats.latency.getIntervalHistogram();
+            total.add(histogram);
+            Map<Integer, Long> errors = new TreeMap<>();
+            operationStats.errors.forEach((status, count) -> errors.put(status, count.sum()));
+            long errorCount = errors.values().stream().mapToLong(Long::longValue).sum();
+            totalErrors += errorCount;
+            totalDropped += operationStats.dropped.sum();
+            operations.add(new OperationReport(entry.getKey(), histogram, errorCount, operationStats.dropped.sum(),
+                    errors, duration));
+        }
+        operations.sort(Comparator.comparing(OperationReport::name));
+        return new Report(operations, new OperationReport("total", total, totalErrors, totalDropped, Map.of(),
+                duration));
+    }
+
+    private static final class Stats {
+        final Recorder latency = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        final ConcurrentHashMap<Integer, LongAdder> errors = new ConcurrentHashMap<>();
+        final LongAdder dropped = new LongAdder();
+    }
+
+    /**
+     * @param errors responses with an unexpected status, by status (-1: no response)
+     */
+    public record OperationReport(String name, Histogram latency, long errorCount, long dropped,
+                                  Map<Integer, Long> errors, Duration duration) {
+
+        public long requests() {
+            return latency.getTotalCount();
+        }
+
+        public double throughput() {
+            return requests() / (duration.toNanos() / 1e9);
+        }
+
+        public double percentileMillis(double percentile) {
+            return latency.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    public record Report(List<OperationReport> operations, OperationReport total) {
+
+        /**
+         * Writes the report in a fixed layout (one line per operation, sorted by name), so two runs can be diffed.
+         *
+         * @param header configuration of the run, written first
+         */
+        public void write(Path file, String header) throws IOException {
+            StringBuilder report = new StringBuilder(header).append(System.lineSeparator());
+            report.append(String.format("%-16s %9s %7s %7s %11s %9s %9s %9s %9s %9s%n", "operation", "requests",
+                    "errors", "dropped", "req/s", "p50_ms", "p95_ms", "p99_ms", "p999_ms", "max_ms"));
+            for (OperationReport operation : operations) {
+                append(report, operation);
+            }
+            append(report, total);
+            for (OperationReport operation : operations) {
+                if (!operation.errors().isEmpty()) {
+                    report.append(String.format("%s errors by status: %s%n", operation.name(), operation.errors()));
+                }
+            }
+            // Reports go to files only, so the build log stays readable
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, report);
+        }
+
+        private static void append(StringBuilder report, OperationReport operation) {
+            report.append(String.format("%-16s %9d %7d %7d %11.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.name(), operation.requests(), operation.errorCount(), operation.dropped(),
+                    operation.throughput(), operation.percentileMillis(50), operation.percentileMillis(95),
+                    operation.percentileMillis(99), operation.percentileMillis(99.9),
+                    operation.latency().getMaxValue() / 1000.0));
+        }
+    }
+}
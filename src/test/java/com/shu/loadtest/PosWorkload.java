@@ -0,0 +1,154 @@
+package com.shu.loadtest;
+
+import com.shu.domain.UserRole;
+import com.shu.model.entity.Product;
+import com.shu.model.entity.User;
+import com.shu.repository.ProductRepository;
+import com.shu.repository.UserRepository;
+import com.shu.service.auth.JwtProvider;
+import com.shu.service.product.ProductCatalogSync;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The HTTP workload of the load tests, against a running ShuPosSystemApplication (h2 profile).
+ *
+ * {@link #seed} inserts cashiers (one shared password, hashed once) and products, reloads the catalog
+ * index and issues an access token to every seeded cashier (JwtProvider, no login needed).
+ *
+ * Operations ({@link #operations}, mix "name:weight,..."):
+ * - signup        : POST /auth/signup, new cashier every time (expects 201)
+ * - login         : POST /auth/login of a random seeded cashier (expects 200, BCrypt bound)
+ * - authenticated : GET /api/products/barcode/{barcode} with a seeded cashier's token (expects 200)
+ */
+final class PosWorkload {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final int SEED_CHUNK = 500;
+
+    private final ApplicationContext context;
+    private final int port;
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicLong signups = new AtomicLong();
+
+    private List<String> emails;
+    private List<String> tokens;
+    private List<String> barcodes;
+
+    PosWorkload(ApplicationContext context, int port) {
+        this.context = context;
+        this.port = port;
+    }
+
+    void seed(int users, int products) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ProductRepository productRepository = context.getBean(ProductRepository.class);
+        JwtProvider jwtProvider = context.getBean(JwtProvider.class);
+        jdbcTemplate.update("DELETE FROM user");
+        jdbcTemplate.update("DELETE FROM product");
+
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        emails = new ArrayList<>(users);
+        tokens = new ArrayList<>(users);
+        for (int from = 0; from < users; from += SEED_CHUNK) {
+            List<User> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(users, from + SEED_CHUNK); i++) {
+                User user = new User();
+                user.setEmail("cashier" + i + "@load.test");
+                user.setFullName("Cashier " + i);
+                user.setRole(UserRole.ROLE_CASHIER);
+                user.setPassword(hash);
+                chunk.add(user);
+                emails.add(user.getEmail());
+                tokens.add(jwtProvider.generateToken(new UsernamePasswordAuthenticationToken(user.getEmail(), null,
+                        AuthorityUtils.createAuthorityList(UserRole.ROLE_CASHIER.name())), jwtProvider.newSessionId()));
+            }
+            userRepository.saveAll(chunk);
+        }
+
+        barcodes = new ArrayList<>(products);
+        for (int from = 0; from < products; from += SEED_CHUNK) {
+            List<Product> chunk = new ArrayList<>();
+            for (int i = from; i < Math.min(products, from + SEED_CHUNK); i++) {
+                Product product = new Product();
+                product.setName("Product " + i);
+                product.setSku("SKU-" + i);
+                product.setBarcode(String.format("890%010d", i));
+                product.setSellingPrice(new BigDecimal("10.00"));
+                product.setActive(true);
+                chunk.add(product);
+                barcodes.add(product.getBarcode());
+            }
+            productRepository.saveAll(chunk);
+        }
+        context.getBean(ProductCatalogSync.class).loadAll();
+    }
+
+    List<LoadGenerator.Operation> operations(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            weights.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        List<LoadGenerator.Operation> operations = new ArrayList<>();
+        operations.add(new LoadGenerator.Operation("signup", weights.getOrDefault("signup", 0), 201, this::signup));
+        operations.add(new LoadGenerator.Operation("login", weights.getOrDefault("login", 0), 200, this::login));
+        operations.add(new LoadGenerator.Operation("authenticated", weights.getOrDefault("authenticated", 0), 200,
+                this::scanBarcode));
+        return operations;
+    }
+
+    private int signup() throws Exception {
+        long n = signups.incrementAndGet();
+        return post("/auth/signup", String.format(
+                "{\"fullName\":\"New Cashier %d\",\"email\":\"new%d@load.test\",\"password\":\"%s\",\"role\":\"%s\"}",
+                n, n, PASSWORD, UserRole.ROLE_CASHIER.name()));
+    }
+
+    private int login() throws Exception {
+        String email = emails.get(ThreadLocalRandom.current().nextInt(emails.size()));
+        return post("/auth/login", String.format("{\"email\":\"%s\",\"password\":\"%s\"}", email, PASSWORD));
+    }
+
+    private int scanBarcode() throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/products/barcode/"
+                        + barcodes.get(random.nextInt(barcodes.size()))))
+                .header("Authorization", "Bearer " + tokens.get(random.nextInt(tokens.size())))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int post(String path, String json) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,81 @@
+package com.shu.loadtest;
+
+import com.shu.ShuPosSystemApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Platform vs virtual request threads on the real endpoints: ShuPosSystemApplication is started twice
+ * (h2 profile, random port), once per spring.threads.virtual.enabled value, and each instance gets the
+ * same {@link PosWorkload} mix from the {@link LoadGenerator} (closed loop).
+ *
+ * The default concurrency (400 virtual users) is above Tomcat's 200 platform request threads: in platform
+ * mode the extra requests queue for a thread, in virtual mode they all run (BCrypt stays on its own
+ * platform pool in both modes).
+ *
+ * A comparison, not a gate: at this concurrency logins may be shed (503 from the hashing pool) or time out,
+ * in either mode; the errors by status are in the reports. HttpLoadTest is the zero-error run.
+ *
+ * Settings (-D system properties, defaults in brackets):
+ *   load.users [1000], load.products [1000], load.mix [login:20,authenticated:80], load.concurrency [400]
+ *   load.warmup-seconds [5], load.duration-seconds [20]
+ * Login throttling is raised for the runs (every request comes from 127.0.0.1).
+ *
+ * Reports (fixed layout, diff one against the other): target/loadtest/thread-modes-{platform,virtual}.txt
+ *
+ * Run: ./mvnw test -Pload-test -Dtest=ThreadModeLoadTest
+ */
+@Tag("load")
+class ThreadModeLoadTest {
+
+    private final int users = Integer.getInteger("load.users", 1_000);
+    private final int products = Integer.getInteger("load.products", 1_000);
+    private final String mix = System.getProperty("load.mix", "login:20,authenticated:80");
+    private final int concurrency = Integer.getInteger("load.concurrency", 400);
+    private final Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 5));
+    private final Duration duration = Duration.ofSeconds(Long.getLong("load.duration-seconds", 20));
+
+    @Test
+    void platformAndVirtualRequestThreads() throws Exception {
+        LoadGenerator.Report platform = run(false);
+        LoadGenerator.Report virtual = run(true);
+
+        // Both modes keep serving (a carrier pinned while waiting for a connection stalls virtual mode)
+        assertThat(platform.total().requests()).isPositive();
+        assertThat(virtual.total().requests()).isPositive();
+    }
+
+    private LoadGenerator.Report run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        // Command-line arguments: they win over a -Dspring.threads.virtual.enabled of the test JVM
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShuPosSystemApplication.class)
+                .profiles("h2")
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--pos.auth.login-throttle.ip.per-minute=100000000",
+                        "--pos.auth.login-throttle.ip.burst=100000000",
+                        "--pos.auth.login-throttle.email.per-minute=100000000",
+                        "--pos.auth.login-throttle.email.burst=100000000",
+                        "--logging.level.com.shu=WARN")) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            PosWorkload workload = new PosWorkload(context, port);
+            workload.seed(users, products);
+
+            LoadGenerator.Report report = new LoadGenerator(workload.operations(mix))
+                    .runClosedLoop(concurrency, Duration.ZERO, warmup, duration);
+            report.write(Path.of("target", "loadtest", "thread-modes-" + mode + ".txt"), String.format(
+                    "threads=%s users=%d products=%d mix=%s concurrency=%d warmup=%ds duration=%ds cpus=%d java=%s",
+                    mode, users, products, mix, concurrency, warmup.toSeconds(), duration.toSeconds(),
+                    Runtime.getRuntime().availableProcessors(), Runtime.version().feature()));
+            return report;
+        }
+    }
+}
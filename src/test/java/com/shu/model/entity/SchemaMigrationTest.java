@@ -0,0 +1,34 @@
+package com.shu.model.entity;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The migrations (db/migration/h2) create the schema the entities expect: Hibernate validates it
+ * at startup (as in the prod profile), so an entity change without a migration fails here.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pos_migrations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SchemaMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrationsMatchTheEntities() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT MAX(\"version\") FROM \"flyway_schema_history\" WHERE \"success\"", String.class))
+                .isEqualTo("5");
+    }
+}
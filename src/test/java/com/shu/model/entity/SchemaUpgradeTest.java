@@ -0,0 +1,74 @@
+package com.shu.model.entity;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A database created by ddl-auto=update before migrations existed (user table and user_seq only) is
+ * baselined at V1 as in the prod profile, then V2 and later create the POS tables the entities expect.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.baseline-on-migrate=true",
+        "spring.flyway.baseline-version=1",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class SchemaUpgradeTest {
+
+    private static final String URL =
+            "jdbc:h2:mem:pos_upgrade;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void preMigrationDatabase(DynamicPropertyRegistry registry) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("create sequence user_seq start with 1 increment by 100");
+            statement.execute("""
+                    create table user (
+                        id bigint not null,
+                        full_name varchar(255) not null,
+                        email varchar(255) not null unique,
+                        phone varchar(255),
+                        role enum ('ROLE_ADMIN','ROLE_BRANCH_MANAGER','ROLE_CASHIER','ROLE_STORE_MANAGER','ROLE_USER') not null,
+                        password varchar(255) not null,
+                        created_at timestamp(6),
+                        updated_at timestamp(6),
+                        last_login timestamp(6),
+                        primary key (id)
+                    )""");
+            statement.execute("insert into user (id, full_name, email, role, password) "
+                    + "values (1, 'Admin', 'admin@shop', 'ROLE_ADMIN', 'hash')");
+        }
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @Test
+    void existingDatabaseIsBaselinedAndUpgraded() {
+        assertThat(jdbcTemplate.queryForList("SELECT \"version\" FROM \"flyway_schema_history\""
+                + " WHERE \"success\" AND \"version\" IS NOT NULL ORDER BY \"installed_rank\"", String.class))
+                .containsExactly("1", "2", "3", "4", "5");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT \"type\" FROM \"flyway_schema_history\" WHERE \"version\" = '1'", String.class))
+                .isEqualTo("BASELINE");
+        assertThat(jdbcTemplate.queryForObject("SELECT sync_version FROM user WHERE email = 'admin@shop'", Long.class))
+                .isZero();
+    }
+}
@@ -0,0 +1,68 @@
+package com.shu.repository;
+
+import com.shu.domain.UserRole;
+import com.shu.model.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Password hash compare-and-set used by the rehash on login, account lock.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void passwordHashIsReplacedOnlyWhileUnchanged() {
+        jdbcTemplate.update("DELETE FROM user");
+        User user = new User();
+        user.setEmail("cashier@shop");
+        user.setFullName("Cashier");
+        user.setRole(UserRole.ROLE_CASHIER);
+        user.setPassword("old-hash");
+        Long id = userRepository.save(user).getId();
+
+        // the user changed the password while the rehash was running
+        jdbcTemplate.update("UPDATE user SET password = 'new-password-hash' WHERE id = ?", id);
+        assertThat(userRepository.replacePasswordHash(id, "old-hash", "rehashed")).isZero();
+        assertThat(userRepository.findById(id)).get().extracting(User::getPassword).isEqualTo("new-password-hash");
+
+        assertThat(userRepository.replacePasswordHash(id, "new-password-hash", "rehashed")).isOne();
+        assertThat(userRepository.findById(id)).get().extracting(User::getPassword).isEqualTo("rehashed");
+    }
+
+    @Test
+    void lockIsReadFromTheDatabase() {
+        jdbcTemplate.update("DELETE FROM user");
+        User user = new User();
+        user.setEmail("cashier@shop");
+        user.setFullName("Cashier");
+        user.setRole(UserRole.ROLE_CASHIER);
+        user.setPassword("hash");
+        Long id = userRepository.save(user).getId();
+        assertThat(userRepository.isLocked(id)).isFalse();
+
+        assertThat(userRepository.setLocked(id, true)).isOne();
+        assertThat(userRepository.isLocked(id)).isTrue();
+        assertThat(userRepository.findById(id)).get().extracting(User::isLocked).isEqualTo(true);
+
+        assertThat(userRepository.setLocked(id, false)).isOne();
+        assertThat(userRepository.isLocked(id)).isFalse();
+        assertThat(userRepository.setLocked(-1L, true)).isZero();
+    }
+}
@@ -0,0 +1,156 @@
+package com.shu.service.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyedRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstThenRefillsAtRate() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(6, 3, 100);   // one permit every 10s
+        long now = 0;
+
+        assertThat(limiter.tryAcquire("a@shop", now)).isZero();
+        assertThat(limiter.tryAcquire("a@shop", now)).isZero();
+        assertThat(limiter.tryAcquire("a@shop", now)).isZero();
+        assertThat(limiter.tryAcquire("a@shop", now)).isEqualTo(10 * SECOND);
+
+        // other keys are independent
+        assertThat(limiter.tryAcquire("b@shop", now)).isZero();
+
+        assertThat(limiter.tryAcquire("a@shop", now + 10 * SECOND)).isZero();
+        assertThat(limiter.tryAcquire("a@shop", now + 10 * SECOND)).isPositive();
+        assertThat(limiter.getRejectedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void resetAndIdleEvictionRestoreFullBucket() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(60, 1, 100);
+
+        assertThat(limiter.tryAcquire("a@shop", 0)).isZero();
+        assertThat(limiter.tryAcquire("a@shop", 0)).isPositive();
+
+        limiter.reset("a@shop");
+        assertThat(limiter.tryAcquire("a@shop", 0)).isZero();
+
+        assertThat(limiter.evictIdle(SECOND / 2)).isZero();
+        assertThat(limiter.evictIdle(SECOND)).isEqualTo(1);
+        assertThat(limiter.size()).isZero();
+    }
+
+    @Test
+    void staysBoundedWhenFlooded() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(1, 1, 1_000);
+
+        for (int i = 0; i < 50_000; i++) {
+            limiter.tryAcquire("ip-" + i, 0);
+        }
+
+        assertThat(limiter.size()).isLessThanOrEqualTo(1_000);
+    }
+
+    @Test
+    void floodOfNewKeysNeverResetsAThrottledKey() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(6, 2, 10);   // one permit every 10s
+
+        assertThat(limiter.tryAcquire("victim@shop", 0)).isZero();
+        assertThat(limiter.tryAcquire("victim@shop", 0)).isZero();
+        assertThat(limiter.tryAcquire("victim@shop", 0)).isPositive();
+
+        // one attempt each: not throttled, so these make room for each other
+        for (int i = 0; i < 100; i++) {
+            assertThat(limiter.tryAcquire("ip-" + i, SECOND)).isZero();
+        }
+
+        assertThat(limiter.size()).isLessThanOrEqualTo(10);
+        assertThat(limiter.tryAcquire("victim@shop", SECOND)).isPositive();
+    }
+
+    @Test
+    void idleKeysAreDroppedBeforePartlyUsedOnes() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(6, 2, 10);
+        for (int i = 0; i < 9; i++) {
+            limiter.tryAcquire("idle-" + i, 0);
+        }
+        assertThat(limiter.tryAcquire("busy@shop", 19 * SECOND)).isZero();
+
+        assertThat(limiter.tryAcquire("new@shop", 20 * SECOND)).isZero();
+
+        // busy@shop kept its bucket: one permit left, not two
+        assertThat(limiter.tryAcquire("busy@shop", 20 * SECOND)).isZero();
+        assertThat(limiter.tryAcquire("busy@shop", 20 * SECOND)).isPositive();
+        assertThat(limiter.size()).isEqualTo(2);
+    }
+
+    @Test
+    void newKeysWaitWhileEveryTrackedKeyIsThrottled() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(6, 1, 2);
+        assertThat(limiter.tryAcquire("a@shop", 0)).isZero();
+        assertThat(limiter.tryAcquire("b@shop", SECOND)).isZero();
+
+        // a@shop is allowed again first, at 10s
+        assertThat(limiter.tryAcquire("c@shop", 2 * SECOND)).isEqualTo(8 * SECOND);
+        assertThat(limiter.size()).isEqualTo(2);
+
+        assertThat(limiter.tryAcquire("c@shop", 10 * SECOND)).isZero();
+        assertThat(limiter.tryAcquire("b@shop", 10 * SECOND)).isPositive();
+    }
+
+    @Test
+    void failOpenLimiterAllowsNewKeysUntrackedWhileEveryTrackedKeyIsThrottled() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(6, 1, 2, true);
+        assertThat(limiter.tryAcquire("a@shop", 0)).isZero();
+        assertThat(limiter.tryAcquire("b@shop", SECOND)).isZero();
+
+        assertThat(limiter.tryAcquire("c@shop", 2 * SECOND)).isZero();
+        assertThat(limiter.tryAcquire("c@shop", 2 * SECOND)).isZero();
+        assertThat(limiter.size()).isEqualTo(2);
+        // the throttled keys stay throttled
+        assertThat(limiter.tryAcquire("a@shop", 2 * SECOND)).isPositive();
+    }
+
+    @Test
+    void resetMakesRoomInAFullMapOfThrottledKeys() {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(6, 1, 2);
+        assertThat(limiter.tryAcquire("a@shop", 0)).isZero();
+        assertThat(limiter.tryAcquire("b@shop", SECOND)).isZero();
+        assertThat(limiter.tryAcquire("c@shop", 2 * SECOND)).isEqualTo(8 * SECOND);
+
+        // a key freed without a scan (successful login) makes room at once
+        limiter.reset("b@shop");
+        assertThat(limiter.tryAcquire("d@shop", 3 * SECOND)).isZero();
+        // full again, the next scan happens when a@shop is allowed again
+        assertThat(limiter.tryAcquire("e@shop", 4 * SECOND)).isEqualTo(6 * SECOND);
+        assertThat(limiter.tryAcquire("f@shop", 5 * SECOND)).isEqualTo(5 * SECOND);
+        assertThat(limiter.tryAcquire("f@shop", 10 * SECOND)).isZero();
+        assertThat(limiter.getEvictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentAttemptsNeverExceedBurst() throws InterruptedException {
+        KeyedRateLimiter limiter = new KeyedRateLimiter(1, 10, 100);
+        AtomicInteger granted = new AtomicInteger();
+        long now = System.nanoTime();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1_000; i++) {
+            executor.execute(() -> {
+                if (limiter.tryAcquire("a@shop", now) == 0) {
+                    granted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(granted.get()).isEqualTo(10);
+    }
+}
@@ -0,0 +1,74 @@
+package com.shu.service.auth;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationListTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void revokesTokenSessionAndUserIssuedBeforeTheRevocation() {
+        TokenRevocationList list = new TokenRevocationList(1000);
+        long now = 1_700_000_000_000L;
+        TokenIds token = new TokenIds("t1", "s1", "cashier@shop.test", now / 1000 - 60, now + HOUR);
+
+        assertThat(list.isRevoked(token, now)).isFalse();
+
+        list.add(TokenRevocationList.TOKEN_PREFIX + "t1", now, now + HOUR);
+        assertThat(list.isRevoked(token, now)).isTrue();
+        assertThat(list.isRevoked(new TokenIds("t2", "s1", "cashier@shop.test", now / 1000, now + HOUR), now))
+                .isFalse();
+
+        list.add(TokenRevocationList.SESSION_PREFIX + "s1", now, now + HOUR);
+        assertThat(list.isRevoked(new TokenIds("t2", "s1", "cashier@shop.test", now / 1000, now + HOUR), now))
+                .isTrue();
+
+        // User revocation: only tokens issued up to it (next login works)
+        list.add(TokenRevocationList.USER_PREFIX + "leaver@shop.test", now, now + HOUR);
+        assertThat(list.isRevoked(new TokenIds("t3", "s3", "leaver@shop.test", now / 1000 - 1, now + HOUR), now))
+                .isTrue();
+        assertThat(list.isRevoked(new TokenIds("t4", "s4", "leaver@shop.test", now / 1000 + 1, now + HOUR), now))
+                .isFalse();
+
+        // Legacy token without jti / sid
+        assertThat(list.isRevoked(new TokenIds(null, null, "leaver@shop.test", now / 1000 - 1, now + HOUR), now))
+                .isTrue();
+    }
+
+    @Test
+    void compactionDropsExpiredEntriesAndKeepsLiveOnes() {
+        TokenRevocationList list = new TokenRevocationList(1000);
+        long now = 1_700_000_000_000L;
+        for (int i = 0; i < 5000; i++) {
+            list.add(TokenRevocationList.TOKEN_PREFIX + "old-" + i, now, now + HOUR);
+        }
+        list.add(TokenRevocationList.TOKEN_PREFIX + "live", now, now + 3 * HOUR);
+        assertThat(list.size()).isEqualTo(5001);
+
+        assertThat(list.compact(now + 2 * HOUR)).isEqualTo(5000);
+        assertThat(list.size()).isEqualTo(1);
+        assertThat(list.isRevoked(new TokenIds("live", null, "a@shop.test", now / 1000, now + 3 * HOUR),
+                now + 2 * HOUR)).isTrue();
+        assertThat(list.isRevoked(new TokenIds("old-7", null, "a@shop.test", now / 1000, now + HOUR),
+                now + 2 * HOUR)).isFalse();
+    }
+
+    @Test
+    void bloomFilterAnswersMostChecksWithoutTheExactSet() {
+        TokenRevocationList list = new TokenRevocationList(10_000);
+        long now = 1_700_000_000_000L;
+        for (int i = 0; i < 10_000; i++) {
+            list.add(TokenRevocationList.TOKEN_PREFIX + "revoked-" + i, now, now + HOUR);
+        }
+
+        int checks = 100_000;
+        for (int i = 0; i < checks; i++) {
+            assertThat(list.isRevoked(new TokenIds("live-" + i, "session-" + i, "user" + i + "@shop.test",
+                    now / 1000, now + HOUR), now)).isFalse();
+        }
+        // Three keys per check at ~1% each
+        assertThat(list.getFalsePositiveCount()).isLessThan(checks * 3 / 50);
+    }
+}
@@ -0,0 +1,117 @@
+package com.shu.service.auth.impl;
+
+import com.shu.constant.ErrorCode;
+import com.shu.domain.UserRole;
+import com.shu.exceptions.UserException;
+import com.shu.model.entity.User;
+import com.shu.payload.request.LoginRequest;
+import com.shu.payload.request.RefreshTokenRequest;
+import com.shu.repository.UserRepository;
+import com.shu.service.auth.JwtProvider;
+import com.shu.service.auth.PasswordHashingService;
+import com.shu.service.auth.TokenRevocationList;
+import com.shu.service.auth.TokenRevocationService;
+import com.shu.service.mail.MailOutboxService;
+import com.shu.service.sync.SyncVersionAllocator;
+import com.shu.service.user.LastLoginUpdater;
+import com.shu.service.user.UserCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Revoking a user's tokens locks the account: no new login, no refresh of a token issued before.
+ */
+class AuthServiceImplTest {
+
+    private static final long USER_ID = 7L;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+    private final UserCache userCache = mock(UserCache.class);
+    private final TokenRevocationService tokenRevocationService = mock(TokenRevocationService.class);
+    private final JwtProvider jwtProvider = new JwtProvider(Duration.ofMinutes(15), Duration.ofHours(12));
+    private final AuthServiceImpl service = new AuthServiceImpl(userRepository, passwordHashingService, jwtProvider,
+            mock(LastLoginUpdater.class), userCache, mock(MailOutboxService.class), mock(TransactionTemplate.class),
+            mock(SyncVersionAllocator.class), tokenRevocationService, new TokenRevocationList(1000));
+
+    private final User user = new User();
+
+    @BeforeEach
+    void setUp() {
+        user.setId(USER_ID);
+        user.setEmail("cashier@shop");
+        user.setFullName("Cashier");
+        user.setRole(UserRole.ROLE_CASHIER);
+        user.setPassword("hash");
+        when(userCache.findByEmail("cashier@shop")).thenReturn(user);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches(anyString(), anyString())).thenReturn(true);
+        when(tokenRevocationService.revokeToken(anyString(), anyLong())).thenReturn(true);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void lockedUserCannotLogInOrRefreshUntilUnlocked() throws UserException {
+        String refreshToken = service.login(login()).getRefreshToken();
+
+        service.revokeUserTokens(USER_ID);
+        verify(userRepository).setLocked(USER_ID, true);
+        verify(tokenRevocationService).revokeUser("cashier@shop");
+        verify(userCache).invalidate("cashier@shop");
+
+        // the cached user still says unlocked: the flag is read from the database
+        when(userRepository.isLocked(USER_ID)).thenReturn(true);
+        assertThatThrownBy(() -> service.login(login()))
+                .isInstanceOf(UserException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.ACCOUNT_LOCKED);
+        assertThatThrownBy(() -> service.refresh(refresh(refreshToken)))
+                .isInstanceOf(UserException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.ACCOUNT_LOCKED);
+
+        service.unlockUser(USER_ID);
+        verify(userRepository).setLocked(USER_ID, false);
+        when(userRepository.isLocked(USER_ID)).thenReturn(false);
+        assertThat(service.login(login()).getJwt()).isNotBlank();
+    }
+
+    @Test
+    void wrongPasswordOfALockedUserIsAnsweredAsAWrongPassword() {
+        when(userRepository.isLocked(USER_ID)).thenReturn(true);
+        when(passwordHashingService.matches(anyString(), anyString())).thenReturn(false);
+
+        assertThatThrownBy(() -> service.login(login()))
+                .isInstanceOf(UserException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.INVALID_CREDENTIALS);
+    }
+
+    private static LoginRequest login() {
+        LoginRequest request = new LoginRequest();
+        request.setEmail("cashier@shop");
+        request.setPassword("secret");
+        return request;
+    }
+
+    private static RefreshTokenRequest refresh(String token) {
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken(token);
+        return request;
+    }
+}
@@ -0,0 +1,150 @@
+package com.shu.service.auth.impl;
+
+import com.shu.exceptions.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Timeouts give the work up too: no hashing for callers that already got a 503.
+ */
+class PasswordHashingServiceImplTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger hashed = new AtomicInteger();
+    private PasswordHashingServiceImpl service;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void timedOutQueuedHashIsDroppedFromTheQueue() throws Exception {
+        // one worker, stuck in BCrypt until released (BCrypt ignores interrupts)
+        service = newService(1, 100, new FakeEncoder(() -> awaitUninterruptibly(release)));
+
+        assertThatThrownBy(() -> service.encode("first")).isInstanceOf(ServiceBusyException.class);
+        assertThatThrownBy(() -> service.encode("second")).isInstanceOf(ServiceBusyException.class);
+        assertThat(service.getQueueDepth()).isZero();
+
+        release.countDown();
+        waitUntilIdle();
+        assertThat(hashed).hasValue(1);
+    }
+
+    @Test
+    void timedOutBulkStopsBeforeTheNextPassword() throws Exception {
+        // 2 workers = 1 bulk slice, 50 ms per password, the batch needs 1 s
+        service = newService(2, 120, new FakeEncoder(() -> spin(50)));
+
+        assertThatThrownBy(() -> service.encodeAll(Collections.nCopies(20, "secret")))
+                .isInstanceOf(ServiceBusyException.class);
+
+        waitUntilIdle();
+        int done = hashed.get();
+        assertThat(done).isLessThan(6);
+        Thread.sleep(200);
+        assertThat(hashed).hasValue(done);
+    }
+
+    @Test
+    void rejectedBulkSliceCancelsTheSlicesAlreadyQueued() throws Exception {
+        // 4 workers = 2 bulk slices; workers busy and 3 of 4 queue slots taken: the second slice is rejected
+        service = new PasswordHashingServiceImpl(new FakeEncoder(() -> awaitUninterruptibly(release)),
+                new SimpleMeterRegistry(), 10, 4, 4, 5_000, 5_000, 1);
+        for (int i = 0; i < 7; i++) {
+            service.encodeAsync("busy-" + i);
+        }
+
+        assertThatThrownBy(() -> service.encodeAll(Collections.nCopies(4, "secret")))
+                .isInstanceOf(ServiceBusyException.class);
+        assertThat(service.getQueueDepth()).isEqualTo(3);
+
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (hashed.get() < 7 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        waitUntilIdle();
+        assertThat(hashed).hasValue(7);
+    }
+
+    @Test
+    void bulkResultsKeepInputOrder() {
+        service = newService(4, 5_000, new FakeEncoder(() -> { }));
+
+        assertThat(service.encodeAll(IntStream.range(0, 10).mapToObj(i -> "p" + i).toList()))
+                .containsExactly("hash:p0", "hash:p1", "hash:p2", "hash:p3", "hash:p4",
+                        "hash:p5", "hash:p6", "hash:p7", "hash:p8", "hash:p9");
+    }
+
+    private PasswordHashingServiceImpl newService(int poolSize, long timeoutMillis, PasswordEncoder encoder) {
+        return new PasswordHashingServiceImpl(encoder, new SimpleMeterRegistry(), 10, poolSize, 4,
+                timeoutMillis, timeoutMillis, 1);
+    }
+
+    private void waitUntilIdle() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.getActiveCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(service.getActiveCount()).isZero();
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (latch.getCount() > 0) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void spin(long millis) {
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (System.nanoTime() < end) {
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Stands in for BCrypt: runs the given work, then counts the hash.
+     */
+    private class FakeEncoder implements PasswordEncoder {
+
+        private final Runnable work;
+
+        FakeEncoder(Runnable work) {
+            this.work = work;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            work.run();
+            hashed.incrementAndGet();
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.shu.service.auth.impl;
+
+import com.shu.service.auth.JwtProvider;
+import com.shu.service.auth.TokenIds;
+import com.shu.service.auth.TokenRevocationList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Revocations against H2, with two nodes sharing the table.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TokenRevocationServiceImplTest {
+
+    private final JwtProvider jwtProvider = new JwtProvider(Duration.ofMinutes(15), Duration.ofHours(12));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private TokenRevocationList nodeAList;
+    private TokenRevocationList nodeBList;
+    private TokenRevocationServiceImpl nodeA;
+    private TokenRevocationServiceImpl nodeB;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM token_revocation");
+        nodeAList = new TokenRevocationList(1000);
+        nodeBList = new TokenRevocationList(1000);
+        nodeA = new TokenRevocationServiceImpl(jdbcTemplate, nodeAList, jwtProvider, 5000);
+        nodeB = new TokenRevocationServiceImpl(jdbcTemplate, nodeBList, jwtProvider, 5000);
+        nodeA.load();
+        nodeB.load();
+    }
+
+    @Test
+    void refreshTokenCanBeRevokedOnceAcrossNodes() {
+        TokenIds refresh = jwtProvider.parseRefreshToken(jwtProvider.generateRefreshToken("a@shop.test", "s1"));
+        assertThat(refresh).isNotNull();
+
+        assertThat(nodeA.revokeToken(refresh.tokenId(), refresh.expiresAtMillis())).isTrue();
+        // Replayed on the other node before it synced: the primary key still catches it
+        assertThat(nodeB.revokeToken(refresh.tokenId(), refresh.expiresAtMillis())).isFalse();
+        assertThat(nodeAList.isRevoked(refresh, System.currentTimeMillis())).isTrue();
+
+        nodeB.sync();
+        assertThat(nodeBList.isRevoked(refresh, System.currentTimeMillis())).isTrue();
+    }
+
+    @Test
+    void sessionAndUserRevocationsReachOtherNodesAndArePurgedWhenExpired() {
+        long issuedAt = System.currentTimeMillis() / 1000 - 1;
+        TokenIds access = new TokenIds("t1", "s1", "leaver@shop.test", issuedAt, Long.MAX_VALUE);
+        TokenIds otherUser = new TokenIds("t2", "s2", "cashier@shop.test", issuedAt, Long.MAX_VALUE);
+
+        nodeA.revokeUser("leaver@shop.test");
+        nodeA.revokeSession("s2");
+        nodeA.revokeSession("s2");   // logout twice
+        assertThat(nodeBList.isRevoked(access, System.currentTimeMillis())).isFalse();
+
+        nodeB.sync();
+        assertThat(nodeBList.isRevoked(access, System.currentTimeMillis())).isTrue();
+        assertThat(nodeBList.isRevoked(otherUser, System.currentTimeMillis())).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM token_revocation", Integer.class)).isEqualTo(2);
+
+        // A node started later loads the live revocations
+        TokenRevocationList nodeCList = new TokenRevocationList(1000);
+        new TokenRevocationServiceImpl(jdbcTemplate, nodeCList, jwtProvider, 5000).load();
+        assertThat(nodeCList.isRevoked(access, System.currentTimeMillis())).isTrue();
+
+        // Expired rows are purged
+        jdbcTemplate.update("UPDATE token_revocation SET expires_at = ?", System.currentTimeMillis() - 1);
+        nodeA.compact();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM token_revocation", Integer.class)).isZero();
+    }
+}
@@ -0,0 +1,157 @@
+package com.shu.service.diagnostics;
+
+import com.shu.configuration.SqlMonitoringConfig;
+import com.shu.domain.UserRole;
+import com.shu.filter.SqlAccountingFilter;
+import com.shu.model.entity.User;
+import com.shu.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Statements through the monitored DataSource against H2: attribution to repository methods,
+ * row counts, per-request accounting and the query budget.
+ */
+@DataJpaTest
+@Import({SqlMonitoringConfig.class, SqlStatementMonitor.class, SqlStatementMonitorTest.Metrics.class})
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SqlStatementMonitorTest {
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM user");
+    }
+
+    @Test
+    void statementsAreAttributedToTheRepositoryMethod() {
+        assertThat(dataSource).isInstanceOf(MonitoredDataSource.class);
+        long inserts = statements("batch", "UserRepository.save");
+        long lookups = statements("query", "UserRepository.findByEmail");
+
+        userRepository.save(newUser("cashier@shop.test"));
+        assertThat(userRepository.findByEmail("cashier@shop.test")).isNotNull();
+
+        // Hibernate sends inserts as JDBC batches (hibernate.jdbc.batch_size)
+        assertThat(statements("batch", "UserRepository.save")).isEqualTo(inserts + 1);
+        assertThat(statements("query", "UserRepository.findByEmail")).isEqualTo(lookups + 1);
+    }
+
+    @Test
+    void rowsAndStatementsAreCountedPerUnitOfWork() {
+        for (int i = 0; i < 3; i++) {
+            userRepository.save(newUser("cashier" + i + "@shop.test"));
+        }
+
+        double rowsRead = rows("query");
+        double rowsUpdated = rows("update");
+
+        SqlRequestStats stats = SqlRequestStats.begin();
+        try {
+            assertThat(jdbcTemplate.queryForList("SELECT email FROM user", String.class)).hasSize(3);
+            jdbcTemplate.update("UPDATE user SET phone = '1'");
+        } finally {
+            stats.end();
+        }
+
+        assertThat(stats.getStatements()).isEqualTo(2);
+        assertThat(stats.getNanos()).isPositive();
+        assertThat(rows("query") - rowsRead).isEqualTo(3);
+        assertThat(rows("update") - rowsUpdated).isEqualTo(3);
+        assertThat(statements("query", "none")).isPositive();
+    }
+
+    @Test
+    void requestOverBudgetFailsInFailMode() {
+        SqlAccountingFilter filter = new SqlAccountingFilter(registry, 3, SqlAccountingFilter.BUDGET_MODE_FAIL);
+
+        assertThatThrownBy(() -> filter.doFilter(request("/api/users/{id}"), new MockHttpServletResponse(),
+                (request, response) -> lookUpMissingUsers(5)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("GET /api/users/{id} ran 5 SQL statements (budget 3)");
+    }
+
+    @Test
+    void requestWithinBudgetIsRecorded() throws Exception {
+        SqlAccountingFilter filter = new SqlAccountingFilter(registry, 3, SqlAccountingFilter.BUDGET_MODE_FAIL);
+
+        filter.doFilter(request("/api/orders/{id}"), new MockHttpServletResponse(),
+                (request, response) -> lookUpMissingUsers(2));
+
+        assertThat(registry.get("pos.sql.request.statements")
+                .tag("method", "GET")
+                .tag("uri", "/api/orders/{id}")
+                .summary().totalAmount()).isEqualTo(2);
+        assertThat(registry.get("pos.sql.request.time").tag("uri", "/api/orders/{id}").timer().count()).isEqualTo(1);
+    }
+
+    private long statements(String type, String repository) {
+        var timer = registry.find("pos.sql.statements").tag("type", type).tag("repository", repository).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private double rows(String type) {
+        var summary = registry.find("pos.sql.rows").tag("type", type).summary();
+        return summary == null ? 0 : summary.totalAmount();
+    }
+
+    private void lookUpMissingUsers(int count) {
+        for (int i = 0; i < count; i++) {
+            assertThat(userRepository.findById(-1L - i)).isEmpty();
+        }
+    }
+
+    private static MockHttpServletRequest request(String pattern) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern.replace("{id}", "1"));
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+        return request;
+    }
+
+    private static User newUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFullName("Cashier");
+        user.setRole(UserRole.ROLE_CASHIER);
+        user.setPassword("$2a$10$hash");
+        return user;
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
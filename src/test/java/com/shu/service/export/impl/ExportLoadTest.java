@@ -0,0 +1,139 @@
+package com.shu.service.export.impl;
+
+import com.shu.domain.ExportFormat;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports {@value #ORDERS} orders (CSV and gzip'ed JSON) into a discarding stream and samples the live heap
+ * (after a full GC) every {@value #SAMPLE_BYTES} bytes of output. A streaming export keeps the live heap flat;
+ * anything materializing rows grows it by hundreds of MB.
+ *
+ * H2 runs file-based here, so the table itself is not on the heap and the test also passes with a small
+ * fixed heap. Report: target/loadtest/exports.txt
+ *
+ * Run: ./mvnw test -Pload-test -Dtest=ExportLoadTest [-DargLine=-Xmx128m]
+ */
+@Tag("load")
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:file:./target/loadtest/export-db;MODE=MySQL;"
+        + "DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER")
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExportLoadTest {
+
+    private static final int ORDERS = 2_000_000;
+    private static final long SAMPLE_BYTES = 4 << 20;
+    private static final long MAX_LIVE_HEAP_GROWTH = 32 << 20;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void millionsOfOrdersExportInConstantMemory() throws Exception {
+        jdbcTemplate.update("DELETE FROM orders");
+        jdbcTemplate.update("INSERT INTO orders (id, idempotency_key, request_hash, branch_id, cashier_id, status, "
+                + "payment_method, payment_provider, payment_reference, total_amount, created_at) "
+                + "SELECT n, 'key-' || n, 'hash', MOD(n, 50) + 1, MOD(n, 700), 'COMPLETED', 'CARD', 'stripe', "
+                + "'pi_' || n, MOD(n, 10000) / 100.0, DATEADD('SECOND', n, TIMESTAMP '2025-01-01 00:00:00') "
+                + "FROM (SELECT \"X\" AS n FROM SYSTEM_RANGE(1, " + ORDERS + "))");
+
+        ExportServiceImpl service = new ExportServiceImpl(jdbcTemplate, transactionManager, 1000, 2, 30);
+        LocalDateTime from = LocalDateTime.of(2025, 1, 1, 0, 0);
+        LocalDateTime to = from.plusYears(1);
+
+        Result csv = run(service, from, to, ExportFormat.CSV, false);
+        Result json = run(service, from, to, ExportFormat.JSON, true);
+        writeReport(csv, json);
+
+        assertThat(csv.growthBytes()).isLessThan(MAX_LIVE_HEAP_GROWTH);
+        assertThat(json.growthBytes()).isLessThan(MAX_LIVE_HEAP_GROWTH);
+        assertThat(csv.bytes()).isGreaterThan((long) ORDERS * 50);
+    }
+
+    private static Result run(ExportServiceImpl service, LocalDateTime from, LocalDateTime to,
+                              ExportFormat format, boolean gzip) throws IOException {
+        HeapSamplingStream out = new HeapSamplingStream();
+        long start = System.nanoTime();
+        service.exportOrders(from, to, format, gzip).writeTo(out);
+        long elapsed = System.nanoTime() - start;
+        return new Result(format + (gzip ? "+gzip" : ""), out.bytes, elapsed / 1e9,
+                out.baseline, out.peak, Runtime.getRuntime().maxMemory());
+    }
+
+    private static void writeReport(Result... results) throws IOException {
+        StringBuilder report = new StringBuilder(String.format("orders=%d fetch_size=1000 max_heap=%dMB%n",
+                ORDERS, results[0].maxHeap() >> 20));
+        for (Result result : results) {
+            report.append(String.format("%-10s bytes=%11d rows/s=%10.0f live_heap_before=%5.1fMB "
+                            + "live_heap_peak=%5.1fMB growth=%5.1fMB%n",
+                    result.name(), result.bytes(), ORDERS / result.seconds(), result.baseline() / 1048576.0,
+                    result.peak() / 1048576.0, result.growthBytes() / 1048576.0));
+        }
+        Path file = Path.of("target", "loadtest", "exports.txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, report);
+    }
+
+    private record Result(String name, long bytes, double seconds, long baseline, long peak, long maxHeap) {
+
+        long growthBytes() {
+            return Math.max(0, peak - baseline);
+        }
+    }
+
+    /**
+     * Discards the export, measuring the live heap (used after GC) every SAMPLE_BYTES.
+     */
+    private static final class HeapSamplingStream extends OutputStream {
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final long baseline = liveHeap();
+        private long peak = baseline;
+        private long bytes;
+        private long nextSample = SAMPLE_BYTES;
+
+        @Override
+        public void write(int b) {
+            count(1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count(len);
+        }
+
+        private void count(int len) {
+            bytes += len;
+            if (bytes >= nextSample) {
+                nextSample += SAMPLE_BYTES;
+                peak = Math.max(peak, liveHeap());
+            }
+        }
+
+        private long liveHeap() {
+            System.gc();
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.shu.service.export.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shu.domain.ExportFormat;
+import com.shu.exceptions.ServiceBusyException;
+import jakarta.servlet.AsyncEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Streamed exports against H2: CSV quoting, JSON + gzip, range filter, concurrency limit and permit release.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ExportServiceImplTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 14, 0, 0);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ExportServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_item");
+        jdbcTemplate.update("DELETE FROM orders");
+        jdbcTemplate.update("DELETE FROM user");
+        service = new ExportServiceImpl(jdbcTemplate, transactionManager, 2, 1, 30);
+    }
+
+    @Test
+    void usersCsvIsQuotedAndHasNoPasswords() throws IOException {
+        insertUser(1, "Asha Rao", "asha@shop.in", null);
+        insertUser(2, "Rao, \"Ravi\"", "ravi@shop.in", "+91 98450 00000");
+        insertUser(3, "=HYPERLINK(\"x\")", "eve@shop.in", null);
+
+        String csv = new String(write(service.exportUsers(ExportFormat.CSV, false)), StandardCharsets.UTF_8);
+
+        assertThat(csv.split("\r\n")).containsExactly(
+                "id,full_name,email,phone,role,created_at,updated_at,last_login",
+                "1,Asha Rao,asha@shop.in,,ROLE_CASHIER,2025-03-14T09:15:00,,",
+                "2,\"Rao, \"\"Ravi\"\"\",ravi@shop.in,'+91 98450 00000,ROLE_CASHIER,2025-03-14T09:15:00,,",
+                "3,\"'=HYPERLINK(\"\"x\"\")\",eve@shop.in,,ROLE_CASHIER,2025-03-14T09:15:00,,");
+        assertThat(csv).doesNotContain("$2a$");
+    }
+
+    @Test
+    void ordersJsonGzipContainsOnlyTheRange() throws IOException {
+        insertOrder(1, 7, null, DAY.plusHours(9));
+        insertOrder(2, 7, 42L, DAY.plusHours(23));
+        insertOrder(3, 7, 42L, DAY.plusDays(1));
+
+        byte[] gzip = write(service.exportOrders(DAY, DAY.plusDays(1), ExportFormat.JSON, true));
+        JsonNode rows = new ObjectMapper().readTree(new GZIPInputStream(new ByteArrayInputStream(gzip)));
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).get("order_number").asText()).isEqualTo("B7-0000000001");
+        assertThat(rows.get(0).get("cashier_id").isNull()).isTrue();
+        assertThat(rows.get(0).get("total_amount").decimalValue()).isEqualByComparingTo("157.50");
+        assertThat(rows.get(1).get("cashier_id").asLong()).isEqualTo(42L);
+        assertThat(rows.get(1).get("created_at").asText()).isEqualTo("2025-03-14T23:00:00");
+    }
+
+    @Test
+    void secondConcurrentExportIsRejectedUntilTheFirstEnds() throws IOException {
+        StreamingResponseBody first = service.exportUsers(ExportFormat.CSV, false);
+
+        assertThatThrownBy(() -> service.exportUsers(ExportFormat.CSV, false))
+                .isInstanceOf(ServiceBusyException.class);
+
+        write(first);
+        assertThat(write(service.exportUsers(ExportFormat.JSON, false))).isNotEmpty();
+    }
+
+    @Test
+    void permitIsReleasedWhenTheRequestTimesOutBeforeTheBodyRuns() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        StandardServletAsyncWebRequest asyncRequest =
+                new StandardServletAsyncWebRequest(request, new MockHttpServletResponse());
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.setAsyncWebRequest(asyncRequest);
+        // saturated executor: the body stays queued
+        asyncManager.setTaskExecutor(new ConcurrentTaskExecutor(task -> { }));
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        try {
+            StreamingResponseBody body = service.exportUsers(ExportFormat.CSV, false);
+            asyncManager.startCallableProcessing(() -> {
+                body.writeTo(OutputStream.nullOutputStream());
+                return null;
+            });
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        assertThatThrownBy(() -> service.exportUsers(ExportFormat.CSV, false))
+                .isInstanceOf(ServiceBusyException.class);
+
+        AsyncEvent event = new AsyncEvent(request.getAsyncContext());
+        asyncRequest.onTimeout(event);
+        asyncRequest.onComplete(event);
+
+        assertThat(write(service.exportUsers(ExportFormat.JSON, false))).isNotEmpty();
+    }
+
+    private static byte[] write(StreamingResponseBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toByteArray();
+    }
+
+    private void insertUser(long id, String fullName, String email, String phone) {
+        jdbcTemplate.update("INSERT INTO user (id, full_name, email, phone, role, password, created_at) "
+                        + "VALUES (?, ?, ?, ?, 'ROLE_CASHIER', '$2a$10$hash', ?)",
+                id, fullName, email, phone, Timestamp.valueOf(DAY.plusHours(9).plusMinutes(15)));
+    }
+
+    private void insertOrder(long id, long branchId, Long cashierId, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO orders (id, idempotency_key, request_hash, branch_id, cashier_id, status, "
+                        + "payment_method, total_amount, created_at) VALUES (?, ?, 'hash', ?, ?, 'COMPLETED', 'CASH', "
+                        + "157.50, ?)",
+                id, "key-" + id, branchId, cashierId, Timestamp.valueOf(createdAt));
+    }
+}
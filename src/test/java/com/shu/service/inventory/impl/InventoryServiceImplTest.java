@@ -0,0 +1,170 @@
+package com.shu.service.inventory.impl;
+
+import com.shu.constant.ErrorCode;
+import com.shu.domain.StockMovementType;
+import com.shu.exceptions.InventoryException;
+import com.shu.payload.request.StockAdjustmentRequest;
+import com.shu.payload.request.StockReservationRequest;
+import com.shu.payload.response.StockLevelResponse;
+import com.shu.repository.InventoryRepository;
+import com.shu.repository.JournalCheckpointRepository;
+import com.shu.repository.StockMovementRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ledger + journal behaviour without a database (the write-behind flush never runs here).
+ */
+class InventoryServiceImplTest {
+
+    private static final long BRANCH = 1L;
+    private static final long HOT_PRODUCT = 42L;
+    private static final long OTHER_PRODUCT = 43L;
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    void parallelCheckoutNeverOversells() throws Exception {
+        InventoryServiceImpl service = newService();
+        restock(service, HOT_PRODUCT, 1_000);
+        restock(service, OTHER_PRODUCT, 1_000_000);
+
+        int threads = 32;
+        AtomicLong sold = new AtomicLong();
+        AtomicLong outOfStock = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 500; i++) {
+                    int quantity = 1 + random.nextInt(3);
+                    try {
+                        String id = service.reserve(cart(HOT_PRODUCT, quantity, OTHER_PRODUCT, 1)).getReservationId();
+                        if (random.nextInt(4) == 0) {
+                            service.release(id);   // abandoned cart
+                        } else {
+                            service.commit(id, "order-" + id);
+                            sold.addAndGet(quantity);
+                        }
+                    } catch (InventoryException e) {
+                        assertThat(e.getErrorCode()).isEqualTo(ErrorCode.OUT_OF_STOCK);
+                        outOfStock.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        pool.shutdown();
+        for (Future<?> worker : workers) {
+            // Rethrows a failed assertion or unexpected exception of the worker
+            worker.get(60, TimeUnit.SECONDS);
+        }
+
+        StockLevelResponse hot = service.getStock(BRANCH, HOT_PRODUCT);
+        assertThat(outOfStock.get()).isPositive();
+        assertThat(sold.get()).isLessThanOrEqualTo(1_000);
+        assertThat(hot.getAvailable()).isGreaterThanOrEqualTo(0);
+        assertThat(hot.getReserved()).isZero();
+        assertThat(hot.getOnHand()).isEqualTo(1_000 - sold.get());
+        // all-or-nothing: the other line was only sold with the hot one
+        assertThat(service.getStock(BRANCH, OTHER_PRODUCT).getReserved()).isZero();
+
+        // "crash": a fresh instance rebuilds the same levels from the journal alone
+        InventoryServiceImpl restarted = newService();
+        restarted.afterSingletonsInstantiated();
+        assertThat(restarted.getStock(BRANCH, HOT_PRODUCT).getOnHand()).isEqualTo(1_000 - sold.get());
+        assertThat(restarted.getStock(BRANCH, OTHER_PRODUCT).getOnHand())
+                .isEqualTo(service.getStock(BRANCH, OTHER_PRODUCT).getOnHand());
+    }
+
+    @Test
+    void reservationIsSettledOnlyOnce() {
+        InventoryServiceImpl service = newService();
+        restock(service, HOT_PRODUCT, 5);
+
+        String id = service.reserve(cart(HOT_PRODUCT, 5)).getReservationId();
+        assertThatThrownBy(() -> service.reserve(cart(HOT_PRODUCT, 1)))
+                .isInstanceOf(InventoryException.class);
+
+        service.commit(id, "order-1");
+
+        assertThatThrownBy(() -> service.release(id))
+                .isInstanceOf(InventoryException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.RESERVATION_NOT_FOUND);
+        assertThat(service.getStock(BRANCH, HOT_PRODUCT).getOnHand()).isZero();
+    }
+
+    @Test
+    void negativeAdjustmentCannotTakeReservedStock() {
+        InventoryServiceImpl service = newService();
+        restock(service, HOT_PRODUCT, 10);
+        service.reserve(cart(HOT_PRODUCT, 8));
+
+        StockAdjustmentRequest shrink = adjustment(HOT_PRODUCT, -3, StockMovementType.ADJUSTMENT);
+
+        assertThatThrownBy(() -> service.adjustStock(shrink))
+                .isInstanceOf(InventoryException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.OUT_OF_STOCK);
+        assertThat(service.getStock(BRANCH, HOT_PRODUCT).getAvailable()).isEqualTo(2);
+    }
+
+    private InventoryServiceImpl newService() {
+        JournalCheckpointRepository checkpoints = mock(JournalCheckpointRepository.class);
+        when(checkpoints.findById(anyString())).thenReturn(Optional.empty());
+        return new InventoryServiceImpl(mock(InventoryRepository.class), mock(StockMovementRepository.class),
+                checkpoints, mock(JdbcTemplate.class), mock(PlatformTransactionManager.class),
+                journalDir, 1 << 20, true, 1_000, 900, List.of());
+    }
+
+    private static void restock(InventoryServiceImpl service, long productId, long quantity) {
+        service.adjustStock(adjustment(productId, quantity, StockMovementType.RESTOCK));
+    }
+
+    private static StockAdjustmentRequest adjustment(long productId, long quantity, StockMovementType type) {
+        StockAdjustmentRequest request = new StockAdjustmentRequest();
+        request.setBranchId(BRANCH);
+        request.setProductId(productId);
+        request.setQuantity(quantity);
+        request.setType(type);
+        return request;
+    }
+
+    private static StockReservationRequest cart(long... productAndQuantity) {
+        StockReservationRequest request = new StockReservationRequest();
+        request.setBranchId(BRANCH);
+        List<StockReservationRequest.Line> lines = new ArrayList<>();
+        for (int i = 0; i < productAndQuantity.length; i += 2) {
+            StockReservationRequest.Line line = new StockReservationRequest.Line();
+            line.setProductId(productAndQuantity[i]);
+            line.setQuantity(productAndQuantity[i + 1]);
+            lines.add(line);
+        }
+        request.setItems(lines);
+        return request;
+    }
+}
@@ -0,0 +1,192 @@
+package com.shu.service.inventory.impl;
+
+import com.shu.constant.ErrorCode;
+import com.shu.domain.StockMovementType;
+import com.shu.exceptions.InventoryException;
+import com.shu.model.entity.InventoryId;
+import com.shu.payload.request.StockAdjustmentRequest;
+import com.shu.payload.request.StockReservationRequest;
+import com.shu.repository.InventoryRepository;
+import com.shu.repository.JournalCheckpointRepository;
+import com.shu.repository.StockMovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Write-behind flush against H2 (MySQL mode): movement rows, inventory upserts, checkpoint and replay,
+ * and the branch claims that keep two nodes off the same stock.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryWriteBehindTest {
+
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+    @Autowired
+    private JournalCheckpointRepository checkpointRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDir;
+
+    @BeforeEach
+    void setUp() {
+        stockMovementRepository.deleteAll();
+        inventoryRepository.deleteAll();
+        checkpointRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM inventory_branch_owner");
+    }
+
+    @Test
+    void flushPersistsMovementsAndRestartReplaysOnlyTheRest() {
+        InventoryServiceImpl service = newService();
+        service.adjustStock(restock(7L, 100));
+        service.commit(service.reserve(cart(7L, 30)).getReservationId(), "order-1");
+
+        assertThat(service.flush()).isEqualTo(2);
+        assertThat(service.getJournalLag()).isZero();
+        assertThat(stockMovementRepository.count()).isEqualTo(2);
+        assertThat(inventoryRepository.findById(new InventoryId(1L, 7L)).orElseThrow().getQuantity()).isEqualTo(70);
+
+        // second flush adds to the existing row (upsert)
+        service.adjustStock(restock(7L, 5));
+        service.flush();
+        assertThat(inventoryRepository.findById(new InventoryId(1L, 7L)).orElseThrow().getQuantity()).isEqualTo(75);
+
+        // not flushed before the "crash": must come back from the journal, flushed ones must not be applied twice
+        service.commit(service.reserve(cart(7L, 10)).getReservationId(), "order-2");
+
+        InventoryServiceImpl restarted = newService();
+        restarted.afterSingletonsInstantiated();
+        assertThat(restarted.getStock(1L, 7L).getOnHand()).isEqualTo(65);
+
+        restarted.flush();
+        assertThat(inventoryRepository.findById(new InventoryId(1L, 7L)).orElseThrow().getQuantity()).isEqualTo(65);
+        assertThat(stockMovementRepository.count()).isEqualTo(4);
+    }
+
+    @Test
+    void wipedJournalContinuesAfterTheCheckpoint(@TempDir Path emptyJournalDir) {
+        InventoryServiceImpl service = newService();
+        service.adjustStock(restock(8L, 10));
+        service.adjustStock(restock(8L, 10));
+        service.flush();
+
+        // Journal directory lost: LSNs would restart at 1, below the checkpoint (2)
+        InventoryServiceImpl restarted = newService(emptyJournalDir);
+        restarted.afterSingletonsInstantiated();
+        restarted.adjustStock(restock(8L, 5));
+
+        assertThat(restarted.getJournalLag()).isEqualTo(1);
+        assertThat(restarted.flush()).isEqualTo(1);
+        assertThat(inventoryRepository.findById(new InventoryId(1L, 8L)).orElseThrow().getQuantity()).isEqualTo(25);
+    }
+
+    @Test
+    void eachBranchIsServedByOneNode(@TempDir Path secondDir, @TempDir Path thirdDir) {
+        InventoryServiceImpl everyBranch = newService();
+        everyBranch.afterSingletonsInstantiated();
+
+        assertThatThrownBy(() -> newService(secondDir).afterSingletonsInstantiated())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("every branch");
+        assertThatThrownBy(() -> newService(thirdDir, List.of(2L)).afterSingletonsInstantiated())
+                .isInstanceOf(IllegalStateException.class);
+
+        // clean shutdown with everything persisted hands the branches over
+        everyBranch.adjustStock(restock(7L, 10));
+        everyBranch.flushOnShutdown();
+
+        InventoryServiceImpl branch2 = newService(secondDir, List.of(2L));
+        branch2.afterSingletonsInstantiated();
+        newService(thirdDir, List.of(3L)).afterSingletonsInstantiated();
+        assertThatThrownBy(() -> newService(journalDir, List.of(2L, 4L)).afterSingletonsInstantiated())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("branch 2");
+
+        // a restart of the same node keeps its branches
+        newService(secondDir, List.of(2L)).afterSingletonsInstantiated();
+        assertThatThrownBy(() -> branch2.getStock(1L, 7L))
+                .isInstanceOf(InventoryException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.BRANCH_NOT_SERVED);
+    }
+
+    @Test
+    void checkpointOfAnotherNodeIsNotApplied(@TempDir Path secondDir) {
+        InventoryServiceImpl branch1 = newService(journalDir, List.of(1L));
+        branch1.afterSingletonsInstantiated();
+        InventoryServiceImpl branch2 = newService(secondDir, List.of(2L));
+        branch2.afterSingletonsInstantiated();
+
+        branch2.adjustStock(restock(2L, 8L, 5));
+        branch1.adjustStock(restock(7L, 10));
+        branch1.adjustStock(restock(7L, 10));
+        branch1.adjustStock(restock(7L, 10));
+        branch1.flush();
+
+        // LSN 1 of the second node is below the first node's checkpoint (3): still replayed
+        InventoryServiceImpl restarted = newService(secondDir, List.of(2L));
+        restarted.afterSingletonsInstantiated();
+        assertThat(restarted.getStock(2L, 8L).getOnHand()).isEqualTo(5);
+        assertThat(restarted.flush()).isEqualTo(1);
+        assertThat(inventoryRepository.findById(new InventoryId(2L, 8L)).orElseThrow().getQuantity()).isEqualTo(5);
+    }
+
+    private InventoryServiceImpl newService() {
+        return newService(journalDir);
+    }
+
+    private InventoryServiceImpl newService(Path dir) {
+        return newService(dir, List.of());
+    }
+
+    private InventoryServiceImpl newService(Path dir, List<Long> branches) {
+        return new InventoryServiceImpl(inventoryRepository, stockMovementRepository, checkpointRepository,
+                jdbcTemplate, transactionManager, dir, 1 << 20, false, 1_000, 900, branches);
+    }
+
+    private static StockAdjustmentRequest restock(long productId, long quantity) {
+        return restock(1L, productId, quantity);
+    }
+
+    private static StockAdjustmentRequest restock(long branchId, long productId, long quantity) {
+        StockAdjustmentRequest request = new StockAdjustmentRequest();
+        request.setBranchId(branchId);
+        request.setProductId(productId);
+        request.setQuantity(quantity);
+        request.setType(StockMovementType.RESTOCK);
+        return request;
+    }
+
+    private static StockReservationRequest cart(long productId, long quantity) {
+        StockReservationRequest.Line line = new StockReservationRequest.Line();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        StockReservationRequest request = new StockReservationRequest();
+        request.setBranchId(1L);
+        request.setItems(List.of(line));
+        return request;
+    }
+}
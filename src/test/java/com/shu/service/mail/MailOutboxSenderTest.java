@@ -0,0 +1,181 @@
+package com.shu.service.mail;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.shu.domain.UserRole;
+import com.shu.model.entity.User;
+import com.shu.repository.OutboxMailRepository;
+import com.shu.service.mail.impl.MailOutboxServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Mail outbox against H2 and an embedded SMTP server (GreenMail): transactional enqueue, pooled
+ * batch sending, retries into the dead letter state and requeueing.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MailOutboxSenderTest {
+
+    @RegisterExtension
+    static final GreenMailExtension SMTP = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private OutboxMailRepository outboxMailRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private MailOutboxServiceImpl outboxService;
+    private MailOutboxSender sender;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM mail_outbox");
+        outboxService = new MailOutboxServiceImpl(outboxMailRepository, jdbcTemplate, "INR");
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (sender != null) {
+            sender.shutdown();
+        }
+    }
+
+    @Test
+    void onlyCommittedMailsAreSent() throws Exception {
+        sender = newSender(SMTP.getSmtp().getPort(), 3);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            outboxService.enqueueSignupConfirmation(user("rolled-back@shop.test"));
+            status.setRollbackOnly();
+        });
+        tx.executeWithoutResult(status -> outboxService.enqueueSignupConfirmation(user("committed@shop.test")));
+
+        assertThat(sender.poll()).isEqualTo(1);
+
+        MimeMessage[] received = SMTP.getReceivedMessages();
+        assertThat(received).hasSize(1);
+        assertThat(received[0].getAllRecipients()[0].toString()).isEqualTo("committed@shop.test");
+        assertThat(received[0].getMessageID()).startsWith("<outbox.").endsWith("@shu-pos.local>");
+        assertThat(status("committed@shop.test")).isEqualTo("SENT");
+        assertThat(sender.poll()).isZero();
+
+        // within the retention
+        sender.purge();
+        assertThat(status("committed@shop.test")).isEqualTo("SENT");
+    }
+
+    @Test
+    void unreachableServerIsRetriedUntilDeadThenRequeued() throws Exception {
+        sender = newSender(1, 3);
+        outboxService.enqueueSignupConfirmation(user("later@shop.test"));
+
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            assertThat(sender.poll()).isZero();
+            assertThat(jdbcTemplate.queryForObject("SELECT attempts FROM mail_outbox", Integer.class))
+                    .isEqualTo(attempt);
+            // skip the backoff
+            jdbcTemplate.update("UPDATE mail_outbox SET next_attempt_at = DATEADD('SECOND', -1, CURRENT_TIMESTAMP)");
+        }
+        assertThat(status("later@shop.test")).isEqualTo("DEAD");
+        assertThat(sender.getDeadCount()).isEqualTo(1);
+        assertThat(sender.poll()).isZero();
+
+        // SMTP fixed: requeue and send
+        sender.shutdown();
+        sender = newSender(SMTP.getSmtp().getPort(), 3);
+        assertThat(outboxService.requeueDead()).isEqualTo(1);
+        assertThat(sender.poll()).isEqualTo(1);
+        assertThat(status("later@shop.test")).isEqualTo("SENT");
+        assertThat(SMTP.getReceivedMessages()).hasSize(1);
+    }
+
+    @Test
+    void batchesReuseTheSameConnections() {
+        sender = newSender(SMTP.getSmtp().getPort(), 3);
+        int mails = 300;
+        for (int i = 0; i < mails; i++) {
+            outboxService.enqueueSignupConfirmation(user("user" + i + "@shop.test"));
+        }
+
+        int sent = 0;
+        while (sent < mails) {
+            int polled = sender.poll();
+            assertThat(polled).isPositive();
+            sent += polled;
+        }
+
+        assertThat(SMTP.getReceivedMessages()).hasSize(mails);
+        assertThat(sender.getPendingCount()).isZero();
+        // 2 pooled connections for 300 mails (2 batches), instead of one connection per mail
+        assertThat(connectionsOpened()).isEqualTo(2);
+        Set<String> recipients = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT recipient FROM mail_outbox WHERE status = 'SENT'", String.class));
+        assertThat(recipients).hasSize(mails);
+    }
+
+    private MailOutboxSender newSender(int port, int maxAttempts) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        mailSender.getJavaMailProperties().setProperty("mail.smtp.connectiontimeout", "2000");
+        @SuppressWarnings("unchecked")
+        ObjectProvider<JavaMailSender> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(mailSender);
+        try {
+            return new MailOutboxSender(provider, jdbcTemplate, "receipts@shu-pos.local", 200, 2,
+                    Duration.ofMinutes(1), Duration.ofMinutes(5), maxAttempts, Duration.ofSeconds(30),
+                    Duration.ofHours(1), Duration.ofDays(7));
+        } catch (AddressException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private long connectionsOpened() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        sender.bindTo(registry);
+        return (long) registry.get("pos.mail.connections.opened").functionCounter().count();
+    }
+
+    private String status(String recipient) {
+        return jdbcTemplate.queryForObject("SELECT status FROM mail_outbox WHERE recipient = ?", String.class,
+                recipient);
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setFullName("Test User");
+        user.setEmail(email);
+        user.setRole(UserRole.ROLE_CASHIER);
+        return user;
+    }
+}
@@ -0,0 +1,310 @@
+package com.shu.service.order.impl;
+
+import com.shu.configuration.SqlMonitoringConfig;
+import com.shu.constant.ErrorCode;
+import com.shu.domain.PaymentMethod;
+import com.shu.domain.StockMovementType;
+import com.shu.exceptions.OrderException;
+import com.shu.exceptions.PaymentException;
+import com.shu.model.dto.OrderDto;
+import com.shu.model.dto.ProductDto;
+import com.shu.payload.request.CheckoutRequest;
+import com.shu.payload.request.StockAdjustmentRequest;
+import com.shu.repository.InventoryRepository;
+import com.shu.repository.JournalCheckpointRepository;
+import com.shu.repository.OrderRepository;
+import com.shu.repository.StockMovementRepository;
+import com.shu.service.diagnostics.SqlRequestStats;
+import com.shu.service.diagnostics.SqlStatementMonitor;
+import com.shu.service.inventory.impl.InventoryServiceImpl;
+import com.shu.service.mail.MailOutboxService;
+import com.shu.service.order.IdempotencyCache;
+import com.shu.service.payment.PaymentResult;
+import com.shu.service.payment.PaymentService;
+import com.shu.service.payment.impl.PaymentServiceImpl;
+import com.shu.service.product.ProductService;
+import com.shu.service.reporting.impl.SalesRollupServiceImpl;
+import com.shu.service.user.UserCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Checkout pipeline against H2: batched persistence, idempotent retries and compensation.
+ */
+@DataJpaTest
+@Import({SqlMonitoringConfig.class, SqlStatementMonitor.class, OrderServiceImplTest.Metrics.class})
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderServiceImplTest {
+
+    private static final long BRANCH = 3L;
+    private static final long PRODUCT = 11L;
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+    @Autowired
+    private JournalCheckpointRepository checkpointRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDir;
+
+    private InventoryServiceImpl inventoryService;
+    private ProductService productService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM order_item");
+        jdbcTemplate.update("DELETE FROM orders");
+        jdbcTemplate.update("DELETE FROM inventory_branch_owner");
+        inventoryService = new InventoryServiceImpl(inventoryRepository, stockMovementRepository,
+                checkpointRepository, jdbcTemplate, transactionManager, journalDir, 1 << 20, false, 1_000, 900,
+                List.of());
+        for (long productId = PRODUCT; productId < PRODUCT + 20; productId++) {
+            StockAdjustmentRequest restock = new StockAdjustmentRequest();
+            restock.setBranchId(BRANCH);
+            restock.setProductId(productId);
+            restock.setQuantity(10);
+            restock.setType(StockMovementType.RESTOCK);
+            inventoryService.adjustStock(restock);
+        }
+
+        productService = mock(ProductService.class);
+        when(productService.getActiveProductById(anyLong())).thenAnswer(invocation -> {
+            long productId = invocation.getArgument(0);
+            ProductDto product = new ProductDto();
+            product.setId(productId);
+            product.setSku("MILK-" + productId);
+            product.setName("Milk 1L");
+            product.setSellingPrice(new BigDecimal("52.50"));
+            product.setActive(true);
+            return product;
+        });
+    }
+
+    @Test
+    void retryWithSameKeyReturnsFirstOrderWithoutSellingTwice() {
+        OrderServiceImpl service = newService(new IdempotencyCache(100, Duration.ofHours(1)));
+
+        OrderDto first = service.checkout("key-1", cart(PaymentMethod.CASH, 2, 1), "cashier@shop").join();
+        OrderDto retry = service.checkout("key-1", cart(PaymentMethod.CASH, 2, 1), "cashier@shop").join();
+
+        assertThat(first.getItems()).hasSize(1);
+        assertThat(first.getItems().get(0).getQuantity()).isEqualTo(3);
+        assertThat(first.getTotalAmount()).isEqualByComparingTo("157.50");
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(orderRepository.count()).isEqualTo(1);
+        assertThat(inventoryService.getStock(BRANCH, PRODUCT).getOnHand()).isEqualTo(7);
+        assertThat(service.getOrderById(first.getId()).getOrderNumber()).isEqualTo(first.getOrderNumber());
+
+        assertThatThrownBy(() -> service.checkout("key-1", cart(PaymentMethod.CASH, 1), "cashier@shop"))
+                .isInstanceOf(OrderException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.IDEMPOTENCY_KEY_REUSED);
+    }
+
+    @Test
+    void evictedKeyIsCaughtByTheUniqueConstraint() {
+        OrderDto first = newService(new IdempotencyCache(100, Duration.ofHours(1)))
+                .checkout("key-2", cart(PaymentMethod.CASH, 1), "cashier@shop").join();
+
+        // fresh cache = key no longer remembered (eviction or restart)
+        OrderDto retry = newService(new IdempotencyCache(100, Duration.ofHours(1)))
+                .checkout("key-2", cart(PaymentMethod.CASH, 1), "cashier@shop").join();
+
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        assertThat(orderRepository.count()).isEqualTo(1);
+        assertThat(inventoryService.getStock(BRANCH, PRODUCT).getOnHand()).isEqualTo(9);
+        assertThat(inventoryService.getStock(BRANCH, PRODUCT).getReserved()).isZero();
+    }
+
+    @Test
+    void retriedChargeAnsweredWithTheFirstPaymentIsNotRefunded() {
+        // The provider returns the first PaymentIntent for the same idempotency key
+        PaymentService payments = mock(PaymentService.class);
+        when(payments.charge(any())).thenReturn(CompletableFuture.completedFuture(new PaymentResult("stripe", "pi_1")));
+        OrderDto first = newService(new IdempotencyCache(100, Duration.ofHours(1)), transactionManager, payments)
+                .checkout("key-5", cart(PaymentMethod.CARD, 1), "cashier@shop").join();
+
+        OrderDto retry = newService(new IdempotencyCache(100, Duration.ofHours(1)), transactionManager, payments)
+                .checkout("key-5", cart(PaymentMethod.CARD, 1), "cashier@shop").join();
+
+        assertThat(retry.getId()).isEqualTo(first.getId());
+        verify(payments, never()).refund(any(), any());
+
+        // A different payment for a stored key is a second charge: it is refunded
+        when(payments.charge(any())).thenReturn(CompletableFuture.completedFuture(new PaymentResult("stripe", "pi_2")));
+        when(payments.refund(any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+        newService(new IdempotencyCache(100, Duration.ofHours(1)), transactionManager, payments)
+                .checkout("key-5", cart(PaymentMethod.CARD, 1), "cashier@shop").join();
+        verify(payments).refund(eq(new PaymentResult("stripe", "pi_2")), any());
+        assertThat(orderRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedPaymentReleasesStockAndFreesTheKey() {
+        IdempotencyCache cache = new IdempotencyCache(100, Duration.ofHours(1));
+        OrderServiceImpl service = newService(cache);
+
+        assertThatThrownBy(() -> service.checkout("key-3", cart(PaymentMethod.CARD, 4), "cashier@shop").join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(PaymentException.class);
+
+        assertThat(inventoryService.getStock(BRANCH, PRODUCT).getAvailable()).isEqualTo(10);
+        assertThat(inventoryService.getStock(BRANCH, PRODUCT).getReserved()).isZero();
+        assertThat(orderRepository.count()).isZero();
+
+        // the till may retry the same key, e.g. paying cash instead
+        assertThat(service.checkout("key-3", cart(PaymentMethod.CASH, 4), "cashier@shop").join().getId()).isNotNull();
+    }
+
+    @Test
+    void failedCommitAfterJournaledSaleReturnsTheStock() {
+        // The database loses the transaction at commit time, after the sale was journaled
+        PlatformTransactionManager failingCommit = new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return transactionManager.getTransaction(definition);
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+                transactionManager.rollback(status);
+                throw new TransactionSystemException("Connection lost during commit");
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+                transactionManager.rollback(status);
+            }
+        };
+        OrderServiceImpl service = newService(new IdempotencyCache(100, Duration.ofHours(1)), failingCommit);
+
+        assertThatThrownBy(() -> service.checkout("key-4", cart(PaymentMethod.CASH, 4), "cashier@shop").join())
+                .hasCauseInstanceOf(TransactionSystemException.class);
+
+        assertThat(orderRepository.count()).isZero();
+        assertThat(inventoryService.getStock(BRANCH, PRODUCT).getOnHand()).isEqualTo(10);
+        assertThat(inventoryService.getStock(BRANCH, PRODUCT).getReserved()).isZero();
+        // The journal holds the sale and its compensation: a restart rebuilds the same level
+        InventoryServiceImpl restarted = new InventoryServiceImpl(inventoryRepository, stockMovementRepository,
+                checkpointRepository, jdbcTemplate, transactionManager, journalDir, 1 << 20, false, 1_000, 900,
+                List.of());
+        restarted.afterSingletonsInstantiated();
+        assertThat(restarted.getStock(BRANCH, PRODUCT).getOnHand()).isEqualTo(10);
+    }
+
+    @Test
+    void checkoutRunsAsManyStatementsForTwentyLinesAsForOne() {
+        // In production the persist stage runs on the payment thread, outside the request's query budget
+        // (SqlAccountingFilter): this is its N+1 check. Cash completes on the caller thread.
+        OrderServiceImpl service = newService(new IdempotencyCache(100, Duration.ofHours(1)));
+        service.checkout("key-warm-up", cart(PaymentMethod.CASH, 1), "cashier@shop").join();
+
+        int oneLine = statements(() -> service.checkout("key-6", cart(PaymentMethod.CASH, 1), "cashier@shop").join());
+        CheckoutRequest twentyLines = cart(PaymentMethod.CASH);
+        for (long productId = PRODUCT; productId < PRODUCT + 20; productId++) {
+            CheckoutRequest.Line line = new CheckoutRequest.Line();
+            line.setProductId(productId);
+            line.setQuantity(1);
+            twentyLines.getItems().add(line);
+        }
+        int manyLines = statements(() -> service.checkout("key-7", twentyLines, "cashier@shop").join());
+
+        assertThat(oneLine).isPositive();
+        assertThat(manyLines).isEqualTo(oneLine);
+    }
+
+    private OrderServiceImpl newService(IdempotencyCache cache) {
+        return newService(cache, transactionManager);
+    }
+
+    private OrderServiceImpl newService(IdempotencyCache cache, PlatformTransactionManager orderTransactions) {
+        return newService(cache, orderTransactions,
+                new PaymentServiceImpl(Executors.newVirtualThreadPerTaskExecutor(), List.of(), Map.of(), Duration.ofMinutes(1)));
+    }
+
+    private OrderServiceImpl newService(IdempotencyCache cache, PlatformTransactionManager orderTransactions,
+                                        PaymentService payments) {
+        return new OrderServiceImpl(orderRepository, productService, inventoryService, payments,
+                new SalesRollupServiceImpl(jdbcTemplate, transactionManager, 2, 100), mock(MailOutboxService.class),
+                mock(UserCache.class), cache, orderTransactions, new SimpleMeterRegistry(), "INR", 200);
+    }
+
+    private static int statements(Runnable work) {
+        SqlRequestStats stats = SqlRequestStats.begin();
+        try {
+            work.run();
+        } finally {
+            stats.end();
+        }
+        return stats.getStatements();
+    }
+
+    private static CheckoutRequest cart(PaymentMethod method, long... quantities) {
+        CheckoutRequest request = new CheckoutRequest();
+        request.setBranchId(BRANCH);
+        request.setPaymentMethod(method);
+        request.setItems(new ArrayList<>());
+        for (long quantity : quantities) {
+            CheckoutRequest.Line line = new CheckoutRequest.Line();
+            line.setProductId(PRODUCT);
+            line.setQuantity(quantity);
+            request.getItems().add(line);
+        }
+        return request;
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.shu.service.payment.impl;
+
+import com.shu.domain.PaymentMethod;
+import com.shu.exceptions.PaymentException;
+import com.shu.service.payment.PaymentRequest;
+import com.shu.service.payment.PaymentResult;
+import com.shu.service.payment.gateway.CircuitBreaker;
+import com.shu.service.payment.gateway.PaymentGateway;
+import com.shu.service.payment.gateway.PaymentGatewayException;
+import com.shu.service.payment.gateway.ResilientGateway;
+import com.shu.service.payment.gateway.StubPaymentGateway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentServiceImplTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void breakerOpensOnFailureRateAndClosesAfterTrials() {
+        AtomicLong clock = new AtomicLong();
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 50, 1_000, 2, clock::get);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onSuccess();
+        }
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);   // 1 of 4
+
+        breaker.tryAcquire();
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);     // 2 of 4
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        clock.set(1_000);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();                               // only 2 trials
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void retriesTransientFailureOnSameProvider() {
+        AtomicInteger calls = new AtomicInteger();
+        PaymentGateway flaky = gateway("flaky", request -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new PaymentGatewayException(PaymentGatewayException.Failure.RETRYABLE, "503");
+            }
+            return new PaymentResult("flaky", "pay_" + request.idempotencyKey());
+        });
+        PaymentServiceImpl service = service(List.of(resilient(flaky, 10, 1_000, 3)));
+
+        PaymentResult result = service.charge(card("k1")).join();
+
+        assertThat(result.reference()).isEqualTo("pay_k1");
+        assertThat(calls).hasValue(3);
+    }
+
+    @Test
+    void declineIsNotRetriedNorFailedOver() {
+        StubPaymentGateway declining = new StubPaymentGateway("primary", 0, 0, 0.0, 1.0);
+        StubPaymentGateway fallback = new StubPaymentGateway("fallback", 0, 0, 0.0, 0.0);
+        PaymentServiceImpl service = service(List.of(
+                resilient(declining, 10, 1_000, 3), resilient(fallback, 10, 1_000, 3)));
+
+        assertThatThrownBy(() -> service.charge(card("k2")).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(PaymentException.class)
+                .hasMessageContaining("declined");
+        assertThat(declining.getCallCount()).isEqualTo(1);
+        assertThat(fallback.getCallCount()).isZero();
+    }
+
+    @Test
+    void failsOverWhenPrimaryCircuitIsOpen() {
+        StubPaymentGateway primary = new StubPaymentGateway("primary", 0, 0, 1.0, 0.0);
+        StubPaymentGateway fallback = new StubPaymentGateway("fallback", 0, 0, 0.0, 0.0);
+        ResilientGateway resilientPrimary = resilient(primary, 10, 1_000, 1);
+        PaymentServiceImpl service = service(List.of(resilientPrimary, resilient(fallback, 10, 1_000, 1)));
+
+        // Unknown outcomes are reported, not failed over (the primary may have charged)
+        for (int i = 0; i < 4; i++) {
+            String key = "broken-" + i;
+            assertThatThrownBy(() -> service.charge(card(key)).join())
+                    .hasMessageContaining("outcome unknown");
+        }
+        assertThat(resilientPrimary.getCircuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        PaymentResult result = service.charge(card("k3")).join();
+
+        assertThat(result.provider()).isEqualTo("fallback");
+        assertThat(primary.getCallCount()).isEqualTo(4);
+    }
+
+    @Test
+    void timedOutKeyStaysOnItsProvider() {
+        StubPaymentGateway slow = new StubPaymentGateway("primary", 500, 0, 0.0, 0.0);
+        StubPaymentGateway fallback = new StubPaymentGateway("fallback", 0, 0, 0.0, 0.0);
+        PaymentServiceImpl service = service(List.of(
+                resilient(slow, 10, 50, 1), resilient(fallback, 10, 1_000, 1)));
+
+        assertThatThrownBy(() -> service.charge(card("k4")).join())
+                .hasMessageContaining("no answer within 50 ms");
+
+        // The till retries with the same key: it must not be charged at the fallback as well
+        assertThatThrownBy(() -> service.charge(card("k4")).join())
+                .hasMessageContaining("primary");
+        assertThat(fallback.getCallCount()).isZero();
+    }
+
+    @Test
+    void circuitOpeningAfterTimeoutDoesNotFailOver() {
+        StubPaymentGateway slow = new StubPaymentGateway("primary", 500, 0, 0.0, 0.0);
+        StubPaymentGateway fallback = new StubPaymentGateway("fallback", 0, 0, 0.0, 0.0);
+        // One failure opens the circuit: the retry after the timeout is refused (NOT_SENT)
+        CircuitBreaker breaker = new CircuitBreaker(1, 1, 50, Duration.ofMinutes(1).toNanos(), 1, System::nanoTime);
+        ResilientGateway primary = new ResilientGateway(slow, executor, breaker, 10, 50, 3, 1, 5);
+        PaymentServiceImpl service = service(List.of(primary, resilient(fallback, 10, 1_000, 1)));
+
+        assertThatThrownBy(() -> service.charge(card("k9")).join())
+                .hasMessageContaining("outcome unknown")
+                .hasMessageContaining("no answer within 50 ms");
+
+        assertThat(primary.getCircuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(slow.getCallCount()).isEqualTo(1);
+        assertThat(fallback.getCallCount()).isZero();
+    }
+
+    @Test
+    void failsOverWhenPrimaryBulkheadIsFull() {
+        StubPaymentGateway primary = new StubPaymentGateway("primary", 300, 0, 0.0, 0.0);
+        StubPaymentGateway fallback = new StubPaymentGateway("fallback", 0, 0, 0.0, 0.0);
+        PaymentServiceImpl service = service(List.of(
+                resilient(primary, 1, 1_000, 1), resilient(fallback, 10, 1_000, 1)));
+
+        var first = service.charge(card("k5"));
+        while (primary.getCallCount() == 0) {
+            Thread.onSpinWait();
+        }
+        PaymentResult second = service.charge(card("k6")).join();
+
+        assertThat(second.provider()).isEqualTo("fallback");
+        assertThat(first.join().provider()).isEqualTo("primary");
+    }
+
+    @Test
+    void timedOutCallKeepsItsBulkheadPermitUntilItReturns() throws Exception {
+        CountDownLatch answer = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        // an SDK blocked in socket I/O: the interrupt from the timeout does not stop it
+        ResilientGateway primary = resilient(gateway("primary", request -> {
+            if (calls.incrementAndGet() == 1) {
+                awaitUninterruptibly(answer);
+            }
+            return new PaymentResult("primary", "ch_" + request.idempotencyKey());
+        }), 1, 50, 1);
+
+        assertThatThrownBy(() -> primary.charge(card("k10")))
+                .hasMessageContaining("no answer within 50 ms");
+        assertThatThrownBy(() -> primary.charge(card("k11")))
+                .isInstanceOfSatisfying(PaymentGatewayException.class, e -> assertThat(e.getFailure())
+                        .isEqualTo(PaymentGatewayException.Failure.NOT_SENT))
+                .hasMessageContaining("too many payments in flight");
+
+        answer.countDown();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        PaymentResult result = null;
+        while (result == null && System.nanoTime() < deadline) {
+            try {
+                result = primary.charge(card("k11"));
+            } catch (PaymentGatewayException e) {
+                Thread.sleep(10);
+            }
+        }
+        assertThat(result).isNotNull();
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void cashNeverLeavesTheCallerAndUnroutedMethodFails() {
+        PaymentServiceImpl service = service(List.of());
+
+        assertThat(service.charge(request("k7", PaymentMethod.CASH)).join().provider())
+                .isEqualTo(PaymentServiceImpl.CASH_PROVIDER);
+        assertThatThrownBy(() -> service.charge(card("k8")).join())
+                .hasCauseInstanceOf(PaymentException.class);
+    }
+
+    private PaymentServiceImpl service(List<ResilientGateway> route) {
+        return new PaymentServiceImpl(executor, route, Map.of(PaymentMethod.CARD, route), Duration.ofMinutes(1));
+    }
+
+    private ResilientGateway resilient(PaymentGateway gateway, int maxConcurrent, long timeoutMillis, int maxAttempts) {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 50, Duration.ofMinutes(1).toNanos(), 1, System::nanoTime);
+        return new ResilientGateway(gateway, executor, breaker, maxConcurrent, timeoutMillis, maxAttempts, 1, 5);
+    }
+
+    private static PaymentRequest card(String key) {
+        return request(key, PaymentMethod.CARD);
+    }
+
+    private static PaymentRequest request(String key, PaymentMethod method) {
+        return new PaymentRequest(key, 1, method, new BigDecimal("99.50"), "INR", "tok_visa");
+    }
+
+    private static PaymentGateway gateway(String name, Charge charge) {
+        return new PaymentGateway() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public boolean supports(PaymentMethod method) {
+                return true;
+            }
+
+            @Override
+            public PaymentResult charge(PaymentRequest request) throws PaymentGatewayException {
+                return charge.apply(request);
+            }
+
+            @Override
+            public void refund(PaymentResult payment, PaymentRequest request) {
+            }
+        };
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (latch.getCount() > 0) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Charge {
+        PaymentResult apply(PaymentRequest request) throws PaymentGatewayException;
+    }
+}
@@ -0,0 +1,141 @@
+package com.shu.service.payment.impl;
+
+import com.shu.repository.JournalCheckpointRepository;
+import com.shu.repository.PaymentEventRepository;
+import com.shu.service.payment.webhook.StubWebhookVerifier;
+import com.shu.service.payment.webhook.WebhookVerifier;
+import com.shu.service.reporting.impl.SalesRollupServiceImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * End-of-day settlement storm: many concurrent deliveries of few distinct events (redeliveries), signed by the
+ * stub provider, while the consumer drains the journal in the background (H2, fsync'ed journal).
+ *
+ * Latency is the time until the webhook would get its 2xx (signature check + journal append).
+ * Report: target/loadtest/payment-webhooks.txt
+ *
+ * Run: ./mvnw test -Pload-test -Dtest=PaymentWebhookLoadTest
+ */
+@Tag("load")
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentWebhookLoadTest {
+
+    private static final String SECRET = "whsec_load";
+    private static final int DISTINCT_EVENTS = 5_000;
+    private static final int DELIVERIES = 50_000;       // 90 % redeliveries
+    private static final int SENDERS = 64;
+
+    @Autowired
+    private PaymentEventRepository paymentEventRepository;
+    @Autowired
+    private JournalCheckpointRepository checkpointRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDir;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void duplicateHeavyStormIsStoredOnce() throws Exception {
+        jdbcTemplate.update("DELETE FROM payment_event");
+        ObjectProvider<WebhookVerifier> verifiers = mock(ObjectProvider.class);
+        when(verifiers.orderedStream()).thenAnswer(invocation -> Stream.of(new StubWebhookVerifier(SECRET)));
+        PaymentWebhookServiceImpl service = new PaymentWebhookServiceImpl(verifiers, paymentEventRepository,
+                checkpointRepository, new SalesRollupServiceImpl(jdbcTemplate, transactionManager, 2, 100), jdbcTemplate,
+                transactionManager, journalDir, 16 << 20, true, 500, 200_000);
+        service.afterSingletonsInstantiated();
+
+        String[] bodies = new String[DISTINCT_EVENTS];
+        String[] signatures = new String[DISTINCT_EVENTS];
+        for (int i = 0; i < DISTINCT_EVENTS; i++) {
+            bodies[i] = "{\"id\":\"evt_" + i + "\",\"type\":\"captured\",\"payment\":\"stub_pay_" + i + "\"}";
+            signatures[i] = StubWebhookVerifier.sign(SECRET, bodies[i]);
+        }
+
+        ScheduledExecutorService consumer = Executors.newSingleThreadScheduledExecutor();
+        consumer.scheduleWithFixedDelay(service::consume, 0, 200, TimeUnit.MILLISECONDS);
+
+        long[] latencies = new long[DELIVERIES];
+        AtomicIntegerArray sentEvents = new AtomicIntegerArray(DISTINCT_EVENTS);
+        ExecutorService senders = Executors.newFixedThreadPool(SENDERS);
+        long start = System.nanoTime();
+        for (int i = 0; i < DELIVERIES; i++) {
+            int delivery = i;
+            senders.execute(() -> {
+                int event = ThreadLocalRandom.current().nextInt(DISTINCT_EVENTS);
+                HttpHeaders headers = new HttpHeaders();
+                headers.add(StubWebhookVerifier.SIGNATURE_HEADER, signatures[event]);
+                long sent = System.nanoTime();
+                service.receive("stub", bodies[event], headers);
+                latencies[delivery] = System.nanoTime() - sent;
+                sentEvents.set(event, 1);
+            });
+        }
+        senders.shutdown();
+        assertThat(senders.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        long elapsed = System.nanoTime() - start;
+
+        consumer.shutdown();
+        assertThat(consumer.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        service.consumeOnShutdown();
+
+        long stored = paymentEventRepository.count();
+        Arrays.sort(latencies);
+        writeReport(DELIVERIES / (elapsed / 1e9), percentileMillis(latencies, 0.50),
+                percentileMillis(latencies, 0.99), stored);
+
+        long distinctSent = IntStream.range(0, DISTINCT_EVENTS).filter(i -> sentEvents.get(i) == 1).count();
+        assertThat(stored).isEqualTo(distinctSent);
+        assertThat(service.getJournalLag()).isZero();
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+
+    private static void writeReport(double throughput, double p50Millis, double p99Millis, long stored)
+            throws IOException {
+        String report = String.format("deliveries=%d distinct_events=%d senders=%d fsync=true%n"
+                        + "throughput=%8.1f/s p50=%8.3fms p99=%8.3fms stored_events=%d%n",
+                DELIVERIES, DISTINCT_EVENTS, SENDERS, throughput, p50Millis, p99Millis, stored);
+        Path file = Path.of("target", "loadtest", "payment-webhooks.txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, report);
+    }
+}
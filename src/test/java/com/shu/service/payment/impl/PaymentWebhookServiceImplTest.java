@@ -0,0 +1,225 @@
+package com.shu.service.payment.impl;
+
+import com.shu.constant.ErrorCode;
+import com.shu.domain.OrderStatus;
+import com.shu.domain.PaymentEventType;
+import com.shu.domain.PaymentMethod;
+import com.shu.exceptions.PaymentException;
+import com.shu.model.entity.Order;
+import com.shu.repository.JournalCheckpointRepository;
+import com.shu.repository.OrderRepository;
+import com.shu.repository.PaymentEventRepository;
+import com.shu.service.payment.webhook.StubWebhookVerifier;
+import com.shu.service.payment.webhook.WebhookVerifier;
+import com.shu.service.reporting.impl.SalesRollupServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Webhook ingestion against H2: signature check, de-duplication across batches and restarts, refunds, replay.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PaymentWebhookServiceImplTest {
+
+    private static final String SECRET = "whsec_test";
+
+    @Autowired
+    private PaymentEventRepository paymentEventRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private JournalCheckpointRepository checkpointRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path journalDir;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM payment_event");
+        jdbcTemplate.update("DELETE FROM order_item");
+        jdbcTemplate.update("DELETE FROM orders");
+        checkpointRepository.deleteAll();
+    }
+
+    @Test
+    void redeliveriesAreStoredOnceAndRefundMarksOrder() {
+        Order order = orderRepository.save(paidOrder("stub_pay_1"));
+        PaymentWebhookServiceImpl service = newService();
+
+        for (int i = 0; i < 5; i++) {
+            deliver(service, "evt_1", "captured", "stub_pay_1");
+            deliver(service, "evt_2", "refunded", "stub_pay_1");
+        }
+        assertThat(service.consume()).isEqualTo(10);
+
+        // the seen-set now drops redeliveries before the journal
+        deliver(service, "evt_2", "refunded", "stub_pay_1");
+        assertThat(service.getJournalLag()).isZero();
+
+        assertThat(paymentEventRepository.count()).isEqualTo(2);
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.REFUNDED);
+    }
+
+    @Test
+    void orderRefundedTwiceInOneBatchIsCorrectedOnce() {
+        jdbcTemplate.update("DELETE FROM branch_hourly_sales");
+        orderRepository.save(paidOrder("stub_pay_5"));
+        PaymentWebhookServiceImpl service = newService();
+
+        // two distinct refund events of the same payment (e.g. a partial retry by the provider)
+        deliver(service, "evt_5", "refunded", "stub_pay_5");
+        deliver(service, "evt_6", "refunded", "stub_pay_5");
+        assertThat(service.consume()).isEqualTo(2);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(refund_count) FROM branch_hourly_sales", Long.class))
+                .isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(refunded_amount) FROM branch_hourly_sales",
+                BigDecimal.class)).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    void redeliveryAfterRestartIsCaughtByTheDatabase() {
+        PaymentWebhookServiceImpl service = newService();
+        deliver(service, "evt_1", "captured", "stub_pay_1");
+        service.consumeOnShutdown();
+
+        // new instance: empty seen-set, same journal and checkpoint
+        PaymentWebhookServiceImpl restarted = newService();
+        deliver(restarted, "evt_1", "captured", "stub_pay_1");
+        deliver(restarted, "evt_3", "failed", "stub_pay_2");
+
+        assertThat(restarted.getJournalLag()).isEqualTo(2);
+        restarted.consume();
+        assertThat(paymentEventRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void webhooksAfterJournalLossAreStillConsumed(@TempDir Path emptyJournalDir) {
+        PaymentWebhookServiceImpl service = newService();
+        deliver(service, "evt_1", "captured", "stub_pay_1");
+        deliver(service, "evt_2", "captured", "stub_pay_2");
+        service.consumeOnShutdown();
+
+        // Journal directory lost: its LSNs would restart at 1, below the checkpoint (2)
+        PaymentWebhookServiceImpl restarted = newService(emptyJournalDir);
+        deliver(restarted, "evt_3", "captured", "stub_pay_3");
+
+        assertThat(restarted.getJournalLag()).isEqualTo(1);
+        assertThat(restarted.consume()).isEqualTo(1);
+        assertThat(paymentEventRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void checkpointOfAnotherNodeDoesNotSkipAcknowledgedWebhooks(@TempDir Path secondNodeDir) {
+        PaymentWebhookServiceImpl first = newService();
+        PaymentWebhookServiceImpl second = newService(secondNodeDir);
+        deliver(second, "evt_1", "captured", "stub_pay_1");
+        deliver(first, "evt_2", "captured", "stub_pay_2");
+        deliver(first, "evt_3", "captured", "stub_pay_3");
+        first.consume();
+
+        // acknowledged at LSN 1 of its own journal, below the first node's checkpoint (2)
+        PaymentWebhookServiceImpl restarted = newService(secondNodeDir);
+        assertThat(restarted.getJournalLag()).isEqualTo(1);
+        assertThat(restarted.consume()).isEqualTo(1);
+        assertThat(paymentEventRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void rejectsBadSignatureAndUnknownProvider() {
+        PaymentWebhookServiceImpl service = newService();
+        String body = body("evt_1", "captured", "stub_pay_1");
+        HttpHeaders forged = new HttpHeaders();
+        forged.add(StubWebhookVerifier.SIGNATURE_HEADER, StubWebhookVerifier.sign("wrong", body));
+
+        assertThatThrownBy(() -> service.receive("stub", body, forged))
+                .isInstanceOf(PaymentException.class)
+                .extracting("errorCode").isEqualTo(ErrorCode.INVALID_WEBHOOK);
+        assertThatThrownBy(() -> service.receive("paypal", body, forged))
+                .extracting("errorCode").isEqualTo(ErrorCode.UNKNOWN_WEBHOOK_PROVIDER);
+        assertThat(service.getJournalLag()).isZero();
+    }
+
+    @Test
+    void replayReappliesStoredEventsWithCurrentMapping() {
+        PaymentWebhookServiceImpl service = newService();
+        deliver(service, "evt_9", "refunded", "stub_pay_9");
+        service.consume();
+
+        // order written after its refund webhook (e.g. restored from a backup)
+        Order order = orderRepository.save(paidOrder("stub_pay_9"));
+        int replayed = service.replay("stub", LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1));
+
+        assertThat(replayed).isEqualTo(1);
+        assertThat(paymentEventRepository.findAll().getFirst().getType()).isEqualTo(PaymentEventType.REFUNDED);
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.REFUNDED);
+    }
+
+    private PaymentWebhookServiceImpl newService() {
+        return newService(journalDir);
+    }
+
+    @SuppressWarnings("unchecked")
+    private PaymentWebhookServiceImpl newService(Path dir) {
+        ObjectProvider<WebhookVerifier> verifiers = mock(ObjectProvider.class);
+        when(verifiers.orderedStream()).thenAnswer(invocation -> Stream.of(new StubWebhookVerifier(SECRET)));
+        PaymentWebhookServiceImpl service = new PaymentWebhookServiceImpl(verifiers, paymentEventRepository,
+                checkpointRepository, new SalesRollupServiceImpl(jdbcTemplate, transactionManager, 2, 100), jdbcTemplate,
+                transactionManager, dir, 1 << 20, false, 4, 1_000);
+        service.afterSingletonsInstantiated();
+        return service;
+    }
+
+    private static void deliver(PaymentWebhookServiceImpl service, String eventId, String type, String payment) {
+        String body = body(eventId, type, payment);
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(StubWebhookVerifier.SIGNATURE_HEADER, StubWebhookVerifier.sign(SECRET, body));
+        service.receive("stub", body, headers);
+    }
+
+    private static String body(String eventId, String type, String payment) {
+        return "{\"id\":\"" + eventId + "\",\"type\":\"" + type + "\",\"payment\":\"" + payment + "\"}";
+    }
+
+    private static Order paidOrder(String paymentReference) {
+        Order order = new Order();
+        order.setIdempotencyKey("key-" + paymentReference);
+        order.setRequestHash("hash");
+        order.setBranchId(1L);
+        order.setStatus(OrderStatus.COMPLETED);
+        order.setPaymentMethod(PaymentMethod.CARD);
+        order.setPaymentProvider("stub");
+        order.setPaymentReference(paymentReference);
+        order.setTotalAmount(new BigDecimal("10.00"));
+        order.setCreatedAt(LocalDateTime.now());
+        return order;
+    }
+}
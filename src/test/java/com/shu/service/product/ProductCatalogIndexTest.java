@@ -0,0 +1,72 @@
+package com.shu.service.product;
+
+import com.shu.model.dto.ProductDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCatalogIndexTest {
+
+    private final ProductCatalogIndex index = new ProductCatalogIndex();
+
+    @Test
+    void findsByBarcodeAndCaseInsensitiveSku() {
+        index.upsert(product(1L, "SKU-MILK-1L", "8901234567890"));
+        index.upsert(product(2L, "SKU-BREAD", "INT-00042"));
+
+        assertThat(index.findByBarcode("8901234567890").getId()).isEqualTo(1L);
+        assertThat(index.findByBarcode("INT-00042").getId()).isEqualTo(2L);
+        assertThat(index.findBySku("sku-milk-1l").getId()).isEqualTo(1L);
+        assertThat(index.findBySku("SKU-MILK")).isNull();
+    }
+
+    @Test
+    void leadingZerosAreSignificant() {
+        index.upsert(product(1L, "A", "012345678905"));
+        index.upsert(product(2L, "B", "0012345678905"));
+
+        assertThat(index.findByBarcode("012345678905").getId()).isEqualTo(1L);
+        assertThat(index.findByBarcode("0012345678905").getId()).isEqualTo(2L);
+        assertThat(index.findByBarcode("12345678905")).isNull();
+    }
+
+    @Test
+    void updateMovesKeysAndDeactivationRemoves() {
+        index.upsert(product(1L, "SKU-1", "111"));
+
+        index.upsert(product(1L, "SKU-1B", "222"));
+        assertThat(index.findByBarcode("111")).isNull();
+        assertThat(index.findBySku("SKU-1")).isNull();
+        assertThat(index.findByBarcode("222").getSku()).isEqualTo("SKU-1B");
+
+        ProductDto inactive = product(1L, "SKU-1B", "222");
+        inactive.setActive(false);
+        index.upsert(inactive);
+        assertThat(index.findByBarcode("222")).isNull();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void barcodeHandedOverToAnotherProductIsKept() {
+        index.upsert(product(1L, "SKU-1", "555"));
+        index.upsert(product(2L, "SKU-2", "555"));   // product 2 took the barcode first
+
+        index.upsert(product(1L, "SKU-1", "556"));   // then product 1's change arrives
+
+        assertThat(index.findByBarcode("555").getId()).isEqualTo(2L);
+        assertThat(index.findByBarcode("556").getId()).isEqualTo(1L);
+    }
+
+    private static ProductDto product(Long id, String sku, String barcode) {
+        ProductDto product = new ProductDto();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setSku(sku);
+        product.setBarcode(barcode);
+        product.setSellingPrice(BigDecimal.ONE);
+        product.setActive(true);
+        return product;
+    }
+}
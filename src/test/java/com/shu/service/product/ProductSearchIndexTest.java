@@ -0,0 +1,89 @@
+package com.shu.service.product;
+
+import com.shu.model.dto.ProductDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTest {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.upsert(product(1L, "Amul Toned Milk 500ml", "Dairy", "Amul"));
+        index.upsert(product(2L, "Milk Bread", "Bakery", "Britannia"));
+        index.upsert(product(3L, "Dairy Milk Chocolate", "Confectionery", "Cadbury"));
+        index.upsert(product(4L, "Chocolate Cookies", "Bakery", "Britannia"));
+        index.upsert(product(5L, "Milkshake Strawberry", "Beverages", "Amul"));
+    }
+
+    @Test
+    void prefixMatchesWhileTyping() {
+        assertThat(ids(index.search("mil", 10))).containsExactlyInAnyOrder(1L, 2L, 3L, 5L);
+        assertThat(ids(index.search("choc", 10))).containsExactlyInAnyOrder(3L, 4L);
+    }
+
+    @Test
+    void everyTermMustMatchAndExactWordsRankFirst() {
+        assertThat(ids(index.search("milk choc", 10))).containsExactly(3L);
+        // "milk" exact in 1, 2, 3 beats the prefix match in "milkshake"
+        assertThat(ids(index.search("milk", 10))).endsWith(5L);
+    }
+
+    @Test
+    void toleratesTypos() {
+        assertThat(ids(index.search("chocolte", 10))).containsExactlyInAnyOrder(3L, 4L);
+        assertThat(ids(index.search("choclate cokies", 10))).containsExactly(4L);
+        assertThat(ids(index.search("strawbery", 10))).containsExactly(5L);
+    }
+
+    @Test
+    void nameMatchesOutrankCategoryAndBrand() {
+        index.upsert(product(6L, "Fresh Cream", "Dairy", "Amul"));
+
+        List<ProductDto> results = index.search("dairy", 10);
+
+        // then ties broken by the shorter name
+        assertThat(ids(results)).containsExactly(3L, 6L, 1L);
+    }
+
+    @Test
+    void updatesAreIncremental() {
+        index.upsert(product(2L, "Brown Bread", "Bakery", "Britannia"));
+        assertThat(ids(index.search("milk", 10))).doesNotContain(2L);
+        assertThat(ids(index.search("brown", 10))).containsExactly(2L);
+
+        ProductDto discontinued = product(4L, "Chocolate Cookies", "Bakery", "Britannia");
+        discontinued.setActive(false);
+        index.upsert(discontinued);
+        assertThat(ids(index.search("cookies", 10))).isEmpty();
+        assertThat(index.documentCount()).isEqualTo(4);
+    }
+
+    @Test
+    void limitKeepsBestResults() {
+        assertThat(index.search("milk", 2)).hasSize(2);
+        assertThat(index.search("", 10)).isEmpty();
+    }
+
+    private static List<Long> ids(List<ProductDto> products) {
+        return products.stream().map(ProductDto::getId).toList();
+    }
+
+    private static ProductDto product(Long id, String name, String category, String brand) {
+        ProductDto product = new ProductDto();
+        product.setId(id);
+        product.setName(name);
+        product.setSku("SKU-" + id);
+        product.setCategory(category);
+        product.setBrand(brand);
+        product.setSellingPrice(BigDecimal.ONE);
+        product.setActive(true);
+        return product;
+    }
+}
@@ -0,0 +1,48 @@
+package com.shu.service.product.impl;
+
+import com.shu.model.dto.ProductDto;
+import com.shu.model.entity.Product;
+import com.shu.repository.ProductRepository;
+import com.shu.service.product.ProductCatalogIndex;
+import com.shu.service.product.ProductCatalogSync;
+import com.shu.service.product.ProductSearchIndex;
+import com.shu.service.sync.SyncVersionAllocator;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Index misses answered by the database feed both indexes.
+ */
+class ProductServiceImplTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductCatalogIndex catalogIndex = new ProductCatalogIndex();
+    private final ProductSearchIndex searchIndex = new ProductSearchIndex();
+    private final ProductServiceImpl service = new ProductServiceImpl(productRepository, catalogIndex, searchIndex,
+            new ProductCatalogSync(productRepository, catalogIndex, searchIndex, 100),
+            mock(ApplicationEventPublisher.class), mock(SyncVersionAllocator.class));
+
+    @Test
+    void productLoadedOnBarcodeMissBecomesSearchable() {
+        Product product = new Product();
+        product.setId(7L);
+        product.setName("Amul Toned Milk 500ml");
+        product.setSku("AMUL-500");
+        product.setBarcode("8901262010016");
+        product.setSellingPrice(new BigDecimal("28.00"));
+        product.setActive(true);
+        when(productRepository.findByBarcode("8901262010016")).thenReturn(product);
+
+        assertThat(service.searchProducts("toned milk", 10)).isEmpty();
+        assertThat(service.getProductByBarcode("8901262010016").getId()).isEqualTo(7L);
+
+        assertThat(catalogIndex.findBySku("AMUL-500")).isNotNull();
+        assertThat(service.searchProducts("toned milk", 10)).extracting(ProductDto::getId).containsExactly(7L);
+    }
+}
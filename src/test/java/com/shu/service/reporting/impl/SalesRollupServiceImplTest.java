@@ -0,0 +1,185 @@
+package com.shu.service.reporting.impl;
+
+import com.shu.domain.OrderStatus;
+import com.shu.domain.PaymentMethod;
+import com.shu.domain.ReportGranularity;
+import com.shu.exceptions.ReportException;
+import com.shu.model.dto.ProductDto;
+import com.shu.model.entity.Order;
+import com.shu.model.entity.OrderItem;
+import com.shu.payload.response.ProductSalesResponse;
+import com.shu.payload.response.RollupRebuildResponse;
+import com.shu.payload.response.SalesBucketResponse;
+import com.shu.repository.BranchHourlySalesRepository;
+import com.shu.repository.OrderRepository;
+import com.shu.repository.ProductHourlySalesRepository;
+import com.shu.service.product.ProductCatalogIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Sales rollups against H2: incremental upserts, refunds booked on the sale's hour, rebuild and report queries.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SalesRollupServiceImplTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2025, 3, 14, 0, 0);
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private BranchHourlySalesRepository branchHourlySalesRepository;
+    @Autowired
+    private ProductHourlySalesRepository productHourlySalesRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SalesRollupServiceImpl rollupService;
+    private SalesReportServiceImpl reportService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM product_hourly_sales");
+        jdbcTemplate.update("DELETE FROM branch_hourly_sales");
+        jdbcTemplate.update("DELETE FROM order_item");
+        jdbcTemplate.update("DELETE FROM orders");
+        rollupService = new SalesRollupServiceImpl(jdbcTemplate, transactionManager, 2, 2);
+
+        ProductCatalogIndex catalogIndex = mock(ProductCatalogIndex.class);
+        ProductDto milk = new ProductDto();
+        milk.setName("Milk 1L");
+        when(catalogIndex.findById(11L)).thenReturn(milk);
+        reportService = new SalesReportServiceImpl(branchHourlySalesRepository, productHourlySalesRepository,
+                catalogIndex, 31);
+    }
+
+    @Test
+    void refundIsBookedOnTheHourOfTheSale() {
+        Order order = sell(1L, DAY.plusHours(9).plusMinutes(15), Map.of(11L, 2L, 12L, 1L));
+        sell(1L, DAY.plusHours(9).plusMinutes(40), Map.of(11L, 1L));
+        sell(1L, DAY.plusHours(14), Map.of(12L, 3L));
+
+        // refund arrives the next day, still corrects 09:00
+        refund(order);
+
+        List<SalesBucketResponse> hours = reportService.getBranchSales(1L, DAY, DAY.plusDays(2), ReportGranularity.HOUR);
+        assertThat(hours).extracting(SalesBucketResponse::getPeriodStart)
+                .containsExactly(DAY.plusHours(9), DAY.plusHours(14));
+        assertThat(hours.get(0).getOrderCount()).isEqualTo(2);
+        assertThat(hours.get(0).getGrossAmount()).isEqualByComparingTo("40.00");
+        assertThat(hours.get(0).getRefundCount()).isEqualTo(1);
+        assertThat(hours.get(0).getNetAmount()).isEqualByComparingTo("10.00");
+
+        List<SalesBucketResponse> days = reportService.getBranchSales(1L, DAY, DAY.plusDays(2), ReportGranularity.DAY);
+        assertThat(days).hasSize(1);
+        assertThat(days.get(0).getOrderCount()).isEqualTo(3);
+        assertThat(days.get(0).getNetAmount()).isEqualByComparingTo("40.00");
+
+        List<ProductSalesResponse> top = reportService.getTopProducts(1L, DAY, DAY.plusDays(1), 1);
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).getProductId()).isEqualTo(12L);
+        assertThat(top.get(0).getNetAmount()).isEqualByComparingTo("30.00");
+        assertThat(reportService.getTopProducts(1L, DAY, DAY.plusDays(1), 2).get(1).getName()).isEqualTo("Milk 1L");
+    }
+
+    @Test
+    void rebuildReproducesIncrementalRollups() {
+        for (long branch = 1; branch <= 3; branch++) {
+            for (int hour = 8; hour < 20; hour += 3) {
+                Order order = sell(branch, DAY.plusHours(hour).plusMinutes(branch), Map.of(11L, branch, 12L, 1L));
+                if (hour == 11) {
+                    refund(order);
+                }
+            }
+        }
+        String branchRows = "SELECT branch_id, hour_start, order_count, gross_amount, refund_count, refunded_amount "
+                + "FROM branch_hourly_sales ORDER BY branch_id, hour_start";
+        String productRows = "SELECT branch_id, product_id, hour_start, quantity, gross_amount, refunded_quantity, "
+                + "refunded_amount FROM product_hourly_sales ORDER BY branch_id, product_id, hour_start";
+        List<Map<String, Object>> incrementalBranches = jdbcTemplate.queryForList(branchRows);
+        List<Map<String, Object>> incrementalProducts = jdbcTemplate.queryForList(productRows);
+
+        // rollups drifted (e.g. restored from an older backup)
+        jdbcTemplate.update("UPDATE branch_hourly_sales SET order_count = 0");
+        jdbcTemplate.update("DELETE FROM product_hourly_sales WHERE branch_id = 2");
+
+        RollupRebuildResponse response = rollupService.rebuild(DAY, DAY.plusDays(1));
+
+        assertThat(response.getBranches()).isEqualTo(3);
+        assertThat(response.getOrders()).isEqualTo(12);
+        assertThat(jdbcTemplate.queryForList(branchRows)).isEqualTo(incrementalBranches);
+        assertThat(jdbcTemplate.queryForList(productRows)).isEqualTo(incrementalProducts);
+        assertThat(reportService.getSalesByBranch(DAY, DAY.plusDays(1))).hasSize(3);
+    }
+
+    @Test
+    void rejectsInvalidRanges() {
+        assertThatThrownBy(() -> reportService.getSalesByBranch(DAY, DAY))
+                .isInstanceOf(ReportException.class);
+        assertThatThrownBy(() -> reportService.getBranchSales(1L, DAY, DAY.plusDays(32), ReportGranularity.DAY))
+                .isInstanceOf(ReportException.class);
+        assertThatThrownBy(() -> reportService.getTopProducts(1L, DAY, DAY.plusDays(1), 0))
+                .isInstanceOf(ReportException.class);
+    }
+
+    /**
+     * Saves a completed order (10.00 per unit) and records it, in one transaction like checkout does.
+     */
+    private Order sell(long branchId, LocalDateTime createdAt, Map<Long, Long> quantities) {
+        Order order = new Order();
+        order.setIdempotencyKey(UUID.randomUUID().toString());
+        order.setRequestHash("hash");
+        order.setBranchId(branchId);
+        order.setStatus(OrderStatus.COMPLETED);
+        order.setPaymentMethod(PaymentMethod.CASH);
+        order.setCreatedAt(createdAt);
+        BigDecimal total = BigDecimal.ZERO;
+        for (Map.Entry<Long, Long> line : quantities.entrySet()) {
+            OrderItem item = new OrderItem();
+            item.setProductId(line.getKey());
+            item.setQuantity(line.getValue());
+            item.setUnitPrice(new BigDecimal("10.00"));
+            item.setLineTotal(new BigDecimal("10.00").multiply(BigDecimal.valueOf(line.getValue())));
+            order.addItem(item);
+            total = total.add(item.getLineTotal());
+        }
+        order.setTotalAmount(total);
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Order saved = orderRepository.saveAndFlush(order);
+            rollupService.recordSale(saved);
+            return saved;
+        });
+    }
+
+    private void refund(Order order) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE orders SET status = 'REFUNDED' WHERE id = ?", order.getId());
+            rollupService.recordRefunds(List.of(order.getId()));
+        });
+    }
+}
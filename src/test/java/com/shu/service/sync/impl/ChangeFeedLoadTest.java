@@ -0,0 +1,200 @@
+package com.shu.service.sync.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shu.service.sync.SyncVersionAllocator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Store-open scenario: {@value #PRODUCTS} products and {@value #USERS} users, {@value #CHANGES} price changes
+ * overnight. Compares what one till costs the server (response bytes, raw and gzip'ed, and CPU time of the
+ * serving thread) when it reloads everything versus when it asks the change feed for the delta.
+ *
+ * Report: target/loadtest/change-feed.txt
+ *
+ * Run: ./mvnw test -Pload-test -Dtest=ChangeFeedLoadTest
+ */
+@Tag("load")
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChangeFeedLoadTest {
+
+    private static final int PRODUCTS = 50_000;
+    private static final int USERS = 2_000;
+    private static final int CHANGES = 200;
+    private static final int PAGE = 5_000;
+    private static final int FULL_RELOADS = 20;
+    private static final int DELTA_TILLS = 2_000;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void deltaSyncCostsAFractionOfAFullReload() throws IOException {
+        jdbcTemplate.update("DELETE FROM product");
+        jdbcTemplate.update("DELETE FROM user");
+        jdbcTemplate.update("DELETE FROM sync_counter");
+        jdbcTemplate.update("INSERT INTO product (id, name, sku, barcode, category, brand, mrp, selling_price, "
+                + "description, active, created_at, updated_at, sync_version) "
+                + "SELECT n, 'Product ' || n, 'SKU-' || n, '890' || LPAD(n, 10, '0'), 'Category ' || MOD(n, 40), "
+                + "'Brand ' || MOD(n, 300), 100 + MOD(n, 900), 90 + MOD(n, 900), NULL, TRUE, "
+                + "CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, n "
+                + "FROM (SELECT \"X\" AS n FROM SYSTEM_RANGE(1, " + PRODUCTS + "))");
+        jdbcTemplate.update("INSERT INTO user (id, full_name, email, phone, role, password, created_at, sync_version) "
+                + "SELECT n, 'Cashier ' || n, 'cashier' || n || '@shop.test', NULL, 'ROLE_CASHIER', 'hash', "
+                + "CURRENT_TIMESTAMP, " + PRODUCTS + " + n FROM (SELECT \"X\" AS n FROM SYSTEM_RANGE(1, " + USERS + "))");
+        jdbcTemplate.update("INSERT INTO sync_counter (name, version) VALUES ('change_feed', ?)", PRODUCTS + USERS);
+
+        SyncVersionAllocator versionAllocator = new SyncVersionAllocator(jdbcTemplate);
+        ChangeFeedServiceImpl service = new ChangeFeedServiceImpl(jdbcTemplate, versionAllocator, objectMapper,
+                transactionManager, 100_000, PAGE, PAGE);
+        service.start();
+        long storeClosed = versionAllocator.current();
+
+        // Overnight price changes
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            long version = versionAllocator.allocate(CHANGES) - CHANGES;
+            List<Object[]> args = new ArrayList<>(CHANGES);
+            for (int i = 0; i < CHANGES; i++) {
+                args.add(new Object[]{++version, 1 + (long) i * (PRODUCTS / CHANGES)});
+            }
+            jdbcTemplate.batchUpdate("UPDATE product SET selling_price = selling_price + 1, sync_version = ? "
+                    + "WHERE id = ?", args);
+        });
+        service.tail();
+
+        // Warm-up
+        fullReload(service);
+        service.changesSince(storeClosed, PAGE);
+
+        Cost full = new Cost();
+        for (int i = 0; i < FULL_RELOADS; i++) {
+            long cpu = threads.getCurrentThreadCpuTime();
+            List<byte[]> pages = fullReload(service);
+            full.add(pages, threads.getCurrentThreadCpuTime() - cpu);
+        }
+        Cost delta = new Cost();
+        for (int i = 0; i < DELTA_TILLS; i++) {
+            long cpu = threads.getCurrentThreadCpuTime();
+            byte[] page = service.changesSince(storeClosed, PAGE);
+            delta.add(List.of(page), threads.getCurrentThreadCpuTime() - cpu);
+        }
+        assertThat(objectMapper.readTree(service.changesSince(storeClosed, PAGE)).get("changes")).hasSize(CHANGES);
+
+        full.gzipBytes = gzipSize(fullReload(service));
+        delta.gzipBytes = gzipSize(List.of(service.changesSince(storeClosed, PAGE)));
+        writeReport(full, delta);
+
+        assertThat(delta.bytesPerTill()).isLessThan(full.bytesPerTill() / 50);
+        assertThat(delta.cpuNanosPerTill()).isLessThan(full.cpuNanosPerTill() / 20);
+    }
+
+    /**
+     * A till without state: pages from cursor 0 (database path).
+     */
+    private static List<byte[]> fullReload(ChangeFeedServiceImpl service) {
+        List<byte[]> pages = new ArrayList<>();
+        long since = 0;
+        byte[] page;
+        do {
+            page = service.changesSince(since, PAGE);
+            pages.add(page);
+            since = cursorOf(page);
+        } while (hasMore(page));
+        return pages;
+    }
+
+    private static long cursorOf(byte[] page) {
+        // {"cursor":<n>,"hasMore":...
+        int start = "{\"cursor\":".length();
+        int end = start;
+        while (page[end] != ',') {
+            end++;
+        }
+        return Long.parseLong(new String(page, start, end - start));
+    }
+
+    private static boolean hasMore(byte[] page) {
+        int at = new String(page, 0, Math.min(page.length, 64)).indexOf("\"hasMore\":");
+        return page[at + "\"hasMore\":".length()] == 't';
+    }
+
+    private static long gzipSize(List<byte[]> pages) throws IOException {
+        long size = 0;
+        for (byte[] page : pages) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(page);
+            }
+            size += out.size();
+        }
+        return size;
+    }
+
+    private static void writeReport(Cost full, Cost delta) throws IOException {
+        String report = String.format("products=%d users=%d changed=%d page=%d%n", PRODUCTS, USERS, CHANGES, PAGE)
+                + String.format("%-12s tills=%5d bytes/till=%11d gzip/till=%10d cpu/till=%9.3fms%n", "full reload",
+                full.tills, full.bytesPerTill(), full.gzipBytes, full.cpuNanosPerTill() / 1e6)
+                + String.format("%-12s tills=%5d bytes/till=%11d gzip/till=%10d cpu/till=%9.3fms%n", "delta",
+                delta.tills, delta.bytesPerTill(), delta.gzipBytes, delta.cpuNanosPerTill() / 1e6)
+                + String.format("ratio        bytes=%.1fx cpu=%.1fx%n",
+                (double) full.bytesPerTill() / delta.bytesPerTill(),
+                (double) full.cpuNanosPerTill() / delta.cpuNanosPerTill());
+        Path file = Path.of("target", "loadtest", "change-feed.txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, report);
+    }
+
+    private static final class Cost {
+
+        private int tills;
+        private long bytes;
+        private long cpuNanos;
+        private long gzipBytes;
+
+        void add(List<byte[]> pages, long cpu) {
+            tills++;
+            for (byte[] page : pages) {
+                bytes += page.length;
+            }
+            cpuNanos += cpu;
+        }
+
+        long bytesPerTill() {
+            return bytes / tills;
+        }
+
+        long cpuNanosPerTill() {
+            return cpuNanos / tills;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.shu.service.sync.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shu.service.sync.SyncVersionAllocator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Change feed against H2: buffered deltas, tombstones, paging and the database fallback for old cursors.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ChangeFeedServiceImplTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SyncVersionAllocator versionAllocator;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM product");
+        jdbcTemplate.update("DELETE FROM user");
+        jdbcTemplate.update("DELETE FROM sync_counter");
+        versionAllocator = new SyncVersionAllocator(jdbcTemplate);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void recentChangesComeFromTheBufferOncePerEntity() throws IOException {
+        ChangeFeedServiceImpl service = newService(100);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service.bindTo(registry);
+        insertProduct(1, "MILK-1L", "52.50");
+        insertProduct(2, "BREAD", "40.00");
+        service.start();
+        long cursor = page(service, 0, 100).get("cursor").asLong();
+
+        updatePrice(1, "55.00");
+        deactivate(2);
+        updatePrice(1, "57.00");
+        insertUser(7, "cashier7@shop.test");
+        service.tail();
+
+        JsonNode delta = page(service, cursor, 100);
+        assertThat(delta.get("hasMore").asBoolean()).isFalse();
+        assertThat(delta.get("cursor").asLong()).isEqualTo(versionAllocator.current());
+        JsonNode changes = delta.get("changes");
+        assertThat(changes).hasSize(3);
+        assertThat(changes.get(0).get("type").asText()).isEqualTo("PRODUCT");
+        assertThat(changes.get(0).get("id").asLong()).isEqualTo(2);
+        assertThat(changes.get(0).get("deleted").asBoolean()).isTrue();
+        assertThat(changes.get(0).has("data")).isFalse();
+        assertThat(changes.get(1).get("data").get("sellingPrice").decimalValue()).isEqualByComparingTo("57.00");
+        assertThat(changes.get(2).get("type").asText()).isEqualTo("USER");
+        JsonNode user = changes.get(2).get("data");
+        assertThat(user.get("fullName").asText()).isEqualTo("Cashier");
+        assertThat(user.get("role").asText()).isEqualTo("ROLE_CASHIER");
+        assertThat(user.has("password")).isFalse();
+        assertThat(user.has("email")).isFalse();
+        assertThat(user.has("phone")).isFalse();
+
+        // Paging inside the buffer
+        JsonNode first = page(service, cursor, 2);
+        assertThat(first.get("hasMore").asBoolean()).isTrue();
+        assertThat(first.get("changes")).hasSize(2);
+        JsonNode rest = page(service, first.get("cursor").asLong(), 2);
+        assertThat(rest.get("hasMore").asBoolean()).isFalse();
+        assertThat(rest.get("changes")).hasSize(1);
+
+        // Up to date
+        assertThat(page(service, delta.get("cursor").asLong(), 100).get("changes")).isEmpty();
+        assertThat(registry.get("pos.sync.requests").tag("source", "buffer").functionCounter().count())
+                .isEqualTo(4);
+    }
+
+    @Test
+    void oldCursorsAndFirstSyncsAreReadFromTheDatabase() throws IOException {
+        ChangeFeedServiceImpl service = newService(2);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service.bindTo(registry);
+        // Rows from before the change feed (no version): versioned at startup
+        for (long id = 1; id <= 5; id++) {
+            jdbcTemplate.update("INSERT INTO product (id, name, sku, selling_price, active) VALUES (?, ?, ?, 10, TRUE)",
+                    id, "Product " + id, "SKU-" + id);
+        }
+        service.start();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product WHERE sync_version = 0", Long.class))
+                .isZero();
+        long cursor = syncAll(service, 0, new HashMap<>());
+
+        // More changes than the buffer holds: the old cursor is below the buffer's floor
+        updatePrice(3, "11.00");
+        deactivate(4);
+        insertProduct(6, "NEW", "12.00");
+        insertUser(8, "cashier8@shop.test");
+        service.tail();
+
+        Map<String, JsonNode> state = new HashMap<>();
+        long latest = syncAll(service, cursor, state);
+        assertThat(latest).isEqualTo(versionAllocator.current());
+        assertThat(state).containsOnlyKeys("PRODUCT-3", "PRODUCT-4", "PRODUCT-6", "USER-8");
+        assertThat(state.get("PRODUCT-3").get("data").get("sellingPrice").decimalValue()).isEqualByComparingTo("11");
+        assertThat(state.get("PRODUCT-4").get("deleted").asBoolean()).isTrue();
+        assertThat(registry.get("pos.sync.requests").tag("source", "database").functionCounter().count())
+                .isGreaterThanOrEqualTo(2);
+    }
+
+    private ChangeFeedServiceImpl newService(int bufferCapacity) {
+        return new ChangeFeedServiceImpl(jdbcTemplate, versionAllocator, objectMapper, transactionManager,
+                bufferCapacity, 100, 100);
+    }
+
+    /**
+     * Pages through the feed like a till (2 changes per call), keeping the last state per entity.
+     */
+    private long syncAll(ChangeFeedServiceImpl service, long since, Map<String, JsonNode> state) throws IOException {
+        JsonNode page;
+        do {
+            page = page(service, since, 2);
+            for (JsonNode change : page.get("changes")) {
+                state.put(change.get("type").asText() + "-" + change.get("id").asLong(), change);
+            }
+            since = page.get("cursor").asLong();
+        } while (page.get("hasMore").asBoolean());
+        return since;
+    }
+
+    private JsonNode page(ChangeFeedServiceImpl service, long since, int limit) throws IOException {
+        return objectMapper.readTree(service.changesSince(since, limit));
+    }
+
+    private void insertProduct(long id, String sku, String price) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "INSERT INTO product (id, name, sku, selling_price, active, sync_version) VALUES (?, ?, ?, ?, TRUE, ?)",
+                id, sku, sku, new BigDecimal(price), versionAllocator.allocate(1)));
+    }
+
+    private void updatePrice(long id, String price) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE product SET selling_price = ?, sync_version = ? WHERE id = ?",
+                new BigDecimal(price), versionAllocator.allocate(1), id));
+    }
+
+    private void deactivate(long id) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE product SET active = FALSE, sync_version = ? WHERE id = ?", versionAllocator.allocate(1), id));
+    }
+
+    private void insertUser(long id, String email) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "INSERT INTO user (id, full_name, email, role, password, sync_version) "
+                        + "VALUES (?, 'Cashier', ?, 'ROLE_CASHIER', '$2a$10$hash', ?)",
+                id, email, versionAllocator.allocate(1)));
+    }
+}
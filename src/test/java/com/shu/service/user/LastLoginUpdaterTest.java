@@ -0,0 +1,55 @@
+package com.shu.service.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A full queue during a database outage drops new lastLogin updates instead of flushing on every login.
+ */
+class LastLoginUpdaterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final LastLoginUpdater updater = new LastLoginUpdater(jdbcTemplate, 2, 100);
+
+    @Test
+    void fullQueueIsNotFlushedInlineWhileFlushesFail() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Communications link failure"));
+        LocalDateTime now = LocalDateTime.now();
+        updater.recordLogin(1L, now);
+        updater.recordLogin(2L, now);
+
+        // first full queue: one inline attempt, it fails and the update is dropped
+        updater.recordLogin(3L, now);
+        for (long userId = 4; userId < 100; userId++) {
+            updater.recordLogin(userId, now);
+        }
+        // users already queued still get their newer time
+        updater.recordLogin(1L, now.plusMinutes(1));
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        assertThat(updater.getPendingCount()).isEqualTo(2);
+        assertThat(updater.getDroppedCount()).isEqualTo(97);
+
+        // the database is back: the scheduled flush succeeds, inline flushes resume
+        doReturn(new int[]{1, 1}).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        assertThat(updater.flush()).isEqualTo(2);
+        updater.recordLogin(100L, now);
+        updater.recordLogin(101L, now);
+        updater.recordLogin(102L, now);
+        assertThat(updater.getPendingCount()).isEqualTo(1);
+        assertThat(updater.getFlushedCount()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,141 @@
+package com.shu.service.user.impl;
+
+import com.shu.constant.ErrorCode;
+import com.shu.domain.UserRole;
+import com.shu.model.entity.User;
+import com.shu.payload.request.BulkSignupRequest;
+import com.shu.payload.request.SignupRequest;
+import com.shu.payload.response.BulkProvisionResponse;
+import com.shu.repository.UserRepository;
+import com.shu.service.auth.PasswordHashingService;
+import com.shu.service.sync.SyncVersionAllocator;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bulk provisioning against H2: per-row report, duplicates inside the batch and already registered emails.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserProvisioningServiceImplTest {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private UserProvisioningServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("DELETE FROM user");
+        PasswordHashingService hashing = mock(PasswordHashingService.class);
+        when(hashing.encodeAll(anyList())).thenAnswer(invocation -> invocation.<List<String>>getArgument(0).stream()
+                .map(password -> "hash:" + password)
+                .toList());
+        service = new UserProvisioningServiceImpl(userRepository, hashing,
+                Validation.buildDefaultValidatorFactory().getValidator(), entityManager, transactionManager,
+                new SyncVersionAllocator(jdbcTemplate), 100, 2);
+    }
+
+    @Test
+    void reportHasOneResultPerRowInRequestOrder() {
+        BulkProvisionResponse response = service.provision(batch(
+                signup("a@shop", UserRole.ROLE_CASHIER),
+                signup("not-an-email", UserRole.ROLE_CASHIER),
+                signup("boss@shop", UserRole.ROLE_ADMIN),
+                signup("b@shop", UserRole.ROLE_CASHIER),
+                signup("c@shop", UserRole.ROLE_CASHIER)));
+
+        assertThat(response.getRequested()).isEqualTo(5);
+        assertThat(response.getCreated()).isEqualTo(3);
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getResults()).extracting(BulkProvisionResponse.RowResult::getRow)
+                .containsExactly(0, 1, 2, 3, 4);
+        assertThat(response.getResults()).extracting(BulkProvisionResponse.RowResult::getStatus)
+                .containsExactly("CREATED", "FAILED", "FAILED", "CREATED", "CREATED");
+        assertThat(response.getResults().get(1).getErrorCode()).isEqualTo(ErrorCode.USER_ERROR);
+        assertThat(response.getResults().get(1).getMessage()).contains("email");
+        assertThat(response.getResults().get(2).getErrorCode()).isEqualTo(ErrorCode.ROLE_NOT_ALLOWED);
+
+        // rows 0, 3 and 4 span two insert chunks, each created row points at its user
+        for (int row : new int[]{0, 3, 4}) {
+            BulkProvisionResponse.RowResult result = response.getResults().get(row);
+            assertThat(userRepository.findById(result.getUserId()))
+                    .get().extracting(User::getEmail).isEqualTo(result.getEmail());
+        }
+        assertThat(userRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    void duplicateInsideTheBatchFailsOnlyTheLaterRows() {
+        BulkProvisionResponse response = service.provision(batch(
+                signup("dup@shop", UserRole.ROLE_CASHIER),
+                signup("DUP@Shop", UserRole.ROLE_CASHIER),
+                signup("dup@shop", UserRole.ROLE_BRANCH_MANAGER)));
+
+        assertThat(response.getResults()).extracting(BulkProvisionResponse.RowResult::getStatus)
+                .containsExactly("CREATED", "FAILED", "FAILED");
+        assertThat(response.getResults().subList(1, 3)).allSatisfy(result -> {
+            assertThat(result.getErrorCode()).isEqualTo(ErrorCode.USER_ALREADY_EXISTS);
+            assertThat(result.getMessage()).isEqualTo("Duplicate email in request");
+        });
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void alreadyRegisteredEmailFailsWhateverItsCase() {
+        service.provision(batch(signup("known@shop", UserRole.ROLE_CASHIER)));
+
+        BulkProvisionResponse response = service.provision(batch(
+                signup("KNOWN@shop", UserRole.ROLE_CASHIER),
+                signup("New@Shop", UserRole.ROLE_CASHIER)));
+
+        assertThat(response.getResults()).extracting(BulkProvisionResponse.RowResult::getStatus)
+                .containsExactly("FAILED", "CREATED");
+        assertThat(response.getResults().get(0).getErrorCode()).isEqualTo(ErrorCode.USER_ALREADY_EXISTS);
+        assertThat(response.getResults().get(0).getEmail()).isEqualTo("KNOWN@shop");
+        // stored in the normalized form that signup, login and the user cache use
+        assertThat(userRepository.findById(response.getResults().get(1).getUserId()))
+                .get().extracting(User::getEmail).isEqualTo("new@shop");
+        assertThat(userRepository.count()).isEqualTo(2);
+    }
+
+    private static BulkSignupRequest batch(SignupRequest... rows) {
+        BulkSignupRequest request = new BulkSignupRequest();
+        request.setUsers(List.of(rows));
+        return request;
+    }
+
+    private static SignupRequest signup(String email, UserRole role) {
+        SignupRequest signup = new SignupRequest();
+        signup.setFullName("User " + email);
+        signup.setEmail(email);
+        signup.setPassword("secret");
+        signup.setRole(role);
+        return signup;
+    }
+}
@@ -0,0 +1,47 @@
+package com.shu.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongObjectHashMapTest {
+
+    @Test
+    void behavesLikeHashMapUnderRandomOperations() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        Map<Long, String> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            // small key range → many collisions, overwrites and removals
+            long key = random.nextInt(5_000) - 2_500L;
+            switch (random.nextInt(3)) {
+                case 0, 1 -> assertThat(map.put(key, "v" + i)).isEqualTo(expected.put(key, "v" + i));
+                default -> assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = -2_500; key < 2_500; key++) {
+            assertThat(map.get(key)).isEqualTo(expected.get(key));
+        }
+    }
+
+    @Test
+    void growsAndClears() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>(4);
+        for (long i = 0; i < 10_000; i++) {
+            map.put(i * 1_000_003L, i);
+        }
+        assertThat(map.size()).isEqualTo(10_000);
+        assertThat(map.get(9_999 * 1_000_003L)).isEqualTo(9_999L);
+
+        map.clear();
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(map.get(0)).isNull();
+    }
+}
@@ -0,0 +1,164 @@
+package jpabench;
+
+import com.shu.model.entity.BaseEntity;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.jpa.HibernatePersistenceProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Inserts per second for the id strategies an entity can use.
+ *
+ * - table-per-insert : old behaviour described for MySQL (hibernate_sequence table, one locked
+ *                      SELECT + UPDATE per inserted row)
+ * - identity         : AUTO_INCREMENT, Hibernate must run every INSERT on its own to read the id
+ * - pooled-lo        : {@link BaseEntity}, one sequence call per {@value BaseEntity#ID_ALLOCATION_SIZE}
+ *                      rows, inserts sent as JDBC batches
+ *
+ * Every strategy inserts the same rows in transactions of {@value #ROWS_PER_TRANSACTION}
+ * (like the bulk provisioning chunks). H2 runs in-process, so the gap on a real
+ * MySQL server (one network round-trip per statement) is larger than measured here.
+ * Report: target/loadtest/id-generation.txt
+ *
+ * The bench_* entities have their own persistence unit (H2 in MySQL mode, schema created for the run)
+ * and live outside com.shu, so the application's entity scan never sees them.
+ *
+ * Run: ./mvnw test -Pload-test -Dtest=IdGenerationLoadTest
+ */
+@Tag("load")
+class IdGenerationLoadTest {
+
+    private static final int ROWS = 20_000;
+    private static final int ROWS_PER_TRANSACTION = 500;
+    private static final int WARMUP_ROWS = 2_000;
+
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:id_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setPersistenceUnitName("id-bench");
+        factory.setDataSource(dataSource);
+        factory.setPersistenceProvider(new HibernatePersistenceProvider());
+        factory.setManagedTypes(PersistenceManagedTypes.of(TablePerInsertRow.class.getName(),
+                IdentityRow.class.getName(), PooledRow.class.getName()));
+        factory.setJpaPropertyMap(Map.of(
+                "hibernate.hbm2ddl.auto", "create-drop",
+                "hibernate.jdbc.batch_size", "100",
+                "hibernate.order_inserts", "true"));
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    @Test
+    void pooledIdsInsertFasterThanPerRowIdGeneration() throws Exception {
+        Result tablePerInsert = run("table-per-insert", TablePerInsertRow::new);
+        Result identity = run("identity", IdentityRow::new);
+        Result pooled = run("pooled-lo", PooledRow::new);
+
+        writeReport(tablePerInsert, identity, pooled);
+
+        assertThat(pooled.insertsPerSecond()).isGreaterThan(identity.insertsPerSecond());
+        assertThat(pooled.insertsPerSecond()).isGreaterThan(tablePerInsert.insertsPerSecond());
+    }
+
+    private Result run(String strategy, Supplier<Object> rows) {
+        insert(WARMUP_ROWS, rows);
+
+        long start = System.nanoTime();
+        insert(ROWS, rows);
+        long elapsed = System.nanoTime() - start;
+
+        return new Result(strategy, ROWS / (elapsed / 1e9));
+    }
+
+    private void insert(int count, Supplier<Object> rows) {
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            for (int from = 0; from < count; from += ROWS_PER_TRANSACTION) {
+                int size = Math.min(ROWS_PER_TRANSACTION, count - from);
+                entityManager.getTransaction().begin();
+                for (int i = 0; i < size; i++) {
+                    entityManager.persist(rows.get());
+                }
+                entityManager.flush();
+                entityManager.clear();
+                entityManager.getTransaction().commit();
+            }
+        }
+    }
+
+    private static void writeReport(Result... results) throws IOException {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("rows=%d rows_per_tx=%d batch_size=100 allocation_size=%d%n",
+                ROWS, ROWS_PER_TRANSACTION, BaseEntity.ID_ALLOCATION_SIZE));
+        for (Result result : results) {
+            report.append(String.format("%-16s throughput=%10.1f inserts/s%n",
+                    result.strategy(), result.insertsPerSecond()));
+        }
+        Path file = Path.of("target", "loadtest", "id-generation.txt");
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, report);
+    }
+
+    private record Result(String strategy, double insertsPerSecond) {
+    }
+
+    @Entity
+    @Table(name = "bench_table_row")
+    static class TablePerInsertRow {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.TABLE, generator = "bench_table_row_id")
+        @TableGenerator(name = "bench_table_row_id", table = "bench_hibernate_sequence", allocationSize = 1)
+        Long id;
+
+        String payload = "row";
+    }
+
+    @Entity
+    @Table(name = "bench_identity_row")
+    static class IdentityRow {
+
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        Long id;
+
+        String payload = "row";
+    }
+
+    @Entity
+    @Table(name = "bench_pooled_row")
+    static class PooledRow extends BaseEntity {
+
+        String payload = "row";
+    }
+}